@@ -8,6 +8,9 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.build;
 
+import org.ebayopensource.turmeric.eclipse.build.builder.SOAInterfaceProjectBuilder;
+import org.ebayopensource.turmeric.eclipse.build.builder.SOAInterfaceProjectNature;
+import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.SOABuildScheduler;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
 import org.eclipse.core.runtime.Plugin;
@@ -47,6 +50,9 @@ public class SOAFrameworkBuilderActivator extends Plugin {
 		buf.append("SOAPlugin.start - ");
 		buf.append(JDTUtil.getBundleInfo(context.getBundle(), SOALogger.DEBUG));
 		SOALogger.getLogger().info(buf);
+		SOABuildScheduler.getInstance().registerCodegenTask(
+				SOAInterfaceProjectNature.NATURE_ID,
+				SOAInterfaceProjectBuilder.CODEGEN_TASK);
 	}
 
 	/**
@@ -22,6 +22,7 @@ import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ModelTransformer;
 import org.ebayopensource.turmeric.eclipse.codegen.model.ConsumerCodeGenModel;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants.SupportedProjectType;
@@ -187,9 +188,14 @@ public class SOAClientProjectBuilder extends AbstractSOAProjectBuilder {
 				consumerModel = ModelTransformer
 				.transformToGenTypeConsumer(baseConsumerModel,
 						project);
-				codegenInvoker.execute(consumerModel);
+				codegenInvoker.execute(consumerModel, monitor);
+				addRefreshScope(codegenInvoker.getManifest());
 			} else {
 				logger.warning("No need to re-generate the base consumer for the consumer project->", project.getName());
+				if (project.getLocation() != null) {
+					// nothing written
+					addRefreshScope(new CodegenManifest(project));
+				}
 			}
 		}
 		return BuilderUtil.getRequiredProjects(project,
@@ -234,6 +240,8 @@ public class SOAClientProjectBuilder extends AbstractSOAProjectBuilder {
 									ConfigTool.modifyClientConfigNamespace(
 											newNamespace, clientConfigFile
 											.getLocationURI().toURL());
+									clientConfigFile.refreshLocal(
+											IResource.DEPTH_ZERO, monitor);
 								} else {
 									logger
 									.warning(StringUtil
@@ -248,8 +256,6 @@ public class SOAClientProjectBuilder extends AbstractSOAProjectBuilder {
 					}
 				}
 			}
-
-			project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
 		}
 	}
 
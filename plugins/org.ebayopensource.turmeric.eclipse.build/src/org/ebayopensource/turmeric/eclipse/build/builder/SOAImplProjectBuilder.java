@@ -15,6 +15,7 @@ import org.ebayopensource.turmeric.eclipse.build.SOAFrameworkBuilderActivator;
 import org.ebayopensource.turmeric.eclipse.build.resources.SOAMessages;
 import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.CodegenBuildCache;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ModelTransformer;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
@@ -27,6 +28,7 @@ import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -64,7 +66,7 @@ public class SOAImplProjectBuilder extends AbstractSOAProjectBuilder {
 				return true;
 			}
 		}
-		return BuilderUtil.shouldBuild(delta, project);
+		return super.shouldBuild(delta, project);
 	}
 
 	/**
@@ -101,6 +103,9 @@ public class SOAImplProjectBuilder extends AbstractSOAProjectBuilder {
 						ConfigTool.modifyServiceConfigNamespace(
 								newNamespace, svcConfigFile
 										.getLocationURI().toURL());
+						// written behind the workspace
+						svcConfigFile.refreshLocal(IResource.DEPTH_ZERO,
+								monitor);
 					} else {
 						logger.warning(StringUtil.formatString(
 								SOAMessages.NO_SVC_CONFIG_FOUND,
@@ -117,7 +122,11 @@ public class SOAImplProjectBuilder extends AbstractSOAProjectBuilder {
 		BaseCodeGenModel codeGenModel = ModelTransformer
 				.transformToGenTypeServiceFromWSDLImpl(
 						baseCodeGenModel, project);
-		codegenInvoker.execute(codeGenModel);
+		// skipped if the WSDL, options and class path did not change
+		final CodegenBuildCache cache = CodegenBuildCache.getCache(project,
+				BUILDER_ID);
+		cache.execute(codegenInvoker, codeGenModel, monitor);
+		addRefreshScope(cache.getManifest());
 		return BuilderUtil.getRequiredProjects(project,
 				GlobalRepositorySystem.instanceOf().getActiveRepositorySystem()
 				.getProjectNatureId(SupportedProjectType.INTERFACE));
@@ -131,6 +140,6 @@ public class SOAImplProjectBuilder extends AbstractSOAProjectBuilder {
 	@Override
 	protected void doClean(IProject project, IProgressMonitor monitor)
 			throws Exception {
-		
+		CodegenBuildCache.getCache(project, BUILDER_ID).invalidate();
 	}
 }
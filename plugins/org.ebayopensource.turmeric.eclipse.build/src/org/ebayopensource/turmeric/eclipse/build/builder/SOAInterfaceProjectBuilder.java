@@ -15,10 +15,12 @@ import java.util.Map;
 import org.ebayopensource.turmeric.eclipse.build.SOAFrameworkBuilderActivator;
 import org.ebayopensource.turmeric.eclipse.buildsystem.SynchronizeWsdlAndDepXML;
 import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder;
+import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.SOABuildScheduler;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ActionUtil;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ModelTransformer;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
 import org.ebayopensource.turmeric.eclipse.core.exception.SOAExceptionHandler;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
@@ -50,6 +52,52 @@ public class SOAInterfaceProjectBuilder extends AbstractSOAProjectBuilder {
 			+ ".SOAInterfaceProjectBuilder";
 
 	private static final SOALogger logger = SOALogger.getLogger();
+
+	/**
+	 * Gen Type ServiceFromWSDLIntf, scheduled ahead of the build of this
+	 * project. The type dependencies are synchronized in the build thread
+	 * before the codegen is submitted, since the codegen reads them and the
+	 * synchronization writes to the workspace.
+	 */
+	public static final SOABuildScheduler.ICodegenTask CODEGEN_TASK = new SOABuildScheduler.ICodegenTask() {
+		public void prepare(IProject project, IProgressMonitor monitor)
+				throws Exception {
+			synchronizeTypeDependencies(project, monitor);
+		}
+
+		public CodegenManifest generate(IProject project,
+				IProgressMonitor monitor) throws Exception {
+			return generateCode(project, monitor);
+		}
+	};
+
+	private static void synchronizeTypeDependencies(IProject project,
+			IProgressMonitor monitor) {
+		try {
+			SynchronizeWsdlAndDepXML synch = new SynchronizeWsdlAndDepXML(project);
+			synch.syncronizeWsdlandDepXml();
+			synch.synchronizeTypeDepandProjectDep(monitor);
+			//TypeLibSynhcronizer.syncronizeWsdlandDepXml(project);
+			//TypeLibSynhcronizer.synchronizeTypeDepandProjectDep(project,
+			//		monitor);
+		} catch (Exception e) {
+			SOAExceptionHandler.silentHandleException(e);
+			// Silently ignore. This is just an attempt
+		}
+	}
+
+	private static CodegenManifest generateCode(IProject project,
+			IProgressMonitor monitor) throws Exception {
+		CodegenInvoker codegenInvoker = CodegenInvoker.init(project);
+		BaseCodeGenModel baseCodeGenModel = BuilderUtil
+		.buildBaseCodeGenModel(project, monitor);
+
+		BaseCodeGenModel codeGenModel = ModelTransformer
+		.transformToGenTypeServiceFromWSDLIntf(
+				baseCodeGenModel, project);
+		codegenInvoker.execute(codeGenModel, monitor);
+		return codegenInvoker.getManifest();
+	}
 	
 	/* (non-Javadoc)
 	 * @see org.ebayopensource.turmeric.eclipse.build.builder.AbstractSOAProjectBuilder#shouldBuild(org.eclipse.core.resources.IResourceDelta, org.eclipse.core.resources.IProject)
@@ -68,18 +116,10 @@ public class SOAInterfaceProjectBuilder extends AbstractSOAProjectBuilder {
 	@Override
 	protected IProject[] doBuild(int kind, Map args, IProject project,
 			IResourceDelta delta, IProgressMonitor monitor) throws Exception {
-		if (kind == CLEAN_BUILD || kind == FULL_BUILD) {
-			try {
-				SynchronizeWsdlAndDepXML synch = new SynchronizeWsdlAndDepXML(project);
- 				synch.syncronizeWsdlandDepXml();
-				synch.synchronizeTypeDepandProjectDep(monitor);
-				//TypeLibSynhcronizer.syncronizeWsdlandDepXml(project);
-				//TypeLibSynhcronizer.synchronizeTypeDepandProjectDep(project,
-				//		monitor);
-			} catch (Exception e) {
-				SOAExceptionHandler.silentHandleException(e);
-				// Silently ignore. This is just an attempt
-			}
+		if ((kind == CLEAN_BUILD || kind == FULL_BUILD)
+				&& isCodegenScheduled() == false) {
+			// the scheduler synchronizes before submitting the codegen
+			synchronizeTypeDependencies(project, monitor);
 		}
 
 		// validate service WSDL when WSDL file is modified.
@@ -106,14 +146,9 @@ public class SOAInterfaceProjectBuilder extends AbstractSOAProjectBuilder {
 			logger.warning("The service_metadata.properties file is missing, re-genreate it");
 		}
 
-		CodegenInvoker codegenInvoker = CodegenInvoker.init(project);
-		BaseCodeGenModel baseCodeGenModel = BuilderUtil
-		.buildBaseCodeGenModel(project, monitor);
-
-		BaseCodeGenModel codeGenModel = ModelTransformer
-		.transformToGenTypeServiceFromWSDLIntf(
-				baseCodeGenModel, project);
-		codegenInvoker.execute(codeGenModel);		
+		if (awaitScheduledCodegen(project, monitor) == false) {
+			addRefreshScope(generateCode(project, monitor));
+		}
 		return null;
 	}
 
@@ -8,8 +8,11 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.buildsystem;
 
+import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.SOABuildScheduler;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
@@ -46,6 +49,9 @@ public class BuildSystemActivator extends Plugin {
     	buf.append("BuildSystemActivator.start - ");
     	buf.append(JDTUtil.getBundleInfo(context.getBundle(), SOALogger.DEBUG));
         SOALogger.getLogger().info(buf);
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(
+        		SOABuildScheduler.getInstance(),
+        		IResourceChangeEvent.PRE_BUILD | IResourceChangeEvent.POST_BUILD);
 	}
 
 	/**
@@ -55,6 +61,9 @@ public class BuildSystemActivator extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(
+				SOABuildScheduler.getInstance());
+		SOABuildScheduler.getInstance().shutdown();
 		plugin = null;
 		super.stop(context);
 	}
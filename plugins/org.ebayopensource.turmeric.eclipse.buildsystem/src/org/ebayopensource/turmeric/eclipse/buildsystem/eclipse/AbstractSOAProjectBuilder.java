@@ -12,12 +12,17 @@ import java.util.Map;
 
 import org.ebayopensource.turmeric.eclipse.buildsystem.resources.SOAMessages;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ActionUtil;
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuildResourceDeltaVisitor;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.exception.resources.SOAActionExecutionFailedException;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.utils.GlobalProjectHealthChecker;
 import org.ebayopensource.turmeric.eclipse.resources.util.MarkerUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
 import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -36,6 +41,16 @@ public abstract class AbstractSOAProjectBuilder extends
 		IncrementalProjectBuilder {
 	private static final SOALogger logger = SOALogger.getLogger();
 
+	/**
+	 * What the current build has written, null if it is not known and the
+	 * whole project has to be refreshed.
+	 */
+	private CodegenManifest refreshScope;
+
+	private boolean unknownRefreshScope;
+
+	private boolean codegenScheduled;
+
 	/**
 	 * Instantiates a new abstract soa project builder.
 	 */
@@ -51,10 +66,17 @@ public abstract class AbstractSOAProjectBuilder extends
 			throws CoreException {
 		final IProject project = getProject();
 		long time = System.currentTimeMillis();
+		final long buildStart = BuildMetrics.start();
+		refreshScope = null;
+		unknownRefreshScope = false;
+		codegenScheduled = SOABuildScheduler.getInstance().beginBuild(
+				project, kind, monitor);
 		/**
 		 * even using meunu project->clean, the build kind is still full build.
+		 * The scheduler has already cleaned the project if its codegen has
+		 * been submitted.
 		 */
-		if (kind == CLEAN_BUILD || kind == FULL_BUILD) {
+		if ((kind == CLEAN_BUILD || kind == FULL_BUILD) && !codegenScheduled) {
 			try {
 				ActionUtil.cleanProject(project, monitor);
 			} catch (Exception e) {
@@ -64,13 +86,21 @@ public abstract class AbstractSOAProjectBuilder extends
 				WorkspaceUtil.refresh(monitor, project);
 			}
 		}
+		// the files written behind the workspace are refreshed at once
+		WorkspaceBatch.begin();
 		try {
 			final IResourceDelta delta = getDelta(project);
 			if (shouldBuild(delta, project)) {
+				long start = BuildMetrics.start();
 				MarkerUtil.cleanSOAProblemMarkers(project);
+				BuildMetrics.stop(BuildMetrics.BUILD_MARKERS, project.getName(),
+						start);
 				final IStatus status = checkProjectHealth(project);
 				if (status.isOK() == false) {
+					start = BuildMetrics.start();
 					MarkerUtil.createSOAProblemMarkerRecursive(status, project);
+					BuildMetrics.stop(BuildMetrics.BUILD_MARKERS, project
+							.getName(), start);
 				}
 				BuilderUtil.generateSourceDirectories(project, monitor);
 				return doBuild(kind, args, project, delta, monitor);
@@ -84,9 +114,23 @@ public abstract class AbstractSOAProjectBuilder extends
 			logger.error(SOAMessages.SERVICE_CODEGEN_SKIPPED_MESSAGE + ":"
 					+ e.getMessage());
 			logger.error(e);
+			final long start = BuildMetrics.start();
 			MarkerUtil.createSOAProblemMarker(e, project);
+			BuildMetrics.stop(BuildMetrics.BUILD_MARKERS, project.getName(),
+					start);
+			// whatever has been written before the failure is unknown
+			addRefreshScope(null);
 		} finally {
-			project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+			final long refreshStart = BuildMetrics.start();
+			try {
+				refreshBuildOutput(project, monitor);
+			} finally {
+				WorkspaceBatch.end(monitor);
+				BuildMetrics.stop(BuildMetrics.BUILD_REFRESH,
+						project.getName(), refreshStart);
+				BuildMetrics.stop(BuildMetrics.BUILD, project.getName(),
+						buildStart);
+			}
 			if (SOALogger.DEBUG) {
 				long duration = System.currentTimeMillis() - time;
 				String msg = StringUtil.formatString(
@@ -112,6 +156,85 @@ public abstract class AbstractSOAProjectBuilder extends
 	protected abstract IProject[] doBuild(int kind, Map args, IProject project,
 			IResourceDelta delta, IProgressMonitor monitor) throws Exception;
 
+	/**
+	 * Reports the files and folders written while building, so only those
+	 * are refreshed at the end of the build. A build which reports nothing,
+	 * or an unknown manifest, refreshes the whole project. A build which
+	 * reports a manifest must report every file it writes without the
+	 * workspace API.
+	 *
+	 * @param manifest the written files and folders, null if they are not
+	 * known
+	 */
+	protected void addRefreshScope(CodegenManifest manifest) {
+		if (manifest == null) {
+			// one unknown output means a full refresh
+			unknownRefreshScope = true;
+		} else if (unknownRefreshScope == false) {
+			if (refreshScope == null) {
+				refreshScope = new CodegenManifest(manifest.getProject());
+			}
+			refreshScope.addAll(manifest);
+		}
+	}
+
+	/**
+	 * Refreshes what the build has reported with
+	 * {@link #addRefreshScope(CodegenManifest)}, or the whole project if the
+	 * build has reported nothing or an unknown manifest, and forgets the
+	 * reported scope.
+	 *
+	 * @param project the project being built
+	 * @param monitor the monitor
+	 * @throws CoreException the core exception
+	 */
+	protected void refreshBuildOutput(IProject project, IProgressMonitor monitor)
+			throws CoreException {
+		try {
+			if (refreshScope != null && unknownRefreshScope == false) {
+				refreshScope.refresh(monitor);
+			} else {
+				project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+			}
+		} finally {
+			refreshScope = null;
+			unknownRefreshScope = false;
+		}
+	}
+
+	/**
+	 * Checks whether the {@link SOABuildScheduler} has submitted the codegen
+	 * of the project being built, after having run the
+	 * {@link SOABuildScheduler.ICodegenTask#prepare(IProject, IProgressMonitor)}
+	 * step of its task.
+	 *
+	 * @return true if the codegen of the project has been submitted
+	 */
+	protected boolean isCodegenScheduled() {
+		return codegenScheduled;
+	}
+
+	/**
+	 * Waits for the codegen scheduled by the {@link SOABuildScheduler} for the
+	 * given project. The files written by the scheduled codegen are added to
+	 * the refresh scope.
+	 *
+	 * @param project the project
+	 * @param monitor the monitor
+	 * @return true if the code has already been generated, false if the
+	 * builder has to generate the code itself
+	 * @throws Exception the exception thrown by the scheduled codegen
+	 */
+	protected boolean awaitScheduledCodegen(IProject project,
+			IProgressMonitor monitor) throws Exception {
+		final SOABuildScheduler scheduler = SOABuildScheduler.getInstance();
+		if (scheduler.awaitCodegen(project, monitor) == false) {
+			return false;
+		}
+		addRefreshScope(scheduler.getCodegenManifest(project));
+		return true;
+	}
+
 	/**
 	 * Should build.
 	 *
@@ -122,7 +245,17 @@ public abstract class AbstractSOAProjectBuilder extends
 	 */
 	protected boolean shouldBuild(IResourceDelta delta, IProject project)
 			throws Exception {
-		return BuilderUtil.shouldBuild(delta, project);
+		return BuilderUtil.shouldBuild(delta, project, getBuildTrigger());
+	}
+
+	/**
+	 * Gets the inputs of the builder, a change to any of them triggers a
+	 * build. Defaults to the WSDLs of the project.
+	 *
+	 * @return the inputs of the builder
+	 */
+	protected PathPatternSet getBuildTrigger() {
+		return BuildResourceDeltaVisitor.DEFAULT_TRIGGER;
 	}
 
 	/**
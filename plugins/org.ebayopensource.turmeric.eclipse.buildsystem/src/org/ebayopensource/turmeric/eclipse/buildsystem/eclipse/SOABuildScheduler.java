@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.buildsystem.eclipse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.ActionUtil;
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.PrescheduledTasks;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Schedules the code generation of SOA projects ahead of their builders during
+ * a full or clean build of the whole workspace.
+ *
+ * <p>
+ * Eclipse calls the project builders one after the other in the build thread,
+ * in the build order of the workspace. When a workspace wide full build
+ * starts, this scheduler schedules the registered codegen tasks of all the
+ * other SOA projects on a pool bounded by the number of processors, so
+ * independent services are generated in parallel while the build thread is
+ * still busy with other projects. A project counts as built once the build
+ * thread has started a project which comes after it in the build order, the
+ * task of a project is only submitted once all the workspace projects it
+ * requires are built.
+ * </p>
+ *
+ * <p>
+ * Right before a task is submitted, the build thread cleans the generated
+ * folders of its project through the resources API and runs the
+ * {@link ICodegenTask#prepare(IProject, IProgressMonitor)} step of the task,
+ * so the task itself does not touch the workspace. When the builder of a
+ * project starts, it claims the task of its project. A task which has not
+ * been submitted yet is cancelled and the builder cleans and generates the
+ * code inline as before, otherwise the builder waits for the task to finish.
+ * </p>
+ */
+public final class SOABuildScheduler implements IResourceChangeListener {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final SOABuildScheduler INSTANCE = new SOABuildScheduler();
+
+	/**
+	 * A codegen step which can be run outside of the build thread.
+	 */
+	public static interface ICodegenTask {
+
+		/**
+		 * Prepares the codegen of the given project in the build thread,
+		 * right before the codegen is submitted. Whatever modifies the
+		 * workspace through the resources API has to be done here.
+		 *
+		 * @param project the project
+		 * @param monitor the monitor
+		 * @throws Exception the exception
+		 */
+		public void prepare(IProject project, IProgressMonitor monitor)
+				throws Exception;
+
+		/**
+		 * Generates the code of the given project outside of the build
+		 * thread. It must not modify the workspace through the resources API.
+		 *
+		 * @param project the project
+		 * @param monitor the monitor
+		 * @return the files written by the codegen, which the builder
+		 * refreshes. Null if they are not known, the builder then refreshes
+		 * the whole project.
+		 * @throws Exception the exception
+		 */
+		public CodegenManifest generate(IProject project,
+				IProgressMonitor monitor) throws Exception;
+	}
+
+	private final Map<String, ICodegenTask> codegenTasks = new ConcurrentHashMap<String, ICodegenTask>();
+
+	private final Set<String> scheduledNatures = new HashSet<String>();
+
+	/** The tasks of the running workspace build, null if none. */
+	private PrescheduledTasks<IProject> tasks = null;
+
+	/** The scheduled codegens of the running workspace build. */
+	private final Map<IProject, ScheduledCodegen> codegens = new HashMap<IProject, ScheduledCodegen>();
+
+	private List<IProject> buildOrder = null;
+
+	private int builtCount = 0;
+
+	private ExecutorService executor = null;
+
+	private SOABuildScheduler() {
+		super();
+	}
+
+	/**
+	 * Gets the shared scheduler.
+	 *
+	 * @return the shared instance
+	 */
+	public static SOABuildScheduler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers the codegen task for projects of the given nature.
+	 *
+	 * @param natureId the nature id
+	 * @param task the task
+	 */
+	public void registerCodegenTask(String natureId, ICodegenTask task) {
+		codegenTasks.put(natureId, task);
+	}
+
+	/**
+	 * Gets the codegen task registered for the given nature.
+	 *
+	 * @param natureId the nature id
+	 * @return the codegen task or null if none registered
+	 */
+	public ICodegenTask getCodegenTask(String natureId) {
+		return codegenTasks.get(natureId);
+	}
+
+	/**
+	 * Starts or stops the scheduling according to the workspace build events.
+	 *
+	 * {@inheritDoc}
+	 */
+	public void resourceChanged(IResourceChangeEvent event) {
+		if (event.getType() == IResourceChangeEvent.PRE_BUILD) {
+			final int kind = event.getBuildKind();
+			synchronized (this) {
+				reset();
+				if (event.getSource() instanceof IWorkspace
+						&& (kind == IncrementalProjectBuilder.FULL_BUILD || kind == IncrementalProjectBuilder.CLEAN_BUILD)) {
+					tasks = new PrescheduledTasks<IProject>(getExecutor());
+					buildOrder = getBuildOrder((IWorkspace) event.getSource());
+				}
+			}
+		} else if (event.getType() == IResourceChangeEvent.POST_BUILD) {
+			synchronized (this) {
+				reset();
+			}
+		}
+	}
+
+	/**
+	 * Called by the builder before it starts building the given project.
+	 * Claims the codegen task of the given project, and schedules the codegen
+	 * of the other projects if a workspace wide full build is running.
+	 *
+	 * @param project the project being built
+	 * @param kind the build kind
+	 * @param monitor the monitor
+	 * @return true if the codegen of the project has already been submitted,
+	 * in which case its generated folders have already been cleaned and
+	 * {@link ICodegenTask#prepare(IProject, IProgressMonitor)} has already
+	 * been run. The builder must not clean the generated folders and has to
+	 * call {@link #awaitCodegen(IProject, IProgressMonitor)} instead of
+	 * generating the code itself.
+	 */
+	public synchronized boolean beginBuild(IProject project, int kind,
+			IProgressMonitor monitor) {
+		if (tasks == null) {
+			return false;
+		}
+		final int index = buildOrder.indexOf(project);
+		for (; builtCount < index; builtCount++) {
+			// Eclipse has finished all the builders of these projects
+			tasks.finished(buildOrder.get(builtCount));
+		}
+		final boolean claimed = tasks.claim(project);
+		if (kind == IncrementalProjectBuilder.FULL_BUILD
+				|| kind == IncrementalProjectBuilder.CLEAN_BUILD) {
+			scheduleProjects(project);
+		}
+		tasks.submitReady(monitor);
+		return claimed;
+	}
+
+	/**
+	 * Waits for the scheduled codegen of the given project.
+	 *
+	 * @param project the project
+	 * @param monitor the monitor
+	 * @return true if the code has been generated by the scheduler, false if
+	 * the builder has to generate the code itself. The files written are
+	 * then returned by {@link #getCodegenManifest(IProject)}.
+	 * @throws Exception the exception thrown by the codegen task
+	 */
+	public boolean awaitCodegen(IProject project, IProgressMonitor monitor)
+			throws Exception {
+		final PrescheduledTasks<IProject> current;
+		synchronized (this) {
+			current = tasks;
+		}
+		return current != null && current.await(project, monitor);
+	}
+
+	/**
+	 * Gets the files written by the scheduled codegen of the given project,
+	 * once {@link #awaitCodegen(IProject, IProgressMonitor)} has returned
+	 * true.
+	 *
+	 * @param project the project
+	 * @return the manifest of the codegen, null if the written files are not
+	 * known
+	 */
+	public synchronized CodegenManifest getCodegenManifest(IProject project) {
+		final ScheduledCodegen codegen = codegens.remove(project);
+		return codegen != null ? codegen.manifest : null;
+	}
+
+	/**
+	 * Stops the scheduler, the pending tasks are cancelled.
+	 */
+	public synchronized void shutdown() {
+		reset();
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private void reset() {
+		if (tasks != null) {
+			tasks.cancel();
+			tasks = null;
+		}
+		buildOrder = null;
+		builtCount = 0;
+		scheduledNatures.clear();
+		codegens.clear();
+	}
+
+	/**
+	 * Gets the order in which Eclipse builds the projects: the build order of
+	 * the workspace description if any, followed by the other projects sorted
+	 * by their references.
+	 */
+	private static List<IProject> getBuildOrder(IWorkspace workspace) {
+		final Set<IProject> order = new LinkedHashSet<IProject>();
+		final String[] names = workspace.getDescription().getBuildOrder();
+		if (names != null) {
+			for (String name : names) {
+				final IProject project = workspace.getRoot().getProject(name);
+				if (project.isAccessible()) {
+					order.add(project);
+				}
+			}
+		}
+		order.addAll(Arrays.asList(workspace.computeProjectOrder(workspace
+				.getRoot().getProjects()).projects));
+		return new ArrayList<IProject>(order);
+	}
+
+	private void scheduleProjects(IProject currentProject) {
+		for (Map.Entry<String, ICodegenTask> entry : codegenTasks.entrySet()) {
+			final String natureId = entry.getKey();
+			if (scheduledNatures.add(natureId) == false) {
+				continue;
+			}
+			for (IProject project : WorkspaceUtil.getWorkspaceRoot()
+					.getProjects()) {
+				try {
+					if (project.equals(currentProject)
+							|| tasks.isFinished(project)
+							|| tasks.isScheduled(project)
+							|| project.isAccessible() == false
+							|| project.hasNature(natureId) == false) {
+						continue;
+					}
+				} catch (CoreException e) {
+					logger.warning(e);
+					continue;
+				}
+				final Set<IProject> dependencies = new HashSet<IProject>();
+				for (IProject reqProject : BuilderUtil.getRequiredProjects(
+						project, (String[]) null)) {
+					if (reqProject.isAccessible()) {
+						dependencies.add(reqProject);
+					}
+				}
+				final ScheduledCodegen codegen = new ScheduledCodegen(entry
+						.getValue());
+				codegens.put(project, codegen);
+				tasks.schedule(project, codegen, dependencies);
+			}
+		}
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			final int poolSize = Math.max(1, Runtime.getRuntime()
+					.availableProcessors());
+			executor = Executors.newFixedThreadPool(poolSize,
+					new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						public Thread newThread(Runnable r) {
+							final Thread thread = new Thread(r,
+									"SOA Codegen Worker-"
+											+ count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return executor;
+	}
+
+	private static class ScheduledCodegen implements
+			PrescheduledTasks.ITask<IProject> {
+		private final ICodegenTask task;
+		private volatile CodegenManifest manifest;
+
+		ScheduledCodegen(ICodegenTask task) {
+			this.task = task;
+		}
+
+		public void prepare(IProject project, IProgressMonitor monitor)
+				throws Exception {
+			// the builder does not clean a project whose codegen has been
+			// submitted
+			ActionUtil.deleteGeneratedResources(project, monitor);
+			task.prepare(project, monitor);
+		}
+
+		public void run(IProject project) throws Exception {
+			final long time = System.currentTimeMillis();
+			try {
+				manifest = task.generate(project, new NullProgressMonitor());
+			} finally {
+				if (SOALogger.DEBUG) {
+					logger.debug("Scheduled codegen for ", project.getName(),
+							" finished in ", System.currentTimeMillis() - time,
+							"ms");
+				}
+			}
+		}
+	}
+}
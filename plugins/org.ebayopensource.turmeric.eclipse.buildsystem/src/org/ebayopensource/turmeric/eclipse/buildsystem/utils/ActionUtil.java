@@ -598,6 +598,58 @@ public class ActionUtil {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Gets the folders which are cleaned before a full build of the given
+	 * project. Everything in these folders is generated.
+	 *
+	 * @param project the project
+	 * @return the generated folders
+	 */
+	public static Collection<IFolder> getGeneratedFolders(IProject project) {
+		final Collection<IFolder> resources = new HashSet<IFolder>();
+		resources.add(project
+				.getFolder(SOAProjectConstants.FOLDER_GEN_META_SRC));
+		resources.add(project
+				.getFolder(SOAProjectConstants.FOLDER_GEN_TEST));
+		IFolder genClient = project
+				.getFolder(SOAProjectConstants.FOLDER_GEN_SRC_CLIENT);
+		IFolder genService = project
+				.getFolder(SOAProjectConstants.FOLDER_GEN_SRC_SERVICE);
+		if (genClient.isAccessible() == false
+				&& genService.isAccessible() == false) {
+			resources.add(project
+					.getFolder(SOAProjectConstants.FOLDER_GEN_SRC));
+
+		}
+		resources.add(genClient);
+		resources.add(genService);
+		resources.add(project
+				.getFolder(SOAProjectConstants.FOLDER_GEN_WEB_CONTENT));
+		return resources;
+	}
+
+	/**
+	 * Deletes the content of the generated folders of the given project
+	 * through the resources API. Unlike
+	 * {@link #cleanProject(IProject, IProgressMonitor)}, it does not trigger
+	 * a clean build of the project.
+	 *
+	 * @param project the project
+	 * @param monitor the monitor
+	 * @throws CoreException the core exception
+	 */
+	public static void deleteGeneratedResources(IProject project,
+			IProgressMonitor monitor) throws CoreException {
+		for (final IFolder folder : getGeneratedFolders(project)) {
+			if (folder.isAccessible()) {
+				folder.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+				for (final IResource member : folder.members()) {
+					member.delete(true, monitor);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Clean project.
 	 *
@@ -610,25 +662,7 @@ public class ActionUtil {
 			IProgressMonitor monitor) throws CoreException {
 
 		try {
-			final Collection<IFolder> resources = new HashSet<IFolder>();
-			resources.add(project
-					.getFolder(SOAProjectConstants.FOLDER_GEN_META_SRC));
-			resources.add(project
-					.getFolder(SOAProjectConstants.FOLDER_GEN_TEST));
-			IFolder genClient = project
-					.getFolder(SOAProjectConstants.FOLDER_GEN_SRC_CLIENT);
-			IFolder genService = project
-					.getFolder(SOAProjectConstants.FOLDER_GEN_SRC_SERVICE);
-			if (genClient.isAccessible() == false
-					&& genService.isAccessible() == false) {
-				resources.add(project
-						.getFolder(SOAProjectConstants.FOLDER_GEN_SRC));
-
-			}
-			resources.add(genClient);
-			resources.add(genService);
-			resources.add(project
-					.getFolder(SOAProjectConstants.FOLDER_GEN_WEB_CONTENT));
+			final Collection<IFolder> resources = getGeneratedFolders(project);
 			logger.info("Start to clean project " + project.getName() + "...");
 			for (final IResource resource : resources) {
 				if (resource.isAccessible()) {
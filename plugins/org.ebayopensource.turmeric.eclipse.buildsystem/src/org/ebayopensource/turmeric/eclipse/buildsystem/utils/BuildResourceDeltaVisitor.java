@@ -8,14 +8,18 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.buildsystem.utils;
 
-import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
-import org.apache.commons.lang.StringUtils;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 
@@ -26,26 +30,54 @@ import org.eclipse.jdt.core.JavaCore;
  * and sets the build required to true is there are some interesting changes in
  * the delta fed.
  * 
+ * <p>
+ * The interesting files are the inputs declared by the builder as a
+ * {@link PathPatternSet}. The folders which can not hold any input are not
+ * visited, neither are the output folders of JDT, the generated folders and
+ * the derived folders, so the files written by the build never trigger
+ * another build.
+ * </p>
+ * 
  * @author smathew
  */
 public class BuildResourceDeltaVisitor implements IResourceDeltaVisitor {
-	private IJavaProject javaProject;
+	/**
+	 * The inputs of the builders which do not declare theirs, the WSDLs.
+	 */
+	public static final PathPatternSet DEFAULT_TRIGGER = new PathPatternSet(
+			new String[] { "" }, "**/*" + SOAProjectConstants.WSDL_EXT);
+
+	private final PathPatternSet trigger;
+	private final Set<IPath> outputLocations;
 	private boolean buildRequired = false;
-	private ArrayList<String> criteriaList = new ArrayList<String>();
-	private String DEFAULT_CRITERIA = SOAProjectConstants.WSDL_EXT;
+	private IResource cause;
 
 	/**
 	 * This visitor takes the project and the criteria String eg
 	 * SOAProjectConstants.WSDL_EXT.
 	 *
 	 * @param project the project
-	 * @param criteriaStrs the criteria strs
+	 * @param criteriaStrs the file extensions triggering a build, anywhere in
+	 * the project
+	 * @throws CoreException the core exception
 	 */
-	public BuildResourceDeltaVisitor(IProject project, String... criteriaStrs) {
-		javaProject = JavaCore.create(project);
-		for (String str : criteriaStrs) {
-			criteriaList.add(str);
-		}
+	public BuildResourceDeltaVisitor(IProject project, String... criteriaStrs)
+			throws CoreException {
+		this(project, toTrigger(criteriaStrs));
+	}
+
+	/**
+	 * This visitor takes the project and the inputs of the builder.
+	 *
+	 * @param project the project
+	 * @param trigger the files triggering a build
+	 * @throws CoreException the core exception
+	 */
+	public BuildResourceDeltaVisitor(IProject project, PathPatternSet trigger)
+			throws CoreException {
+		this.trigger = trigger;
+		// once per build instead of once per delta
+		this.outputLocations = getOutputLocations(project);
 	}
 
 	/**
@@ -60,31 +92,31 @@ public class BuildResourceDeltaVisitor implements IResourceDeltaVisitor {
 	 */
 	@Override
 	public boolean visit(IResourceDelta delta) throws CoreException {
-		// we dont want to go inside the output location.
-		// This is JDTs business
-		if (StringUtils.containsIgnoreCase(delta.getFullPath().toString(),
-				javaProject.getOutputLocation().toString())) {
+		if (buildRequired) {
 			return false;
 		}
-		// this is the only place where SOA Algorithm gives green signal for a
-		// build
-		// use default string here
-		if (criteriaList.size() == 0) {
-			if (StringUtils.containsIgnoreCase(delta.getFullPath().toString(),
-					DEFAULT_CRITERIA)) {
+		final IResource resource = delta.getResource();
+		switch (resource.getType()) {
+		case IResource.FILE:
+			// this is the only place where SOA Algorithm gives green signal
+			// for a build
+			if (trigger.matches(delta.getProjectRelativePath().toString())) {
+				cause = resource;
 				setBuildRequired(true);
-				return false;
 			}
-		} else {// use the provided string here
-			for (String criteria : criteriaList) {
-				if (StringUtils.containsIgnoreCase(delta.getFullPath()
-						.toString(), criteria)) {
-					setBuildRequired(true);
-					return false;
-				}
+			return false;
+		case IResource.FOLDER:
+			// we dont want to go inside the output location.
+			// This is JDTs business
+			if (outputLocations.contains(resource.getFullPath())
+					|| isGenerated(resource)) {
+				return false;
 			}
+			return trigger.isTraversable(delta.getProjectRelativePath()
+					.toString());
+		default:
+			return true;
 		}
-		return true;
 	}
 
 	/**
@@ -104,4 +136,50 @@ public class BuildResourceDeltaVisitor implements IResourceDeltaVisitor {
 	public void setBuildRequired(boolean isBuildRequired) {
 		this.buildRequired = isBuildRequired;
 	}
+
+	/**
+	 * Gets the input which caused the build.
+	 *
+	 * @return the changed input, null if no build is required
+	 */
+	public IResource getCause() {
+		return cause;
+	}
+
+	private static PathPatternSet toTrigger(String... criteriaStrs) {
+		if (criteriaStrs.length == 0) {
+			return DEFAULT_TRIGGER;
+		}
+		final String[] patterns = new String[criteriaStrs.length];
+		for (int i = 0; i < criteriaStrs.length; i++) {
+			patterns[i] = "**/*" + criteriaStrs[i];
+		}
+		return new PathPatternSet(new String[] { "" }, patterns);
+	}
+
+	private static boolean isGenerated(IResource folder) {
+		return folder.isDerived()
+				|| folder.isTeamPrivateMember()
+				|| (folder.getParent().getType() == IResource.PROJECT && folder
+						.getName().startsWith(
+								SOAProjectConstants.FOLDER_GEN_PREFIX));
+	}
+
+	private static Set<IPath> getOutputLocations(IProject project)
+			throws CoreException {
+		final Set<IPath> result = new HashSet<IPath>();
+		if (project.isAccessible() == false
+				|| project.hasNature(JavaCore.NATURE_ID) == false) {
+			return result;
+		}
+		final IJavaProject javaProject = JavaCore.create(project);
+		result.add(javaProject.getOutputLocation());
+		for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE
+					&& entry.getOutputLocation() != null) {
+				result.add(entry.getOutputLocation());
+			}
+		}
+		return result;
+	}
 }
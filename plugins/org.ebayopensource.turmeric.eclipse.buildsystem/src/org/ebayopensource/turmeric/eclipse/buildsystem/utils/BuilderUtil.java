@@ -13,8 +13,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import javax.wsdl.Definition;
-
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.ebayopensource.turmeric.eclipse.buildsystem.resources.SOAMessages;
@@ -22,6 +20,7 @@ import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
 import org.ebayopensource.turmeric.eclipse.exception.core.SOANullParameterException;
 import org.ebayopensource.turmeric.eclipse.exception.resources.SOAResourceNotAccessibleException;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.model.BaseCodeGenModel;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.utils.TurmericServiceUtils;
 import org.ebayopensource.turmeric.eclipse.resources.model.ISOAConsumerProject.SOAClientConfig;
@@ -29,11 +28,12 @@ import org.ebayopensource.turmeric.eclipse.resources.model.SOAImplMetadata;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAConsumerUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAImplUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAServiceUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
 import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.ProgressUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
-import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLUtil;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLMetadataSniffer;
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -44,9 +44,6 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.JavaCore;
 
 
 /**
@@ -59,6 +56,7 @@ import org.eclipse.jdt.core.JavaCore;
  * 
  */
 public class BuilderUtil {
+	private static final SOALogger logger = SOALogger.getLogger();
 
 	/**
 	 * Foundation Code generation Model for builders. This is the base code
@@ -142,13 +140,13 @@ public class BuilderUtil {
 				serviceName);
 		if (isWSDLFileChanged(delta, wsdlFile.getFullPath()) == false)
 			return null;
-		final Definition wsdl = WSDLUtil.readWSDL(wsdlFile.getLocation()
-				.toString());
+		final String targetNamespace = WSDLMetadataSniffer
+				.getTargetNamespace(wsdlFile.getLocation().toString());
 		final SOAImplMetadata metadata = SOAImplUtil.loadServiceConfig(
 				implProject, serviceName);
-		if (!StringUtils.equals(wsdl.getTargetNamespace(), metadata
+		if (!StringUtils.equals(targetNamespace, metadata
 				.getTargetNamespace())) {
-			return wsdl.getTargetNamespace();
+			return targetNamespace;
 		}
 		return null;
 	}
@@ -172,8 +170,8 @@ public class BuilderUtil {
 				serviceName);
 		if (wsdlFile.isAccessible() == false)
 			return null;
-		final Definition wsdl = WSDLUtil.readWSDL(wsdlFile.getLocation()
-				.toString());
+		final String targetNamespace = WSDLMetadataSniffer
+				.getTargetNamespace(wsdlFile.getLocation().toString());
 		String envName = null; 
 		if (SOAConsumerUtil.isOldClientConfigDirStructure(consumerProject) == false) {
 			List<String> envs = SOAConsumerUtil.getClientEnvironmentList(consumerProject, null);
@@ -185,9 +183,9 @@ public class BuilderUtil {
 				consumerProject, envName, serviceName);
 		if (clientConfig == null)
 			return null;
-		if (!StringUtils.equals(wsdl.getTargetNamespace(), clientConfig
+		if (!StringUtils.equals(targetNamespace, clientConfig
 				.getTargetNamespace())) {
-			return wsdl.getTargetNamespace();
+			return targetNamespace;
 		}
 		return null;
 	}
@@ -211,9 +209,38 @@ public class BuilderUtil {
 		// first time the delta is null
 		if (delta == null)
 			return true;
-		BuildResourceDeltaVisitor buildDeltaVisitor = new BuildResourceDeltaVisitor(
-				project, criteriaString);
+		return shouldBuild(delta, new BuildResourceDeltaVisitor(project,
+				criteriaString));
+	}
+
+	/**
+	 * Same as {@link #shouldBuild(IResourceDelta, IProject, String...)} but
+	 * only the given inputs of the builder are looked at, everything else in
+	 * the delta is skipped.
+	 *
+	 * @param delta the delta
+	 * @param project the project
+	 * @param trigger the files which need a build once changed
+	 * @return true, if successful
+	 * @throws Exception the exception
+	 */
+	public static boolean shouldBuild(IResourceDelta delta, IProject project,
+			PathPatternSet trigger) throws Exception {
+		// first time the delta is null
+		if (delta == null)
+			return true;
+		return shouldBuild(delta, new BuildResourceDeltaVisitor(project,
+				trigger));
+	}
+
+	private static boolean shouldBuild(IResourceDelta delta,
+			BuildResourceDeltaVisitor buildDeltaVisitor) throws CoreException {
 		delta.accept(buildDeltaVisitor);
+		if (SOALogger.DEBUG && buildDeltaVisitor.isBuildRequired()) {
+			logger.debug("Build of ", delta.getResource().getName(),
+					" triggered by ", buildDeltaVisitor.getCause()
+							.getFullPath());
+		}
 		return buildDeltaVisitor.isBuildRequired();
 	}
 
@@ -271,7 +298,8 @@ public class BuilderUtil {
 
 	/**
 	 * Returns the required project for any given project. Scans the build bath
-	 * and finds all the project references and returns it back.
+	 * and finds all the project references and returns it back. The build path
+	 * and the natures are looked up in the {@link SOAProjectIndex}.
 	 *
 	 * @param project the project
 	 * @param natureIds the nature ids
@@ -279,28 +307,14 @@ public class BuilderUtil {
 	 */
 	public static IProject[] getRequiredProjects(IProject project,
 			String... natureIds) {
-		IJavaProject javaProject = JavaCore.create(project);
-		if (javaProject == null)
-			return new IProject[0];
+		final SOAProjectIndex projectIndex = SOAProjectIndex.getInstance();
 		ArrayList<IProject> projects = new ArrayList<IProject>();
 		try {
-			for (final IClasspathEntry entry : javaProject
-					.getResolvedClasspath(true)) {
-				if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
-					IProject reqProject = WorkspaceUtil.getProject(entry
-							.getPath());
-					if (reqProject != null && !projects.contains(reqProject)) {
-						if (natureIds != null) {
-							for (String natureId : natureIds) {
-								if (reqProject.hasNature(natureId)) {
-									projects.add(reqProject);
-									break;
-								}
-							}
-						} else {
-							projects.add(reqProject);
-						}
-					}
+			for (final IProject reqProject : projectIndex
+					.getClasspathProjects(project)) {
+				if (natureIds == null
+						|| projectIndex.hasNature(reqProject, natureIds)) {
+					projects.add(reqProject);
 				}
 			}
 		} catch (Exception e) {
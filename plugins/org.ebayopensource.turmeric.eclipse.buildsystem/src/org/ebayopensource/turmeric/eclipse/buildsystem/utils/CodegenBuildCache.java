@@ -0,0 +1,548 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.buildsystem.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.buildsystem.BuildSystemActivator;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.model.BaseCodeGenModel;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.model.IMultiCodeGenModel;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAClassLoaderPool;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * A persistent cache of the code generation runs of a project, stored in the
+ * working location of the project.
+ *
+ * <p>
+ * Every run is keyed by a digest of the codegen options, the content of the
+ * files they refer to, the content of the declared input files of the project
+ * and of the workspace projects it requires, and the class path used for code
+ * generation. Once the codegen engine has
+ * finished, the files it has written to the generated folders are recorded
+ * and archived. A later run with the same key is skipped if these files are
+ * still untouched, or restored from the archive if they have been deleted or
+ * modified, for instance by a full build.
+ * </p>
+ *
+ * <p>
+ * The declared inputs default to the properties files at the root of the
+ * project and the WSDL, XSD, XML and properties files of its meta-src folder,
+ * which hold everything the codegen models read besides the files named in
+ * the options. The same files of the required projects take part in the key,
+ * they hold the interface WSDL, the type library XSDs and the
+ * TypeDependencies.xml files the codegen resolves through the class path.
+ * Java sources, class files, jars and the build output of Maven do not take
+ * part in the key, so saving a hand written class does not trigger the code
+ * generation again.
+ * </p>
+ */
+public final class CodegenBuildCache {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final String CACHE_FOLDER = "codegen-cache";
+
+	private static final String CACHE_VERSION = "1";
+
+	private static final String PROP_KEY = "cache.key";
+
+	private static final String PROP_OUTPUT_PREFIX = "output:";
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final PathPatternSet[] DEFAULT_INPUTS = {
+			new PathPatternSet(new String[] { "" }, "*.properties"),
+			new PathPatternSet(
+					new String[] { SOAProjectConstants.FOLDER_META_SRC },
+					"**/*.wsdl", "**/*.xsd", "**/*.xml", "**/*.properties") };
+
+	private final IProject project;
+
+	private final String name;
+
+	private final PathPatternSet[] inputs;
+
+	private final File projectDir;
+
+	private final File manifestFile;
+
+	private final File archiveFile;
+
+	private CodegenManifest codegenManifest;
+
+	private CodegenBuildCache(IProject project, String name,
+			PathPatternSet[] inputs, File cacheDir) {
+		this.project = project;
+		this.name = name;
+		this.inputs = inputs;
+		this.projectDir = project.getLocation().toFile();
+		this.manifestFile = new File(cacheDir, name + ".properties");
+		this.archiveFile = new File(cacheDir, name + ".zip");
+	}
+
+	/**
+	 * Gets the cache of the given name for the given project, with the
+	 * default inputs.
+	 *
+	 * @param project the project
+	 * @param name the name of the cache, typically the kind of codegen
+	 * @return the cache
+	 */
+	public static CodegenBuildCache getCache(IProject project, String name) {
+		return getCache(project, name, DEFAULT_INPUTS);
+	}
+
+	/**
+	 * Gets the cache of the given name for the given project.
+	 *
+	 * @param project the project
+	 * @param name the name of the cache, typically the kind of codegen
+	 * @param inputs the files of the project read by the codegen, besides
+	 * the files named in the codegen options
+	 * @return the cache
+	 */
+	public static CodegenBuildCache getCache(IProject project, String name,
+			PathPatternSet... inputs) {
+		return new CodegenBuildCache(project, name, inputs.clone(),
+				getCacheDir(project));
+	}
+
+	/**
+	 * Gets the input files of the project taking part in the key.
+	 *
+	 * @return the files sorted by their path relative to the project
+	 */
+	public Map<String, File> getInputFiles() {
+		final Map<String, File> files = new TreeMap<String, File>();
+		for (PathPatternSet input : inputs) {
+			files.putAll(input.listFiles(projectDir));
+		}
+		return files;
+	}
+
+	/**
+	 * Gets the input files of the workspace projects required by the project,
+	 * directly or not, taking part in the key.
+	 *
+	 * @return the files sorted by the name of their project and their path
+	 * relative to it
+	 */
+	public Map<String, File> getRequiredInputFiles() {
+		final Set<IProject> requiredProjects = new LinkedHashSet<IProject>();
+		addRequiredProjects(project, requiredProjects);
+		final Map<String, File> files = new TreeMap<String, File>();
+		for (IProject reqProject : requiredProjects) {
+			if (reqProject.equals(project) || reqProject.getLocation() == null) {
+				continue;
+			}
+			final File reqProjectDir = reqProject.getLocation().toFile();
+			for (PathPatternSet input : DEFAULT_INPUTS) {
+				for (Map.Entry<String, File> file : input.listFiles(
+						reqProjectDir).entrySet()) {
+					files.put(reqProject.getName() + "/" + file.getKey(), file
+							.getValue());
+				}
+			}
+		}
+		return files;
+	}
+
+	private static void addRequiredProjects(IProject project,
+			Set<IProject> requiredProjects) {
+		for (IProject reqProject : BuilderUtil.getRequiredProjects(project,
+				(String[]) null)) {
+			if (reqProject.isAccessible() && requiredProjects.add(reqProject)) {
+				addRequiredProjects(reqProject, requiredProjects);
+			}
+		}
+	}
+
+	private static File getCacheDir(IProject project) {
+		return new File(project.getWorkingLocation(
+				BuildSystemActivator.PLUGIN_ID).toFile(), CACHE_FOLDER);
+	}
+
+	/**
+	 * Executes the given codegen model unless the cache holds the outputs of
+	 * a run with identical inputs. Models generating code in several passes
+	 * are always executed.
+	 *
+	 * @param codegenInvoker the codegen invoker
+	 * @param model the model
+	 * @param monitor the monitor
+	 * @return true if the codegen engine has been called, false if the run
+	 * has been served from the cache
+	 * @throws Exception the exception thrown by the codegen engine
+	 */
+	public boolean execute(CodegenInvoker codegenInvoker,
+			BaseCodeGenModel model, IProgressMonitor monitor) throws Exception {
+		codegenManifest = codegenInvoker.getManifest();
+		if (model instanceof IMultiCodeGenModel) {
+			return codegenInvoker.execute(model, monitor);
+		}
+		final long time = System.currentTimeMillis();
+		String key = null;
+		try {
+			key = computeKey(codegenInvoker.getClasspath(), model);
+			if (restore(key)) {
+				if (SOALogger.DEBUG) {
+					logger.debug("Codegen ", name, " of project ",
+							project.getName(), " served from cache in ",
+							System.currentTimeMillis() - time, "ms");
+				}
+				return false;
+			}
+		} catch (IOException e) {
+			// the cache must never break the build
+			logger.warning(e);
+		}
+		final Map<String, String> before = snapshotGeneratedFiles();
+		try {
+			codegenInvoker.execute(model, monitor);
+		} catch (Exception e) {
+			invalidate();
+			throw e;
+		}
+		if (key != null) {
+			try {
+				store(key, before);
+			} catch (IOException e) {
+				logger.warning(e);
+				invalidate();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the files written by the last {@link #execute(CodegenInvoker,
+	 * BaseCodeGenModel, IProgressMonitor)}, either by the codegen engine or restored from the
+	 * cache. It is empty if the generated files were up to date.
+	 *
+	 * @return the manifest, or null if the written files are not known
+	 */
+	public CodegenManifest getManifest() {
+		return codegenManifest;
+	}
+
+	/**
+	 * Drops this cache.
+	 */
+	public void invalidate() {
+		FileUtils.deleteQuietly(manifestFile);
+		FileUtils.deleteQuietly(archiveFile);
+	}
+
+	/**
+	 * Computes the key of a codegen run, a run is served from the cache when
+	 * its key is the one of the cached run.
+	 *
+	 * @param classpath the class path of the codegen
+	 * @param model the model
+	 * @return the hex encoded key
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public String computeKey(URL[] classpath, BaseCodeGenModel model)
+			throws IOException {
+		final MessageDigest digest = newDigest();
+		update(digest, CACHE_VERSION);
+		update(digest, model.getGenType());
+		final Map<String, String> options = new TreeMap<String, String>(model
+				.getCodeGenOptions());
+		for (Map.Entry<String, String> option : options.entrySet()) {
+			update(digest, option.getKey());
+			update(digest, option.getValue());
+			final File file = option.getValue() != null ? new File(option
+					.getValue()) : null;
+			if (file != null && file.isFile()) {
+				digestContent(digest, file);
+			}
+		}
+		final List<URL> dependencies = new ArrayList<URL>();
+		final String projectPath = projectDir.getAbsolutePath()
+				+ File.separator;
+		for (URL url : classpath) {
+			// the outputs of this project change with every compilation
+			final File file = "file".equals(url.getProtocol()) ? FileUtils
+					.toFile(url) : null;
+			if (file == null
+					|| file.getAbsolutePath().startsWith(projectPath) == false) {
+				dependencies.add(url);
+			}
+		}
+		update(digest, SOAClassLoaderPool.fingerprint(dependencies
+				.toArray(new URL[0])));
+		for (Map.Entry<String, File> input : getInputFiles().entrySet()) {
+			update(digest, input.getKey());
+			digestContent(digest, input.getValue());
+		}
+		for (Map.Entry<String, File> input : getRequiredInputFiles()
+				.entrySet()) {
+			update(digest, input.getKey());
+			digestContent(digest, input.getValue());
+		}
+		return toHex(digest.digest());
+	}
+
+	private boolean restore(String key) throws IOException {
+		final Properties manifest = loadManifest();
+		if (manifest == null
+				|| key.equals(manifest.getProperty(PROP_KEY)) == false) {
+			return false;
+		}
+		final Map<String, String> outputs = getOutputs(manifest);
+		boolean upToDate = true;
+		for (Map.Entry<String, String> output : outputs.entrySet()) {
+			final File file = new File(projectDir, output.getKey());
+			if (output.getValue().equals(stamp(file)) == false) {
+				upToDate = false;
+				break;
+			}
+		}
+		final CodegenManifest written = codegenManifest != null ? new CodegenManifest(
+				project) : null;
+		if (upToDate) {
+			// nothing written at all
+			codegenManifest = written;
+			return true;
+		}
+		if (archiveFile.isFile() == false) {
+			return false;
+		}
+		final ZipInputStream input = new ZipInputStream(
+				new BufferedInputStream(new FileInputStream(archiveFile)));
+		try {
+			ZipEntry entry;
+			while ((entry = input.getNextEntry()) != null) {
+				if (outputs.containsKey(entry.getName()) == false) {
+					continue;
+				}
+				final File file = new File(projectDir, entry.getName());
+				if (written != null) {
+					written.addFile(file);
+				}
+				file.getParentFile().mkdirs();
+				final OutputStream output = new BufferedOutputStream(
+						new FileOutputStream(file));
+				try {
+					IOUtils.copy(input, output);
+				} finally {
+					IOUtils.closeQuietly(output);
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+		// the restored files have new time stamps
+		final Properties restored = new Properties();
+		restored.setProperty(PROP_KEY, key);
+		for (String path : outputs.keySet()) {
+			restored.setProperty(PROP_OUTPUT_PREFIX + path, stamp(new File(
+					projectDir, path)));
+		}
+		saveManifest(restored);
+		codegenManifest = written;
+		logger.info("Restored ", outputs.size(), " generated files of project ",
+				project.getName(), " from the codegen cache");
+		return true;
+	}
+
+	private void store(String key, Map<String, String> before)
+			throws IOException {
+		final Map<String, String> after = snapshotGeneratedFiles();
+		final Set<String> outputs = new HashSet<String>();
+		for (Map.Entry<String, String> file : after.entrySet()) {
+			if (file.getValue().equals(before.get(file.getKey())) == false) {
+				outputs.add(file.getKey());
+			}
+		}
+		// files an incremental run did not rewrite are still outputs of the
+		// previous runs
+		final Properties previous = loadManifest();
+		if (previous != null) {
+			for (String path : getOutputs(previous).keySet()) {
+				if (after.containsKey(path)) {
+					outputs.add(path);
+				}
+			}
+		}
+		archiveFile.getParentFile().mkdirs();
+		final File tempFile = new File(archiveFile.getPath() + ".tmp");
+		final Properties manifest = new Properties();
+		manifest.setProperty(PROP_KEY, key);
+		final ZipOutputStream output = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			for (String path : outputs) {
+				manifest.setProperty(PROP_OUTPUT_PREFIX + path, after.get(path));
+				output.putNextEntry(new ZipEntry(path));
+				final InputStream input = new FileInputStream(new File(
+						projectDir, path));
+				try {
+					IOUtils.copy(input, output);
+				} finally {
+					IOUtils.closeQuietly(input);
+				}
+				output.closeEntry();
+			}
+		} finally {
+			IOUtils.closeQuietly(output);
+		}
+		FileUtils.deleteQuietly(archiveFile);
+		if (tempFile.renameTo(archiveFile) == false) {
+			throw new IOException("Could not rename " + tempFile + " to "
+					+ archiveFile);
+		}
+		saveManifest(manifest);
+		if (SOALogger.DEBUG) {
+			logger.debug("Cached ", outputs.size(), " generated files of ",
+					name, " for project ", project.getName());
+		}
+	}
+
+	private Map<String, String> snapshotGeneratedFiles() {
+		final Map<String, String> files = new TreeMap<String, String>();
+		for (IFolder folder : ActionUtil.getGeneratedFolders(project)) {
+			if (folder.getLocation() != null) {
+				snapshot(folder.getLocation().toFile(), files);
+			}
+		}
+		return files;
+	}
+
+	private void snapshot(File dir, Map<String, String> files) {
+		final File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				snapshot(child, files);
+			} else {
+				files.put(relativePath(child), stamp(child));
+			}
+		}
+	}
+
+	private String relativePath(File file) {
+		return file.getAbsolutePath()
+				.substring(projectDir.getAbsolutePath().length() + 1).replace(
+						File.separatorChar, '/');
+	}
+
+	private static String stamp(File file) {
+		return file.isFile() ? file.length() + "|" + file.lastModified() : "";
+	}
+
+	private static Map<String, String> getOutputs(Properties manifest) {
+		final Map<String, String> outputs = new TreeMap<String, String>();
+		for (String key : manifest.stringPropertyNames()) {
+			if (key.startsWith(PROP_OUTPUT_PREFIX)) {
+				outputs.put(key.substring(PROP_OUTPUT_PREFIX.length()),
+						manifest.getProperty(key));
+			}
+		}
+		return outputs;
+	}
+
+	private Properties loadManifest() throws IOException {
+		if (manifestFile.isFile() == false) {
+			return null;
+		}
+		final Properties manifest = new Properties();
+		final InputStream input = new FileInputStream(manifestFile);
+		try {
+			manifest.load(input);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+		return manifest;
+	}
+
+	private void saveManifest(Properties manifest) throws IOException {
+		manifestFile.getParentFile().mkdirs();
+		final OutputStream output = new FileOutputStream(manifestFile);
+		try {
+			manifest.store(output, "Codegen cache of " + project.getName());
+		} finally {
+			IOUtils.closeQuietly(output);
+		}
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		try {
+			digest.update(String.valueOf(value).getBytes("UTF-8"));
+			digest.update((byte) 0);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void digestContent(MessageDigest digest, File file)
+			throws IOException {
+		final InputStream input = new FileInputStream(file);
+		try {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		final char[] result = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			result[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			result[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(result);
+	}
+}
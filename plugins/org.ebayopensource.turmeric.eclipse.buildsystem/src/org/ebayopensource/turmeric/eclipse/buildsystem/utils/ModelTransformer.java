@@ -36,6 +36,7 @@ import org.ebayopensource.turmeric.eclipse.resources.util.SOAConsumerUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAImplUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAServiceUtil;
 import org.ebayopensource.turmeric.eclipse.utils.io.PropertiesFileUtil;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -70,8 +71,15 @@ public class ModelTransformer {
 	 */
 	public static BaseCodeGenModel generateCodeGenModel(final IProject project,
 			final IProgressMonitor monitor) throws Exception {
-		return GlobalRepositorySystem.instanceOf().getActiveRepositorySystem()
-				.getCodegenTranformer().transformModel(project, monitor);
+		final long start = BuildMetrics.start();
+		try {
+			return GlobalRepositorySystem.instanceOf()
+					.getActiveRepositorySystem().getCodegenTranformer()
+					.transformModel(project, monitor);
+		} finally {
+			BuildMetrics.stop(BuildMetrics.MODEL_TRANSFORM, project.getName(),
+					start);
+		}
 	}
 
 	/**
@@ -9,6 +9,7 @@
 package org.ebayopensource.turmeric.eclipse.codegen.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -95,6 +96,8 @@ public class GenTypeClientConfig extends ConsumerCodeGenModel implements
 				envs.add(new SOAClientEnvironment(env, svc));
 			}
 		}
+		// the same for all the environments, computed once
+		final Map<String, String> baseOptions = getCodeGenOptions();
 		return new IMultiCodeGenModelIterator() {
 			private Iterator<SOAClientEnvironment> it = envs.iterator();
 
@@ -112,7 +115,8 @@ public class GenTypeClientConfig extends ConsumerCodeGenModel implements
 				final SOAClientEnvironment env = it.next();
 				final String envName = env.getEnvironment();
 				final String serviceName = env.getServiceName();
-				Map<String, String> paramModel = getCodeGenOptions();
+				Map<String, String> paramModel = new HashMap<String, String>(
+						baseOptions);
 				paramModel.putAll(getRequiredServices().get(serviceName));
 				paramModel.put(PARAM_ENVIRONMENT, envName);
 				return paramModel;
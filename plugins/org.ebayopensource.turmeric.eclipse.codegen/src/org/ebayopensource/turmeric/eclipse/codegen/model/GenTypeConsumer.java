@@ -11,6 +11,7 @@
  */
 package org.ebayopensource.turmeric.eclipse.codegen.model;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -139,6 +140,8 @@ public class GenTypeConsumer extends ConsumerCodeGenModel implements IMultiCodeG
 	 */
 	@Override
 	public IMultiCodeGenModelIterator iterator() {
+		// the same for all the services, computed once
+		final Map<String, String> baseOptions = getCodeGenOptions();
 		return new IMultiCodeGenModelIterator() {
 			private Iterator<String> it = getRequiredServices().keySet().iterator();
 			@Override
@@ -152,7 +155,8 @@ public class GenTypeConsumer extends ConsumerCodeGenModel implements IMultiCodeG
 					throw new IllegalArgumentException("all options have ben processed");
 				}
 				final String serviceName = it.next();
-				Map<String, String> paramModel = getCodeGenOptions();
+				Map<String, String> paramModel = new HashMap<String, String>(
+						baseOptions);
 				paramModel.putAll(getRequiredServices().get(serviceName));
 				return paramModel;
 			}
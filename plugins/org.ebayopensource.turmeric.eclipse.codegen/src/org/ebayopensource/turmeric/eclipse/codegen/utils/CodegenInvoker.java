@@ -8,7 +8,12 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.codegen.utils;
 
+import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -18,11 +23,17 @@ import org.ebayopensource.turmeric.eclipse.codegen.model.IMultiCodeGenModel;
 import org.ebayopensource.turmeric.eclipse.codegen.model.IMultiCodeGenModel.IMultiCodeGenModelIterator;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOABatchCodegenProvider;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOACodegenProvider;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOACodegenRequest;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.model.BaseCodeGenModel;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAClassLoaderPool;
 import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
-import org.ebayopensource.turmeric.eclipse.utils.collections.MapUtil;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 /**
  * This is the main class involved in code generation and can be thought of as
@@ -36,7 +47,26 @@ import org.eclipse.core.resources.IProject;
  */
 public class CodegenInvoker {
 
+	/** The name of the default codegen class loader. */
+	public static final String CLASSLOADER_NAME = "Codegen";
+
+	/**
+	 * The codegen options pointing to the locations codegen writes to. The
+	 * project root is left out, it only locates the inputs and scanning it
+	 * would walk the whole project after every codegen.
+	 */
+	private static final String[] OUTPUT_OPTIONS = {
+			BaseCodeGenModel.PARAM_SRC, BaseCodeGenModel.PARAM_DEST,
+			BaseCodeGenModel.PARAM_BIN, BaseCodeGenModel.PARAM_MDEST,
+			BaseCodeGenModel.PARAM_JDEST };
+
 	private SOAPluginClassLoader soaPluginClassLoader;
+	/** The pooled loader handed out by {@link #getSoaPluginClassLoader()}. */
+	private SOAPluginClassLoader leasedClassLoader;
+	private URL[] classpath;
+	private String loaderName;
+	private CodegenManifest manifest;
+	private String projectName;
 	private static final SOALogger logger = SOALogger.getLogger();
 
 	/**
@@ -59,19 +89,85 @@ public class CodegenInvoker {
 	 * @throws Exception the exception
 	 */
 	public static CodegenInvoker init(IProject project) throws Exception {
+		return init(project, CLASSLOADER_NAME);
+	}
+
+	/**
+	 * Initializes this invoker with a class loader of the given name. The
+	 * class loader is taken from the {@link SOAClassLoaderPool} for each code
+	 * generation and given back right after it, so an unchanged class path
+	 * reuses the loader of the previous build together with all the classes
+	 * it has already loaded.
+	 *
+	 * @param project the project
+	 * @param loaderName the name of the class loader
+	 * @return the codegen invoker
+	 * @throws Exception the exception
+	 */
+	public static CodegenInvoker init(IProject project, String loaderName)
+			throws Exception {
+		return init(project, loaderName, false);
+	}
+
+	/**
+	 * Initializes this invoker with a class loader of its own, which is not
+	 * shared with any other invoker, so the caller may modify it through
+	 * {@link #getSoaPluginClassLoader()}. The loader must be released with
+	 * {@link #dispose()}.
+	 *
+	 * @param project the project
+	 * @param loaderName the name of the class loader
+	 * @return the codegen invoker
+	 * @throws Exception the exception
+	 */
+	public static CodegenInvoker initWithPrivateLoader(IProject project,
+			String loaderName) throws Exception {
+		return init(project, loaderName, true);
+	}
+
+	private static CodegenInvoker init(IProject project, String loaderName,
+			boolean privateLoader) throws Exception {
 		if (project == null) {
 			throw new NullArgumentException("Project can not be null");
 		}
+		long start = BuildMetrics.start();
 		Set<URL> urls = JDTUtil.resolveClasspathToURLs(project);
-
-		SOAPluginClassLoader classLoader = new SOAPluginClassLoader("Codegen",
-				urls.toArray(new URL[0]));
+		BuildMetrics.stop(BuildMetrics.CLASSPATH_RESOLUTION, project.getName(),
+				start);
 
 		CodegenInvoker codegenInvoker = new CodegenInvoker();
-		codegenInvoker.setSoaPluginClassLoader(classLoader);
+		codegenInvoker.classpath = urls.toArray(new URL[0]);
+		codegenInvoker.loaderName = loaderName;
+		codegenInvoker.projectName = project.getName();
+		if (privateLoader) {
+			start = BuildMetrics.start();
+			codegenInvoker.setSoaPluginClassLoader(new SOAPluginClassLoader(
+					loaderName, codegenInvoker.classpath));
+			BuildMetrics.stop(BuildMetrics.CLASSLOADER_CREATION, project
+					.getName(), start);
+		}
+		if (project.getLocation() != null) {
+			codegenInvoker.manifest = new CodegenManifest(project);
+		}
 		return codegenInvoker;
 	}
 
+	/**
+	 * Releases the class loader created by
+	 * {@link #initWithPrivateLoader(IProject, String)}, or gives back the
+	 * pooled class loader returned by {@link #getSoaPluginClassLoader()}.
+	 */
+	public void dispose() {
+		if (soaPluginClassLoader != null) {
+			soaPluginClassLoader.dispose();
+			soaPluginClassLoader = null;
+		}
+		if (leasedClassLoader != null) {
+			SOAClassLoaderPool.getInstance().release(leasedClassLoader);
+			leasedClassLoader = null;
+		}
+	}
+
 	/**
 	 * Executes the given code generation model in the context created by the.
 	 *
@@ -88,41 +184,161 @@ public class CodegenInvoker {
 	 * back.
 	 */
 	public boolean execute(BaseCodeGenModel model) throws Exception {
+		return execute(model, null);
+	}
+
+	/**
+	 * Executes the given code generation model in the context created by
+	 * {@link #init(IProject)}, showing the progress of the code generation on
+	 * the given monitor.
+	 *
+	 * @param model the model with all the parameters of the codegen
+	 * @param monitor the progress monitor, may be null
+	 * @return true, if successful
+	 * @throws Exception the exception
+	 */
+	public boolean execute(BaseCodeGenModel model, IProgressMonitor monitor)
+			throws Exception {
 		Map<String, String> paramMap = model.getCodeGenOptions();
 		ClassLoader oldClassLoader = Thread.currentThread()
 				.getContextClassLoader();
+		final long startTime = System.currentTimeMillis();
+		final Set<File> outputLocations = new LinkedHashSet<File>();
+		final SOAPluginClassLoader classLoader = acquireClassLoader();
 		try {
-			Thread.currentThread().setContextClassLoader(
-					getSoaPluginClassLoader());
+			Thread.currentThread().setContextClassLoader(classLoader);
 			if (model instanceof IMultiCodeGenModel) {
+				final List<SOACodegenRequest> requests = new ArrayList<SOACodegenRequest>();
 				for (IMultiCodeGenModelIterator iterator = ((IMultiCodeGenModel) model)
 						.iterator(); iterator.hasNext();) {
 					paramMap = iterator.nextInputOptions();
+					addOutputLocations(paramMap, outputLocations);
 					addJdkHomeOptions(paramMap);
 					logger.info(BaseCodeGenModel.toString(model.getGenType(),
 							paramMap));
-					callCodegen(MapUtil.toArray(paramMap, new String[0], true));
+					requests.add(new SOACodegenRequest(paramMap
+							.get(BaseCodeGenModel.PARAM_SERVICE_NAME),
+							projectName, paramMap));
 				}
+				// the services are independent, one batch for all of them
+				callCodegen(requests, monitor);
 			} else {
+				addOutputLocations(paramMap, outputLocations);
 				addJdkHomeOptions(paramMap);
 				logger.info(BaseCodeGenModel.toString(model.getGenType(),
 						paramMap));
-				callCodegen(MapUtil.toArray(paramMap, new String[0], true));
+				callCodegen(Collections.singletonList(new SOACodegenRequest(
+						model.getGenType(), projectName, paramMap)), monitor);
 			}
 		} finally {
 			Thread.currentThread().setContextClassLoader(oldClassLoader);
+			if (classLoader != soaPluginClassLoader
+					&& classLoader != leasedClassLoader) {
+				SOAClassLoaderPool.getInstance().release(classLoader);
+			}
+			// a failed codegen may have written some files already
+			recordOutputs(outputLocations, startTime);
 		}
 		return true;
 	}
 
+	private SOAPluginClassLoader acquireClassLoader() {
+		if (soaPluginClassLoader != null) {
+			return soaPluginClassLoader;
+		}
+		if (leasedClassLoader != null) {
+			return leasedClassLoader;
+		}
+		final long start = BuildMetrics.start();
+		final SOAPluginClassLoader classLoader = SOAClassLoaderPool
+				.getInstance().acquire(projectName, loaderName, classpath);
+		BuildMetrics.stop(BuildMetrics.CLASSLOADER_CREATION, projectName,
+				start);
+		if (SOALogger.DEBUG) {
+			logger.debug(SOAClassLoaderPool.getInstance());
+		}
+		return classLoader;
+	}
+
+	/**
+	 * Gets the files and folders written by the code generations executed so
+	 * far with this invoker.
+	 *
+	 * @return the manifest, or null if the project is not on the local file
+	 * system and its outputs can not be tracked
+	 */
+	public CodegenManifest getManifest() {
+		return manifest;
+	}
+
+	private static void addOutputLocations(Map<String, String> paramMap,
+			Set<File> outputLocations) {
+		for (String option : OUTPUT_OPTIONS) {
+			final String location = paramMap.get(option);
+			if (StringUtils.isNotBlank(location)) {
+				outputLocations.add(new File(location).getAbsoluteFile());
+			}
+		}
+	}
+
+	private void recordOutputs(Set<File> outputLocations, long startTime) {
+		if (manifest == null) {
+			return;
+		}
+		final long time = System.currentTimeMillis();
+		for (File location : outputLocations) {
+			if (isNested(location, outputLocations) == false) {
+				manifest.addModifiedSince(location, startTime);
+			}
+		}
+		if (SOALogger.DEBUG) {
+			logger.debug("Collected the codegen outputs in ",
+					System.currentTimeMillis() - time, "ms: ", manifest);
+		}
+	}
 
-	private static void callCodegen(String[] parameters) throws Exception {
-		if(SOALogger.DEBUG){
-			logger.debug((Object[])parameters);
+	private static boolean isNested(File location, Set<File> locations) {
+		for (File parent = location.getParentFile(); parent != null; parent = parent
+				.getParentFile()) {
+			if (locations.contains(parent)) {
+				return true;
+			}
 		}
-		GlobalRepositorySystem.instanceOf().getActiveRepositorySystem()
-				.getSOACodegenProvider().generateCode(parameters);
+		return false;
+	}
 
+
+	/**
+	 * Runs the given requests. The batch providers record the time spent in
+	 * the engine by each request, it is recorded here for the others.
+	 */
+	private static void callCodegen(List<SOACodegenRequest> requests,
+			IProgressMonitor monitor) throws Exception {
+		if (SOALogger.DEBUG) {
+			for (SOACodegenRequest request : requests) {
+				logger.debug((Object[]) request.toArguments());
+			}
+		}
+		final ISOACodegenProvider provider = GlobalRepositorySystem
+				.instanceOf().getActiveRepositorySystem()
+				.getSOACodegenProvider();
+		if (provider instanceof ISOABatchCodegenProvider) {
+			((ISOABatchCodegenProvider) provider).generateCode(requests,
+					monitor);
+			return;
+		}
+		for (SOACodegenRequest request : requests) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			final long start = BuildMetrics.start();
+			try {
+				provider.generateCode(request.toArguments());
+			} finally {
+				BuildMetrics.stop(BuildMetrics.CODEGEN_PREFIX
+						+ request.getGenType(), request.getProject(), start);
+			}
+		}
 	}
 
 	private void addJdkHomeOptions(Map<String, String> paramMap) {
@@ -135,12 +351,32 @@ public class CodegenInvoker {
 	}
 
 	/**
-	 * Usual getter.
+	 * Gets the class loader of the code generations. An invoker initialized
+	 * with {@link #init(IProject)} takes the loader from the pool and holds it
+	 * until {@link #dispose()}, the loader is shared with other builds and
+	 * must not be modified. Use
+	 * {@link #initWithPrivateLoader(IProject, String)} for a loader of its
+	 * own.
 	 *
-	 * @return the soa plugin class loader
+	 * @return the soa plugin class loader
 	 */
 	public SOAPluginClassLoader getSoaPluginClassLoader() {
-		return soaPluginClassLoader;
+		if (soaPluginClassLoader != null) {
+			return soaPluginClassLoader;
+		}
+		if (leasedClassLoader == null) {
+			leasedClassLoader = acquireClassLoader();
+		}
+		return leasedClassLoader;
+	}
+
+	/**
+	 * Gets the class path of the code generations.
+	 *
+	 * @return the resolved class path of the project
+	 */
+	public URL[] getClasspath() {
+		return classpath.clone();
 	}
 
 	private void setSoaPluginClassLoader(
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.codegen.utils;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * The files and folders of a project written by code generation, so only
+ * those have to be refreshed instead of the whole project.
+ *
+ * <p>
+ * A folder is refreshed with its direct children, which picks up the files
+ * added to or deleted from it. A file is refreshed alone. Folders which do not
+ * exist in the workspace yet are created by refreshing their parent first.
+ * Only locations inside the project are recorded.
+ * </p>
+ */
+public final class CodegenManifest {
+	/**
+	 * The time stamps of some file systems are only precise to the second or
+	 * two, so anything touched a bit before the codegen started counts too.
+	 */
+	private static final long TIME_STAMP_PRECISION = 2000;
+
+	private final IProject project;
+
+	private final String projectPath;
+
+	private final Set<String> folders = new TreeSet<String>();
+
+	private final Set<String> files = new TreeSet<String>();
+
+	/**
+	 * Instantiates an empty manifest.
+	 *
+	 * @param project the project, must have a local file system location
+	 */
+	public CodegenManifest(IProject project) {
+		this.project = project;
+		this.projectPath = project.getLocation().toFile().getAbsolutePath();
+	}
+
+	/**
+	 * Gets the project.
+	 *
+	 * @return the project
+	 */
+	public IProject getProject() {
+		return project;
+	}
+
+	/**
+	 * Records a written file.
+	 *
+	 * @param file the file
+	 */
+	public void addFile(File file) {
+		final String path = toProjectPath(file);
+		if (path != null && path.length() > 0) {
+			files.add(path);
+		}
+	}
+
+	/**
+	 * Records a folder whose children have been added, modified or deleted.
+	 *
+	 * @param folder the folder
+	 */
+	public void addFolder(File folder) {
+		final String path = toProjectPath(folder);
+		if (path != null) {
+			folders.add(path);
+		}
+	}
+
+	/**
+	 * Records a workspace resource.
+	 *
+	 * @param resource the resource
+	 */
+	public void addResource(IResource resource) {
+		if (project.equals(resource.getProject()) == false) {
+			return;
+		}
+		if (resource.getType() == IResource.FILE) {
+			files.add(resource.getProjectRelativePath().toString());
+		} else {
+			folders.add(resource.getProjectRelativePath().toString());
+		}
+	}
+
+	/**
+	 * Records all files and folders below the given folder which have been
+	 * modified since the given time. A folder is modified when a child has
+	 * been added or deleted, so new and deleted files are recorded too.
+	 *
+	 * @param folder the folder
+	 * @param time the time the codegen started
+	 */
+	public void addModifiedSince(File folder, long time) {
+		if (toProjectPath(folder) == null) {
+			return;
+		}
+		if (folder.isFile()) {
+			if (folder.lastModified() >= time - TIME_STAMP_PRECISION) {
+				addFile(folder);
+			}
+			return;
+		}
+		scan(folder.getAbsoluteFile(), time - TIME_STAMP_PRECISION);
+	}
+
+	private void scan(File folder, long time) {
+		final File[] children = folder.listFiles();
+		if (children == null) {
+			return;
+		}
+		if (folder.lastModified() >= time) {
+			addFolder(folder);
+		}
+		for (File child : children) {
+			if (child.getName().startsWith(".")) {
+				// .settings, .svn and the like are not generated
+				continue;
+			}
+			if (child.isDirectory()) {
+				scan(child, time);
+			} else if (child.lastModified() >= time) {
+				addFile(child);
+			}
+		}
+	}
+
+	/**
+	 * Records everything of another manifest of the same project.
+	 *
+	 * @param manifest the manifest
+	 */
+	public void addAll(CodegenManifest manifest) {
+		folders.addAll(manifest.folders);
+		files.addAll(manifest.files);
+	}
+
+	/**
+	 * Checks whether nothing has been written.
+	 *
+	 * @return true, if empty
+	 */
+	public boolean isEmpty() {
+		return folders.isEmpty() && files.isEmpty();
+	}
+
+	/**
+	 * Refreshes the recorded files and folders.
+	 *
+	 * @param monitor the monitor
+	 * @throws CoreException the core exception
+	 */
+	public void refresh(IProgressMonitor monitor) throws CoreException {
+		final Set<IContainer> refreshed = new HashSet<IContainer>();
+		// parents are sorted before their children
+		for (String path : folders) {
+			refresh(path.length() == 0 ? project : project.getFolder(path),
+					refreshed, monitor);
+		}
+		for (String path : files) {
+			final IFile file = project.getFile(path);
+			if (refreshed.contains(file.getParent())) {
+				continue;
+			}
+			if (file.getParent().exists()) {
+				file.refreshLocal(IResource.DEPTH_ZERO, monitor);
+			} else {
+				refresh(file.getParent(), refreshed, monitor);
+			}
+		}
+	}
+
+	private void refresh(IContainer container, Set<IContainer> refreshed,
+			IProgressMonitor monitor) throws CoreException {
+		if (refreshed.add(container) == false) {
+			return;
+		}
+		if (container.exists() == false
+				&& container.getType() != IResource.PROJECT) {
+			refresh(container.getParent(), refreshed, monitor);
+		}
+		container.refreshLocal(IResource.DEPTH_ONE, monitor);
+	}
+
+	/**
+	 * Gets the project relative path of a file, with forward slashes.
+	 *
+	 * @return the path, or null if the file is not in the project
+	 */
+	private String toProjectPath(File file) {
+		final String path = file.getAbsolutePath();
+		if (path.equals(projectPath)) {
+			return "";
+		}
+		if (path.startsWith(projectPath + File.separator) == false) {
+			return null;
+		}
+		return path.substring(projectPath.length() + 1).replace(
+				File.separatorChar, '/');
+	}
+
+	@Override
+	public String toString() {
+		return "CodegenManifest[" + project.getName() + ", folders=" + folders
+				+ ", files=" + files + "]";
+	}
+}
@@ -25,6 +25,8 @@ import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
@@ -93,6 +95,9 @@ public class TurmericCoreActivator extends Plugin {
 		buf.append("SOAPlugin.start - ");
 		buf.append(JDTUtil.getBundleInfo(context.getBundle(), SOALogger.DEBUG));
 		SOALogger.getLogger().info(buf);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(
+				XSDSchemaCache.getInstance(),
+				IResourceChangeEvent.POST_CHANGE);
 	}
 
 	/* (non-Javadoc)
@@ -100,6 +105,9 @@ public class TurmericCoreActivator extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(
+				XSDSchemaCache.getInstance());
+		XSDSchemaCache.getInstance().clear();
 		plugin = null;
 		super.stop(context);
 	}
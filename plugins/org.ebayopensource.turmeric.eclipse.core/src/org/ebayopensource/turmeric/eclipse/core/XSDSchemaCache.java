@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.xsd.XSDSchema;
+
+/**
+ * A workspace wide cache of parsed schemas, so builders and wizards looking
+ * at the same XSDs do not parse them over and over again.
+ *
+ * <p>
+ * Schemas are keyed by the location of the file, or of the jar for XSDs
+ * inside type library jars, and are only reused as long as the modification
+ * time and size of that file are unchanged. The cache holds at most
+ * {@link #getMaxEntries()} schemas through soft references, so the garbage
+ * collector may drop them at any time. XSDs changed in the workspace are also
+ * evicted as soon as the resource change event comes in.
+ * </p>
+ *
+ * <p>
+ * EMF models are not thread safe, even reading them may resolve proxies or
+ * compute derived features. So the cached schemas are never handed out, they
+ * are only lent to an {@link ISchemaReader} while the reading thread holds
+ * the schema exclusively. The reader must not keep any part of the schema
+ * once it returns, and must not modify it. A caller which modifies the
+ * schema has to parse its own copy with
+ * {@link TurmericCoreActivator#parseSchema(URL)}.
+ * </p>
+ */
+public final class XSDSchemaCache implements IResourceChangeListener {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	/** The system property overriding the default maximum entry count. */
+	public static final String PROP_MAX_ENTRIES = "turmeric.xsd.cache.size";
+
+	private static final XSDSchemaCache INSTANCE = new XSDSchemaCache();
+
+	private static final String EXT_XSD = "xsd";
+
+	private final Map<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	private int maxEntries = Integer.getInteger(PROP_MAX_ENTRIES, 500);
+
+	private long hits = 0;
+
+	private long misses = 0;
+
+	/**
+	 * Reads a cached schema while holding it exclusively.
+	 *
+	 * @param <T> the type of the result
+	 */
+	public static interface ISchemaReader<T> {
+
+		/**
+		 * Reads the given schema. Nothing of the schema may be kept or
+		 * modified after this method returns.
+		 *
+		 * @param schema the schema
+		 * @return the result, must not refer to the schema
+		 * @throws Exception the exception
+		 */
+		public T read(XSDSchema schema) throws Exception;
+	}
+
+	private XSDSchemaCache() {
+		super();
+	}
+
+	/**
+	 * Gets the shared cache.
+	 *
+	 * @return the shared instance
+	 */
+	public static XSDSchemaCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Reads the parsed schema of the given workspace file.
+	 *
+	 * @param <T> the type of the result
+	 * @param file the xsd file
+	 * @param reader the reader of the schema
+	 * @return the result of the reader
+	 * @throws IOException if the schema could not be read
+	 * @throws Exception the exception thrown by the reader
+	 */
+	public <T> T read(IFile file, ISchemaReader<T> reader) throws Exception {
+		if (file.getLocation() == null) {
+			throw new IOException("File does not exist on disk: "
+					+ file.getFullPath());
+		}
+		return read(file.getLocation().toFile().toURI().toURL(), reader);
+	}
+
+	/**
+	 * Reads the parsed schema at the given url. Only file urls and jar urls
+	 * pointing to local jars are cached, anything else is parsed on every
+	 * call. Readers of the same cached schema are serialized.
+	 *
+	 * @param <T> the type of the result
+	 * @param url the url of the xsd
+	 * @param reader the reader of the schema
+	 * @return the result of the reader
+	 * @throws IOException if the schema could not be read
+	 * @throws Exception the exception thrown by the reader
+	 */
+	public <T> T read(URL url, ISchemaReader<T> reader) throws Exception {
+		final File file = getBackingFile(url);
+		if (file == null) {
+			return reader.read(TurmericCoreActivator.parseSchema(url));
+		}
+		final String key = url.toExternalForm();
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		CacheEntry entry;
+		XSDSchema schema = null;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && entry.lastModified == lastModified
+					&& entry.length == length) {
+				schema = entry.schema.get();
+			}
+			if (schema != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+		}
+		if (schema == null) {
+			// parsed outside of the lock, a concurrent miss parses the file too
+			schema = TurmericCoreActivator.parseSchema(url);
+			entry = new CacheEntry(schema, lastModified, length);
+			synchronized (entries) {
+				entries.put(key, entry);
+			}
+		}
+		synchronized (entry) {
+			return reader.read(schema);
+		}
+	}
+
+	/**
+	 * Evicts the schema of the given file.
+	 *
+	 * @param file the xsd file
+	 */
+	public void invalidate(File file) {
+		try {
+			final String key = file.toURI().toURL().toExternalForm();
+			synchronized (entries) {
+				entries.remove(key);
+			}
+		} catch (IOException e) {
+			logger.warning(e);
+		}
+	}
+
+	/**
+	 * Evicts all schemas and resets the statistics.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			hits = 0;
+			misses = 0;
+		}
+	}
+
+	/**
+	 * Gets the maximum number of cached schemas.
+	 *
+	 * @return the max entries
+	 */
+	public int getMaxEntries() {
+		synchronized (entries) {
+			return maxEntries;
+		}
+	}
+
+	/**
+	 * Sets the maximum number of cached schemas, the least recently used ones
+	 * are evicted first.
+	 *
+	 * @param maxEntries the new max entries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		synchronized (entries) {
+			this.maxEntries = Math.max(0, maxEntries);
+			final Iterator<String> it = entries.keySet().iterator();
+			while (entries.size() > this.maxEntries && it.hasNext()) {
+				it.next();
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of lookups served from the cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		synchronized (entries) {
+			return hits;
+		}
+	}
+
+	/**
+	 * Gets the number of lookups which had to parse the schema.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		synchronized (entries) {
+			return misses;
+		}
+	}
+
+	/**
+	 * Gets the ratio of lookups served from the cache.
+	 *
+	 * @return the hit rate between 0 and 1, 0 if there was no lookup yet
+	 */
+	public double getHitRate() {
+		synchronized (entries) {
+			final long total = hits + misses;
+			return total == 0 ? 0 : (double) hits / total;
+		}
+	}
+
+	/**
+	 * Evicts the changed and deleted XSDs of the workspace.
+	 *
+	 * {@inheritDoc}
+	 */
+	public void resourceChanged(IResourceChangeEvent event) {
+		final IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				public boolean visit(IResourceDelta delta) throws CoreException {
+					final IResource resource = delta.getResource();
+					if (resource.getType() == IResource.FILE
+							&& EXT_XSD.equalsIgnoreCase(resource
+									.getFileExtension())
+							&& resource.getLocation() != null) {
+						invalidate(resource.getLocation().toFile());
+					}
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			logger.warning(e);
+		}
+		if (SOALogger.DEBUG) {
+			logger.debug("XSD schema cache hits: ", getHitCount(),
+					", misses: ", getMissCount());
+		}
+	}
+
+	private static File getBackingFile(URL url) {
+		if ("file".equals(url.getProtocol())) {
+			return FileUtils.toFile(url);
+		}
+		if ("jar".equals(url.getProtocol())) {
+			final String jarUrl = StringUtils.substringBefore(url.getPath(),
+					"!/");
+			try {
+				final URL fileUrl = new URL(jarUrl);
+				if ("file".equals(fileUrl.getProtocol())) {
+					return FileUtils.toFile(fileUrl);
+				}
+			} catch (IOException e) {
+				// not a local jar, not cached
+			}
+		}
+		return null;
+	}
+
+	private static class CacheEntry {
+		private final SoftReference<XSDSchema> schema;
+		private final long lastModified;
+		private final long length;
+
+		CacheEntry(XSDSchema schema, long lastModified, long length) {
+			this.schema = new SoftReference<XSDSchema>(schema);
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+	}
+}
@@ -14,12 +14,13 @@ import java.util.List;
 import java.util.Map;
 
 import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder;
-import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
 import org.ebayopensource.turmeric.eclipse.codegen.model.GenTypeErrorLibAll;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
-import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
 import org.ebayopensource.turmeric.eclipse.errorlibrary.properties.Activator;
+import org.ebayopensource.turmeric.eclipse.errorlibrary.properties.providers.PropertiesSOAConstants;
 import org.ebayopensource.turmeric.eclipse.errorlibrary.properties.utils.TurmericErrorLibraryUtils;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
@@ -39,6 +40,11 @@ public class TurmericErrorLibraryProjectBuilder extends AbstractSOAProjectBuilde
 	public static final String BUILDER_ID = Activator.PLUGIN_ID
 	+ ".TurmericErrorLibraryProjectBuilder";
 
+	/** The error data of the domains, see {@link ErrorLibraryDeltaVisitor}. */
+	private static final PathPatternSet BUILD_TRIGGER = new PathPatternSet(
+			new String[] { PropertiesSOAConstants.FOLDER_ERROR_DOMAIN }, "*/"
+					+ PropertiesSOAConstants.FILE_ERROR_DATA);
+
 	/**
 	 * Instantiates a new turmeric error library project builder.
 	 */
@@ -65,12 +71,11 @@ public class TurmericErrorLibraryProjectBuilder extends AbstractSOAProjectBuilde
 	}
 
 	/* (non-Javadoc)
-	 * @see org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder#shouldBuild(org.eclipse.core.resources.IResourceDelta, org.eclipse.core.resources.IProject)
+	 * @see org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder#getBuildTrigger()
 	 */
 	@Override
-	protected boolean shouldBuild(IResourceDelta delta, IProject project)
-			throws Exception {
-		return BuilderUtil.shouldBuild(delta, project, SOAProjectConstants.XML_EXT);
+	protected PathPatternSet getBuildTrigger() {
+		return BUILD_TRIGGER;
 	}
 
 	/* (non-Javadoc)
@@ -96,6 +101,10 @@ public class TurmericErrorLibraryProjectBuilder extends AbstractSOAProjectBuilde
 		if (domains.isEmpty() == false) {
 			codeGenModel.addDomains(domains);
 			codegenInvoker.execute(codeGenModel);
+			addRefreshScope(codegenInvoker.getManifest());
+		} else {
+			// nothing written
+			addRefreshScope(new CodegenManifest(project));
 		}
 		return null;
 	}
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.maven.core.utils;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.project.MavenProject;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.mavenapi.exception.MavenEclipseApiException;
+import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenApiHelper;
+import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenEclipseUtil;
+import org.ebayopensource.turmeric.eclipse.mavenapi.intf.IMavenEclipseApi;
+
+/**
+ * Resolves many artifacts of the local repository as Maven projects at once,
+ * and turns each of them into a result, for example an asset info.
+ *
+ * <p>
+ * The artifacts are resolved by a small pool of worker threads. The results
+ * are returned in the order of the given artifacts. An artifact which fails,
+ * or is not resolved when {@link #TIMEOUT_SECONDS} have passed since the
+ * start, is logged and skipped, the same as a failure used to be in the
+ * sequential loops. The given artifacts are copied before they are resolved,
+ * they usually come from the shared artifact catalog.
+ * </p>
+ *
+ * <p>
+ * The Maven projects read from the POMs of the local repository are kept
+ * per group id, artifact id, version and type, and reused as long as the
+ * POM file has not been modified. Every caller gets a copy of the kept
+ * project, so none of them sees the changes of another. The artifacts which
+ * are projects of the workspace are not kept, m2eclipse has them already.
+ * </p>
+ */
+final class ArtifactProjectResolver {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	/** How long all the artifacts of one call may take to resolve. */
+	static final long TIMEOUT_SECONDS = 120;
+
+	private static final int MAX_THREADS = 8;
+
+	private static final int MAX_ENTRIES = 1024;
+
+	private static final Map<String, CachedProject> projects = new LinkedHashMap<String, CachedProject>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, CachedProject> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Turns a resolved artifact into a result.
+	 *
+	 * @param <T> the type of the result
+	 */
+	static interface IArtifactTransformer<T> {
+
+		/**
+		 * Transforms the artifact.
+		 *
+		 * @param artifact the artifact
+		 * @param project the artifact resolved as a Maven project
+		 * @return the result, null if there is none
+		 * @throws Exception the exception
+		 */
+		public T transform(Artifact artifact, MavenProject project)
+				throws Exception;
+	}
+
+	private ArtifactProjectResolver() {
+		super();
+	}
+
+	/**
+	 * Resolves the given artifacts and transforms them.
+	 *
+	 * @param <T> the type of the results
+	 * @param api the api
+	 * @param artifacts the artifacts
+	 * @param transformer the transformer
+	 * @return the non null results, in the order of the artifacts
+	 */
+	static <T> List<T> resolve(final IMavenEclipseApi api,
+			final Collection<Artifact> artifacts,
+			final IArtifactTransformer<T> transformer) {
+		final List<T> results = new ArrayList<T>(artifacts.size());
+		if (artifacts.isEmpty()) {
+			return results;
+		}
+		final long time = System.currentTimeMillis();
+		final int threadCount = Math.min(artifacts.size(), Math.min(
+				MAX_THREADS, Runtime.getRuntime().availableProcessors() * 2));
+		final ExecutorService executor = new ResolverExecutor(threadCount);
+		try {
+			final List<Callable<T>> tasks = new ArrayList<Callable<T>>(
+					artifacts.size());
+			for (Artifact artifact : artifacts) {
+				// the resolution sets the file of the artifact
+				final Artifact copy = ArtifactUtils.copyArtifact(artifact);
+				tasks.add(new Callable<T>() {
+					public T call() throws Exception {
+						return transformer.transform(copy, resolveAsProject(
+								api, copy));
+					}
+				});
+			}
+			final List<Future<T>> futures;
+			try {
+				// the artifacts not resolved by then are cancelled
+				futures = executor.invokeAll(tasks, TIMEOUT_SECONDS,
+						TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return results;
+			}
+			int index = 0;
+			for (Artifact artifact : artifacts) {
+				final Future<T> future = futures.get(index++);
+				if (future.isCancelled()) {
+					logger.warning("Timed out after ", TIMEOUT_SECONDS,
+							"s when loading artifact [", artifact,
+							"], ignoring this artifact");
+					continue;
+				}
+				try {
+					final T result = future.get();
+					if (result != null) {
+						results.add(result);
+					}
+				} catch (ExecutionException e) {
+					logger.warning("Error Occured when loading artifact ["
+							+ artifact + "], ignoring this artifact", e
+							.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		} finally {
+			// the running resolutions finish on their own
+			executor.shutdown();
+		}
+		if (SOALogger.DEBUG) {
+			logger.debug("Resolved ", results.size(), " of ",
+					artifacts.size(), " artifacts in ",
+					System.currentTimeMillis() - time, "ms with ",
+					threadCount, " threads");
+		}
+		return results;
+	}
+
+	/**
+	 * Resolves the given artifact as a Maven project, from the cache if its
+	 * POM has not changed.
+	 *
+	 * @param api the api
+	 * @param artifact the artifact, its file is set if it had none
+	 * @return the Maven project, a copy of the cached one for an artifact of
+	 * the local repository
+	 * @throws MavenEclipseApiException the maven eclipse api exception
+	 */
+	static MavenProject resolveAsProject(IMavenEclipseApi api,
+			Artifact artifact) throws MavenEclipseApiException {
+		if (MavenApiHelper.getMavenProjectManager().getMavenProject(
+				artifact.getGroupId(), artifact.getArtifactId(),
+				artifact.getVersion()) != null) {
+			// a project of the workspace
+			return api.resolveArtifactAsProject(artifact);
+		}
+		final String key = artifact.getGroupId() + ":"
+				+ artifact.getArtifactId() + ":" + artifact.getVersion() + ":"
+				+ artifact.getType();
+		if (artifact.getFile() == null) {
+			// locates the artifact in the local repository
+			api.resolveArtifact(artifact);
+		}
+		final File pomFile = artifact.getFile() != null ? MavenEclipseUtil
+				.getArtifactPOMFile(artifact) : null;
+		final String stamp = pomFile != null ? pomFile.lastModified() + ":"
+				+ pomFile.length() : null;
+		if (stamp != null) {
+			final CachedProject cached;
+			synchronized (projects) {
+				cached = projects.get(key);
+			}
+			if (cached != null && cached.stamp.equals(stamp)) {
+				final MavenProject project = cached.project.get();
+				if (project != null) {
+					return project.clone();
+				}
+			}
+		}
+		final MavenProject project = api.resolveArtifactAsProject(artifact);
+		if (project != null && pomFile != null) {
+			// the POM may have been downloaded by the resolution
+			final CachedProject cached = new CachedProject(project, pomFile
+					.lastModified()
+					+ ":" + pomFile.length());
+			synchronized (projects) {
+				projects.put(key, cached);
+			}
+			return project.clone();
+		}
+		return project;
+	}
+
+	/**
+	 * Drops all the cached Maven projects.
+	 */
+	static void clear() {
+		synchronized (projects) {
+			projects.clear();
+		}
+	}
+
+	/**
+	 * A fixed pool of daemon threads whose tasks are cancelled without being
+	 * interrupted. An interrupted resolution may leave a half written file in
+	 * the local repository, so a timed out one is left to finish and only its
+	 * result is dropped.
+	 */
+	private static class ResolverExecutor extends ThreadPoolExecutor {
+		ResolverExecutor(int threadCount) {
+			super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						public Thread newThread(Runnable r) {
+							final Thread thread = new Thread(r,
+									"SOA Artifact Resolver-"
+											+ count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+
+		@Override
+		protected <V> RunnableFuture<V> newTaskFor(Callable<V> callable) {
+			return new FutureTask<V>(callable) {
+				@Override
+				public boolean cancel(boolean mayInterruptIfRunning) {
+					return super.cancel(false);
+				}
+			};
+		}
+	}
+
+	private static class CachedProject {
+		private final SoftReference<MavenProject> project;
+		private final String stamp;
+
+		CachedProject(MavenProject project, String stamp) {
+			this.project = new SoftReference<MavenProject>(project);
+			this.stamp = stamp;
+		}
+	}
+}
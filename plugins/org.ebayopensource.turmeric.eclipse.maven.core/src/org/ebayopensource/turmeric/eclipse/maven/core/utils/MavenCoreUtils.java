@@ -19,10 +19,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Dependency;
@@ -40,6 +37,7 @@ import org.ebayopensource.turmeric.eclipse.maven.core.repositorysystem.IMavenOrg
 import org.ebayopensource.turmeric.eclipse.mavenapi.MavenApiPlugin;
 import org.ebayopensource.turmeric.eclipse.mavenapi.exception.MavenEclipseApiException;
 import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenApiHelper;
+import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenArtifactCatalog;
 import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenEclipseUtil;
 import org.ebayopensource.turmeric.eclipse.mavenapi.intf.IMavenEclipseApi;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
@@ -59,6 +57,7 @@ import org.ebayopensource.turmeric.eclipse.resources.util.SOAIntfUtil;
 import org.ebayopensource.turmeric.eclipse.utils.collections.ListUtil;
 import org.ebayopensource.turmeric.eclipse.utils.collections.SetUtil;
 import org.ebayopensource.turmeric.eclipse.utils.core.VersionUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.JarMetadataCache;
 import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IFile;
@@ -98,6 +97,15 @@ public class MavenCoreUtils {
 	public static IMavenEclipseApi mavenEclipseAPI() {
 		return mavenEclipseAPI;
 	}
+
+	/**
+	 * Artifact catalog.
+	 *
+	 * @return the cached catalog of the artifacts in the Maven index
+	 */
+	public static MavenArtifactCatalog artifactCatalog() {
+		return MavenApiPlugin.getDefault().getArtifactCatalog();
+	}
 
 	/**
 	 * 
@@ -177,11 +185,11 @@ public class MavenCoreUtils {
 		if (SOALogger.DEBUG)
 			logger.entering(SetUtil.set(serviceNames));
 		final boolean[] results = new boolean[serviceNames.length];
-		final IMavenEclipseApi api = mavenEclipseAPI();
 		final Set<String> existingServices = new HashSet<String>();
 		String intfGroupId = getMavenOrgProviderInstance().getProjectGroupId(
 				SupportedProjectType.INTERFACE);
-		for (final Artifact artifact : api.findGroup(intfGroupId)) {
+		for (final Artifact artifact : artifactCatalog().getArtifacts(
+				intfGroupId)) {
 			existingServices.add(artifact.getArtifactId());
 		}
 		if (SOALogger.DEBUG)
@@ -208,9 +216,9 @@ public class MavenCoreUtils {
 		boolean result = false;
 		String groupId = getMavenOrgProviderInstance().getProjectGroupId(
 				SupportedProjectType.TYPE_LIBRARY);
-		for (final Artifact artifact : mavenEclipseAPI()
-				.findArtifactByNameAndGroup(typeLibName, groupId)) {
-			if (artifact.getArtifactId().equalsIgnoreCase(typeLibName)) {
+		for (final Artifact artifact : artifactCatalog().getArtifacts(groupId,
+				typeLibName)) {
+			if (groupId.equalsIgnoreCase(artifact.getGroupId())) {
 				result = true;
 				break;
 			}
@@ -623,20 +631,14 @@ public class MavenCoreUtils {
 
 	private static Set<AssetInfo> getAllLibraries(String groupID)
 			throws Exception {
-		final Set<AssetInfo> result = new LinkedHashSet<AssetInfo>();
-		for (final Artifact artifact : mavenEclipseAPI().findGroup(groupID)) {
-			try {
-				final MavenProject project = mavenEclipseAPI()
-						.resolveArtifactAsProject(artifact);
-				final AssetInfo info = getLibraryInfo(project);
-				if (info != null)
-					result.add(info);
-			} catch (Exception e) {
-				logger.warning("Error Occured when loading artifact ["
-						+ artifact + "], ignoring this artifact", e);
-			}
-		}
-		return result;
+		return new LinkedHashSet<AssetInfo>(ArtifactProjectResolver.resolve(
+				mavenEclipseAPI(), artifactCatalog().getArtifacts(groupID),
+				new ArtifactProjectResolver.IArtifactTransformer<AssetInfo>() {
+					public AssetInfo transform(Artifact artifact,
+							MavenProject project) {
+						return getLibraryInfo(project);
+					}
+				}));
 	}
 
 	/**
@@ -659,19 +661,17 @@ public class MavenCoreUtils {
 	public static Set<? extends AssetInfo> getAllServicesInLocalRepository()
 			throws Exception {
 		final Set<AssetInfo> services = SetUtil.linkedSet();
-		final IMavenEclipseApi api = mavenEclipseAPI();
-		for (final Artifact artifact : api
-				.findGroup(getMavenOrgProviderInstance().getProjectGroupId(
-						SupportedProjectType.INTERFACE))) {
-			try {
-				final MavenProject project = api
-						.resolveArtifactAsProject(artifact);
-				services.add(getIntfProjectInfoFromProperties(
-						artifact.getArtifactId(), project));
-			} catch (Exception e) {
-				logger.warning(e);
-			}
-		}
+		services.addAll(ArtifactProjectResolver.resolve(mavenEclipseAPI(),
+				artifactCatalog().getArtifacts(
+						getMavenOrgProviderInstance().getProjectGroupId(
+								SupportedProjectType.INTERFACE)),
+				new ArtifactProjectResolver.IArtifactTransformer<AssetInfo>() {
+					public AssetInfo transform(Artifact artifact,
+							MavenProject project) throws Exception {
+						return getIntfProjectInfoFromProperties(artifact
+								.getArtifactId(), project);
+					}
+				}));
 		return services;
 	}
 
@@ -737,11 +737,8 @@ public class MavenCoreUtils {
 
 		InputStream io = null;
 		if (file.exists() && file.canRead()) {
-			final JarFile jarFile = new JarFile(file);
-			final JarEntry jarEntry = jarFile.getJarEntry(jarEntryPath);
-			if (jarEntry != null) {
-				io = jarFile.getInputStream(jarEntry);
-			} else {
+			io = JarMetadataCache.getInputStream(file, jarEntryPath);
+			if (io == null) {
 				logger.warning("Can not find the jar entry->" + jarEntryPath);
 			}
 		} else {
@@ -778,20 +775,19 @@ public class MavenCoreUtils {
 			final String serviceName = projectName;
 			final String implProjectName = props
 					.getProperty(SOAMavenConstants.POM_PROP_KEY_IMPL_PROJECT_NAME);
-			Properties metadataProps = null;
-			InputStream io = null;
-			try {
-				final String jarEntryPath = StringUtil.toString(
-						SOAProjectConstants.FOLDER_META_INF,
-						SOAIntfProject.FOLDER_SOA_COMMON_CONFIG,
-						WorkspaceUtil.PATH_SEPERATOR, serviceName,
-						WorkspaceUtil.PATH_SEPERATOR,
-						SOAProjectConstants.PROPS_FILE_SERVICE_METADATA);
-				io = getInputStreamFromJar(mProject, jarEntryPath);
-				metadataProps = new Properties();
-				metadataProps.load(io);
-			} finally {
-				IOUtils.closeQuietly(io);
+			final String jarEntryPath = StringUtil.toString(
+					SOAProjectConstants.FOLDER_META_INF,
+					SOAIntfProject.FOLDER_SOA_COMMON_CONFIG,
+					WorkspaceUtil.PATH_SEPERATOR, serviceName,
+					WorkspaceUtil.PATH_SEPERATOR,
+					SOAProjectConstants.PROPS_FILE_SERVICE_METADATA);
+			final File jarFile = getJarFileForService(mProject);
+			// read once per jar, the jar is not held open
+			final Properties metadataProps = JarMetadataCache.getProperties(
+					jarFile, jarEntryPath);
+			if (metadataProps == null) {
+				logger.warning("Can not find the jar entry->", jarEntryPath,
+						" in ", jarFile);
 			}
 
 			result = createProjectInfoFromMetadataProps(serviceName,
@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.mavenapi;
 
+import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenArtifactCatalog;
 import org.ebayopensource.turmeric.eclipse.mavenapi.impl.MavenEclipseApi;
 import org.ebayopensource.turmeric.eclipse.mavenapi.intf.IMavenEclipseApi;
 import org.eclipse.core.runtime.Plugin;
@@ -31,6 +32,9 @@ public class MavenApiPlugin extends Plugin {
 	// The shared API instance
 	private MavenEclipseApi mavenEclipseApi;
 
+	// The shared catalog of the indexed artifacts
+	private MavenArtifactCatalog artifactCatalog;
+
 	/**
 	 * The constructor.
 	 */
@@ -46,6 +50,7 @@ public class MavenApiPlugin extends Plugin {
 		plugin = this;
 		// Create the service object
 		mavenEclipseApi = new MavenEclipseApi();
+		artifactCatalog = new MavenArtifactCatalog(mavenEclipseApi);
 	}
 
 	/* (non-Javadoc)
@@ -53,6 +58,7 @@ public class MavenApiPlugin extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		artifactCatalog.dispose();
 		plugin = null;
 		super.stop(context);
 	}
@@ -74,4 +80,13 @@ public class MavenApiPlugin extends Plugin {
 	public IMavenEclipseApi getMavenEclipseApi() {
 		return mavenEclipseApi;
 	}
+
+	/**
+	 * Returns the shared catalog of the indexed artifacts.
+	 * 
+	 * @return the shared instance
+	 */
+	public MavenArtifactCatalog getArtifactCatalog() {
+		return artifactCatalog;
+	}
 }
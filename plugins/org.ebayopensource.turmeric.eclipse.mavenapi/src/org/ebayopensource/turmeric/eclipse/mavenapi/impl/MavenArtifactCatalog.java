@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.mavenapi.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.ebayopensource.turmeric.eclipse.mavenapi.exception.MavenEclipseApiException;
+import org.ebayopensource.turmeric.eclipse.mavenapi.intf.IMavenEclipseApi;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.maven.ide.eclipse.index.IndexManager;
+import org.maven.ide.eclipse.internal.index.IndexListener;
+import org.maven.ide.eclipse.internal.index.NexusIndexManager;
+import org.maven.ide.eclipse.project.IMavenProjectChangedListener;
+import org.maven.ide.eclipse.project.MavenProjectChangedEvent;
+import org.maven.ide.eclipse.repository.IRepository;
+
+/**
+ * An in memory catalog of the artifacts of the Maven groups, so the wizards
+ * and validators asking whether a service or a library exists do not query
+ * the Maven index again and again.
+ *
+ * <p>
+ * A group is read from the index with {@link IMavenEclipseApi#findGroup(String)}
+ * the first time it is asked for, and its artifacts are kept sorted by their
+ * lower case artifact id. All the groups are dropped when an index has been
+ * added, updated or removed, or when a Maven project of the workspace has
+ * changed, and read again on the next lookup.
+ * </p>
+ */
+public final class MavenArtifactCatalog {
+	private final IMavenEclipseApi api;
+
+	/** The artifacts of a group by lower case artifact id. */
+	private final Map<String, SortedMap<String, List<Artifact>>> groups = new HashMap<String, SortedMap<String, List<Artifact>>>();
+
+	/** Incremented on every change, so a stale read is not kept. */
+	private long generation;
+
+	private boolean listening;
+
+	/** Whether the index reports its changes, nothing is kept otherwise. */
+	private boolean indexListening;
+
+	private final IndexListener indexListener = new IndexListener() {
+		public void indexAdded(IRepository repository) {
+			invalidate();
+		}
+
+		public void indexChanged(IRepository repository) {
+			invalidate();
+		}
+
+		public void indexRemoved(IRepository repository) {
+			invalidate();
+		}
+
+		public void indexUpdating(IRepository repository) {
+			// the change is reported once the update is done
+		}
+	};
+
+	private final IMavenProjectChangedListener projectListener = new IMavenProjectChangedListener() {
+		public void mavenProjectChanged(MavenProjectChangedEvent[] events,
+				IProgressMonitor monitor) {
+			invalidate();
+		}
+	};
+
+	/**
+	 * Instantiates a new catalog.
+	 *
+	 * @param api the api reading the index
+	 */
+	public MavenArtifactCatalog(IMavenEclipseApi api) {
+		this.api = api;
+	}
+
+	/**
+	 * Gets all the artifacts of a group, the same as
+	 * {@link IMavenEclipseApi#findGroup(String)}.
+	 *
+	 * @param groupId the group id
+	 * @return the artifacts sorted by artifact id
+	 * @throws MavenEclipseApiException the maven eclipse api exception
+	 */
+	public List<Artifact> getArtifacts(String groupId)
+			throws MavenEclipseApiException {
+		final List<Artifact> result = new ArrayList<Artifact>();
+		for (List<Artifact> artifacts : getGroup(groupId).values()) {
+			result.addAll(artifacts);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets all the versions of an artifact, its artifact id compared
+	 * ignoring the case.
+	 *
+	 * @param groupId the group id
+	 * @param artifactId the artifact id
+	 * @return the artifacts, an empty list if there is none
+	 * @throws MavenEclipseApiException the maven eclipse api exception
+	 */
+	public List<Artifact> getArtifacts(String groupId, String artifactId)
+			throws MavenEclipseApiException {
+		final List<Artifact> artifacts = getGroup(groupId).get(
+				artifactId.toLowerCase());
+		if (artifacts == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(artifacts);
+	}
+
+	/**
+	 * Checks whether an artifact exists, its artifact id compared ignoring
+	 * the case.
+	 *
+	 * @param groupId the group id
+	 * @param artifactId the artifact id
+	 * @return true, if it exists
+	 * @throws MavenEclipseApiException the maven eclipse api exception
+	 */
+	public boolean exists(String groupId, String artifactId)
+			throws MavenEclipseApiException {
+		return getGroup(groupId).containsKey(artifactId.toLowerCase());
+	}
+
+	/**
+	 * Gets the artifacts of a group whose artifact id starts with the given
+	 * prefix, ignoring the case.
+	 *
+	 * @param groupId the group id
+	 * @param prefix the prefix of the artifact id
+	 * @return the artifacts sorted by artifact id
+	 * @throws MavenEclipseApiException the maven eclipse api exception
+	 */
+	public List<Artifact> findByPrefix(String groupId, String prefix)
+			throws MavenEclipseApiException {
+		final String from = prefix.toLowerCase();
+		final List<Artifact> result = new ArrayList<Artifact>();
+		// the artifact ids starting with the prefix sort right after it
+		for (List<Artifact> artifacts : getGroup(groupId).subMap(from,
+				from + Character.MAX_VALUE).values()) {
+			result.addAll(artifacts);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the generation of the catalog, which changes whenever an index or
+	 * a Maven project of the workspace has changed.
+	 *
+	 * @return the generation
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Drops all the groups, they are read from the index again on the next
+	 * lookup.
+	 */
+	public synchronized void invalidate() {
+		generation++;
+		groups.clear();
+	}
+
+	/**
+	 * Stops listening to the index and the workspace.
+	 */
+	public synchronized void dispose() {
+		if (listening) {
+			try {
+				final IndexManager indexManager = MavenApiHelper
+						.getMavenIndexManager();
+				if (indexManager instanceof NexusIndexManager) {
+					((NexusIndexManager) indexManager)
+							.removeIndexListener(indexListener);
+				}
+				MavenApiHelper.getMavenProjectManager()
+						.removeMavenProjectChangedListener(projectListener);
+			} catch (RuntimeException e) {
+				// m2eclipse has been stopped already
+			}
+			listening = false;
+			indexListening = false;
+		}
+		invalidate();
+	}
+
+	private SortedMap<String, List<Artifact>> getGroup(String groupId)
+			throws MavenEclipseApiException {
+		final long loadedGeneration;
+		synchronized (this) {
+			final SortedMap<String, List<Artifact>> group = groups.get(groupId);
+			if (group != null) {
+				return group;
+			}
+			listen();
+			loadedGeneration = generation;
+		}
+		// the index is queried without holding the lock
+		final SortedMap<String, List<Artifact>> group = new TreeMap<String, List<Artifact>>();
+		final Collection<Artifact> artifacts = api.findGroup(groupId);
+		for (Artifact artifact : artifacts) {
+			final String key = artifact.getArtifactId().toLowerCase();
+			List<Artifact> versions = group.get(key);
+			if (versions == null) {
+				versions = new ArrayList<Artifact>();
+				group.put(key, versions);
+			}
+			versions.add(artifact);
+		}
+		final SortedMap<String, List<Artifact>> result = Collections
+				.unmodifiableSortedMap(group);
+		synchronized (this) {
+			if (indexListening && generation == loadedGeneration) {
+				groups.put(groupId, result);
+			}
+		}
+		return result;
+	}
+
+	private void listen() {
+		if (listening) {
+			return;
+		}
+		final IndexManager indexManager = MavenApiHelper.getMavenIndexManager();
+		if (indexManager instanceof NexusIndexManager) {
+			((NexusIndexManager) indexManager).addIndexListener(indexListener);
+			indexListening = true;
+		}
+		MavenApiHelper.getMavenProjectManager()
+				.addMavenProjectChangedListener(projectListener);
+		listening = true;
+	}
+}
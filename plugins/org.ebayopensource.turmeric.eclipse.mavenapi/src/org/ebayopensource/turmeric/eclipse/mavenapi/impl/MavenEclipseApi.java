@@ -24,7 +24,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.Query;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Build;
@@ -355,20 +354,19 @@ public class MavenEclipseApi extends AbstractMavenEclipseApi {
 		try {
 			BooleanQuery bq = new BooleanQuery();
 			BooleanQuery.setMaxClauseCount(Integer.MAX_VALUE);
-			Query query = null;
+			// a blank name or group matches anything, so it is not queried
+			// at all instead of expanding a "*" to every term of the index
 			if (StringUtils.isNotBlank(name)) {
 				bq.add(new WildcardQuery(new Term(ArtifactInfo.ARTIFACT_ID,
 						name.toLowerCase())), Occur.MUST);
-			} else {
-				bq.add(new WildcardQuery(
-						new Term(ArtifactInfo.ARTIFACT_ID, "*")), Occur.MUST);
 			}
 			if (StringUtils.isNotBlank(group)) {
 				bq.add(new WildcardQuery(new Term(ArtifactInfo.GROUP_ID, group
 						.toLowerCase())), Occur.MUST);
-			} else {
-				bq.add(new WildcardQuery(new Term(ArtifactInfo.GROUP_ID, "*")),
-						Occur.MUST);
+			}
+			if (bq.clauses().isEmpty()) {
+				bq.add(new WildcardQuery(
+						new Term(ArtifactInfo.ARTIFACT_ID, "*")), Occur.MUST);
 			}
 			
 			RepositoryInfo repository = new RepositoryInfo(null, repositoryUrl,
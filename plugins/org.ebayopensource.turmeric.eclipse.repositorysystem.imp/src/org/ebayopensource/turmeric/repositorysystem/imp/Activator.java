@@ -10,6 +10,8 @@ package org.ebayopensource.turmeric.repositorysystem.imp;
 
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
+import org.ebayopensource.turmeric.repositorysystem.imp.impl.CodegenDaemonExecutor;
+import org.ebayopensource.turmeric.repositorysystem.imp.impl.TurmericAssetCatalog;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
@@ -26,6 +28,10 @@ public class Activator extends Plugin {
 
 	private static Activator plugin;
 
+	private TurmericAssetCatalog assetCatalog;
+
+	private CodegenDaemonExecutor codegenDaemon;
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -48,6 +54,16 @@ public class Activator extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		synchronized (this) {
+			if (assetCatalog != null) {
+				assetCatalog.dispose();
+				assetCatalog = null;
+			}
+			if (codegenDaemon != null) {
+				codegenDaemon.dispose();
+				codegenDaemon = null;
+			}
+		}
 		plugin = null;
 		super.stop(context);
 	}
@@ -61,4 +77,30 @@ public class Activator extends Plugin {
 		return plugin;
 	}
 
+	/**
+	 * Gets the catalog of the services available in the repository, which
+	 * is kept in the state location of this plugin.
+	 *
+	 * @return the asset catalog
+	 */
+	public synchronized TurmericAssetCatalog getAssetCatalog() {
+		if (assetCatalog == null) {
+			assetCatalog = new TurmericAssetCatalog(getStateLocation().toFile());
+		}
+		return assetCatalog;
+	}
+
+	/**
+	 * Gets the executor running the codegen engine in a worker process, which
+	 * is stopped with this plugin.
+	 *
+	 * @return the codegen daemon
+	 */
+	public synchronized CodegenDaemonExecutor getCodegenDaemon() {
+		if (codegenDaemon == null) {
+			codegenDaemon = new CodegenDaemonExecutor();
+		}
+		return codegenDaemon;
+	}
+
 }
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.repositorysystem.imp.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.maven.core.model.MavenProjectInfo;
+import org.ebayopensource.turmeric.eclipse.resources.model.AssetInfo;
+
+/**
+ * The binary file the {@link TurmericAssetCatalog} keeps the services in
+ * between two sessions. A file written by another version of the format is
+ * ignored.
+ */
+public final class AssetCatalogFile {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	/** "SOAC" */
+	private static final int MAGIC = 0x534F4143;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final File catalogFile;
+
+	/**
+	 * Instantiates a new catalog file.
+	 *
+	 * @param catalogFile the file
+	 */
+	public AssetCatalogFile(File catalogFile) {
+		this.catalogFile = catalogFile;
+	}
+
+	/**
+	 * Reads the services.
+	 *
+	 * @return the services, null if the file does not exist or can not be
+	 * read
+	 */
+	public Set<AssetInfo> read() {
+		synchronized (this) {
+			if (catalogFile.isFile() == false) {
+				return null;
+			}
+			DataInputStream input = null;
+			try {
+				input = new DataInputStream(new BufferedInputStream(
+						new FileInputStream(catalogFile)));
+				if (input.readInt() != MAGIC
+						|| input.readInt() != FORMAT_VERSION) {
+					return null;
+				}
+				final Set<AssetInfo> result = new TreeSet<AssetInfo>();
+				for (int i = input.readInt(); i > 0; i--) {
+					result.add(readService(input));
+				}
+				return result;
+			} catch (IOException e) {
+				logger.warning("Failed to read the catalog of services "
+						+ catalogFile + ", reading the repository instead", e);
+				return null;
+			} finally {
+				IOUtils.closeQuietly(input);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given services, replacing the file at once. The assets which
+	 * are not services are left out.
+	 *
+	 * @param assets the services
+	 */
+	public void write(Collection<AssetInfo> assets) {
+		final List<MavenProjectInfo> toWrite = new ArrayList<MavenProjectInfo>();
+		for (AssetInfo asset : assets) {
+			if (asset instanceof MavenProjectInfo) {
+				toWrite.add((MavenProjectInfo) asset);
+			}
+		}
+		synchronized (this) {
+			catalogFile.getParentFile().mkdirs();
+			// written aside, so a crash does not leave half a catalog
+			final File tempFile = new File(catalogFile.getPath() + ".tmp");
+			DataOutputStream output = null;
+			try {
+				output = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(tempFile)));
+				output.writeInt(MAGIC);
+				output.writeInt(FORMAT_VERSION);
+				output.writeInt(toWrite.size());
+				for (MavenProjectInfo service : toWrite) {
+					writeService(output, service);
+				}
+				output.close();
+				output = null;
+				catalogFile.delete();
+				if (tempFile.renameTo(catalogFile) == false) {
+					tempFile.delete();
+				}
+			} catch (IOException e) {
+				logger.warning("Failed to write the catalog of services "
+						+ catalogFile, e);
+				tempFile.delete();
+			} finally {
+				IOUtils.closeQuietly(output);
+			}
+		}
+	}
+
+	private static MavenProjectInfo readService(DataInputStream input)
+			throws IOException {
+		final MavenProjectInfo service = new MavenProjectInfo(
+				readString(input), readString(input), readString(input),
+				readString(input), readString(input));
+		service.setServiceGroupID(readString(input));
+		service.setInterfaceProjectName(readString(input));
+		service.setImplementationProjectName(readString(input));
+		service.setJarNames(readStrings(input, new ArrayList<String>()));
+		readStrings(input, service.getRequiredLibraries());
+		readStrings(input, service.getRequiredProjects());
+		readStrings(input, service.getRequiredServices());
+		return service;
+	}
+
+	private static void writeService(DataOutputStream output,
+			MavenProjectInfo service) throws IOException {
+		writeString(output, service.getGroupID());
+		writeString(output, service.getName());
+		writeString(output, service.getVersion());
+		writeString(output, service.getServiceLayer());
+		writeString(output, service.getType());
+		writeString(output, service.getServiceGroupID());
+		writeString(output, service.getInterfaceProjectName());
+		writeString(output, service.getImplementationProjectName());
+		writeStrings(output, service.getJarNames());
+		writeStrings(output, service.getRequiredLibraries());
+		writeStrings(output, service.getRequiredProjects());
+		writeStrings(output, service.getRequiredServices());
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		return input.readBoolean() ? input.readUTF() : null;
+	}
+
+	private static void writeString(DataOutputStream output, String value)
+			throws IOException {
+		output.writeBoolean(value != null);
+		if (value != null) {
+			output.writeUTF(value);
+		}
+	}
+
+	private static <C extends Collection<String>> C readStrings(
+			DataInputStream input, C values) throws IOException {
+		for (int i = input.readInt(); i > 0; i--) {
+			values.add(input.readUTF());
+		}
+		return values;
+	}
+
+	private static void writeStrings(DataOutputStream output,
+			Collection<String> values) throws IOException {
+		if (values == null) {
+			output.writeInt(0);
+			return;
+		}
+		output.writeInt(values.size());
+		for (String value : values) {
+			output.writeUTF(value);
+		}
+	}
+}
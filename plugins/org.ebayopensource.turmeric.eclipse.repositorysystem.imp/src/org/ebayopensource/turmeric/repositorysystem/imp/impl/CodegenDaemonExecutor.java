@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.repositorysystem.imp.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOACodegenExecutor;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.preferences.core.PreferenceReader;
+import org.ebayopensource.turmeric.eclipse.soatools.codegen.CodegenDaemon;
+import org.ebayopensource.turmeric.eclipse.soatools.codegen.ProjectClassLoaderCache;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.ProgressUtil;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Constants;
+
+/**
+ * Runs the codegen engine in a worker process, the {@link CodegenDaemon},
+ * which is started on the first code generation and kept running, so the
+ * engine stays loaded between the builds without taking room in the heap of
+ * the IDE.
+ *
+ * <p>
+ * The code generations are sent one at a time over a loopback socket, with
+ * the stamps of the class path entries so the worker loads the project
+ * classes again once they have been rebuilt, and what the engine prints is
+ * shown on the progress monitor. The worker is
+ * started again if it has died, and killed if the code generation is
+ * canceled.
+ * </p>
+ */
+public class CodegenDaemonExecutor implements ISOACodegenExecutor {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	/**
+	 * The bundles required by the plugin holding the codegen engine, whose
+	 * classes the engine loads as well.
+	 */
+	private static final String[] ENGINE_BUNDLES = { "javax.wsdl",
+			"org.apache.xerces", "org.apache.commons.lang", "org.jdom",
+			"org.apache.commons.collections", "org.apache.commons.io" };
+
+	/** How often a running code generation checks for cancellation. */
+	private static final int POLL_INTERVAL = 500;
+
+	private Process process;
+
+	private Writer processInput;
+
+	private Socket socket;
+
+	private DataInputStream in;
+
+	private DataOutputStream out;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized boolean execute(String[] parameters,
+			IProgressMonitor monitor) throws Exception {
+		monitor = ProgressUtil.getDefaultMonitor(monitor);
+		final URL[] classpath = getClasspath();
+		for (int attempt = 1;; attempt++) {
+			try {
+				start();
+				return send(parameters, classpath, monitor);
+			} catch (IOException e) {
+				stop();
+				if (attempt > 1) {
+					throw e;
+				}
+				logger.warning("The codegen daemon stopped, restarting it", e);
+			}
+		}
+	}
+
+	/**
+	 * Stops the worker process.
+	 */
+	public synchronized void dispose() {
+		stop();
+	}
+
+	/**
+	 * Checks whether the worker process is running.
+	 *
+	 * @return true if the worker has been started and has not exited
+	 */
+	public synchronized boolean isRunning() {
+		return process != null && isRunning(process);
+	}
+
+	private static URL[] getClasspath() {
+		final ClassLoader loader = Thread.currentThread()
+				.getContextClassLoader();
+		return loader instanceof URLClassLoader ? ((URLClassLoader) loader)
+				.getURLs() : new URL[0];
+	}
+
+	private boolean send(String[] parameters, URL[] classpath,
+			IProgressMonitor monitor) throws IOException {
+		out.writeInt(classpath.length);
+		for (URL url : classpath) {
+			out.writeUTF(url.toExternalForm());
+			out.writeLong(ProjectClassLoaderCache.getStamp(url));
+		}
+		out.writeInt(parameters.length);
+		for (String parameter : parameters) {
+			out.writeUTF(parameter);
+		}
+		out.flush();
+		while (true) {
+			final int frame = readFrame(monitor);
+			switch (frame) {
+			case CodegenDaemon.FRAME_OUTPUT:
+				final String line = in.readUTF();
+				monitor.subTask(line);
+				if (SOALogger.DEBUG) {
+					logger.debug(line);
+				}
+				break;
+			case CodegenDaemon.FRAME_ERROR:
+				logger.error("Codegen failed in the codegen daemon:\n"
+						+ in.readUTF());
+				break;
+			case CodegenDaemon.FRAME_RESULT:
+				return in.readBoolean();
+			default:
+				throw new IOException("Unexpected frame " + frame
+						+ " from the codegen daemon");
+			}
+		}
+	}
+
+	/**
+	 * Waits for the next frame, checking the monitor while the worker is
+	 * busy.
+	 */
+	private int readFrame(IProgressMonitor monitor) throws IOException {
+		socket.setSoTimeout(POLL_INTERVAL);
+		try {
+			while (true) {
+				try {
+					final int frame = in.read();
+					if (frame < 0) {
+						throw new EOFException(
+								"The codegen daemon closed the connection");
+					}
+					return frame;
+				} catch (SocketTimeoutException e) {
+					if (monitor.isCanceled()) {
+						// the engine can not be interrupted, the worker is
+						// started again for the next code generation
+						stop();
+						throw new OperationCanceledException();
+					}
+				}
+			}
+		} finally {
+			if (socket != null) {
+				socket.setSoTimeout(0);
+			}
+		}
+	}
+
+	private void start() throws IOException {
+		if (isRunning()) {
+			return;
+		}
+		stop();
+		final List<String> command = new ArrayList<String>();
+		command.add(getJavaExecutable());
+		command.add("-Xmx" + PreferenceReader.getCodegenDaemonMaxHeap());
+		command.add("-cp");
+		command.add(getDaemonClasspath());
+		command.add(CodegenDaemon.class.getName());
+		final long time = System.currentTimeMillis();
+		process = new ProcessBuilder(command).redirectErrorStream(true)
+				.start();
+		// the token is not passed on the command line, which others can see
+		final String token = UUID.randomUUID().toString();
+		processInput = new OutputStreamWriter(process.getOutputStream(),
+				"UTF-8");
+		processInput.write(token + "\n");
+		processInput.flush();
+
+		final BufferedReader output = new BufferedReader(
+				new InputStreamReader(process.getInputStream()));
+		String line;
+		while ((line = output.readLine()) != null
+				&& line.startsWith(CodegenDaemon.PORT_PREFIX) == false) {
+			logger.warning(line);
+		}
+		if (line == null) {
+			throw new IOException("The codegen daemon failed to start");
+		}
+		final int port = Integer.parseInt(StringUtils.substringAfter(line,
+				CodegenDaemon.PORT_PREFIX).trim());
+		final Thread drainer = new Thread("SOA Codegen Daemon Output") {
+			@Override
+			public void run() {
+				try {
+					String text;
+					while ((text = output.readLine()) != null) {
+						logger.warning(text);
+					}
+				} catch (IOException e) {
+					// the worker is gone
+				}
+			}
+		};
+		drainer.setDaemon(true);
+		drainer.start();
+
+		socket = new Socket(InetAddress.getByName(null), port);
+		socket.setTcpNoDelay(true);
+		in = new DataInputStream(new BufferedInputStream(socket
+				.getInputStream()));
+		out = new DataOutputStream(new BufferedOutputStream(socket
+				.getOutputStream()));
+		out.writeUTF(token);
+		out.flush();
+		logger.info("Started the codegen daemon on port ", port, " in ",
+				System.currentTimeMillis() - time, "ms");
+	}
+
+	private void stop() {
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// closed anyway
+			}
+			socket = null;
+			in = null;
+			out = null;
+		}
+		// the worker exits once its input is closed
+		IOUtils.closeQuietly(processInput);
+		processInput = null;
+		if (process != null) {
+			process.destroy();
+			process = null;
+		}
+	}
+
+	private static boolean isRunning(Process process) {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	private static String getJavaExecutable() {
+		final File bin = new File(System.getProperty("java.home"), "bin");
+		File java = new File(bin, "java.exe");
+		if (java.isFile() == false) {
+			java = new File(bin, "java");
+		}
+		return java.getPath();
+	}
+
+	/**
+	 * Gets the jars of the plugin holding the codegen engine and the worker,
+	 * followed by the jars of the bundles it requires.
+	 */
+	private static String getDaemonClasspath() throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		addBundleClasspath(org.ebayopensource.turmeric.eclipse.soatools.Activator
+				.getDefault().getBundle(), entries);
+		for (String symbolicName : ENGINE_BUNDLES) {
+			final Bundle bundle = Platform.getBundle(symbolicName);
+			if (bundle == null) {
+				logger.warning("The bundle ", symbolicName,
+						" is not installed, it is left out of the class path ",
+						"of the codegen daemon");
+				continue;
+			}
+			addBundleClasspath(bundle, entries);
+		}
+		return StringUtils.join(entries, File.pathSeparatorChar);
+	}
+
+	/**
+	 * Adds the jars of the Bundle-ClassPath of the given bundle, or the
+	 * bundle itself if it has none. The nested jars are extracted.
+	 */
+	private static void addBundleClasspath(Bundle bundle, List<String> entries)
+			throws IOException {
+		final String header = (String) bundle.getHeaders().get(
+				Constants.BUNDLE_CLASSPATH);
+		for (String entry : StringUtils.split(
+				StringUtils.isBlank(header) ? "." : header, ',')) {
+			final String path = StringUtils.substringBefore(entry, ";").trim();
+			final File file;
+			if (".".equals(path)) {
+				file = FileLocator.getBundleFile(bundle);
+			} else {
+				final URL url = FileLocator.find(bundle, new Path(path), null);
+				if (url == null) {
+					continue;
+				}
+				file = new File(FileLocator.toFileURL(url).getPath());
+			}
+			entries.add(file.getAbsolutePath());
+		}
+	}
+}
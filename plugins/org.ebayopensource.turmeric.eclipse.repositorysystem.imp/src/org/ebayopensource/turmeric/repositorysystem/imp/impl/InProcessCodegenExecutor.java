@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.repositorysystem.imp.impl;
+
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOACodegenExecutor;
+import org.ebayopensource.turmeric.tools.codegen.ServiceGenerator;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Runs the codegen engine in the IDE, on the calling thread.
+ */
+public class InProcessCodegenExecutor implements ISOACodegenExecutor {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean execute(String[] parameters, IProgressMonitor monitor)
+			throws Exception {
+		ServiceGenerator serviceGenerator = new ServiceGenerator();
+		serviceGenerator.startCodeGen(parameters);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void dispose() {
+		// nothing is held
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.repositorysystem.imp.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.maven.core.model.MavenProjectInfo;
+import org.ebayopensource.turmeric.eclipse.maven.core.utils.MavenCoreUtils;
+import org.ebayopensource.turmeric.eclipse.resources.model.AssetInfo;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * The services available in the repository, kept in memory and in a file of
+ * the plugin state location, so the Services view and the searches do not
+ * resolve every service of the local repository again on every call, nor
+ * after a restart of the IDE.
+ *
+ * <p>
+ * After a restart the services are read from the file and returned right
+ * away, while they are reconciled with the repository in the background. Once
+ * reconciled, they are computed again before they are returned if the Maven
+ * index or a Maven project of the workspace has changed since, and in the
+ * background if they are older than {@link #MAX_AGE}.
+ * </p>
+ */
+public final class TurmericAssetCatalog {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final String CATALOG_FILE = "assetCatalog.dat";
+
+	/** How long the services are used without a check of the repository. */
+	static final long MAX_AGE = 10 * 60 * 1000L;
+
+	private final AssetCatalogFile catalogFile;
+
+	/** The services, null if not read yet. */
+	private Set<AssetInfo> services;
+
+	private long reconciledGeneration;
+
+	/** When the services were reconciled, 0 if they were read from the file. */
+	private long reconciledTime;
+
+	private Job reconcileJob;
+
+	private final Object writeLock = new Object();
+
+	/** The generation of the services last written, guarded by writeLock. */
+	private long writtenGeneration = -1;
+
+	/**
+	 * Instantiates a new catalog.
+	 *
+	 * @param stateLocation the state location of the plugin
+	 */
+	public TurmericAssetCatalog(File stateLocation) {
+		this.catalogFile = new AssetCatalogFile(new File(stateLocation,
+				CATALOG_FILE));
+	}
+
+	/**
+	 * Gets all the available services.
+	 *
+	 * @return a copy of the services, which the caller may modify
+	 * @throws Exception the exception
+	 */
+	public Set<AssetInfo> getServices() throws Exception {
+		synchronized (this) {
+			if (services == null) {
+				services = catalogFile.read();
+			}
+			if (services != null) {
+				if (reconciledTime == 0) {
+					scheduleReconcile();
+					return copy(services);
+				}
+				if (reconciledGeneration == MavenCoreUtils.artifactCatalog()
+						.getGeneration()) {
+					if (System.currentTimeMillis() - reconciledTime > MAX_AGE) {
+						scheduleReconcile();
+					}
+					return copy(services);
+				}
+			}
+		}
+		return copy(reconcile());
+	}
+
+	/**
+	 * Stops the reconciliation running in the background.
+	 */
+	public synchronized void dispose() {
+		if (reconcileJob != null) {
+			reconcileJob.cancel();
+			reconcileJob = null;
+		}
+	}
+
+	private void scheduleReconcile() {
+		if (reconcileJob != null) {
+			return;
+		}
+		reconcileJob = new Job("Reconciling the SOA services of the repository") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					reconcile();
+				} catch (Exception e) {
+					logger.warning(
+							"Failed to reconcile the services of the repository",
+							e);
+				} finally {
+					synchronized (TurmericAssetCatalog.this) {
+						reconcileJob = null;
+					}
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		reconcileJob.setSystem(true);
+		reconcileJob.setPriority(Job.DECORATE);
+		reconcileJob.schedule();
+	}
+
+	private Set<AssetInfo> reconcile() throws Exception {
+		// taken first, so a change made while computing is not missed
+		final long generation = MavenCoreUtils.artifactCatalog()
+				.getGeneration();
+		final long time = System.currentTimeMillis();
+		final Set<AssetInfo> result = new TreeSet<AssetInfo>(MavenCoreUtils
+				.getAllServicesInLocalRepository());
+		synchronized (this) {
+			if (generation < reconciledGeneration) {
+				// a reconcile which started later has already finished
+				return services;
+			}
+			services = result;
+			reconciledGeneration = generation;
+			reconciledTime = System.currentTimeMillis();
+		}
+		if (SOALogger.DEBUG) {
+			logger.debug("Reconciled ", result.size(), " services in ",
+					System.currentTimeMillis() - time, "ms");
+		}
+		synchronized (writeLock) {
+			if (generation >= writtenGeneration) {
+				catalogFile.write(result);
+				writtenGeneration = generation;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Copies the services, the callers are free to modify what they get.
+	 */
+	private static Set<AssetInfo> copy(Set<AssetInfo> assets) {
+		final Set<AssetInfo> result = new TreeSet<AssetInfo>();
+		for (AssetInfo asset : assets) {
+			if (asset instanceof MavenProjectInfo) {
+				final MavenProjectInfo service = (MavenProjectInfo) asset;
+				final MavenProjectInfo copy = new MavenProjectInfo(service
+						.getGroupID(), service.getName(), service.getVersion(),
+						service.getServiceLayer(), service.getType());
+				copy.setServiceGroupID(service.getServiceGroupID());
+				copy.setInterfaceProjectName(service.getInterfaceProjectName());
+				copy.setImplementationProjectName(service
+						.getImplementationProjectName());
+				if (service.getJarNames() != null) {
+					copy.setJarNames(new ArrayList<String>(service
+							.getJarNames()));
+				}
+				addAll(copy.getRequiredLibraries(), service
+						.getRequiredLibraries());
+				addAll(copy.getRequiredProjects(), service.getRequiredProjects());
+				addAll(copy.getRequiredServices(), service.getRequiredServices());
+				result.add(copy);
+			} else {
+				result.add(asset);
+			}
+		}
+		return result;
+	}
+
+	private static void addAll(Collection<String> to, Collection<String> from) {
+		if (from != null) {
+			to.addAll(from);
+		}
+	}
+}
@@ -15,7 +15,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants.SupportedProjectType;
 import org.ebayopensource.turmeric.eclipse.maven.core.model.MavenAssetInfo;
@@ -41,6 +40,7 @@ import org.ebayopensource.turmeric.eclipse.resources.util.SOAImplUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAIntfUtil;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAServiceUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.ebayopensource.turmeric.repositorysystem.imp.Activator;
 import org.ebayopensource.turmeric.repositorysystem.imp.utils.TurmericConstants;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -67,12 +67,7 @@ public class TurmericAssetRegistry implements ISOAAssetRegistry {
 	 * @see org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOAAssetRegistry#getAllLibraries()
 	 */
 	public Set<? extends AssetInfo> getAllAvailableServices() throws Exception {
-		final Set<AssetInfo> result = new TreeSet<AssetInfo>();
-		
-		for (final AssetInfo assetInfo : MavenCoreUtils.getAllServicesInLocalRepository()) {
-			result.add(assetInfo);
-		}
-		return result;
+		return Activator.getDefault().getAssetCatalog().getServices();
 	}
 
 	/**
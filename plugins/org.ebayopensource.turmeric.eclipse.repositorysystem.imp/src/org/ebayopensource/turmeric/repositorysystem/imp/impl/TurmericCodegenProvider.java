@@ -9,12 +9,26 @@
 package org.ebayopensource.turmeric.repositorysystem.imp.impl;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
-import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOACodegenProvider;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOABatchCodegenProvider;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ISOACodegenExecutor;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOACodegenRequest;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.preferences.core.PreferenceReader;
 import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
-import org.ebayopensource.turmeric.tools.codegen.ServiceGenerator;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
+import org.ebayopensource.turmeric.repositorysystem.imp.Activator;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.osgi.framework.Bundle;
 
 /**
@@ -22,35 +36,161 @@ import org.osgi.framework.Bundle;
  *
  * @author smatthew
  */
-public class TurmericCodegenProvider implements ISOACodegenProvider {
+public class TurmericCodegenProvider implements ISOABatchCodegenProvider {
 
 	private static final SOALogger logger = SOALogger.getLogger();
 
+	private static final int MAX_CODEGEN_THREADS = 4;
+
+	private static final ISOACodegenExecutor IN_PROCESS_EXECUTOR = new InProcessCodegenExecutor();
+
+	private ISOACodegenExecutor codegenExecutor;
+
 	/**
 	 * {@inheritDoc}
 	 * 
 	 */
 	public boolean generateCode(String[] parameters) {
+		if (prepareClassLoader() == null) {
+			return false;
+		}
+		return runCodegen(getCodegenExecutor(), parameters, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	public boolean generateCode(List<SOACodegenRequest> requests,
+			IProgressMonitor monitor) throws InterruptedException {
+		final SOAPluginClassLoader classLoader = prepareClassLoader();
+		if (classLoader == null) {
+			return false;
+		}
+		final ISOACodegenExecutor engine = getCodegenExecutor();
+		final int threadCount = Math.min(requests.size(), Math.min(
+				MAX_CODEGEN_THREADS, Runtime.getRuntime().availableProcessors()));
+		// the other executors run one code generation at a time anyway
+		if (threadCount <= 1 || PreferenceReader.isParallelCodegen() == false
+				|| (engine instanceof InProcessCodegenExecutor) == false) {
+			boolean result = true;
+			for (SOACodegenRequest request : requests) {
+				result &= runCodegen(engine, request, monitor);
+			}
+			return result;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				threadCount, new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						final Thread thread = new Thread(r, "SOA Codegen-"
+								+ count.incrementAndGet());
+						thread.setDaemon(true);
+						thread.setContextClassLoader(classLoader);
+						return thread;
+					}
+				});
+		try {
+			final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(
+					requests.size());
+			for (final SOACodegenRequest request : requests) {
+				futures.add(executor.submit(new Callable<Boolean>() {
+					public Boolean call() throws Exception {
+						// the monitor is not meant to be used by several threads
+						return runCodegen(engine, request, null);
+					}
+				}));
+			}
+			boolean result = true;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					result &= futures.get(i).get();
+				} catch (ExecutionException e) {
+					logger.error("Failed to generate the code of "
+							+ requests.get(i).getName(), e.getCause());
+					result = false;
+				}
+			}
+			return result;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Sets up the class loader of the current thread for the codegen.
+	 * 
+	 * @return the class loader, or null if the current thread does not use
+	 * the SOA class loader
+	 */
+	private SOAPluginClassLoader prepareClassLoader() {
 		ClassLoader classLoaderBasic = Thread.currentThread()
 				.getContextClassLoader();
 		if ((classLoaderBasic instanceof SOAPluginClassLoader) == false) {
 			logger.error("Need to use SOAClassloader" + " in current thread!");
-			return false;
+			return null;
 		}
 		SOAPluginClassLoader classLoader = (SOAPluginClassLoader) classLoaderBasic;
 		ArrayList<Bundle> bundles = new ArrayList<Bundle>();
 		bundles.add(org.ebayopensource.turmeric.eclipse.soatools.Activator
 				.getDefault().getBundle());
 		classLoader.setPluginBundles(bundles);
+		return classLoader;
+	}
+
+	/**
+	 * Runs one request of a batch, recording the time spent in the engine
+	 * under the gen type of the request.
+	 */
+	private boolean runCodegen(ISOACodegenExecutor engine,
+			SOACodegenRequest request, IProgressMonitor monitor) {
+		final long start = BuildMetrics.start();
+		try {
+			return runCodegen(engine, request.toArguments(), monitor);
+		} finally {
+			BuildMetrics.stop(BuildMetrics.CODEGEN_PREFIX
+					+ request.getGenType(), request.getProject(), start);
+		}
+	}
 
+	private boolean runCodegen(ISOACodegenExecutor engine,
+			String[] parameters, IProgressMonitor monitor) {
 		try {
-			ServiceGenerator serviceGenerator = new ServiceGenerator();
-			serviceGenerator.startCodeGen(parameters);
+			return engine.execute(parameters, monitor);
+		} catch (OperationCanceledException e) {
+			throw e;
 		} catch (Exception e) {
 			logger.error(e);
 			return false;
 		}
-		return true;
+	}
+
+	/**
+	 * Gets the executor running the codegen engine: the codegen daemon if it
+	 * is enabled in the preferences, the engine running in the IDE otherwise,
+	 * unless another executor has been set.
+	 *
+	 * @return the executor
+	 */
+	public synchronized ISOACodegenExecutor getCodegenExecutor() {
+		if (codegenExecutor != null) {
+			return codegenExecutor;
+		}
+		if (PreferenceReader.isCodegenDaemon()) {
+			return Activator.getDefault().getCodegenDaemon();
+		}
+		return IN_PROCESS_EXECUTOR;
+	}
+
+	/**
+	 * Sets the executor running the codegen engine, for example to run it in
+	 * a separate process instead of the IDE.
+	 *
+	 * @param executor the executor, null to use the default one
+	 */
+	public synchronized void setCodegenExecutor(ISOACodegenExecutor executor) {
+		this.codegenExecutor = executor;
 	}
 
 	/**
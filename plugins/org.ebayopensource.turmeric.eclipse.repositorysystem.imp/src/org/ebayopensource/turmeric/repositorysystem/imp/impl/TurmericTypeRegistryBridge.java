@@ -15,7 +15,8 @@ import java.io.File;
 import java.io.InputStream;
 import java.util.List;
 
-import javax.xml.bind.JAXB;
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBException;
 
 import org.ebayopensource.turmeric.common.config.LibraryType;
 import org.ebayopensource.turmeric.common.config.ReferredType;
@@ -26,6 +27,7 @@ import org.ebayopensource.turmeric.common.config.TypeLibraryType;
 import org.ebayopensource.turmeric.eclipse.maven.core.repositorysystem.AbstractMavenTypeRegistryBridge;
 import org.ebayopensource.turmeric.eclipse.soatools.Activator;
 import org.ebayopensource.turmeric.eclipse.utils.collections.ListUtil;
+import org.ebayopensource.turmeric.eclipse.utils.xml.JAXBContextCache;
 import org.ebayopensource.turmeric.repositorysystem.imp.utils.TurmericConstants;
 import org.ebayopensource.turmeric.tools.library.SOAGlobalRegistryFactory;
 import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
@@ -108,14 +110,23 @@ public class TurmericTypeRegistryBridge extends AbstractMavenTypeRegistryBridge
 	 */
 	public TypeLibraryDependencyType unmarshalTypeLibraryDependencyType(
 			InputStream inputStream) {
-		return JAXB.unmarshal(inputStream, TypeLibraryDependencyType.class);
+		try {
+			return JAXBContextCache.unmarshal(inputStream,
+					TypeLibraryDependencyType.class);
+		} catch (JAXBException e) {
+			throw new DataBindingException(e);
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	public TypeLibraryType unmarshalTypeInformationType(InputStream inputStream) {
-		return JAXB.unmarshal(inputStream, TypeLibraryType.class);
+		try {
+			return JAXBContextCache.unmarshal(inputStream, TypeLibraryType.class);
+		} catch (JAXBException e) {
+			throw new DataBindingException(e);
+		}
 	}
 
 	/**
@@ -123,7 +134,11 @@ public class TurmericTypeRegistryBridge extends AbstractMavenTypeRegistryBridge
 	 */
 	public void marshalTypeLibraryDependencyType(
 			TypeLibraryDependencyType type, File xmlFile) {
-		JAXB.marshal(type, xmlFile);
+		try {
+			JAXBContextCache.marshal(type, xmlFile);
+		} catch (JAXBException e) {
+			throw new DataBindingException(e);
+		}
 	}
 
 	/**
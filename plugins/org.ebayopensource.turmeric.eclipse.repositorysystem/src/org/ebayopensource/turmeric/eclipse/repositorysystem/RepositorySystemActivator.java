@@ -9,11 +9,17 @@
 package org.ebayopensource.turmeric.eclipse.repositorysystem;
 
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAGlobalRegistryAdapter;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.JDTUtil;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.osgi.framework.BundleContext;
 
 
@@ -48,6 +54,16 @@ public class RepositorySystemActivator extends Plugin {
     	buf.append("SOAPlugin.start - ");
     	buf.append(JDTUtil.getBundleInfo(context.getBundle(), SOALogger.DEBUG));
         SOALogger.getLogger().info(buf);
+		// the type registry takes a while, start loading it in the background
+		SOAGlobalRegistryAdapter.getInstance().initialize();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(
+				SOAGlobalRegistryAdapter.getInstance()
+						.getTypeLibraryProjectListener(),
+				IResourceChangeEvent.POST_CHANGE);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(
+				SOAProjectIndex.getInstance(), IResourceChangeEvent.POST_CHANGE);
+		JavaCore.addElementChangedListener(SOAProjectIndex.getInstance(),
+				ElementChangedEvent.POST_CHANGE);
 	}
 	
 
@@ -57,6 +73,13 @@ public class RepositorySystemActivator extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(
+				SOAGlobalRegistryAdapter.getInstance()
+						.getTypeLibraryProjectListener());
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(
+				SOAProjectIndex.getInstance());
+		JavaCore.removeElementChangedListener(SOAProjectIndex.getInstance());
+		SOAProjectIndex.getInstance().clear();
 		plugin = null;
 		super.stop(context);
 	}
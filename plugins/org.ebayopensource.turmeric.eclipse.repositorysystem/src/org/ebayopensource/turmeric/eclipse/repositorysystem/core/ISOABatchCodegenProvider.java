@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * A codegen provider which can also run a batch of code generations at once.
+ * It is optional, the requests are passed one by one to
+ * {@link ISOACodegenProvider#generateCode(String[])} for the providers which
+ * do not implement it.
+ */
+public interface ISOABatchCodegenProvider extends ISOACodegenProvider {
+
+	/**
+	 * Call codegen of specified system for a batch of requests, for example
+	 * the client code of all the services a consumer requires. The code
+	 * generation is set up once for the whole batch, and the requests may run
+	 * concurrently, so they must not depend on each other. A failed request
+	 * does not stop the others. The time each request spends in the engine
+	 * is recorded in the build metrics under its own gen type.
+	 *
+	 * @param requests the codegen requests
+	 * @param monitor the progress monitor, may be null
+	 * @return true if all the requests succeeded
+	 * @throws Exception the exception
+	 */
+	public boolean generateCode(List<SOACodegenRequest> requests,
+			IProgressMonitor monitor) throws Exception;
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Runs the codegen engine for an {@link ISOACodegenProvider}, for example
+ * inside the IDE or in a separate worker process.
+ */
+public interface ISOACodegenExecutor {
+
+	/**
+	 * Runs one code generation. It is called with the context class loader of
+	 * the current thread holding the class path of the project.
+	 *
+	 * @param parameters the codegen parameters
+	 * @param monitor the progress monitor, may be null
+	 * @return true if success
+	 * @throws Exception the exception thrown by the code generation
+	 */
+	public boolean execute(String[] parameters, IProgressMonitor monitor)
+			throws Exception;
+
+	/**
+	 * Releases the resources held by this executor.
+	 */
+	public void dispose();
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.JAXBException;
+
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.common.config.LibraryType;
+import org.ebayopensource.turmeric.common.config.TypeInformationType;
+import org.ebayopensource.turmeric.common.config.TypeLibraryDependencyType;
+import org.ebayopensource.turmeric.common.config.TypeLibraryType;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.utils.xml.JAXBContextCache;
+import org.ebayopensource.turmeric.tools.library.RegistryUpdateDetails;
+import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
+import org.ebayopensource.turmeric.tools.library.TypeDependencyParser;
+import org.ebayopensource.turmeric.tools.library.TypeInformationParser;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Populates the SOA type registry with many type libraries at once.
+ *
+ * <p>
+ * This is the same work as
+ * {@link SOATypeRegistry#populateRegistryWithTypeLibrariesDetailed(List)},
+ * except that the TypeInformation.xml and TypeDependencies.xml files are
+ * read and parsed by a pool of worker threads. Only the parsing is done in
+ * parallel: the parsed libraries are added to the registry one at a time by
+ * the calling thread, the types of a library which are gone since the last
+ * load are removed like the registry does it, and the type dependencies are
+ * processed once all the types are known.
+ * </p>
+ *
+ * <p>
+ * The registry is not thread safe and its readers do not synchronize on
+ * anything, so it is incomplete and must not be handed out to other threads
+ * before {@link #load(Collection, Collection, IProgressMonitor)} has returned.
+ * </p>
+ */
+public class ParallelTypeRegistryLoader {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final String TYPE_INFORMATION_FILE = "TypeInformation.xml";
+
+	private static final String TYPE_DEPENDENCIES_FILE = "TypeDependencies.xml";
+
+	private final SOATypeRegistry registry;
+
+	private final ClassLoader typeLibClassLoader;
+
+	private final int threadCount;
+
+	/**
+	 * Instantiates a new loader.
+	 *
+	 * @param registry the registry to populate
+	 * @param typeLibClassLoader the class loader of the type libraries
+	 * @param threadCount the number of worker threads
+	 */
+	public ParallelTypeRegistryLoader(SOATypeRegistry registry,
+			ClassLoader typeLibClassLoader, int threadCount) {
+		this.registry = registry;
+		this.typeLibClassLoader = typeLibClassLoader;
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	/**
+	 * Loads the given libraries into the registry.
+	 *
+	 * @param workspaceLibraries the names of the libraries in the workspace
+	 * @param jarLibraries the names of the libraries from jars
+	 * @param monitor the monitor
+	 * @return the details of the libraries which could not be loaded
+	 * @throws Exception the exception
+	 */
+	public List<RegistryUpdateDetails> load(
+			Collection<String> workspaceLibraries,
+			Collection<String> jarLibraries, IProgressMonitor monitor)
+			throws Exception {
+		final List<RegistryUpdateDetails> failures = new ArrayList<RegistryUpdateDetails>();
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				threadCount, new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						final Thread thread = new Thread(r,
+								"SOA Type Registry Loader-"
+										+ count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			final CompletionService<ParsedLibrary> completionService = new ExecutorCompletionService<ParsedLibrary>(
+					executor);
+			// the pool is FIFO, so the workspace libraries are parsed first
+			for (String library : workspaceLibraries) {
+				completionService.submit(new LibraryParser(library));
+			}
+			for (String library : jarLibraries) {
+				completionService.submit(new LibraryParser(library));
+			}
+			final List<ParsedLibrary> loaded = new ArrayList<ParsedLibrary>();
+			final int total = workspaceLibraries.size() + jarLibraries.size();
+			for (int i = 0; i < total; i++) {
+				final ParsedLibrary library = completionService.take().get();
+				if (library.error == null) {
+					try {
+						addTypeLibrary(library.name, library.typeLibrary);
+						loaded.add(library);
+					} catch (Exception e) {
+						library.error = e;
+					}
+				}
+				if (library.error != null) {
+					failures.add(failure(library.name, TYPE_INFORMATION_FILE,
+							library.error));
+				}
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+			}
+			for (ParsedLibrary library : loaded) {
+				if (library.dependencies == null) {
+					continue;
+				}
+				try {
+					addTypeDependencies(library.name, library.dependencies);
+				} catch (Exception e) {
+					failures.add(failure(library.name, TYPE_DEPENDENCIES_FILE,
+							e));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+
+	/**
+	 * Adds a parsed type library to the registry and removes the types which
+	 * the previously loaded version of the library had but this one has not.
+	 *
+	 * @param name the name of the library
+	 * @param typeLibrary the content of its TypeInformation.xml
+	 * @throws Exception the exception
+	 */
+	protected void addTypeLibrary(String name, TypeLibraryType typeLibrary)
+			throws Exception {
+		final TypeLibraryType previous = registry.getTypeLibrary(name);
+		TypeInformationParser.getInstance().populateTypeInfoGlobalTable(
+				typeLibrary, name);
+		if (previous == null || previous == typeLibrary) {
+			return;
+		}
+		final Set<String> removedTypes = new HashSet<String>();
+		for (TypeInformationType type : previous.getType()) {
+			removedTypes.add(type.getXmlTypeName());
+		}
+		for (TypeInformationType type : typeLibrary.getType()) {
+			removedTypes.remove(type.getXmlTypeName());
+		}
+		for (String typeName : removedTypes) {
+			final LibraryType libraryType = new LibraryType();
+			libraryType.setName(typeName);
+			libraryType.setLibraryInfo(previous);
+			libraryType.setNamespace(previous.getLibraryNamespace());
+			try {
+				registry.removeTypeFromRegistry(libraryType);
+			} catch (Exception e) {
+				logger.warning("Could not remove the deleted type ", typeName,
+						" of library ", name, " from the registry: ", e);
+			}
+		}
+	}
+
+	/**
+	 * Adds the parsed type dependencies of a library to the registry. Called
+	 * once all the type libraries have been added.
+	 *
+	 * @param name the name of the library
+	 * @param dependencies the content of its TypeDependencies.xml
+	 * @throws Exception the exception
+	 */
+	protected void addTypeDependencies(String name,
+			TypeLibraryDependencyType dependencies) throws Exception {
+		TypeDependencyParser.getInstance().processTypeLibraryDependencyType(
+				dependencies);
+	}
+
+	private static RegistryUpdateDetails failure(String library,
+			String fileName, Exception e) {
+		final RegistryUpdateDetails details = new RegistryUpdateDetails();
+		details.setLibraryName(library);
+		details.setIsUpdateSucess(false);
+		details.setMessage(fileName + " file of library " + library
+				+ " has issues. The exception is :" + e.getMessage());
+		return details;
+	}
+
+	private static class ParsedLibrary {
+		private final String name;
+		private TypeLibraryType typeLibrary;
+		private TypeLibraryDependencyType dependencies;
+		private Exception error;
+
+		ParsedLibrary(String name) {
+			this.name = name;
+		}
+	}
+
+	private class LibraryParser implements Callable<ParsedLibrary> {
+		private final String library;
+
+		LibraryParser(String library) {
+			this.library = library;
+		}
+
+		public ParsedLibrary call() {
+			final ParsedLibrary result = new ParsedLibrary(library);
+			final Thread thread = Thread.currentThread();
+			final ClassLoader original = thread.getContextClassLoader();
+			try {
+				thread.setContextClassLoader(typeLibClassLoader);
+				result.typeLibrary = unmarshal(TYPE_INFORMATION_FILE,
+						TypeLibraryType.class);
+				if (result.typeLibrary == null) {
+					throw new IllegalStateException(
+							"Could not find the TypeInformation.xml file for library "
+									+ library);
+				}
+				result.dependencies = unmarshal(TYPE_DEPENDENCIES_FILE,
+						TypeLibraryDependencyType.class);
+			} catch (Exception e) {
+				if (SOALogger.DEBUG) {
+					logger.debug(e);
+				}
+				result.error = e;
+			} finally {
+				thread.setContextClassLoader(original);
+			}
+			return result;
+		}
+
+		private <T> T unmarshal(String fileName, Class<T> type)
+				throws JAXBException {
+			final InputStream input = typeLibClassLoader
+					.getResourceAsStream("META-INF/" + library + "/" + fileName);
+			if (input == null) {
+				return null;
+			}
+			try {
+				return JAXBContextCache.unmarshal(input, type);
+			} finally {
+				IOUtils.closeQuietly(input);
+			}
+		}
+	}
+}
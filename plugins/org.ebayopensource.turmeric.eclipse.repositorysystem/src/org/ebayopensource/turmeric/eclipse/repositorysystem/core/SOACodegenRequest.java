@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ebayopensource.turmeric.eclipse.repositorysystem.model.BaseCodeGenModel;
+import org.ebayopensource.turmeric.eclipse.utils.collections.MapUtil;
+
+/**
+ * One code generation of a batch passed to
+ * {@link ISOABatchCodegenProvider#generateCode(java.util.List, org.eclipse.core.runtime.IProgressMonitor)},
+ * for example the client code of one of the services a consumer requires.
+ */
+public class SOACodegenRequest {
+	private final String name;
+	private final String project;
+	private final Map<String, String> options;
+
+	/**
+	 * Instantiates a new codegen request.
+	 *
+	 * @param name the name of the request, like the service name, used in
+	 * the messages
+	 * @param project the name of the project the code is generated for, used
+	 * in the build metrics, may be null
+	 * @param options the codegen options by option name, the null values are
+	 * ignored
+	 */
+	public SOACodegenRequest(String name, String project,
+			Map<String, String> options) {
+		this.name = name;
+		this.project = project;
+		this.options = Collections
+				.unmodifiableMap(new LinkedHashMap<String, String>(options));
+	}
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the name of the project the code is generated for.
+	 *
+	 * @return the project name, may be null
+	 */
+	public String getProject() {
+		return project;
+	}
+
+	/**
+	 * Gets the gen type of this code generation, which may differ between
+	 * the requests of a batch.
+	 *
+	 * @return the gen type option
+	 */
+	public String getGenType() {
+		return options.get(BaseCodeGenModel.PARAM_GENTYPE);
+	}
+
+	/**
+	 * Gets the codegen options.
+	 *
+	 * @return the options, which can not be modified
+	 */
+	public Map<String, String> getOptions() {
+		return options;
+	}
+
+	/**
+	 * Gets the options as the arguments of the codegen command line.
+	 *
+	 * @return the arguments
+	 */
+	public String[] toArguments() {
+		return MapUtil.toArray(options, new String[0], true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "SOACodegenRequest[" + name + "]";
+	}
+}
@@ -11,22 +11,36 @@ package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
 import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.ebayopensource.turmeric.common.config.LibraryType;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOATypeLibraryConstants;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.preferences.core.PreferenceReader;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.utils.InitializationFuture;
 import org.ebayopensource.turmeric.eclipse.resources.model.AssetInfo;
 import org.ebayopensource.turmeric.eclipse.soatools.Activator;
 import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
 import org.ebayopensource.turmeric.eclipse.utils.collections.ListUtil;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.ebayopensource.turmeric.tools.library.RegistryUpdateDetails;
 import org.ebayopensource.turmeric.tools.library.SOAGlobalRegistryFactory;
 import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -45,12 +59,41 @@ import org.osgi.framework.Bundle;
  */
 public class SOAGlobalRegistryAdapter {
 
-	private static SOATypeRegistry soaTypeRegistry = null;
+	/** The phase collecting the type libraries of the repository system. */
+	public static final String PHASE_ASSET_DISCOVERY = "Asset discovery";
+
+	/** The phase building the class loader of the type libraries. */
+	public static final String PHASE_CLASSLOADER = "Class loader";
+
+	/** The phase populating the registry with the type libraries. */
+	public static final String PHASE_POPULATE_REGISTRY = "Populate registry";
+
+	/** The time in seconds {@link #getGlobalRegistry()} waits at most. */
+	public static final long DEFAULT_TIMEOUT = 5;
+
+	/** the type libraries found by discovery, guarded by the class loader lock */
 	private static Set<String> typeLibNamesForSOATools;
 	private static Set<File> typeLibLocationsForSOATools;
 	private static SOAPluginClassLoader typeLibclassLoader;
+	/** the workspace projects whose folders are on the type lib class loader */
+	private static Set<IProject> typeLibProjects = new HashSet<IProject>();
+	/** a type library project has gone, the class loader must be rebuilt */
+	private static boolean typeLibClassLoaderStale = false;
+	private static final Object classLoaderLock = new Object();
+	private static final Map<SOAPluginClassLoader, Integer> classLoaderUsers = new IdentityHashMap<SOAPluginClassLoader, Integer>();
+	private static final String TYPE_LIBRARY_NATURE = "org.ebayopensource.turmeric.eclipse.typelibrary.TypeLibraryProjectNature";
+	private static RegistryInitialization initialization = null;
 	private static final SOALogger logger = SOALogger.getLogger();
 	private static final SOAGlobalRegistryAdapter registryAdapter = new SOAGlobalRegistryAdapter();
+	private final IResourceChangeListener typeLibraryProjectListener = new TypeLibraryProjectListener();
+
+	/**
+	 * Gets notified once the initialization of the global registry has
+	 * finished.
+	 */
+	public static interface IRegistryInitializationCallback extends
+			InitializationFuture.ICallback<SOATypeRegistry> {
+	}
 	
 	private SOAGlobalRegistryAdapter() {
 		
@@ -67,49 +110,117 @@ public class SOAGlobalRegistryAdapter {
 	public static SOAGlobalRegistryAdapter getInstance() {
 		return registryAdapter;
 	}
-	
+
 	/**
-	 * Gets the global registry.
+	 * Gets the listener keeping the class loader of the type libraries in
+	 * sync with the type library projects of the workspace. It has to be
+	 * registered for {@link IResourceChangeEvent#POST_CHANGE} events.
 	 *
-	 * @return the global registry
+	 * @return the resource change listener
+	 */
+	public IResourceChangeListener getTypeLibraryProjectListener() {
+		return typeLibraryProjectListener;
+	}
+
+	/**
+	 * Starts the initialization of the global registry in the background
+	 * unless it is already running or finished.
+	 *
+	 * @return the future of the registry
+	 */
+	public Future<SOATypeRegistry> initialize() {
+		return startInitialization();
+	}
+
+	private RegistryInitialization startInitialization() {
+		synchronized (SOAGlobalRegistryAdapter.class) {
+			if (initialization == null) {
+				initialization = new RegistryInitialization(
+						new RegistryBuilder());
+				Job job = new GlobalRegistryJob("Retrieve Global Registry",
+						initialization);
+				job.setUser(false);
+				job.schedule();
+			}
+			return initialization;
+		}
+	}
+
+	/**
+	 * Registers a callback to be notified once the global registry is
+	 * initialized, the initialization is started if necessary. The callback
+	 * is called immediately if the registry is already available, otherwise
+	 * from the thread initializing the registry.
+	 *
+	 * @param callback the callback
+	 */
+	public void addInitializationCallback(
+			IRegistryInitializationCallback callback) {
+		startInitialization().addCallback(callback);
+	}
+
+	/**
+	 * Gets the global registry, waits at most {@link #DEFAULT_TIMEOUT}
+	 * seconds for the initialization to finish.
+	 *
+	 * @return the global registry, null if it is not initialized in time
 	 * @throws Exception the exception
 	 */
 	public SOATypeRegistry getGlobalRegistry() throws Exception {
-		if (soaTypeRegistry == null) {
-			long startTime = System.currentTimeMillis();
-			synchronized (SOAGlobalRegistryAdapter.class) {
-				if (soaTypeRegistry == null) {
-					Job job = new GlobalRegistryJob("Retrieve Global Registry");
-					job.setUser(false);
-					job.schedule();
-					
-					try {
-//						if (Display.getCurrent() == null) {
-//							// non-UI thread
-//							runnable.run(ProgressUtil.getDefaultMonitor(null));
-//						} else {
-//							final IProgressService service = PlatformUI
-//							.getWorkbench().getProgressService();
-//							service.run(false, false, runnable);
-//						}
-					    int cnt = 0;
-//						while ((job.getState() == Job.RUNNING || job.getState() == Job.WAITING)) {
-					    while (cnt < 5 && soaTypeRegistry == null) {
-							logger.warning("SOA types registry not initialized yet, sleeping...");
-							Thread.sleep(1000);
-							cnt++;
-						}
-					} finally {
-						if (SOALogger.DEBUG) {
-							long duration = System.currentTimeMillis() - startTime;
-							logger.info("Time taken for initializing SOA global type registry is ", 
-									duration, " ms.");
-						}
-					}
-				}
-			}
+		try {
+			return getResult(DEFAULT_TIMEOUT, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			logger.warning("SOA types registry not initialized after ",
+					DEFAULT_TIMEOUT, " seconds");
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the global registry, waits at most the given time for the
+	 * initialization to finish.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout
+	 * @return the global registry
+	 * @throws Exception the exception, a
+	 * {@link java.util.concurrent.TimeoutException} if the registry is not
+	 * initialized in time
+	 */
+	public SOATypeRegistry getGlobalRegistry(long timeout, TimeUnit unit)
+			throws Exception {
+		return getResult(timeout, unit);
+	}
+
+	/**
+	 * Gets the time in milliseconds spent in each phase of the last
+	 * initialization of the global registry, see the PHASE_* constants.
+	 *
+	 * @return the phase times in execution order, empty if the
+	 * initialization has not started yet
+	 */
+	public Map<String, Long> getInitializationTimes() {
+		final RegistryInitialization current;
+		synchronized (SOAGlobalRegistryAdapter.class) {
+			current = initialization;
+		}
+		if (current == null) {
+			return Collections.emptyMap();
+		}
+		synchronized (current.builder.phaseTimes) {
+			return new LinkedHashMap<String, Long>(current.builder.phaseTimes);
+		}
+	}
+
+	private SOATypeRegistry getResult(long timeout, TimeUnit unit)
+			throws Exception {
+		final RegistryInitialization future = startInitialization();
+		final long start = BuildMetrics.start();
+		try {
+			return future.getResult(timeout, unit);
+		} finally {
+			BuildMetrics.stop(BuildMetrics.REGISTRY_WAIT, null, start);
 		}
-		return soaTypeRegistry;
 	}
 
 	/**
@@ -119,27 +230,35 @@ public class SOAGlobalRegistryAdapter {
 	 * registry.
 	 *
 	 * @param typelibNames the typelib names
-	 * @throws Exception the exception
+	 * @throws Exception the exception, a
+	 * {@link java.util.concurrent.TimeoutException} if the registry is not
+	 * initialized within {@link #DEFAULT_TIMEOUT} seconds
 	 */
 	public void populateRegistry(String... typelibNames)
 			throws Exception {
-		getGlobalRegistry();
+		final SOATypeRegistry typeRegistry = getGlobalRegistry(
+				DEFAULT_TIMEOUT, TimeUnit.SECONDS);
 
+		discoverTypeLibraries();
+		final SOAPluginClassLoader classLoader;
+		synchronized (classLoaderLock) {
+			populateClassLoader();
+			classLoader = leaseTypeLibClassLoader();
+		}
 		ClassLoader originalClassLoader = Thread.currentThread()
 				.getContextClassLoader();
 		try {
-			init();
 			ArrayList<Bundle> bundles = new ArrayList<Bundle>();
 			bundles.add(Activator.getDefault().getBundle());
-			typeLibclassLoader.setPluginBundles(bundles);
+			classLoader.setPluginBundles(bundles);
 			if (SOALogger.DEBUG) {
 				logger.debug("In populate Registry URLs are:",
-						typeLibclassLoader.getM_classPathURLs());
+						classLoader.getM_classPathURLs());
 			}
 
-			Thread.currentThread().setContextClassLoader(typeLibclassLoader);
+			Thread.currentThread().setContextClassLoader(classLoader);
 			final List<RegistryUpdateDetails> libraries = 
-				soaTypeRegistry.populateRegistryWithTypeLibrariesDetailed(ListUtil.arrayList(
+				typeRegistry.populateRegistryWithTypeLibrariesDetailed(ListUtil.arrayList(
 						typelibNames));
 			if (libraries != null) {
 				for (RegistryUpdateDetails details : libraries) {
@@ -151,6 +270,7 @@ public class SOAGlobalRegistryAdapter {
 			}
 		} finally {
 			Thread.currentThread().setContextClassLoader(originalClassLoader);
+			releaseTypeLibClassLoader(classLoader);
 		}
 
 	}
@@ -161,7 +281,9 @@ public class SOAGlobalRegistryAdapter {
 	 * development
 	 */
 	public void invalidateRegistry() {
-		soaTypeRegistry = null;
+		synchronized (SOAGlobalRegistryAdapter.class) {
+			initialization = null;
+		}
 	}
 
 	/**
@@ -170,8 +292,18 @@ public class SOAGlobalRegistryAdapter {
 	 * @throws Exception the exception
 	 */
 	public void init() throws Exception {
-		typeLibNamesForSOATools = new HashSet<String>();
-		typeLibLocationsForSOATools = new HashSet<File>();
+		discoverTypeLibraries();
+		populateClassLoader();
+	}
+
+	/**
+	 * Collects the type libraries of the repository system which are not in
+	 * the workspace. The sets are filled before they are published under the
+	 * class loader lock, they are only read and modified with that lock.
+	 */
+	private void discoverTypeLibraries() throws Exception {
+		final Set<String> typeLibNames = new HashSet<String>();
+		final Set<File> typeLibLocations = new HashSet<File>();
 		// adding the jars
 		ITypeRegistryBridge typeRegistryBridge = GlobalRepositorySystem
 				.instanceOf().getActiveRepositorySystem()
@@ -183,15 +315,17 @@ public class SOAGlobalRegistryAdapter {
 				if (!WorkspaceUtil.getProject(assetInfo.getName())
 						.isAccessible()) {
 					// add the typlib Name String
-					typeLibNamesForSOATools.add(assetInfo.getName());
+					typeLibNames.add(assetInfo.getName());
 					// add the jar files
 					Set<File> fileSet = assetInfo.getFiles(true);
-					typeLibLocationsForSOATools.addAll(fileSet);
+					typeLibLocations.addAll(fileSet);
 				}
 			}
 		}
-
-		populateClassLoader();
+		synchronized (classLoaderLock) {
+			typeLibNamesForSOATools = typeLibNames;
+			typeLibLocationsForSOATools = typeLibLocations;
+		}
 	}
 	
 	/**
@@ -202,45 +336,151 @@ public class SOAGlobalRegistryAdapter {
 	 * @throws Exception the exception
 	 */
 	public void refreshTypeDependencyInSOATypeRegistry(String typeLibraryName) throws CoreException, Exception{
-		populateClassLoader();
+		final SOAPluginClassLoader classLoader = leaseTypeLibClassLoader(typeLibraryName);
 		ClassLoader current = Thread.currentThread().getContextClassLoader();
 		try{
-			Thread.currentThread().setContextClassLoader(typeLibclassLoader);
+			Thread.currentThread().setContextClassLoader(classLoader);
 			GlobalRepositorySystem.instanceOf().getActiveRepositorySystem().getTypeRegistryBridge()
 			.processTypeDepXMLFile(typeLibraryName);
 		}finally{
 			Thread.currentThread().setContextClassLoader(current);
+			releaseTypeLibClassLoader(classLoader);
 		}
 	}
 
+	/**
+	 * Replaces the class loader of the type libraries. The replaced class
+	 * loader is disposed right away if nobody uses it, otherwise by the last
+	 * {@link #releaseTypeLibClassLoader(SOAPluginClassLoader)}.
+	 */
 	private void populateClassLoader() throws CoreException, Exception {
-		Set<URL> urlsSet = new HashSet<URL>();
-		for (File file : typeLibLocationsForSOATools) {
-			urlsSet.add(file.toURI().toURL());
+		synchronized (classLoaderLock) {
+			Set<URL> urlsSet = new HashSet<URL>();
+			for (File file : typeLibLocationsForSOATools) {
+				urlsSet.add(file.toURI().toURL());
+			}
+			// adding type lib projects in workspace
+			final Set<IProject> projects = new HashSet<IProject>();
+			for (IProject project : WorkspaceUtil.getAllProjectsInWorkSpace()) {
+				if (isTypeLibraryProject(project)) {
+					urlsSet.add(project.getFolder(
+							SOATypeLibraryConstants.FOLDER_GEN_META_SRC)
+							.getLocation().toFile().toURI().toURL());
+					urlsSet.add(project.getFolder(
+							SOATypeLibraryConstants.FOLDER_META_SRC).getLocation()
+							.toFile().toURI().toURL());
+					projects.add(project);
+				}
+			}
+			if (SOALogger.DEBUG) {
+				for (URL url : urlsSet) {
+					logger.debug("populate classloader" + url);
+				}
+			}
+			final SOAPluginClassLoader classLoader = new SOAPluginClassLoader(
+					"SOATools", urlsSet.toArray(new URL[0]));
+			final SOAPluginClassLoader replaced = typeLibclassLoader;
+			if (replaced != null) {
+				classLoader.setPluginBundles(replaced.getPluginBundles());
+				if (classLoaderUsers.containsKey(replaced) == false) {
+					replaced.dispose();
+				}
+			}
+			typeLibclassLoader = classLoader;
+			typeLibProjects = new HashSet<IProject>();
+			for (IProject project : projects) {
+				// the folders might not exist yet
+				addTypeLibraryProject(project);
+			}
+			typeLibClassLoaderStale = false;
 		}
-		// adding type lib projects in workspace
-		for (IProject project : WorkspaceUtil.getAllProjectsInWorkSpace()) {
-			if (project.isAccessible()
-					&& project.hasNature("org.ebayopensource.turmeric.eclipse.typelibrary.TypeLibraryProjectNature")) {
-				urlsSet.add(project.getFolder(
-						SOATypeLibraryConstants.FOLDER_GEN_META_SRC)
-						.getLocation().toFile().toURI().toURL());
-				urlsSet.add(project.getFolder(
-						SOATypeLibraryConstants.FOLDER_META_SRC).getLocation()
-						.toFile().toURI().toURL());
-				typeLibNamesForSOATools.add(project.getName());
+	}
+
+	/**
+	 * Gets the class loader of the type libraries. The type library project
+	 * with the given name is added to the existing class loader if necessary,
+	 * the class loader is only rebuilt from scratch if a type library project
+	 * has been closed or deleted since it has been created. The class loader
+	 * must be given back with
+	 * {@link #releaseTypeLibClassLoader(SOAPluginClassLoader)}.
+	 */
+	private SOAPluginClassLoader leaseTypeLibClassLoader(String typeLibraryName)
+			throws CoreException, Exception {
+		synchronized (classLoaderLock) {
+			if (typeLibclassLoader == null || typeLibClassLoaderStale) {
+				if (typeLibLocationsForSOATools == null) {
+					discoverTypeLibraries();
+				}
+				populateClassLoader();
+			} else if (typeLibraryName != null) {
+				// the resource change event might not have been sent yet
+				final IProject project = WorkspaceUtil
+						.getProject(typeLibraryName);
+				if (isTypeLibraryProject(project)) {
+					addTypeLibraryProject(project);
+				}
 			}
+			return leaseTypeLibClassLoader();
 		}
-		if (SOALogger.DEBUG) {
-			for (URL url : urlsSet) {
-				logger.debug("populate classloader" + url);
+	}
+
+	/**
+	 * Leases the current class loader of the type libraries, it is not
+	 * disposed until released. Must be called with the class loader lock.
+	 */
+	private static SOAPluginClassLoader leaseTypeLibClassLoader() {
+		final Integer users = classLoaderUsers.get(typeLibclassLoader);
+		classLoaderUsers.put(typeLibclassLoader, users != null ? users + 1 : 1);
+		return typeLibclassLoader;
+	}
+
+	/**
+	 * Releases a leased class loader of the type libraries, disposes it if it
+	 * has been replaced meanwhile and this was the last user.
+	 */
+	private static void releaseTypeLibClassLoader(
+			SOAPluginClassLoader classLoader) {
+		synchronized (classLoaderLock) {
+			final Integer users = classLoaderUsers.get(classLoader);
+			if (users == null) {
+				return;
+			}
+			if (users > 1) {
+				classLoaderUsers.put(classLoader, users - 1);
+				return;
+			}
+			classLoaderUsers.remove(classLoader);
+			if (classLoader != typeLibclassLoader) {
+				classLoader.dispose();
 			}
 		}
-		typeLibclassLoader = new SOAPluginClassLoader("SOATools", urlsSet
-				.toArray(new URL[0]));
+	}
 
+	private static void addTypeLibraryProject(IProject project)
+			throws Exception {
+		if (typeLibProjects.add(project) == false) {
+			return;
+		}
+		typeLibclassLoader.addDirectory(project.getFolder(
+				SOATypeLibraryConstants.FOLDER_GEN_META_SRC).getLocation()
+				.toFile());
+		typeLibclassLoader.addDirectory(project.getFolder(
+				SOATypeLibraryConstants.FOLDER_META_SRC).getLocation().toFile());
+		if (typeLibNamesForSOATools != null) {
+			typeLibNamesForSOATools.add(project.getName());
+		}
 	}
-	
+
+	private static boolean isTypeLibraryProject(IProject project) {
+		try {
+			return project.isAccessible()
+					&& project.hasNature(TYPE_LIBRARY_NATURE);
+		} catch (CoreException e) {
+			logger.warning(e);
+			return false;
+		}
+	}
+
 	/**
 	 * Adds the type to registry.
 	 *
@@ -248,77 +488,216 @@ public class SOAGlobalRegistryAdapter {
 	 * @throws Exception the exception
 	 */
 	public void addTypeToRegistry(LibraryType libraryType) throws Exception {
-		populateClassLoader();
+		final SOAPluginClassLoader classLoader = leaseTypeLibClassLoader(
+				libraryType.getLibraryInfo() != null ? libraryType
+						.getLibraryInfo().getLibraryName() : null);
 		ClassLoader current = Thread.currentThread().getContextClassLoader();
 		try{
-			Thread.currentThread().setContextClassLoader(typeLibclassLoader);
+			Thread.currentThread().setContextClassLoader(classLoader);
 			GlobalRepositorySystem.instanceOf().getActiveRepositorySystem().getTypeRegistryBridge()
 			.getSOATypeRegistry().addTypeToRegistry(libraryType);
 		}finally{
 			Thread.currentThread().setContextClassLoader(current);
+			releaseTypeLibClassLoader(classLoader);
 		}
 	}
 	
+	/**
+	 * Adds the type library projects showing up in the workspace to the class
+	 * loader of the type libraries. Removing a project from a class loader is
+	 * not possible, so a closed or deleted type library project only marks the
+	 * class loader for rebuilding on its next use.
+	 */
+	private class TypeLibraryProjectListener implements IResourceChangeListener {
+
+		public void resourceChanged(IResourceChangeEvent event) {
+			final IResourceDelta delta = event.getDelta();
+			if (delta == null) {
+				return;
+			}
+			for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+				if (projectDelta.getKind() == IResourceDelta.ADDED
+						|| projectDelta.getKind() == IResourceDelta.REMOVED
+						|| (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+					projectChanged((IProject) projectDelta.getResource());
+				}
+			}
+		}
+
+		private void projectChanged(IProject project) {
+			synchronized (classLoaderLock) {
+				if (typeLibclassLoader == null || typeLibClassLoaderStale) {
+					// will be scanned when the class loader is rebuilt
+					return;
+				}
+				if (isTypeLibraryProject(project)) {
+					try {
+						addTypeLibraryProject(project);
+					} catch (Exception e) {
+						logger.warning(e);
+						typeLibClassLoaderStale = true;
+					}
+				} else if (typeLibProjects.contains(project)) {
+					typeLibClassLoaderStale = true;
+				}
+				if (SOALogger.DEBUG) {
+					logger.debug("Type library project changed: ", project
+							.getName(), ", class loader stale: ",
+							typeLibClassLoaderStale);
+				}
+			}
+		}
+	}
+
 	private class GlobalRegistryJob extends Job {
+		private final RegistryInitialization registryInitialization;
 
-		public GlobalRegistryJob(String name) {
+		public GlobalRegistryJob(String name,
+				RegistryInitialization initialization) {
 			super(name);
+			this.registryInitialization = initialization;
 		}
 
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
-					monitor.beginTask(
-							"Initializing SOA Type Registry...", 100);
-					monitor.internalWorked(10);
-					final ClassLoader originalClassLoader = Thread
-							.currentThread().getContextClassLoader();
-					
+			registryInitialization.run(monitor);
+			return registryInitialization.isCancelled() ? Status.CANCEL_STATUS
+					: Status.OK_STATUS;
+		}
+
+		@Override
+		protected void canceling() {
+			// nobody must wait for a job which is not going to run
+			registryInitialization.cancel(false);
+		}
+	}
+
+	private class RegistryInitialization extends
+			InitializationFuture<SOATypeRegistry> {
+		private final RegistryBuilder builder;
+
+		RegistryInitialization(RegistryBuilder builder) {
+			super(builder);
+			this.builder = builder;
+		}
+
+		void run(IProgressMonitor monitor) {
+			builder.monitor = monitor;
+			run();
+		}
+
+		@Override
+		protected void done() {
+			synchronized (SOAGlobalRegistryAdapter.class) {
+				if (initialization == this) {
 					try {
-						init();
-						monitor.worked(20);
-						Thread thread = Thread.currentThread();
-						ClassLoader loader = thread.getContextClassLoader();
-						thread.setContextClassLoader(SOAGlobalRegistryFactory.class.getClassLoader());
-						SOATypeRegistry typeReg = GlobalRepositorySystem
-						.instanceOf().getActiveRepositorySystem()
-						.getTypeRegistryBridge().getSOATypeRegistry();
-						thread.setContextClassLoader(loader);
-
-						monitor.worked(40);
-						typeLibclassLoader.setPluginBundles(
-								(GlobalRepositorySystem
-										.instanceOf().getActiveRepositorySystem()
-										.getTypeRegistryBridge().getPluginBundles()));
-						monitor.worked(10);
-						Thread.currentThread().setContextClassLoader(
-								typeLibclassLoader);
-						monitor.worked(10);
-						List<RegistryUpdateDetails> libraries = 
-							typeReg.populateRegistryWithTypeLibrariesDetailed(ListUtil.arrayList(
-								typeLibNamesForSOATools));
-						if (libraries != null) {
-							for (RegistryUpdateDetails details : libraries) {
-								if (details.isUpdateSucess() == false) {
-									logger.warning("Invalid type library->", 
-											details.getLibraryName(), ". Detailed Error: ", details.getMessage());
-								}
-							}
-						}
-						monitor.worked(10);
-						soaTypeRegistry = typeReg;
+						get();
 					} catch (Exception e) {
-						logger.error(e);
-						monitor.done();
-						return Status.CANCEL_STATUS;
-					} finally {
-						Thread.currentThread().setContextClassLoader(
-								originalClassLoader);
-						monitor.done();
+						// let the next caller try again
+						initialization = null;
 					}
-			
-			return Status.OK_STATUS;
+				}
+			}
+			super.done();
+		}
+	}
+
+	private class RegistryBuilder implements Callable<SOATypeRegistry> {
+		private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+		private IProgressMonitor monitor;
+
+		public SOATypeRegistry call() throws Exception {
+			final long startTime = System.currentTimeMillis();
+			monitor.beginTask("Initializing SOA Type Registry...", 100);
+			monitor.internalWorked(10);
+			final ClassLoader originalClassLoader = Thread.currentThread()
+					.getContextClassLoader();
+			SOAPluginClassLoader classLoader = null;
+			try {
+				long time = System.currentTimeMillis();
+				discoverTypeLibraries();
+				time = phaseFinished(PHASE_ASSET_DISCOVERY, time);
+				final List<String> libraryNames;
+				synchronized (classLoaderLock) {
+					populateClassLoader();
+					classLoader = leaseTypeLibClassLoader();
+					// the project listener keeps adding to the set
+					libraryNames = new ArrayList<String>(typeLibNamesForSOATools);
+				}
+				monitor.worked(20);
+				Thread thread = Thread.currentThread();
+				ClassLoader loader = thread.getContextClassLoader();
+				thread.setContextClassLoader(SOAGlobalRegistryFactory.class.getClassLoader());
+				SOATypeRegistry typeReg = GlobalRepositorySystem
+				.instanceOf().getActiveRepositorySystem()
+				.getTypeRegistryBridge().getSOATypeRegistry();
+				thread.setContextClassLoader(loader);
+
+				monitor.worked(40);
+				classLoader.setPluginBundles(
+						(GlobalRepositorySystem
+								.instanceOf().getActiveRepositorySystem()
+								.getTypeRegistryBridge().getPluginBundles()));
+				time = phaseFinished(PHASE_CLASSLOADER, time);
+				monitor.worked(10);
+				Thread.currentThread().setContextClassLoader(classLoader);
+				monitor.worked(10);
+				final List<RegistryUpdateDetails> libraries;
+				if (PreferenceReader.isParallelTypeRegistry()) {
+					libraries = loadInParallel(typeReg, classLoader, libraryNames);
+				} else {
+					libraries = typeReg.populateRegistryWithTypeLibrariesDetailed(libraryNames);
+				}
+				if (libraries != null) {
+					for (RegistryUpdateDetails details : libraries) {
+						if (details.isUpdateSucess() == false) {
+							logger.warning("Invalid type library->", 
+									details.getLibraryName(), ". Detailed Error: ", details.getMessage());
+						}
+					}
+				}
+				phaseFinished(PHASE_POPULATE_REGISTRY, time);
+				monitor.worked(10);
+				logger.info("Time taken for initializing SOA global type registry is ", 
+						System.currentTimeMillis() - startTime, " ms: ", phaseTimes);
+				return typeReg;
+			} catch (Exception e) {
+				logger.error(e);
+				throw e;
+			} finally {
+				Thread.currentThread().setContextClassLoader(
+						originalClassLoader);
+				if (classLoader != null) {
+					releaseTypeLibClassLoader(classLoader);
+				}
+				monitor.done();
+			}
+		}
+
+		private List<RegistryUpdateDetails> loadInParallel(
+				SOATypeRegistry typeReg, SOAPluginClassLoader classLoader,
+				List<String> libraryNames) throws Exception {
+			final List<String> workspaceLibraries = new ArrayList<String>();
+			final List<String> jarLibraries = new ArrayList<String>();
+			for (String library : libraryNames) {
+				if (WorkspaceUtil.getProject(library).isAccessible()) {
+					workspaceLibraries.add(library);
+				} else {
+					jarLibraries.add(library);
+				}
+			}
+			final ParallelTypeRegistryLoader loader = new ParallelTypeRegistryLoader(
+					typeReg, classLoader, Runtime.getRuntime().availableProcessors());
+			return loader.load(workspaceLibraries, jarLibraries, monitor);
+		}
+
+		private long phaseFinished(String phase, long startTime) {
+			final long time = System.currentTimeMillis();
+			synchronized (phaseTimes) {
+				phaseTimes.put(phase, time - startTime);
+			}
+			return time;
 		}
-		
 	}
 
 }
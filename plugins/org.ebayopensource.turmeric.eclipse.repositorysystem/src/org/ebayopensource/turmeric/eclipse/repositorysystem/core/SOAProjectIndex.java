@@ -0,0 +1,411 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.utils.collections.SetUtil;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * An in-memory index of the projects of the workspace, so the natures of a
+ * project and the projects on its classpath can be looked up without reading
+ * the project description or resolving the classpath every time.
+ *
+ * <p>
+ * The index is built on first use. A project is indexed again when its
+ * <code>.project</code> file has changed, which is checked on every lookup,
+ * so natures added in the middle of a workspace operation are seen right
+ * away. The classpath edges are resolved on first request and dropped when
+ * the <code>.classpath</code> file or the resolved classpath changes. Added,
+ * removed, opened and closed projects are picked up from the resource change
+ * events.
+ * </p>
+ */
+public final class SOAProjectIndex implements IResourceChangeListener,
+		IElementChangedListener {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final SOAProjectIndex INSTANCE = new SOAProjectIndex();
+
+	private static final String FILE_PROJECT = IProjectDescription.DESCRIPTION_FILE_NAME;
+
+	private static final String FILE_CLASSPATH = ".classpath";
+
+	private static final int CLASSPATH_CHANGED = IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	/** project name -> entry, guarded by this. */
+	private final Map<String, ProjectEntry> entries = new HashMap<String, ProjectEntry>();
+
+	/** nature id -> project names, guarded by this. */
+	private final Map<String, Set<String>> projectsByNature = new HashMap<String, Set<String>>();
+
+	private boolean initialized = false;
+
+	private SOAProjectIndex() {
+		super();
+	}
+
+	/**
+	 * Gets the shared index.
+	 *
+	 * @return the shared instance
+	 */
+	public static SOAProjectIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Checks whether the given project has one of the given natures. A project
+	 * which is not accessible is not indexed, it is asked directly and throws
+	 * the same exception as {@link IProject#hasNature(String)}.
+	 *
+	 * @param project the project, may be null
+	 * @param natureIds the nature ids
+	 * @return true, if the project has one of the natures, false for a null
+	 * project
+	 * @throws CoreException the core exception
+	 */
+	public boolean hasNature(final IProject project, final String... natureIds)
+			throws CoreException {
+		if (project == null) {
+			return false;
+		}
+		if (project.isAccessible() == false) {
+			for (String natureId : natureIds) {
+				if (project.hasNature(natureId)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return getEntry(project).hasNature(natureIds);
+	}
+
+	/**
+	 * Gets the nature ids of the given project.
+	 *
+	 * @param project the project
+	 * @return the nature ids, empty if the project is not accessible
+	 */
+	public Set<String> getNatureIds(final IProject project) {
+		if (project == null || project.isAccessible() == false) {
+			return Collections.emptySet();
+		}
+		return getEntry(project).natureIds;
+	}
+
+	/**
+	 * Gets the accessible projects having one of the given natures, sorted by
+	 * name.
+	 *
+	 * @param natureIds the nature ids
+	 * @return the projects
+	 * @see WorkspaceUtil#getProjectsByNature(String...)
+	 */
+	public ArrayList<IProject> getProjectsByNature(final String... natureIds) {
+		initialize();
+		final Set<String> names = new TreeSet<String>();
+		synchronized (this) {
+			for (String natureId : natureIds) {
+				final Set<String> projects = projectsByNature.get(natureId);
+				if (projects != null) {
+					names.addAll(projects);
+				}
+			}
+		}
+		final ArrayList<IProject> result = new ArrayList<IProject>(names
+				.size());
+		for (String name : names) {
+			final IProject project = WorkspaceUtil.getProject(name);
+			// the entry is checked again, the project might have changed
+			// since the last resource change event
+			if (project.isAccessible()
+					&& getEntry(project).hasNature(natureIds)) {
+				result.add(project);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the projects on the resolved classpath of the given project.
+	 *
+	 * @param project the project
+	 * @return the required projects, in classpath order
+	 * @throws CoreException if the classpath can not be resolved
+	 */
+	public List<IProject> getClasspathProjects(final IProject project)
+			throws CoreException {
+		if (project == null || project.isAccessible() == false) {
+			return Collections.emptyList();
+		}
+		final ProjectEntry entry = getEntry(project);
+		List<String> names = entry.classpathProjects;
+		if (names == null) {
+			names = resolveClasspathProjects(project);
+			entry.classpathProjects = names;
+		}
+		final List<IProject> result = new ArrayList<IProject>(names.size());
+		for (String name : names) {
+			result.add(WorkspaceUtil.getProject(name));
+		}
+		return result;
+	}
+
+	/**
+	 * Drops everything known about the given project, it is indexed again on
+	 * the next lookup.
+	 *
+	 * @param project the project
+	 */
+	public void invalidate(final IProject project) {
+		final String name = project.getName();
+		synchronized (this) {
+			unindex(entries.remove(name));
+		}
+		if (project.isAccessible()) {
+			getEntry(project);
+		}
+	}
+
+	/**
+	 * Drops the whole index, it is built again on the next lookup.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		projectsByNature.clear();
+		initialized = false;
+	}
+
+	/**
+	 * Keeps the index in sync with the added, removed, opened and closed
+	 * projects and the changed classpaths.
+	 *
+	 * {@inheritDoc}
+	 */
+	public void resourceChanged(final IResourceChangeEvent event) {
+		final IResourceDelta delta = event.getDelta();
+		synchronized (this) {
+			if (delta == null || initialized == false) {
+				return;
+			}
+		}
+		final List<IProject> changedProjects = new ArrayList<IProject>();
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				public boolean visit(IResourceDelta delta) throws CoreException {
+					final IResource resource = delta.getResource();
+					switch (resource.getType()) {
+					case IResource.ROOT:
+						return true;
+					case IResource.PROJECT:
+						if (delta.getKind() != IResourceDelta.CHANGED
+								|| (delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+							changedProjects.add((IProject) resource);
+							return false;
+						}
+						return true;
+					case IResource.FILE:
+						fileChanged(resource);
+						return false;
+					default:
+						return false;
+					}
+				}
+			});
+		} catch (CoreException e) {
+			logger.warning(e);
+		}
+		for (IProject project : changedProjects) {
+			invalidate(project);
+		}
+	}
+
+	/**
+	 * Drops the classpath edges of the projects whose resolved classpath has
+	 * changed, such as when a classpath container is updated.
+	 *
+	 * {@inheritDoc}
+	 */
+	public void elementChanged(final ElementChangedEvent event) {
+		for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+			if (delta.getElement().getElementType() == IJavaElement.JAVA_PROJECT
+					&& (delta.getFlags() & CLASSPATH_CHANGED) != 0) {
+				final ProjectEntry entry;
+				synchronized (this) {
+					entry = entries.get(delta.getElement().getElementName());
+				}
+				if (entry != null) {
+					entry.classpathProjects = null;
+				}
+			}
+		}
+	}
+
+	private void fileChanged(final IResource file) {
+		final ProjectEntry entry;
+		synchronized (this) {
+			entry = entries.get(file.getProject().getName());
+		}
+		if (entry != null && FILE_CLASSPATH.equals(file.getName())) {
+			entry.classpathProjects = null;
+		}
+	}
+
+	/**
+	 * Indexes all the accessible projects of the workspace, once.
+	 */
+	private void initialize() {
+		synchronized (this) {
+			if (initialized) {
+				return;
+			}
+		}
+		final List<ProjectEntry> newEntries = new ArrayList<ProjectEntry>();
+		for (IProject project : WorkspaceUtil.getAllProjectsInWorkSpace()) {
+			if (project.isAccessible()) {
+				newEntries.add(new ProjectEntry(project));
+			}
+		}
+		synchronized (this) {
+			if (initialized == false) {
+				for (ProjectEntry entry : newEntries) {
+					if (entries.containsKey(entry.name) == false) {
+						index(entry);
+					}
+				}
+				initialized = true;
+			}
+		}
+		if (SOALogger.DEBUG) {
+			logger.debug("Indexed ", newEntries.size(), " projects");
+		}
+	}
+
+	/**
+	 * Gets the up to date entry of an accessible project.
+	 */
+	private ProjectEntry getEntry(final IProject project) {
+		initialize();
+		final long stamp = getDescriptionStamp(project);
+		synchronized (this) {
+			final ProjectEntry entry = entries.get(project.getName());
+			if (entry != null && entry.descriptionStamp == stamp) {
+				return entry;
+			}
+		}
+		// the description is read outside of the lock
+		final ProjectEntry entry = new ProjectEntry(project);
+		synchronized (this) {
+			index(entry);
+		}
+		return entry;
+	}
+
+	private void index(final ProjectEntry entry) {
+		unindex(entries.put(entry.name, entry));
+		for (String natureId : entry.natureIds) {
+			Set<String> projects = projectsByNature.get(natureId);
+			if (projects == null) {
+				projects = new HashSet<String>();
+				projectsByNature.put(natureId, projects);
+			}
+			projects.add(entry.name);
+		}
+	}
+
+	private void unindex(final ProjectEntry entry) {
+		if (entry == null) {
+			return;
+		}
+		for (String natureId : entry.natureIds) {
+			final Set<String> projects = projectsByNature.get(natureId);
+			if (projects != null) {
+				projects.remove(entry.name);
+			}
+		}
+	}
+
+	private static List<String> resolveClasspathProjects(final IProject project)
+			throws CoreException {
+		final IJavaProject javaProject = JavaCore.create(project);
+		if (javaProject == null || javaProject.exists() == false) {
+			return Collections.emptyList();
+		}
+		final List<String> result = new ArrayList<String>();
+		for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+			if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+				final String name = entry.getPath().lastSegment();
+				if (name != null && result.contains(name) == false) {
+					result.add(name);
+				}
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private static long getDescriptionStamp(final IProject project) {
+		return project.getFile(FILE_PROJECT).getModificationStamp();
+	}
+
+	private static class ProjectEntry {
+		private final String name;
+		private final long descriptionStamp;
+		private final Set<String> natureIds;
+		private volatile List<String> classpathProjects;
+
+		ProjectEntry(IProject project) {
+			this.name = project.getName();
+			this.descriptionStamp = getDescriptionStamp(project);
+			Set<String> natures;
+			try {
+				natures = Collections.unmodifiableSet(SetUtil.hashSet(project
+						.getDescription().getNatureIds()));
+			} catch (CoreException e) {
+				logger.warning(e);
+				natures = Collections.emptySet();
+			}
+			this.natureIds = natures;
+		}
+
+		boolean hasNature(String... ids) {
+			for (String id : ids) {
+				if (natureIds.contains(id)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -43,6 +43,52 @@ public class PreferenceConstants {
 	/** The Constant PREF_SERVICE_LAYERS. */
 	public static final String PREF_SERVICE_LAYERS = "serviceLayers";
 
+	/**
+	 * Whether the TypeInformation.xml and TypeDependencies.xml files of the
+	 * type libraries are parsed by several threads when the type registry is
+	 * initialized.
+	 */
+	public static final String PREF_PARALLEL_TYPE_REGISTRY = "parallelTypeRegistry";
+
+	/** The Constant PREF_DEFAULT_PARALLEL_TYPE_REGISTRY. */
+	public static final boolean PREF_DEFAULT_PARALLEL_TYPE_REGISTRY = false;
+
+	/**
+	 * Whether the XSDs of a type library are validated by several threads,
+	 * skipping the ones which did not change since the previous build.
+	 */
+	public static final String PREF_PARALLEL_XSD_VALIDATION = "parallelXSDValidation";
+
+	/** The Constant PREF_DEFAULT_PARALLEL_XSD_VALIDATION. */
+	public static final boolean PREF_DEFAULT_PARALLEL_XSD_VALIDATION = false;
+
+	/**
+	 * Whether the code of several independent services, like all the
+	 * services a consumer requires, is generated by several threads.
+	 */
+	public static final String PREF_PARALLEL_CODEGEN = "parallelCodegen";
+
+	/** The Constant PREF_DEFAULT_PARALLEL_CODEGEN. */
+	public static final boolean PREF_DEFAULT_PARALLEL_CODEGEN = false;
+
+	/**
+	 * Whether the codegen engine runs in a separate worker process, kept
+	 * running between the builds, instead of the IDE.
+	 */
+	public static final String PREF_CODEGEN_DAEMON = "codegenDaemon";
+
+	/** The Constant PREF_DEFAULT_CODEGEN_DAEMON. */
+	public static final boolean PREF_DEFAULT_CODEGEN_DAEMON = false;
+
+	/**
+	 * The maximum heap size of the codegen worker process, in the format of
+	 * the -Xmx option of the JVM. It applies the next time the worker starts.
+	 */
+	public static final String PREF_CODEGEN_DAEMON_MAX_HEAP = "codegenDaemonMaxHeap";
+
+	/** The Constant PREF_DEFAULT_CODEGEN_DAEMON_MAX_HEAP. */
+	public static final String PREF_DEFAULT_CODEGEN_DAEMON_MAX_HEAP = "512m";
+
 	/**
 	 * Returns the default service layer values from a codegen call. Need to
 	 * find out if we can set a new file to codegen and in that case a new
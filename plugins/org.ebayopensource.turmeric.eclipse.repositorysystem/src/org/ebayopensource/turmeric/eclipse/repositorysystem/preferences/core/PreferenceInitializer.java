@@ -54,6 +54,16 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 				PreferenceConstants._PREF_DEFAULT_REPOSITORY_SYSTEM);
 		node.put(PreferenceConstants.PREF_SERVICE_LAYERS,
 				PreferenceConstants.getDefaultServiceLayers());
+		node.putBoolean(PreferenceConstants.PREF_PARALLEL_TYPE_REGISTRY,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_TYPE_REGISTRY);
+		node.putBoolean(PreferenceConstants.PREF_PARALLEL_XSD_VALIDATION,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_XSD_VALIDATION);
+		node.putBoolean(PreferenceConstants.PREF_PARALLEL_CODEGEN,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_CODEGEN);
+		node.putBoolean(PreferenceConstants.PREF_CODEGEN_DAEMON,
+				PreferenceConstants.PREF_DEFAULT_CODEGEN_DAEMON);
+		node.put(PreferenceConstants.PREF_CODEGEN_DAEMON_MAX_HEAP,
+				PreferenceConstants.PREF_DEFAULT_CODEGEN_DAEMON_MAX_HEAP);
 	}
 	
 
@@ -46,6 +46,64 @@ public class PreferenceReader {
 		return prefs.get(PreferenceConstants.PREF_REPOSITORY_SYSTEM, PreferenceConstants._PREF_DEFAULT_REPOSITORY_SYSTEM);
 	}
 	
+	/**
+	 * Checks if the type registry is loaded by several threads.
+	 *
+	 * @return true, if the parallel loading is enabled
+	 */
+	public static boolean isParallelTypeRegistry() {
+		IEclipsePreferences prefs = RepositorySystemActivator.getDefault().getPreferences();
+		return prefs.getBoolean(PreferenceConstants.PREF_PARALLEL_TYPE_REGISTRY,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_TYPE_REGISTRY);
+	}
+
+	/**
+	 * Checks if the XSDs of type libraries are validated by several threads.
+	 *
+	 * @return true, if the parallel validation is enabled
+	 */
+	public static boolean isParallelXSDValidation() {
+		IEclipsePreferences prefs = RepositorySystemActivator.getDefault().getPreferences();
+		return prefs.getBoolean(PreferenceConstants.PREF_PARALLEL_XSD_VALIDATION,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_XSD_VALIDATION);
+	}
+
+	/**
+	 * Checks if the code of independent services is generated by several
+	 * threads.
+	 *
+	 * @return true, if the parallel code generation is enabled
+	 */
+	public static boolean isParallelCodegen() {
+		IEclipsePreferences prefs = RepositorySystemActivator.getDefault().getPreferences();
+		return prefs.getBoolean(PreferenceConstants.PREF_PARALLEL_CODEGEN,
+				PreferenceConstants.PREF_DEFAULT_PARALLEL_CODEGEN);
+	}
+
+	/**
+	 * Checks if the codegen engine runs in a separate worker process.
+	 *
+	 * @return true, if the codegen daemon is enabled
+	 */
+	public static boolean isCodegenDaemon() {
+		IEclipsePreferences prefs = RepositorySystemActivator.getDefault().getPreferences();
+		return prefs.getBoolean(PreferenceConstants.PREF_CODEGEN_DAEMON,
+				PreferenceConstants.PREF_DEFAULT_CODEGEN_DAEMON);
+	}
+
+	/**
+	 * Gets the maximum heap size of the codegen worker process.
+	 *
+	 * @return the heap size, like 512m
+	 */
+	public static String getCodegenDaemonMaxHeap() {
+		IEclipsePreferences prefs = RepositorySystemActivator.getDefault().getPreferences();
+		String maxHeap = prefs.get(PreferenceConstants.PREF_CODEGEN_DAEMON_MAX_HEAP,
+				PreferenceConstants.PREF_DEFAULT_CODEGEN_DAEMON_MAX_HEAP);
+		return StringUtils.isNotBlank(maxHeap) ? maxHeap.trim()
+				: PreferenceConstants.PREF_DEFAULT_CODEGEN_DAEMON_MAX_HEAP;
+	}
+
 	/**
 	 * Gets the current organization id.
 	 *
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+
+/**
+ * The future of a value initialized once in the background. The value only
+ * becomes available once the initialization has finished, callers either
+ * wait for it with a bounded timeout or register a callback.
+ *
+ * @param <V> the type of the value
+ */
+public class InitializationFuture<V> extends FutureTask<V> {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	/**
+	 * Gets notified once the initialization has finished.
+	 *
+	 * @param <V> the type of the value
+	 */
+	public static interface ICallback<V> {
+
+		/**
+		 * The value has been initialized.
+		 *
+		 * @param value the value
+		 */
+		public void initialized(V value);
+
+		/**
+		 * The initialization has failed or has been cancelled.
+		 *
+		 * @param cause the cause
+		 */
+		public void failed(Throwable cause);
+	}
+
+	private final List<ICallback<V>> callbacks = new ArrayList<ICallback<V>>();
+
+	/**
+	 * Instantiates the future of the value computed by the given callable.
+	 *
+	 * @param callable the initialization
+	 */
+	public InitializationFuture(Callable<V> callable) {
+		super(callable);
+	}
+
+	/**
+	 * Registers a callback. It is called immediately if the initialization
+	 * has already finished, otherwise from the thread initializing the value.
+	 *
+	 * @param callback the callback
+	 */
+	public void addCallback(ICallback<V> callback) {
+		synchronized (callbacks) {
+			if (isDone() == false) {
+				callbacks.add(callback);
+				return;
+			}
+		}
+		fireCallback(callback);
+	}
+
+	/**
+	 * Waits at most the given time for the value.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout
+	 * @return the value
+	 * @throws Exception the failure of the initialization, a
+	 * {@link java.util.concurrent.TimeoutException} if the value is not
+	 * initialized in time
+	 */
+	public V getResult(long timeout, TimeUnit unit) throws Exception {
+		try {
+			return get(timeout, unit);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Notifies the registered callbacks, subclasses overriding this method
+	 * must call it.
+	 */
+	@Override
+	protected void done() {
+		final List<ICallback<V>> toNotify;
+		synchronized (callbacks) {
+			toNotify = new ArrayList<ICallback<V>>(callbacks);
+			callbacks.clear();
+		}
+		for (ICallback<V> callback : toNotify) {
+			fireCallback(callback);
+		}
+	}
+
+	private void fireCallback(ICallback<V> callback) {
+		try {
+			final V value;
+			try {
+				value = get();
+			} catch (ExecutionException e) {
+				callback.failed(e.getCause());
+				return;
+			} catch (Exception e) {
+				callback.failed(e);
+				return;
+			}
+			callback.initialized(value);
+		} catch (RuntimeException e) {
+			logger.error(e);
+		}
+	}
+}
@@ -16,6 +16,7 @@ import java.util.TreeSet;
 
 import org.apache.commons.lang.StringUtils;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
 import org.ebayopensource.turmeric.eclipse.resources.model.AssetInfo;
 import org.ebayopensource.turmeric.eclipse.resources.model.IAssetInfo;
 import org.ebayopensource.turmeric.eclipse.resources.model.ProjectInfo;
@@ -47,7 +48,8 @@ public class RepositoryUtils {
 	public static Set<AssetInfo> getProjectInfoProjectsFromWorkSpace(
 			String... natureIds) throws CoreException {
 		Set<AssetInfo> projectSet = new TreeSet<AssetInfo>();
-		List<IProject> projects = WorkspaceUtil.getProjectsByNature(natureIds);
+		List<IProject> projects = SOAProjectIndex.getInstance()
+				.getProjectsByNature(natureIds);
 		if (natureIds.length == 0) {
 			projects = Arrays.asList(WorkspaceUtil.getAllProjectsInWorkSpace());
 		}
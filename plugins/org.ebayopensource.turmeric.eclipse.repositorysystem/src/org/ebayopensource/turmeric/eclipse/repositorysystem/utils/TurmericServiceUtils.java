@@ -10,7 +10,7 @@ package org.ebayopensource.turmeric.eclipse.repositorysystem.utils;
 
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants.SupportedProjectType;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
-import org.ebayopensource.turmeric.eclipse.resources.util.SOAServiceUtil;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 
@@ -48,7 +48,7 @@ public final class TurmericServiceUtils {
 	 */
 	public static boolean isSOAInterfaceProject(final IProject project)
 			throws CoreException {
-		return SOAServiceUtil.hasNatures(project,
+		return SOAProjectIndex.getInstance().hasNature(project,
 				GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getProjectNatureId(SupportedProjectType.INTERFACE));
 	}
@@ -65,7 +65,7 @@ public final class TurmericServiceUtils {
 	 */
 	public static boolean isSOAConsumerProject(final IProject project)
 			throws CoreException {
-		return SOAServiceUtil.hasNatures(project,
+		return SOAProjectIndex.getInstance().hasNature(project,
 				GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getProjectNatureId(SupportedProjectType.CONSUMER));
 	}
@@ -82,7 +82,7 @@ public final class TurmericServiceUtils {
 	 */
 	public static boolean isSOAImplProject(final IProject project)
 			throws CoreException {
-		return SOAServiceUtil.hasNatures(project,
+		return SOAProjectIndex.getInstance().hasNature(project,
 				GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getProjectNatureId(SupportedProjectType.IMPL));
 	}
@@ -99,7 +99,7 @@ public final class TurmericServiceUtils {
 	 */
 	public static boolean isSOATypeLibraryProject(final IProject project)
 			throws CoreException {
-		return SOAServiceUtil.hasNatures(project,
+		return SOAProjectIndex.getInstance().hasNature(project,
 				GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getProjectNatureId(SupportedProjectType.TYPE_LIBRARY));
 	}
@@ -116,7 +116,7 @@ public final class TurmericServiceUtils {
 	 */
 	public static boolean isSOAErrorLibraryProject(final IProject project)
 			throws CoreException {
-		return SOAServiceUtil.hasNatures(project,
+		return SOAProjectIndex.getInstance().hasNature(project,
 				GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getProjectNatureId(SupportedProjectType.ERROR_LIBRARY));
 	}
@@ -31,9 +31,13 @@ import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectCo
 import org.ebayopensource.turmeric.eclipse.resources.model.SOAIntfMetadata;
 import org.ebayopensource.turmeric.eclipse.resources.model.SOAIntfProject;
 import org.ebayopensource.turmeric.eclipse.utils.io.IOUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.JarMetadataCache;
 import org.ebayopensource.turmeric.eclipse.utils.io.PropertiesFileUtil;
 import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLDefinitionCache;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLMetadataSniffer;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLMetadataSniffer.WSDLMetadata;
 import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLUtil;
 import org.ebayopensource.turmeric.eclipse.utils.xml.XMLUtil;
 import org.eclipse.core.resources.IFile;
@@ -139,10 +143,12 @@ public class SOAIntfUtil {
 		Properties props = null;
 		if (assetLocation != null && serviceName != null) {
 			if (assetLocation.endsWith(SOAProjectConstants.JAR_EXT)) {
-				final JarFile file = new JarFile(assetLocation);
 				logger.info("loading service_metadata.properties from the service jar->", 
 						assetLocation);
-				props = loadMetadataProps(new JarFile[] { file }, serviceName);
+				props = JarMetadataCache.getProperties(new File(assetLocation),
+						SOAProjectConstants.METADATA_PROPS_LOCATION_JAR
+								+ serviceName + WorkspaceUtil.PATH_SEPERATOR
+								+ SOAProjectConstants.PROPS_FILE_SERVICE_METADATA);
 			} else {
 				IPath path = new Path(assetLocation);
 				props = loadMetadataProps(path, serviceName);
@@ -172,8 +178,10 @@ public class SOAIntfUtil {
 			if (props != null) {
 				final SOAIntfMetadata intfMetadata = getMetadataFromProperties(
 						props, null);
-				final Definition wsdl = getWSDLUrlFromIntfProject(serviceName,
-						assetLocation);
+				// only the service section is needed, not the whole model
+				final WSDLMetadata wsdl = readWSDLFromProject(WorkspaceUtil
+						.getProject(serviceName), assetLocation, serviceName,
+						METADATA_READER);
 				if (wsdl != null) {
 					setInformationFromWsdl(wsdl, intfMetadata);
 				} else {
@@ -551,9 +559,8 @@ public class SOAIntfUtil {
 			if (SOALogger.DEBUG)
 				logger.entering(documentBaseURI, wsdlStream, metadata);
 			if (wsdlStream != null) {
-				final Definition wsdl = WSDLUtil.readWSDL(documentBaseURI,
-						wsdlStream);
-				setInformationFromWsdl(wsdl, metadata);
+				setInformationFromWsdl(WSDLMetadataSniffer
+						.getMetadata(wsdlStream), metadata);
 			}
 		} finally {
 			IOUtils.closeQuietly(wsdlStream);
@@ -574,8 +581,8 @@ public class SOAIntfUtil {
 		if (SOALogger.DEBUG)
 			logger.entering(wsdlLocation, metadata);
 		if (StringUtils.isNotBlank(wsdlLocation)) {
-			final Definition wsdl = WSDLUtil.readWSDL(wsdlLocation);
-			setInformationFromWsdl(wsdl, metadata);
+			setInformationFromWsdl(WSDLMetadataSniffer
+					.getMetadata(wsdlLocation), metadata);
 		}
 		if (SOALogger.DEBUG)
 			logger.exiting();
@@ -933,12 +940,56 @@ public class SOAIntfUtil {
 		monitor.worked(10);
 	}
 
+	/**
+	 * Reads a WSDL found by
+	 * {@link SOAIntfUtil#readWSDLFromProject(IProject, String, String, IWSDLReader)}.
+	 */
+	private static interface IWSDLReader<T> {
+
+		public T read(String wsdlLocation) throws Exception;
+
+		public T read(File jarFile, String jarEntryLocation) throws Exception;
+	}
+
+	private static final IWSDLReader<Definition> DEFINITION_READER = new IWSDLReader<Definition>() {
+		public Definition read(String wsdlLocation) throws Exception {
+			return WSDLDefinitionCache.getDefinition(wsdlLocation);
+		}
+
+		public Definition read(File jarFile, String jarEntryLocation)
+				throws Exception {
+			return WSDLDefinitionCache.getDefinition(jarFile, jarEntryLocation);
+		}
+	};
+
+	private static final IWSDLReader<WSDLMetadata> METADATA_READER = new IWSDLReader<WSDLMetadata>() {
+		public WSDLMetadata read(String wsdlLocation) throws Exception {
+			return WSDLMetadataSniffer.getMetadata(wsdlLocation);
+		}
+
+		public WSDLMetadata read(File jarFile, String jarEntryLocation)
+				throws Exception {
+			return WSDLMetadataSniffer.getMetadata(jarFile, jarEntryLocation);
+		}
+	};
+
 	private static Definition getWSDLUrlFromProject(final IProject project,
 			String requiredServiceProjectPath, final String serviceName)
 			throws Exception {
+		return readWSDLFromProject(project, requiredServiceProjectPath,
+				serviceName, DEFINITION_READER);
+	}
+
+	/**
+	 * Looks up the WSDL of the given service, in the workspace project first
+	 * and then at the given path of the interface project or jar.
+	 */
+	private static <T> T readWSDLFromProject(final IProject project,
+			String requiredServiceProjectPath, final String serviceName,
+			final IWSDLReader<T> reader) throws Exception {
 		if (SOALogger.DEBUG)
 			logger.entering(project, requiredServiceProjectPath, serviceName);
-		Definition result = null;
+		T result = null;
 		// load the wsdl directly from the project if available
 		if (project != null && project.isAccessible()) {
 			final IFile wsdlFile = SOAServiceUtil.getWsdlFile(project,
@@ -947,7 +998,7 @@ public class SOAIntfUtil {
 				if (SOALogger.DEBUG)
 					logger.debug("Directly loading WSDL from the project->",
 							wsdlFile.getLocation());
-				result = WSDLUtil.readWSDL(wsdlFile.getLocation().toString());
+				result = reader.read(wsdlFile.getLocation().toString());
 			}
 		}
 
@@ -965,7 +1016,7 @@ public class SOAIntfUtil {
 						SOAProjectConstants.WSDL_EXT);
 				if (SOALogger.DEBUG)
 					logger.debug("Reading WSDL from ", file, "!", jarEntryLoc);
-				result = WSDLUtil.readWSDLFromJarFile(file, jarEntryLoc);
+				result = reader.read(file, jarEntryLoc);
 			} else {
 				final IPath wsdlPath = intfProjectPath.append(
 						SOAIntfProject.META_SRC_WSDL).append(serviceName)
@@ -973,7 +1024,7 @@ public class SOAIntfUtil {
 				if (wsdlPath.toFile().exists()) {
 					if (SOALogger.DEBUG)
 						logger.debug("Loading WSDL from ", wsdlPath);
-					result = WSDLUtil.readWSDL(wsdlPath.toString());
+					result = reader.read(wsdlPath.toString());
 				}
 			}
 		}
@@ -982,4 +1033,15 @@ public class SOAIntfUtil {
 			logger.exiting(result);
 		return result;
 	}
+
+	private static void setInformationFromWsdl(final WSDLMetadata wsdl,
+			final SOAIntfMetadata metadata) {
+		if (wsdl != null && metadata != null) {
+			if (metadata.getPublicServiceName() == null)
+				metadata.setPublicServiceName(wsdl.getServiceName());
+			if (metadata.getTargetNamespace() == null)
+				metadata.setTargetNamespace(wsdl.getTargetNamespace());
+			metadata.setServiceLocation(wsdl.getServiceLocation());
+		}
+	}
 }
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.soatools.codegen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ebayopensource.turmeric.tools.codegen.ServiceGenerator;
+
+/**
+ * The codegen worker process, which keeps the codegen engine loaded between
+ * the builds so the IDE does not have to load it into its own heap, nor
+ * start it cold for every code generation.
+ *
+ * <p>
+ * The IDE starts it with the jars of this plugin and of the libraries it
+ * requires as class path, and writes a secret token as the first line of its
+ * standard input. The worker then listens on a port of the loopback
+ * interface, which it prints as <code>PORT:&lt;port&gt;</code> on its
+ * standard output. A connection first sends the token, then any number of
+ * requests, each made of the class path of the project, every entry followed
+ * by its {@link ProjectClassLoaderCache#getStamp(URL) stamp}, and the codegen
+ * arguments. While a request runs, everything the engine prints is sent back
+ * line by line, followed by the stack trace of the failure if any, and
+ * finally by the result.
+ * </p>
+ *
+ * <p>
+ * The worker exits once its standard input is closed, which also happens
+ * when the IDE is gone.
+ * </p>
+ *
+ * <p>
+ * This class must only depend on the JDK and the codegen engine.
+ * </p>
+ */
+public final class CodegenDaemon {
+
+	/** The prefix of the line telling the port the worker listens on. */
+	public static final String PORT_PREFIX = "PORT:";
+
+	/** A line printed by the engine, followed by the line. */
+	public static final int FRAME_OUTPUT = 1;
+
+	/** The failure of a request, followed by the stack trace. */
+	public static final int FRAME_ERROR = 2;
+
+	/** The end of a request, followed by true if it succeeded. */
+	public static final int FRAME_RESULT = 3;
+
+	/** The longest text sent in one frame. */
+	private static final int MAX_TEXT_LENGTH = 8192;
+
+	private static final Object outputLock = new Object();
+
+	/** Where the engine output goes, null between the requests. */
+	private static DataOutputStream currentOutput;
+
+	private static final ProjectClassLoaderCache loaders = new ProjectClassLoaderCache(
+			CodegenDaemon.class.getClassLoader());
+
+	private CodegenDaemon() {
+		super();
+	}
+
+	/**
+	 * Runs the worker until its standard input is closed.
+	 *
+	 * @param args not used
+	 * @throws Exception the exception
+	 */
+	public static void main(String[] args) throws Exception {
+		final BufferedReader input = new BufferedReader(new InputStreamReader(
+				System.in, "UTF-8"));
+		final String token = input.readLine();
+		if (token == null) {
+			return;
+		}
+		final ServerSocket server = new ServerSocket(0, 1, InetAddress
+				.getByName(null));
+		final PrintStream stdout = System.out;
+		stdout.println(PORT_PREFIX + server.getLocalPort());
+		stdout.flush();
+		final PrintStream forward = new PrintStream(new LineForwarder(), true);
+		System.setOut(forward);
+		System.setErr(forward);
+
+		final Thread watchdog = new Thread("Codegen Daemon Watchdog") {
+			@Override
+			public void run() {
+				try {
+					while (input.readLine() != null) {
+						// only the end of the input matters
+					}
+				} catch (IOException e) {
+					// the IDE is gone as well
+				}
+				System.exit(0);
+			}
+		};
+		watchdog.setDaemon(true);
+		watchdog.start();
+
+		while (true) {
+			final Socket socket = server.accept();
+			try {
+				serve(socket, token);
+			} catch (IOException e) {
+				// the connection is dropped, the IDE connects again
+			} finally {
+				socket.close();
+			}
+		}
+	}
+
+	private static void serve(Socket socket, String token) throws IOException {
+		socket.setTcpNoDelay(true);
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(
+				socket.getInputStream()));
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(socket.getOutputStream()));
+		if (token.equals(in.readUTF()) == false) {
+			return;
+		}
+		while (true) {
+			final int urlCount;
+			try {
+				urlCount = in.readInt();
+			} catch (EOFException e) {
+				return;
+			}
+			final List<URL> classpath = new ArrayList<URL>(urlCount);
+			final List<Long> stamps = new ArrayList<Long>(urlCount);
+			for (int i = 0; i < urlCount; i++) {
+				classpath.add(new URL(in.readUTF()));
+				stamps.add(in.readLong());
+			}
+			final String[] arguments = new String[in.readInt()];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = in.readUTF();
+			}
+			final boolean result = generate(classpath, stamps, arguments, out);
+			synchronized (outputLock) {
+				out.writeByte(FRAME_RESULT);
+				out.writeBoolean(result);
+				out.flush();
+			}
+		}
+	}
+
+	private static boolean generate(List<URL> classpath, List<Long> stamps,
+			String[] arguments, DataOutputStream out) throws IOException {
+		final Thread thread = Thread.currentThread();
+		final ClassLoader oldLoader = thread.getContextClassLoader();
+		synchronized (outputLock) {
+			currentOutput = out;
+		}
+		try {
+			thread.setContextClassLoader(loaders.getLoader(classpath, stamps));
+			new ServiceGenerator().startCodeGen(arguments);
+			return true;
+		} catch (Throwable e) {
+			final StringWriter trace = new StringWriter();
+			e.printStackTrace(new PrintWriter(trace));
+			synchronized (outputLock) {
+				out.writeByte(FRAME_ERROR);
+				writeText(out, trace.toString());
+			}
+			return false;
+		} finally {
+			thread.setContextClassLoader(oldLoader);
+			System.out.flush();
+			synchronized (outputLock) {
+				currentOutput = null;
+			}
+		}
+	}
+
+	private static void writeText(DataOutputStream out, String text)
+			throws IOException {
+		out.writeUTF(text.length() > MAX_TEXT_LENGTH ? text.substring(0,
+				MAX_TEXT_LENGTH) : text);
+	}
+
+	/**
+	 * Sends what the engine prints to the IDE, one frame per line.
+	 */
+	private static class LineForwarder extends OutputStream {
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		@Override
+		public synchronized void write(int b) throws IOException {
+			if (b == '\n') {
+				flushLine();
+			} else if (b != '\r') {
+				line.write(b);
+			}
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			if (line.size() > 0) {
+				flushLine();
+			}
+		}
+
+		private void flushLine() throws IOException {
+			final String text = line.toString();
+			line.reset();
+			synchronized (outputLock) {
+				if (currentOutput != null) {
+					currentOutput.writeByte(FRAME_OUTPUT);
+					writeText(currentOutput, text);
+					currentOutput.flush();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.soatools.codegen;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * The class loader of the project class path of the code generations, kept
+ * from one code generation to the next as long as neither the class path nor
+ * the stamps of its entries change.
+ *
+ * <p>
+ * A loader keeps the classes it has loaded and the jars it has opened, so it
+ * must not be used any more once a jar has been rebuilt or a class folder
+ * has been compiled again.
+ * </p>
+ *
+ * <p>
+ * This class must only depend on the JDK.
+ * </p>
+ */
+public final class ProjectClassLoaderCache {
+	private final ClassLoader parent;
+
+	private List<URL> classpath;
+
+	private List<Long> stamps;
+
+	private ClassLoader loader;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param parent the parent of the loaders
+	 */
+	public ProjectClassLoaderCache(ClassLoader parent) {
+		super();
+		this.parent = parent;
+	}
+
+	/**
+	 * Gets the class loader of the given class path, the loader of the
+	 * previous call if it had the same class path and stamps.
+	 *
+	 * @param classpath the entries of the class path
+	 * @param stamps the stamps of the entries, see {@link #getStamp(URL)}
+	 * @return the class loader
+	 */
+	public synchronized ClassLoader getLoader(List<URL> classpath,
+			List<Long> stamps) {
+		if (loader == null || classpath.equals(this.classpath) == false
+				|| stamps.equals(this.stamps) == false) {
+			loader = new URLClassLoader(classpath.toArray(new URL[0]), parent);
+			this.classpath = classpath;
+			this.stamps = stamps;
+		}
+		return loader;
+	}
+
+	/**
+	 * Gets the stamp of a class path entry, which changes whenever the entry
+	 * does. A jar is stamped with its time stamp and length, a class folder
+	 * with the newest time stamp of the files and folders below it, which
+	 * walks the folder.
+	 *
+	 * @param url the class path entry
+	 * @return the stamp, 0 if the entry does not exist or is not a file
+	 */
+	public static long getStamp(URL url) {
+		if ("file".equals(url.getProtocol()) == false) {
+			return 0;
+		}
+		File file;
+		try {
+			file = new File(url.toURI());
+		} catch (URISyntaxException e) {
+			file = new File(url.getPath());
+		} catch (IllegalArgumentException e) {
+			file = new File(url.getPath());
+		}
+		if (file.isDirectory()) {
+			return getNewestTimeStamp(file);
+		}
+		return file.isFile() ? file.lastModified() * 31 + file.length() : 0;
+	}
+
+	private static long getNewestTimeStamp(File folder) {
+		// the folder time stamp changes when a child is added or deleted
+		long result = folder.lastModified();
+		final File[] children = folder.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				result = Math.max(result, child.isDirectory()
+						? getNewestTimeStamp(child) : child.lastModified());
+			}
+		}
+		return result;
+	}
+}
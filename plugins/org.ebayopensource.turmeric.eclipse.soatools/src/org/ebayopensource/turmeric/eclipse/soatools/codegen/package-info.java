@@ -0,0 +1,4 @@
+/**
+ * The codegen worker process, running the codegen engine outside of the IDE.
+ */
+package org.ebayopensource.turmeric.eclipse.soatools.codegen;
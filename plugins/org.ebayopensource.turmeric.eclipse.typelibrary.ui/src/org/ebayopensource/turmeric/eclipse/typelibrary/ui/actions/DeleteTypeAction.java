@@ -239,8 +239,12 @@ public class DeleteTypeAction implements IObjectActionDelegate {
 		genTypeDeleteType.setTypes(types);
 		CodegenInvoker codegenInvoker = TypeLibraryBuilderUtils
 				.initForTypeLib(project);
-		ProgressUtil.progressOneStep(monitor);
-		codegenInvoker.execute(genTypeDeleteType);
+		try {
+			ProgressUtil.progressOneStep(monitor);
+			codegenInvoker.execute(genTypeDeleteType);
+		} finally {
+			codegenInvoker.dispose();
+		}
 	}
 
 	private void showErrorDialog() {
@@ -179,7 +179,11 @@ public class TypeCreator {
 		genTypeAddType.setTypes(types);
 		CodegenInvoker codegenInvoker = TypeLibraryBuilderUtils
 				.initForTypeLib(project);
-		codegenInvoker.execute(genTypeAddType);
+		try {
+			codegenInvoker.execute(genTypeAddType);
+		} finally {
+			codegenInvoker.dispose();
+		}
 	}
 
 	private static void processTemplate(TypeParamModel typeParamModel,
@@ -112,7 +112,11 @@ public class TypeLibraryCreator {
 		genTypeCreateTypeLibrary.setLibNamespace(typeLibraryModel.getNamespace());
 		CodegenInvoker codegenInvoker = TypeLibraryBuilderUtils
 				.initForTypeLib(project);
-		codegenInvoker.execute(genTypeCreateTypeLibrary);
+		try {
+			codegenInvoker.execute(genTypeCreateTypeLibrary);
+		} finally {
+			codegenInvoker.dispose();
+		}
 
 	}
 
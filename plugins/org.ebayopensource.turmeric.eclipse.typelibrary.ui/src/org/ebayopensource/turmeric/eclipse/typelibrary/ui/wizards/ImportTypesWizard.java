@@ -18,8 +18,10 @@ import org.ebayopensource.turmeric.eclipse.typelibrary.ui.wizards.pages.NewTypeL
 import org.ebayopensource.turmeric.eclipse.typelibrary.utils.importtypes.TypeModel;
 import org.ebayopensource.turmeric.eclipse.ui.wizards.AbstractTypeLibraryWizard;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.ProgressUtil;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
 import org.ebayopensource.turmeric.eclipse.utils.ui.UIUtil;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.wizard.IWizardPage;
 import org.eclipse.ui.actions.WorkspaceModifyOperation;
@@ -138,13 +140,19 @@ public class ImportTypesWizard extends AbstractTypeLibraryWizard {
 		}
 		final WorkspaceModifyOperation operation = new WorkspaceModifyOperation() {
 			@Override
-			protected void execute(IProgressMonitor monitor) {
+			protected void execute(IProgressMonitor monitor)
+					throws CoreException {
 
 				monitor.beginTask("Creating type ", ProgressUtil.PROGRESS_STEP
 						* (types.size() * 3 + 10));
 
-				TypeLibraryUtil.importTypesToTypeLibrarySAXP(types,
-						tlProjectName, monitor);
+				WorkspaceBatch.begin();
+				try {
+					TypeLibraryUtil.importTypesToTypeLibrarySAXP(types,
+							tlProjectName, monitor);
+				} finally {
+					WorkspaceBatch.end(monitor);
+				}
 
 				monitor.done();
 			}
@@ -24,6 +24,7 @@ import org.ebayopensource.turmeric.eclipse.typelibrary.ui.wizards.pages.NewTypeL
 import org.ebayopensource.turmeric.eclipse.ui.SOABasePage;
 import org.ebayopensource.turmeric.eclipse.ui.wizards.AbstractTypeLibraryWizard;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.ProgressUtil;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
 import org.ebayopensource.turmeric.eclipse.utils.ui.UIUtil;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -112,6 +113,7 @@ public class NewTypeLibraryWizard extends AbstractTypeLibraryWizard {
 							+ typeLibraryName, totalWork);
 					ProgressUtil.progressOneStep(monitor);
 
+					WorkspaceBatch.begin();
 					try {
 						// create the new type library project
 						TypeLibraryParamModel typeLibraryParamModel = new TypeLibraryParamModel();
@@ -139,6 +141,7 @@ public class NewTypeLibraryWizard extends AbstractTypeLibraryWizard {
 								"Failed to create Type Library->"
 										+ typeLibraryName, e);
 					} finally {
+						WorkspaceBatch.end(monitor);
 						monitor.done();
 					}
 				}
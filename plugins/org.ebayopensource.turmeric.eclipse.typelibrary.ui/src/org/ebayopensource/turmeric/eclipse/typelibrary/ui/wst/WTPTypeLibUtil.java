@@ -29,6 +29,7 @@ import org.ebayopensource.turmeric.common.config.TypeDependencyType;
 import org.ebayopensource.turmeric.common.config.TypeLibraryDependencyType;
 import org.ebayopensource.turmeric.eclipse.buildsystem.TypeDepMarshaller;
 import org.ebayopensource.turmeric.eclipse.core.TurmericCoreActivator;
+import org.ebayopensource.turmeric.eclipse.core.XSDSchemaCache;
 import org.ebayopensource.turmeric.eclipse.exception.core.SOABadParameterException;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
 import org.ebayopensource.turmeric.eclipse.typelibrary.resources.SOAMessages;
@@ -685,15 +686,23 @@ public class WTPTypeLibUtil {
 					continue;
 				}
 				try {
-					XSDSchema typeSchema = TypeLibraryUtil
-							.parseSchema(TypeLibraryUtil.getXSD(libraryType));
-					for (Object objXsdSchemaContent : typeSchema.getContents()) {
-						if (objXsdSchemaContent instanceof XSDImport) {
-							XSDImport importNode = (XSDImport) objXsdSchemaContent;
-							// add import namespace into a set
-							importedNamespaces.add(importNode.getNamespace());
-						}
-					}
+					importedNamespaces.addAll(XSDSchemaCache.getInstance().read(
+							TypeLibraryUtil.getXSD(libraryType),
+							new XSDSchemaCache.ISchemaReader<List<String>>() {
+								public List<String> read(XSDSchema typeSchema) {
+									final List<String> namespaces = new ArrayList<String>();
+									for (Object objXsdSchemaContent : typeSchema
+											.getContents()) {
+										if (objXsdSchemaContent instanceof XSDImport) {
+											XSDImport importNode = (XSDImport) objXsdSchemaContent;
+											// add import namespace into a set
+											namespaces.add(importNode
+													.getNamespace());
+										}
+									}
+									return namespaces;
+								}
+							}));
 				} catch (IOException e) {
 					continue;
 				} catch (Exception e) {
@@ -15,6 +15,7 @@ import org.ebayopensource.turmeric.common.config.TypeDependencyType;
 import org.ebayopensource.turmeric.common.config.TypeLibraryDependencyType;
 import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuildSystemUtil;
 import org.ebayopensource.turmeric.eclipse.core.TurmericCoreActivator;
+import org.ebayopensource.turmeric.eclipse.core.XSDSchemaCache;
 import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
@@ -27,10 +28,11 @@ import org.ebayopensource.turmeric.eclipse.typelibrary.TypeLibraryActivator;
 import org.ebayopensource.turmeric.eclipse.typelibrary.utils.TypeLibraryUtil;
 import org.ebayopensource.turmeric.eclipse.utils.collections.CollectionUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.ProgressUtil;
-import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
 import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -126,21 +128,51 @@ public class SynchronizeWsdlAndDepXML {
 		if (!typeDepFile.exists()) {
 			TypeDepMarshaller.createDefaultDepXml(project,
 					new NullProgressMonitor());
-			WorkspaceUtil.refresh(typeDepFile);
+			WorkspaceBatch.refresh(typeDepFile, IResource.DEPTH_ZERO);
 		}
-		Map<LibraryType, XSDSchemaDirective> importedTypes = TypeLibraryActivator.getAllTypeLibImports(schema);
-
 		TypeLibraryDependencyType typeLibraryDependencyType = TypeDepMarshaller
 				.unmarshallIt(typeDepFile);
+		if (syncronizeXSDandDepXml(schema, type, typeLibraryDependencyType)) {
+			TypeDepMarshaller.marshallIt(typeLibraryDependencyType,
+					typeDepFile);
+		}
+	}
+
+	/**
+	 * Applies the dependencies of the given xsd file to the in-memory model of
+	 * the type dependency xml, reading the schema from the
+	 * {@link XSDSchemaCache}.
+	 *
+	 * @return true if the model has been modified and has to be written back
+	 */
+	private boolean syncronizeXSDandDepXml(IFile file,
+			final TypeLibraryDependencyType typeLibraryDependencyType)
+			throws Exception {
+		final QName type = TypeLibraryUtil.toQName(file);
+		return XSDSchemaCache.getInstance().read(file,
+				new XSDSchemaCache.ISchemaReader<Boolean>() {
+					public Boolean read(XSDSchema schema) throws Exception {
+						return syncronizeXSDandDepXml(schema, type,
+								typeLibraryDependencyType);
+					}
+				});
+	}
+
+	/**
+	 * Applies the dependencies of the given xsd to the in-memory model of the
+	 * type dependency xml.
+	 *
+	 * @return true if the model has been modified and has to be written back
+	 */
+	private boolean syncronizeXSDandDepXml(XSDSchema schema, QName type,
+			TypeLibraryDependencyType typeLibraryDependencyType) throws Exception {
+		Map<LibraryType, XSDSchemaDirective> importedTypes = TypeLibraryActivator.getAllTypeLibImports(schema);
+
 		// No imports for this type
 		// so remove the entry if there is one
 		if (importedTypes == null || importedTypes.size() == 0) {
-			if (TypeDepMarshaller.removeTypeEntryIfExists(
-					typeLibraryDependencyType, type.getLocalPart())) {
-				TypeDepMarshaller.marshallIt(typeLibraryDependencyType,
-						typeDepFile);
-				return;
-			}
+			return TypeDepMarshaller.removeTypeEntryIfExists(
+					typeLibraryDependencyType, type.getLocalPart());
 		} else {
 
 			Set<QName> xsdImportedTypes = new HashSet<QName>();
@@ -182,10 +214,7 @@ public class SynchronizeWsdlAndDepXML {
 				TypeDepMarshaller.addAllReferredTypes(typeDependencyType,
 						importedTypes.keySet(), oldReferredTpes);
 			}
-			if (marshallReqd) {
-				TypeDepMarshaller.marshallIt(typeLibraryDependencyType,
-						typeDepFile);
-			}
+			return marshallReqd;
 		}
 	}
 
@@ -200,7 +229,8 @@ public class SynchronizeWsdlAndDepXML {
 	}
 
 /**
- * Wrapper method, Internally uses.
+ * Wrapper method, Internally uses. The type dependency xml is read once, all
+ * the xsds are applied to it in memory and it is written back at most once.
  *
  * @param xsdFiles the xsd files
  * @throws CoreException the core exception
@@ -217,7 +247,7 @@ public class SynchronizeWsdlAndDepXML {
 		if (!typeDepFile.exists()) {
 			TypeDepMarshaller.createDefaultDepXml(project,
 					new NullProgressMonitor());
-			WorkspaceUtil.refresh(typeDepFile);
+			WorkspaceBatch.refresh(typeDepFile, IResource.DEPTH_ZERO);
 		}
 
 		for (IFile file : allXSDFiles) {
@@ -238,17 +268,79 @@ public class SynchronizeWsdlAndDepXML {
 				marshallIt = true;
 			}
 		}
+
+		final XSDDigestStore digestStore = XSDDigestStore.load(project,
+				typeDepFile);
+		digestStore.clear();
+		for (IFile file : allXSDFiles) {
+			if (file.isAccessible()) {
+				final String digest = XSDDigestStore.digest(file);
+				marshallIt |= syncronizeXSDandDepXml(file,
+						typeLibraryDependencyType);
+				digestStore.setDigest(file, digest);
+			}
+		}
 		if (marshallIt) {
 			TypeDepMarshaller
 					.marshallIt(typeLibraryDependencyType, typeDepFile);
 		}
+		digestStore.save(typeDepFile);
+	}
 
-		for (IFile file : allXSDFiles) {
-			if (file.isAccessible()) {
-				XSDSchema xsdSchema = TypeLibraryUtil.parseSchema(file
-						.getLocation().toFile().toURI().toURL());
-				syncronizeXSDandDepXml(xsdSchema, TypeLibraryUtil.toQName(file));
+	/**
+	 * Synchronizes the dependencies of the given xsds only, the other xsds of
+	 * the library are not looked at. The entries of the deleted xsds are
+	 * removed. An xsd whose content is the same as at its last
+	 * synchronization is not parsed again, see {@link XSDDigestStore}.
+	 *
+	 * @param changedXsds the added or changed xsd files
+	 * @param deletedXsds the deleted xsd files
+	 * @throws CoreException the core exception
+	 * @throws Exception the exception
+	 */
+	public void syncronizeChangedXSDsandDepXml(List<IFile> changedXsds,
+			List<IFile> deletedXsds) throws CoreException, Exception {
+		IFile typeDepFile = TurmericCoreActivator.getDependencyFile(project);
+		if (!typeDepFile.exists()) {
+			TypeDepMarshaller.createDefaultDepXml(project,
+					new NullProgressMonitor());
+			WorkspaceBatch.refresh(typeDepFile, IResource.DEPTH_ZERO);
+		}
+		final XSDDigestStore digestStore = XSDDigestStore.load(project,
+				typeDepFile);
+		boolean marshallIt = false;
+		TypeLibraryDependencyType typeLibraryDependencyType = TypeDepMarshaller
+				.unmarshallIt(typeDepFile);
+		for (IFile file : deletedXsds) {
+			marshallIt |= TypeDepMarshaller.removeTypeEntryIfExists(
+					typeLibraryDependencyType, TypeLibraryUtil
+							.getXsdTypeNameFromFileName(file.getName()));
+			digestStore.setDigest(file, null);
+		}
+		int skipped = 0;
+		for (IFile file : changedXsds) {
+			if (file.isAccessible() == false) {
+				continue;
 			}
+			final String digest = XSDDigestStore.digest(file);
+			if (digestStore.isSynchronized(file, digest)) {
+				skipped++;
+				continue;
+			}
+			marshallIt |= syncronizeXSDandDepXml(file,
+					typeLibraryDependencyType);
+			digestStore.setDigest(file, digest);
+		}
+		if (marshallIt) {
+			TypeDepMarshaller
+					.marshallIt(typeLibraryDependencyType, typeDepFile);
+		}
+		digestStore.save(typeDepFile);
+		if (SOALogger.DEBUG) {
+			SOALogger.getLogger().debug("Synchronized ",
+					changedXsds.size() - skipped, " changed and ",
+					deletedXsds.size(), " deleted xsds of ", project.getName(),
+					", skipped ", skipped, " unchanged xsds");
 		}
 	}
 
@@ -267,7 +359,7 @@ public class SynchronizeWsdlAndDepXML {
 		if (!typeDepFile.exists()) {
 			TypeDepMarshaller.createDefaultDepXml(project,
 					new NullProgressMonitor());
-			WorkspaceUtil.refresh(typeDepFile);
+			WorkspaceBatch.refresh(typeDepFile, IResource.DEPTH_ZERO);
 		}
 		TypeLibraryDependencyType typeLibraryDependencyType = TypeDepMarshaller
 				.unmarshallIt(typeDepFile);
@@ -319,7 +411,7 @@ public class SynchronizeWsdlAndDepXML {
 			if (marshallReqd) {
 				TypeDepMarshaller.marshallIt(typeLibraryDependencyType,
 						typeDepFile);
-				WorkspaceUtil.refresh(typeDepFile);
+				WorkspaceBatch.refresh(typeDepFile, IResource.DEPTH_ZERO);
 			}
 		}
 
@@ -30,10 +30,12 @@ import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositor
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ITypeRegistryBridge;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAGlobalRegistryAdapter;
 import org.ebayopensource.turmeric.eclipse.typelibrary.resources.model.SOATypeLibraryProject;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -99,7 +101,6 @@ public class TypeDepMarshaller {
 						+ WorkspaceUtil.PATH_SEPERATOR + project.getName()
 						+ WorkspaceUtil.PATH_SEPERATOR
 						+ SOATypeLibraryConstants.FILE_TYPE_DEP_XML, monitor);
-		WorkspaceUtil.refresh(file);
 		
 		ITypeRegistryBridge birdge = GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getTypeRegistryBridge();
@@ -109,7 +110,6 @@ public class TypeDepMarshaller {
 		typeLibraryDependencyType.setLibraryName(libraryName);
 		typeLibraryDependencyType.setVersion(version);
 		marshallIt(typeLibraryDependencyType, file);
-		WorkspaceUtil.refresh(file);
 	}
 
 	/**
@@ -244,7 +244,9 @@ public class TypeDepMarshaller {
 
 	/**
 	 * Name says it all. Unmarshalls the file to a model java object.
-	 * Additionally it refresh the file to make sure that it is in sync
+	 * Additionally it refresh the file to make sure that it is in sync, at
+	 * the end of the current {@link WorkspaceBatch} if there is one. The
+	 * content is read from the file system either way.
 	 *
 	 * @param file the file
 	 * @return the type library dependency type
@@ -253,8 +255,8 @@ public class TypeDepMarshaller {
 	 */
 	public static TypeLibraryDependencyType unmarshallIt(IFile file)
 			throws JAXBException, CoreException {
-		WorkspaceUtil.refresh(file);
-		InputStream inputStream = file.getContents();
+		WorkspaceBatch.refresh(file, IResource.DEPTH_ZERO);
+		InputStream inputStream = file.getContents(true);
 		try {
 			return unmarshallIt(inputStream);
 		} finally {
@@ -285,7 +287,8 @@ public class TypeDepMarshaller {
 
 	/**
 	 * Marshalls the java model object back to a file. Write operation.
-	 * Additionally does a refresh
+	 * Additionally does a refresh, at the end of the current
+	 * {@link WorkspaceBatch} if there is one.
 	 *
 	 * @param typeLibraryDependencyType the type library dependency type
 	 * @param file the file
@@ -299,7 +302,7 @@ public class TypeDepMarshaller {
 		ITypeRegistryBridge birdge = GlobalRepositorySystem.instanceOf()
 				.getActiveRepositorySystem().getTypeRegistryBridge();
 		birdge.marshalTypeLibraryDependencyType(typeLibraryDependencyType,  file.getLocation().toFile());
-		WorkspaceUtil.refresh(file);
+		WorkspaceBatch.refresh(file, IResource.DEPTH_ZERO);
 	}
 
 	/**
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.buildsystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.typelibrary.TypeLibraryActivator;
+import org.ebayopensource.turmeric.eclipse.utils.io.IOUtil;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Remembers the content digest of every XSD of a type library at the time its
+ * dependencies were last written to the TypeDependencies.xml file, so an XSD
+ * which has been touched without being changed does not need to be parsed
+ * again.
+ *
+ * <p>
+ * The digests are only trusted as long as the TypeDependencies.xml file
+ * itself has not been changed by anybody else, its digest is stored along
+ * with the ones of the XSDs. The store lives in the working location of the
+ * project and can be deleted at any time.
+ * </p>
+ */
+public class XSDDigestStore {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final String STORE_FILE = "xsd-digests.properties";
+
+	/** not a valid project relative path, can not clash with an xsd */
+	private static final String KEY_TYPE_DEP_FILE = "/TypeDependencies.xml";
+
+	private final IProject project;
+	private final File storeFile;
+	private final Properties digests = new Properties();
+
+	private XSDDigestStore(IProject project, File storeFile) {
+		this.project = project;
+		this.storeFile = storeFile;
+	}
+
+	/**
+	 * Loads the digest store of the given type library project. A store
+	 * which does not match the current TypeDependencies.xml file is empty.
+	 *
+	 * @param project the type library project
+	 * @param typeDepFile the TypeDependencies.xml file
+	 * @return the store
+	 */
+	public static XSDDigestStore load(IProject project, IFile typeDepFile) {
+		final XSDDigestStore store = new XSDDigestStore(project, new File(
+				project.getWorkingLocation(TypeLibraryActivator.PLUGIN_ID)
+						.toFile(), STORE_FILE));
+		if (store.storeFile.isFile()) {
+			try {
+				final InputStream input = new FileInputStream(store.storeFile);
+				try {
+					store.digests.load(input);
+				} finally {
+					IOUtils.closeQuietly(input);
+				}
+			} catch (IOException e) {
+				logger.warning(e);
+				store.digests.clear();
+			}
+			final String typeDepDigest = digest(typeDepFile);
+			if (typeDepDigest == null
+					|| typeDepDigest.equals(store.digests
+							.getProperty(KEY_TYPE_DEP_FILE)) == false) {
+				// the dependencies have been modified outside of the sync
+				store.digests.clear();
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * Computes the digest of the content of the given file.
+	 *
+	 * @param file the file
+	 * @return the digest or null if the file can not be read
+	 */
+	public static String digest(IFile file) {
+		if (file.getLocation() == null) {
+			return null;
+		}
+		final File ioFile = file.getLocation().toFile();
+		if (ioFile.isFile() == false) {
+			return null;
+		}
+		try {
+			return IOUtil.digest(ioFile);
+		} catch (IOException e) {
+			logger.warning(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if the given xsd has been synchronized with the given content.
+	 *
+	 * @param xsdFile the xsd file
+	 * @param digest the current digest of the xsd
+	 * @return true, if the dependencies of this content are already in the
+	 * TypeDependencies.xml file
+	 */
+	public boolean isSynchronized(IFile xsdFile, String digest) {
+		return digest != null && digest.equals(digests.getProperty(key(xsdFile)));
+	}
+
+	/**
+	 * Records the digest the given xsd has been synchronized with.
+	 *
+	 * @param xsdFile the xsd file
+	 * @param digest the digest, null removes the entry
+	 */
+	public void setDigest(IFile xsdFile, String digest) {
+		if (digest != null) {
+			digests.setProperty(key(xsdFile), digest);
+		} else {
+			digests.remove(key(xsdFile));
+		}
+	}
+
+	/**
+	 * Forgets all the recorded digests.
+	 */
+	public void clear() {
+		digests.clear();
+	}
+
+	/**
+	 * Saves the store. Has to be called after the TypeDependencies.xml file
+	 * has been written.
+	 *
+	 * @param typeDepFile the TypeDependencies.xml file
+	 */
+	public void save(IFile typeDepFile) {
+		final String typeDepDigest = digest(typeDepFile);
+		if (typeDepDigest == null) {
+			storeFile.delete();
+			return;
+		}
+		digests.setProperty(KEY_TYPE_DEP_FILE, typeDepDigest);
+		storeFile.getParentFile().mkdirs();
+		try {
+			final OutputStream output = new FileOutputStream(storeFile);
+			try {
+				digests.store(output, "XSD digests of " + project.getName());
+			} finally {
+				IOUtils.closeQuietly(output);
+			}
+		} catch (IOException e) {
+			logger.warning(e);
+			storeFile.delete();
+		}
+	}
+
+	private static String key(IFile xsdFile) {
+		return xsdFile.getProjectRelativePath().toString();
+	}
+}
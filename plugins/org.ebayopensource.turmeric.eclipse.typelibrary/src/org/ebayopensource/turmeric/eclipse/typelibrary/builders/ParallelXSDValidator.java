@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.typelibrary.builders;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.ebayopensource.turmeric.eclipse.buildsystem.XSDDigestStore;
+import org.ebayopensource.turmeric.eclipse.core.XSDSchemaCache;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectConstants;
+import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOATypeLibraryConstants;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
+import org.ebayopensource.turmeric.eclipse.typelibrary.utils.TypeLibraryUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.IOUtil;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.xsd.XSDSchema;
+import org.eclipse.xsd.XSDSchemaDirective;
+
+/**
+ * Validates the XSDs of a type library with several threads, and only the
+ * ones which may have a different outcome than at the previous build.
+ *
+ * <p>
+ * For every project the content digest, the validation status and the
+ * <code>xs:import</code>/<code>xs:include</code> locations of each XSD are
+ * kept in memory. An XSD is validated again if its content changed, if the
+ * content of one of the schemas it refers to changed, or if it refers to a
+ * schema which can not be resolved without the WTP resolver. Changes are
+ * propagated through the XSDs of the project which include each other, for
+ * schemas of other libraries only the direct references are looked at.
+ * </p>
+ *
+ * <p>
+ * The shared WST validator is not thread safe, every worker thread validates
+ * with a validator of its own. The results of a project are forgotten when
+ * it is closed, deleted or renamed, see {@link #getProjectListener()}.
+ * </p>
+ */
+public final class ParallelXSDValidator {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final Map<String, Map<IFile, ValidatedXSD>> projectIndexes = new ConcurrentHashMap<String, Map<IFile, ValidatedXSD>>();
+
+	private static final IResourceChangeListener projectListener = new ProjectListener();
+
+	private ParallelXSDValidator() {
+		super();
+	}
+
+	/**
+	 * Validates the given XSDs of the given project.
+	 *
+	 * @param project the type library project
+	 * @param xsdFiles the accessible XSDs of the project
+	 * @return the validation status of each XSD, in the order of the files
+	 * @throws Exception the exception thrown by the validator
+	 */
+	public static List<IStatus> validate(IProject project, List<IFile> xsdFiles)
+			throws Exception {
+		final long time = System.currentTimeMillis();
+		final Map<IFile, ValidatedXSD> previous = getIndex(project);
+		final Map<String, String> stamps = new HashMap<String, String>();
+		final Map<IFile, String> digests = new HashMap<IFile, String>();
+		final Set<String> changedLocations = new HashSet<String>();
+		final Set<IFile> outdated = new HashSet<IFile>();
+		for (IFile file : xsdFiles) {
+			final String digest = XSDDigestStore.digest(file);
+			digests.put(file, digest);
+			final ValidatedXSD validated = previous.get(file);
+			if (validated == null || digest == null
+					|| digest.equals(validated.digest) == false
+					|| isDependencyChanged(validated, stamps)) {
+				outdated.add(file);
+				changedLocations.add(getLocation(file));
+			}
+		}
+		propagateChanges(xsdFiles, previous, outdated, changedLocations);
+
+		final Map<IFile, ValidatedXSD> results = validate(project, outdated,
+				digests);
+		final Map<IFile, ValidatedXSD> index = new HashMap<IFile, ValidatedXSD>();
+		final List<IStatus> statusList = new ArrayList<IStatus>();
+		for (IFile file : xsdFiles) {
+			ValidatedXSD validated = results.get(file);
+			if (validated != null) {
+				validated.stampDependencies(stamps);
+			} else {
+				validated = previous.get(file);
+			}
+			index.put(file, validated);
+			statusList.add(validated.status);
+		}
+		projectIndexes.put(project.getName(), index);
+		if (SOALogger.DEBUG) {
+			logger.debug("Validated ", outdated.size(), " of ",
+					xsdFiles.size(), " XSDs of project ", project.getName(),
+					" in ", System.currentTimeMillis() - time, "ms");
+		}
+		return statusList;
+	}
+
+	/**
+	 * Forgets the previous validation results of the given project, the next
+	 * call validates all of its XSDs.
+	 *
+	 * @param project the project
+	 */
+	public static void invalidate(IProject project) {
+		projectIndexes.remove(project.getName());
+	}
+
+	/**
+	 * Checks whether the previous validation results of the given project
+	 * are kept.
+	 *
+	 * @param project the project
+	 * @return true if the next call only validates the changed XSDs
+	 */
+	public static boolean isValidated(IProject project) {
+		return projectIndexes.containsKey(project.getName());
+	}
+
+	/**
+	 * Forgets the previous validation results of all projects.
+	 */
+	public static void clear() {
+		projectIndexes.clear();
+	}
+
+	/**
+	 * Gets the listener forgetting the validation results of the projects
+	 * which are closed, deleted or renamed. It has to be registered for
+	 * {@link IResourceChangeEvent#PRE_CLOSE},
+	 * {@link IResourceChangeEvent#PRE_DELETE} and
+	 * {@link IResourceChangeEvent#POST_CHANGE} events.
+	 *
+	 * @return the resource change listener
+	 */
+	public static IResourceChangeListener getProjectListener() {
+		return projectListener;
+	}
+
+	private static Map<IFile, ValidatedXSD> getIndex(IProject project) {
+		final Map<IFile, ValidatedXSD> index = projectIndexes.get(project
+				.getName());
+		return index != null ? index : new HashMap<IFile, ValidatedXSD>();
+	}
+
+	/**
+	 * Marks the XSDs including or importing an outdated XSD of the project as
+	 * outdated too, until nothing changes anymore.
+	 */
+	private static void propagateChanges(List<IFile> xsdFiles,
+			Map<IFile, ValidatedXSD> previous, Set<IFile> outdated,
+			Set<String> changedLocations) {
+		final LinkedList<String> pending = new LinkedList<String>(
+				changedLocations);
+		while (pending.isEmpty() == false) {
+			final String location = pending.removeFirst();
+			for (IFile file : xsdFiles) {
+				final ValidatedXSD validated = previous.get(file);
+				if (outdated.contains(file) == false
+						&& validated.dependencyStamps.containsKey(location)) {
+					outdated.add(file);
+					pending.add(getLocation(file));
+				}
+			}
+		}
+	}
+
+	private static boolean isDependencyChanged(ValidatedXSD validated,
+			Map<String, String> stamps) {
+		for (Map.Entry<String, String> entry : validated.dependencyStamps
+				.entrySet()) {
+			final String stamp = getStamp(entry.getKey(), stamps);
+			if (stamp == null || stamp.equals(entry.getValue()) == false) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Map<IFile, ValidatedXSD> validate(IProject project,
+			Set<IFile> xsdFiles, Map<IFile, String> digests) throws Exception {
+		final Map<IFile, ValidatedXSD> results = new HashMap<IFile, ValidatedXSD>();
+		final ThreadLocal<SOAXSDValidator> validators = new ThreadLocal<SOAXSDValidator>() {
+			@Override
+			protected SOAXSDValidator initialValue() {
+				return new SOAXSDValidator(true);
+			}
+		};
+		if (xsdFiles.size() <= 1) {
+			for (IFile file : xsdFiles) {
+				results.put(file, new Validation(project, file, digests
+						.get(file), validators).call());
+			}
+			return results;
+		}
+		final int threadCount = Math.min(xsdFiles.size(), Runtime
+				.getRuntime().availableProcessors());
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				threadCount, new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						final Thread thread = new Thread(r, "XSD Validation-"
+								+ count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			final Map<IFile, Future<ValidatedXSD>> futures = new HashMap<IFile, Future<ValidatedXSD>>();
+			for (IFile file : xsdFiles) {
+				futures.put(file, executor.submit(new Validation(project,
+						file, digests.get(file), validators)));
+			}
+			for (Map.Entry<IFile, Future<ValidatedXSD>> entry : futures
+					.entrySet()) {
+				try {
+					results.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause();
+					}
+					throw e;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * The key of an XSD in the dependency index, the same as the one of a
+	 * resolved relative schema location.
+	 */
+	private static String getLocation(IFile file) {
+		return file.getLocation().toFile().toURI().toString();
+	}
+
+	/**
+	 * Resolves the given schema location and computes a stamp of the content
+	 * it points to. Type library references are resolved the same way as
+	 * {@link TypeLibraryUtil#getXSD(String, String)} does, without opening
+	 * the jars.
+	 *
+	 * @return the stamp, or null if the location can not be resolved
+	 */
+	private static String getStamp(String location, Map<String, String> stamps) {
+		if (stamps.containsKey(location)) {
+			return stamps.get(location);
+		}
+		String stamp = null;
+		try {
+			if (location.startsWith(SOATypeLibraryConstants.TURMERIC_XSD_FILE_PROTOCOL)) {
+				final String libraryName = TypeLibraryUtil
+						.getLibraryNameFromProtocolString(location);
+				// the old style protocol needs the TypeDependencies.xml
+				if (StringUtils.isNotEmpty(libraryName)) {
+					stamp = getLibraryStamp(libraryName, TypeLibraryUtil
+							.getTypeNameFromProtocolString(location));
+				}
+			} else {
+				final File file = FileUtils.toFile(new URL(location));
+				if (file != null && file.isFile()) {
+					stamp = IOUtil.digest(file);
+				}
+			}
+		} catch (Exception e) {
+			logger.warning(e);
+		}
+		stamps.put(location, stamp);
+		return stamp;
+	}
+
+	private static String getLibraryStamp(String libraryName, String typeName)
+			throws Exception {
+		final String jarLocation = GlobalRepositorySystem.instanceOf()
+				.getActiveRepositorySystem().getAssetRegistry()
+				.getAssetLocation(libraryName);
+		if (StringUtils.isNotEmpty(jarLocation)
+				&& jarLocation.endsWith(SOAProjectConstants.JAR_EXT)) {
+			final File jarFile = new File(jarLocation);
+			return jarFile.isFile() ? jarFile.lastModified() + ":"
+					+ jarFile.length() : null;
+		}
+		final IProject project = WorkspaceUtil.getProject(libraryName);
+		if (project.isAccessible()) {
+			return XSDDigestStore.digest(project.getFile(TypeLibraryUtil
+					.getXsdFileLocation(typeName, project)));
+		}
+		return null;
+	}
+
+	private static class Validation implements Callable<ValidatedXSD>,
+			XSDSchemaCache.ISchemaReader<List<String>> {
+		private final IProject project;
+		private final IFile file;
+		private final String digest;
+		private final ThreadLocal<SOAXSDValidator> validators;
+
+		Validation(IProject project, IFile file, String digest,
+				ThreadLocal<SOAXSDValidator> validators) {
+			this.project = project;
+			this.file = file;
+			this.digest = digest;
+			this.validators = validators;
+		}
+
+		public ValidatedXSD call() throws Exception {
+			final IStatus status = validators.get().validate(file);
+			final List<String> dependencies;
+			try {
+				dependencies = XSDSchemaCache.getInstance().read(file, this);
+			} catch (IOException e) {
+				// without a digest it is validated again next time
+				return new ValidatedXSD(null, status, new ArrayList<String>());
+			}
+			return new ValidatedXSD(digest, status, dependencies);
+		}
+
+		/**
+		 * Collects the resolved locations of the schemas the XSD refers to.
+		 */
+		public List<String> read(XSDSchema schema) throws IOException {
+			final List<String> dependencies = new ArrayList<String>();
+			final URL baseUrl = file.getLocation().toFile().toURI().toURL();
+			for (Object content : schema.getContents()) {
+				if (content instanceof XSDSchemaDirective) {
+					final String location = ((XSDSchemaDirective) content)
+							.getSchemaLocation();
+					if (StringUtils.isEmpty(location)) {
+						continue;
+					}
+					if (location.startsWith(SOATypeLibraryConstants.TURMERIC_XSD_FILE_PROTOCOL)) {
+						dependencies.add(resolveLocalType(location));
+					} else {
+						dependencies.add(new URL(baseUrl, location).toString());
+					}
+				}
+			}
+			return dependencies;
+		}
+
+		/**
+		 * Types of the same library are keyed by their file, so changes are
+		 * propagated through them.
+		 */
+		private String resolveLocalType(String location) {
+			if (project.getName().equals(
+					TypeLibraryUtil.getLibraryNameFromProtocolString(location))) {
+				final IFile typeFile = project.getFile(TypeLibraryUtil
+						.getXsdFileLocation(TypeLibraryUtil
+								.getTypeNameFromProtocolString(location),
+								project));
+				if (typeFile.getLocation() != null) {
+					return getLocation(typeFile);
+				}
+			}
+			return location;
+		}
+	}
+
+	private static class ProjectListener implements IResourceChangeListener {
+
+		public void resourceChanged(IResourceChangeEvent event) {
+			if (event.getResource() instanceof IProject) {
+				invalidate((IProject) event.getResource());
+				return;
+			}
+			final IResourceDelta delta = event.getDelta();
+			if (delta == null) {
+				return;
+			}
+			for (IResourceDelta projectDelta : delta
+					.getAffectedChildren(IResourceDelta.REMOVED)) {
+				invalidate((IProject) projectDelta.getResource());
+			}
+		}
+	}
+
+	private static class ValidatedXSD {
+		private final String digest;
+		private final IStatus status;
+		private final Map<String, String> dependencyStamps = new HashMap<String, String>();
+
+		ValidatedXSD(String digest, IStatus status, List<String> dependencies) {
+			this.digest = digest;
+			this.status = status;
+			for (String dependency : dependencies) {
+				dependencyStamps.put(dependency, null);
+			}
+		}
+
+		void stampDependencies(Map<String, String> stamps) {
+			for (String dependency : new ArrayList<String>(dependencyStamps
+					.keySet())) {
+				dependencyStamps.put(dependency, getStamp(dependency, stamps));
+			}
+		}
+	}
+}
@@ -16,6 +16,7 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.wst.common.uriresolver.internal.provisional.URIResolverPlugin;
 import org.eclipse.wst.xml.core.internal.XMLCorePlugin;
 import org.eclipse.wst.xml.core.internal.preferences.XMLCorePreferenceNames;
 import org.eclipse.wst.xml.core.internal.validation.core.ValidationMessage;
@@ -30,6 +31,35 @@ import org.eclipse.wst.xsd.core.internal.validation.eclipse.XSDValidator;
  * @author smathew
  */
 public class SOAXSDValidator extends AbstractSOAValidator {
+	@SuppressWarnings("restriction")
+	private final XSDValidator xsdValidator;
+
+	/**
+	 * Instantiates a validator using the shared WST validator, which is not
+	 * thread safe.
+	 */
+	public SOAXSDValidator() {
+		this(false);
+	}
+
+	/**
+	 * Instantiates a validator.
+	 *
+	 * @param privateValidator whether to use a WST validator of its own
+	 * instead of the shared one. The shared one must not be used by several
+	 * threads at once, a validator of its own may be used by one thread at a
+	 * time.
+	 */
+	@SuppressWarnings("restriction")
+	public SOAXSDValidator(boolean privateValidator) {
+		super();
+		if (privateValidator) {
+			xsdValidator = new XSDValidator();
+			xsdValidator.setURIResolver(URIResolverPlugin.createResolver());
+		} else {
+			xsdValidator = null;
+		}
+	}
 
 	/* (non-Javadoc)
 	 * @see org.ebayopensource.turmeric.eclipse.validator.core.AbstractSOAValidator#validate(java.lang.Object)
@@ -41,7 +71,8 @@ public class SOAXSDValidator extends AbstractSOAValidator {
 		IStatus status = super.validate(obj);
 		if (obj instanceof IFile) {
 			final IFile file = (IFile)obj;
-			XSDValidator xsdValidator = XSDValidator.getInstance();
+			XSDValidator xsdValidator = this.xsdValidator != null ? this.xsdValidator
+					: XSDValidator.getInstance();
 			try {
 				XSDValidationConfiguration config = new XSDValidationConfiguration();
 				boolean honourAllSchemaLocations = Platform.getPreferencesService().getBoolean(
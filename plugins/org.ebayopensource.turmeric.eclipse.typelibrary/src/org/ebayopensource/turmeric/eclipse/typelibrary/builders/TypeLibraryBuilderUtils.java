@@ -22,6 +22,8 @@ import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOAProjectCo
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOATypeLibraryConstants;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.RepositorySystemActivator;
 import org.ebayopensource.turmeric.eclipse.repositorysystem.core.GlobalRepositorySystem;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.preferences.core.PreferenceReader;
 import org.ebayopensource.turmeric.eclipse.resources.util.SOAServiceUtil;
 import org.ebayopensource.turmeric.eclipse.typelibrary.utils.TypeLibraryUtil;
 import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
@@ -48,6 +50,13 @@ import org.eclipse.jdt.core.JavaCore;
 public class TypeLibraryBuilderUtils {
 	private static final SOALogger logger = SOALogger.getLogger();
 
+	/**
+	 * The name of the type library codegen class loader. The class path of
+	 * this loader is modified, so it is pooled separately from the default
+	 * codegen class loader.
+	 */
+	public static final String TYPELIB_CLASSLOADER_NAME = "TypeLibCodegen";
+
 	/**
 	 * Wrapper API for TypeLibraryDeltaVisitor pattern. Returns all the XSDs
 	 * which has been modified according to the delta
@@ -115,7 +124,9 @@ public class TypeLibraryBuilderUtils {
 	}
 
 	/**
-	 * Validate the xsd for any wtp validation issues.
+	 * Validate the xsd for any wtp validation issues. With the parallel XSD
+	 * validation preference the unchanged xsds are not validated again, see
+	 * {@link ParallelXSDValidator}.
 	 *
 	 * @param project -
 	 * the parent project
@@ -131,9 +142,15 @@ public class TypeLibraryBuilderUtils {
 		ArrayList<IStatus> statusList = new ArrayList<IStatus>();
 		MultiStatus multiStatus = (MultiStatus) EclipseMessageUtils
 				.createEmptyOKMultiStatus("XSD Validation");
+		final boolean parallel = PreferenceReader.isParallelXSDValidation();
+		final List<IFile> accessibleFiles = new ArrayList<IFile>();
 		for (IFile file : TypeLibraryUtil.getAllXsdFiles(project, true)) {
 			if (file != null && file.isAccessible()) {
-				statusList.add(sOAXSdValidator.validate(file));
+				if (parallel) {
+					accessibleFiles.add(file);
+				} else {
+					statusList.add(sOAXSdValidator.validate(file));
+				}
 			} else {
 				if (complainAboutMissingXSDs)
 					statusList
@@ -144,6 +161,10 @@ public class TypeLibraryBuilderUtils {
 													+ file.getName(), null));
 			}
 		}
+		if (!accessibleFiles.isEmpty()) {
+			statusList.addAll(ParallelXSDValidator.validate(project,
+					accessibleFiles));
+		}
 		if (!statusList.isEmpty()) {
 			multiStatus = (MultiStatus) EclipseMessageUtils
 					.createErrorMultiStatus(statusList, "XSD Validation");
@@ -261,18 +282,21 @@ public class TypeLibraryBuilderUtils {
 	 * Removes it from the classpath. 3) Add meta src and meta inf folders to
 	 * the class path. This is to make sure that the latest XSDs and xml
 	 * modified by the user are present in the class path and not the stale old
-	 * output xsds and xmls.
+	 * output xsds and xmls. The class loader is not shared with any other
+	 * invoker, the returned invoker must be disposed.
 	 *
 	 * @param project the project
 	 * @return the codegen invoker
 	 * @throws Exception the exception
+	 * @see CodegenInvoker#dispose()
 	 */
 	public static CodegenInvoker initForTypeLib(IProject project)
 			throws Exception {
-		CodegenInvoker codegenInvoker = CodegenInvoker.init(project);
+		CodegenInvoker codegenInvoker = CodegenInvoker.initWithPrivateLoader(
+				project, TYPELIB_CLASSLOADER_NAME);
 		SOAPluginClassLoader soaPluginClassLoader = codegenInvoker
 				.getSoaPluginClassLoader();
-		ArrayList<IProject> typeLibProjects = WorkspaceUtil
+		ArrayList<IProject> typeLibProjects = SOAProjectIndex.getInstance()
 				.getProjectsByNature(TypeLibraryProjectNature.getTypeLibraryNatureId());
 		soaPluginClassLoader.setPluginBundles(
 				(GlobalRepositorySystem
@@ -72,6 +72,9 @@ public class TypeLibraryDeltaVisitor implements IResourceDeltaVisitor {
 						.isAccessible()) {
 					modifiedXSdList.add(project.getFile(delta
 							.getProjectRelativePath()));
+				} else if (delta.getKind() == IResourceDelta.REMOVED) {
+					deletedXSDList.add(project.getFile(delta
+							.getProjectRelativePath()));
 				}
 			} else {
 				if (TypeLibraryUtil.isValidXSDFileDeleted(delta.getResource())) {
@@ -13,14 +13,14 @@ import java.util.Map;
 
 import org.ebayopensource.turmeric.eclipse.buildsystem.SynchronizeWsdlAndDepXML;
 import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder;
-import org.ebayopensource.turmeric.eclipse.buildsystem.utils.BuilderUtil;
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.CodegenBuildCache;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
 import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOATypeLibraryConstants;
 import org.ebayopensource.turmeric.eclipse.resources.util.MarkerUtil;
 import org.ebayopensource.turmeric.eclipse.typelibrary.TypeLibraryActivator;
 import org.ebayopensource.turmeric.eclipse.typelibrary.codegen.model.BaseTypeLibCodegenModel;
 import org.ebayopensource.turmeric.eclipse.typelibrary.codegen.model.TypeLibModelTransformer;
-import org.ebayopensource.turmeric.eclipse.typelibrary.utils.TypeLibraryUtil;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
@@ -41,15 +41,18 @@ public class TypeLibraryProjectBuilder extends AbstractSOAProjectBuilder {
 			+ ".TypeLibraryProjectBuilder";
 	//private static final SOALogger logger = SOALogger.getLogger();
 
+	/** The XSDs of the types. */
+	private static final PathPatternSet BUILD_TRIGGER = new PathPatternSet(
+			new String[] { SOATypeLibraryConstants.FOLDER_META_SRC_TYPES },
+			"**/*" + SOATypeLibraryConstants.EXT_XSD);
+
 	
 	/* (non-Javadoc)
-	 * @see org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder#shouldBuild(org.eclipse.core.resources.IResourceDelta, org.eclipse.core.resources.IProject)
+	 * @see org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder#getBuildTrigger()
 	 */
 	@Override
-	protected boolean shouldBuild(IResourceDelta delta, IProject project)
-			throws Exception {
-		return BuilderUtil.shouldBuild(delta, project,
-				SOATypeLibraryConstants.EXT_XSD);
+	protected PathPatternSet getBuildTrigger() {
+		return BUILD_TRIGGER;
 	}
 
 	/* (non-Javadoc)
@@ -85,11 +88,18 @@ public class TypeLibraryProjectBuilder extends AbstractSOAProjectBuilder {
 				// Silently ignore. This is just an attempt
 			}
 		} else {
-			final List<IFile> modifiedXsds = TypeLibraryBuilderUtils.getModifiedXsds(delta, project);
-			if (modifiedXsds.isEmpty() == false) {
+			final TypeLibraryDeltaVisitor deltaVisitor = new TypeLibraryDeltaVisitor(
+					project);
+			delta.accept(deltaVisitor);
+			final List<IFile> modifiedXsds = deltaVisitor.getModifiedXsds();
+			final List<IFile> deletedXsds = deltaVisitor.getDeletedXSDList();
+			if (modifiedXsds.isEmpty() == false
+					|| deletedXsds.isEmpty() == false) {
 				try {
 					SynchronizeWsdlAndDepXML synch = new SynchronizeWsdlAndDepXML(project);
-					synch.syncronizeAllXSDsandDepXml(TypeLibraryUtil.getAllXsdFiles(project, true));
+					// only the xsds in the delta, unchanged content is skipped
+					synch.syncronizeChangedXSDsandDepXml(modifiedXsds,
+							deletedXsds);
 					synch.synchronizeTypeDepandProjectDep(monitor);
 				} catch (Exception e) {
 					// Silently ignore. This is just an attempt
@@ -98,12 +108,20 @@ public class TypeLibraryProjectBuilder extends AbstractSOAProjectBuilder {
 		}
 		CodegenInvoker codegenInvoker = TypeLibraryBuilderUtils
 				.initForTypeLib(project);
-		BaseTypeLibCodegenModel codeGenModel = TypeLibModelTransformer
-				.buildBaseTypeLibModel(project);
-		codeGenModel = TypeLibModelTransformer
-				.transformToGenTypeIncrOrCleanBuildTypeLibrary(
-						codeGenModel, project, delta);
-		codegenInvoker.execute(codeGenModel);
+		try {
+			BaseTypeLibCodegenModel codeGenModel = TypeLibModelTransformer
+					.buildBaseTypeLibModel(project);
+			codeGenModel = TypeLibModelTransformer
+					.transformToGenTypeIncrOrCleanBuildTypeLibrary(
+							codeGenModel, project, delta);
+			// skipped if the XSDs, options and class path did not change
+			final CodegenBuildCache cache = CodegenBuildCache.getCache(
+					project, BUILDER_ID);
+			cache.execute(codegenInvoker, codeGenModel, monitor);
+			addRefreshScope(cache.getManifest());
+		} finally {
+			codegenInvoker.dispose();
+		}
 		return null;
 	}
 
@@ -113,6 +131,7 @@ public class TypeLibraryProjectBuilder extends AbstractSOAProjectBuilder {
 	@Override
 	protected void doClean(IProject project, IProgressMonitor monitor)
 			throws Exception {
-		
+		CodegenBuildCache.getCache(project, BUILDER_ID).invalidate();
+		ParallelXSDValidator.invalidate(project);
 	}
 }
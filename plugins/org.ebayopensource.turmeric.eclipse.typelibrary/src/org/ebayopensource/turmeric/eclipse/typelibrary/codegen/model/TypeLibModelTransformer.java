@@ -15,10 +15,10 @@ import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.ebayopensource.turmeric.eclipse.core.model.typelibrary.TypeLibraryParamModel;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
 import org.ebayopensource.turmeric.eclipse.typelibrary.builders.TypeLibraryBuilderUtils;
 import org.ebayopensource.turmeric.eclipse.typelibrary.builders.TypeLibraryProjectNature;
 import org.ebayopensource.turmeric.eclipse.typelibrary.resources.model.SOATypeLibraryProjectResolver;
-import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
@@ -123,7 +123,7 @@ public class TypeLibModelTransformer {
 
 	private static String getXJCClassPath() throws CoreException, IOException {
 		StringBuffer xjcClassPath = new StringBuffer("");
-		for (IProject typeLibProject : WorkspaceUtil
+		for (IProject typeLibProject : SOAProjectIndex.getInstance()
 				.getProjectsByNature(TypeLibraryProjectNature.getTypeLibraryNatureId())) {
 			xjcClassPath.append(typeLibProject.getLocation().toFile()
 					.getCanonicalPath());
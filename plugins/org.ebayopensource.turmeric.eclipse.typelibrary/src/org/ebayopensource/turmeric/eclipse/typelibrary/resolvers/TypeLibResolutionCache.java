@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.typelibrary.resolvers;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.core.resources.constants.SOATypeLibraryConstants;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Remembers where the <code>typelib://</code> schema locations have been
+ * resolved to, so the editors and validators of a WSDL importing many types
+ * do not open the type library jars and read their
+ * <code>TypeDependencies.xml</code> again for every import.
+ *
+ * <p>
+ * A resolution is kept by base location and system id. It is used as long as
+ * the file it depends on has not changed: the jar containing the base
+ * location, or the <code>TypeDependencies.xml</code> of the type library
+ * project it belongs to. The resolved jar or XSD must not have changed either,
+ * nor the included type library project been opened or closed.
+ * </p>
+ */
+public final class TypeLibResolutionCache {
+	private static final SOALogger logger = SOALogger.getLogger();
+
+	private static final int MAX_ENTRIES = 4096;
+
+	private static final String METRIC_HIT = "typelib.resolution.hit";
+
+	private static final String METRIC_MISS = "typelib.resolution.miss";
+
+	private static final String PREFIX_JAR = "jar:";
+
+	private static final String PROTOCOL_FILE = "file";
+
+	private static final String PROTOCOL_JAR = "jar";
+
+	private static final String JAR_SEPARATOR = "!/";
+
+	private static final Map<String, Resolution> resolutions = new LinkedHashMap<String, Resolution>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Resolution> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private static final AtomicLong hits = new AtomicLong();
+
+	private static final AtomicLong misses = new AtomicLong();
+
+	private TypeLibResolutionCache() {
+		super();
+	}
+
+	/**
+	 * Gets the location a schema location has been resolved to.
+	 *
+	 * @param baseLocation the location of the including document
+	 * @param systemId the <code>typelib://</code> schema location
+	 * @return the resolved location, or null if it has to be resolved
+	 */
+	public static String lookup(final String baseLocation,
+			final String systemId) {
+		final String key = key(baseLocation, systemId);
+		final Resolution resolution;
+		synchronized (resolutions) {
+			resolution = resolutions.get(key);
+		}
+		if (resolution != null && resolution.isUpToDate()) {
+			hits.incrementAndGet();
+			BuildMetrics.increment(METRIC_HIT, null);
+			return resolution.location;
+		}
+		if (resolution != null) {
+			synchronized (resolutions) {
+				if (resolutions.get(key) == resolution) {
+					resolutions.remove(key);
+				}
+			}
+		}
+		final long missCount = misses.incrementAndGet();
+		BuildMetrics.increment(METRIC_MISS, null);
+		if (SOALogger.DEBUG) {
+			logger.debug("typelib resolution cache miss for ", systemId,
+					" from ", baseLocation, ", hits: ", hits.get(),
+					", misses: ", missCount);
+		}
+		return null;
+	}
+
+	/**
+	 * Remembers where a schema location has been resolved to.
+	 *
+	 * @param baseLocation the location of the including document
+	 * @param systemId the <code>typelib://</code> schema location
+	 * @param projectName the type library the base location belongs to
+	 * @param includedLibraryName the type library of the included type
+	 * @param location the resolved location, nothing is remembered if null
+	 */
+	public static void store(final String baseLocation, final String systemId,
+			final String projectName, final String includedLibraryName,
+			final URL location) {
+		if (location == null) {
+			return;
+		}
+		final Map<File, String> stamps = new HashMap<File, String>();
+		final File baseFile = baseLocation.startsWith(PREFIX_JAR) ? toFile(baseLocation)
+				: getDependencyFile(projectName);
+		if (baseFile != null) {
+			stamps.put(baseFile, stamp(baseFile));
+		}
+		final File targetFile = toFile(location.toString());
+		if (targetFile != null) {
+			stamps.put(targetFile, stamp(targetFile));
+		}
+		final Resolution resolution = new Resolution(location.toString(),
+				stamps, includedLibraryName,
+				isAccessible(includedLibraryName));
+		synchronized (resolutions) {
+			resolutions.put(key(baseLocation, systemId), resolution);
+		}
+	}
+
+	/**
+	 * Forgets all the resolutions.
+	 */
+	public static void clear() {
+		synchronized (resolutions) {
+			resolutions.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of schema locations found in the cache.
+	 *
+	 * @return the hit count
+	 */
+	public static long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of schema locations which had to be resolved.
+	 *
+	 * @return the miss count
+	 */
+	public static long getMissCount() {
+		return misses.get();
+	}
+
+	private static String key(final String baseLocation, final String systemId) {
+		return baseLocation + '\n' + systemId;
+	}
+
+	private static File getDependencyFile(final String projectName) {
+		if (StringUtils.isBlank(projectName)) {
+			return null;
+		}
+		final IProject project = WorkspaceUtil.getProject(projectName);
+		final IPath location = project.getFile(
+				SOATypeLibraryConstants.FOLDER_META_SRC_META_INF
+						+ WorkspaceUtil.PATH_SEPERATOR + projectName
+						+ WorkspaceUtil.PATH_SEPERATOR
+						+ SOATypeLibraryConstants.FILE_TYPE_DEP_XML)
+				.getLocation();
+		return location != null ? location.toFile() : null;
+	}
+
+	private static boolean isAccessible(final String projectName) {
+		return StringUtils.isNotBlank(projectName)
+				&& WorkspaceUtil.getProject(projectName).isAccessible();
+	}
+
+	/**
+	 * Gets the local file of a location, the jar file for a location inside
+	 * a jar.
+	 */
+	private static File toFile(final String location) {
+		try {
+			URL url = new URL(location);
+			if (PROTOCOL_JAR.equals(url.getProtocol())) {
+				url = new URL(StringUtils.substringBefore(url.getPath(),
+						JAR_SEPARATOR));
+			}
+			return PROTOCOL_FILE.equals(url.getProtocol()) ? FileUtils
+					.toFile(url) : null;
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	private static String stamp(final File file) {
+		return file.lastModified() + ":" + file.length();
+	}
+
+	private static class Resolution {
+		private final String location;
+		private final Map<File, String> stamps;
+		private final String includedLibraryName;
+		private final boolean includedLibraryAccessible;
+
+		Resolution(String location, Map<File, String> stamps,
+				String includedLibraryName, boolean includedLibraryAccessible) {
+			this.location = location;
+			this.stamps = stamps;
+			this.includedLibraryName = includedLibraryName;
+			this.includedLibraryAccessible = includedLibraryAccessible;
+		}
+
+		boolean isUpToDate() {
+			if (isAccessible(includedLibraryName) != includedLibraryAccessible) {
+				return false;
+			}
+			for (Map.Entry<File, String> entry : stamps.entrySet()) {
+				if (entry.getValue().equals(stamp(entry.getKey())) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
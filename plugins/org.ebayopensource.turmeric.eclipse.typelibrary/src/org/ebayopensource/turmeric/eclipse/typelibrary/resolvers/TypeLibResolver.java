@@ -8,6 +8,8 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.typelibrary.resolvers;
 
+import java.net.URL;
+
 import org.apache.commons.lang.StringUtils;
 import org.ebayopensource.turmeric.common.config.LibraryType;
 import org.ebayopensource.turmeric.common.config.ReferredTypeLibraryType;
@@ -35,6 +37,11 @@ public class TypeLibResolver implements URIResolverExtension {
 	public String resolve(IFile file, String baseLocation, String publicId,
 			String systemId) {
 		if (isEbayProtocol(systemId)) {
+			final String resolved = TypeLibResolutionCache.lookup(baseLocation,
+					systemId);
+			if (resolved != null) {
+				return resolved;
+			}
 			try {
 
 				String includedTypeName = TypeLibraryUtil
@@ -77,8 +84,11 @@ public class TypeLibResolver implements URIResolverExtension {
 						}
 					}
 				}
-				return TypeLibraryUtil.getXSD(includedLibraryName,
-						includedTypeName).toString();
+				final URL xsd = TypeLibraryUtil.getXSD(includedLibraryName,
+						includedTypeName);
+				TypeLibResolutionCache.store(baseLocation, systemId,
+						parentProjectName, includedLibraryName, xsd);
+				return xsd.toString();
 
 			} catch (Exception e) {
 				SOALogger.getLogger().error(e);
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.ui.handlers;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.ebayopensource.turmeric.eclipse.core.logging.SOALogger;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
+import org.ebayopensource.turmeric.eclipse.utils.ui.UIUtil;
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+/**
+ * Saves a snapshot of the build metrics, see {@link BuildMetrics}, as JSON or
+ * CSV depending on the extension of the chosen file.
+ */
+public class ExportBuildMetricsHandler extends AbstractHandler {
+	private static final String TITLE = "Export SOA Build Metrics";
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object execute(ExecutionEvent event) throws ExecutionException {
+		final Shell shell = HandlerUtil.getActiveShell(event);
+		final FileDialog dialog = new FileDialog(shell, SWT.SAVE);
+		dialog.setText(TITLE);
+		dialog.setFilterExtensions(new String[] { "*.json", "*.csv" });
+		dialog.setFileName("buildMetrics.json");
+		dialog.setOverwrite(true);
+		final String path = dialog.open();
+		if (path == null) {
+			return null;
+		}
+		try {
+			BuildMetrics.writeSnapshot(new File(path));
+		} catch (IOException e) {
+			SOALogger.getLogger().error(e);
+			UIUtil.showErrorDialog(shell, TITLE, "Failed to write " + path,
+					e);
+		}
+		return null;
+	}
+}
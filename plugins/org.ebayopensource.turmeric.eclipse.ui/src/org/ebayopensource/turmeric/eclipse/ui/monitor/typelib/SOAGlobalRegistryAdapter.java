@@ -282,8 +282,13 @@ public class SOAGlobalRegistryAdapter {
 				logger.debug("populate classloader" + url);
 			}
 		}
+		final SOAPluginClassLoader replaced = typeLibclassLoader;
 		typeLibclassLoader = new SOAPluginClassLoader("SOATools", urlsSet
 				.toArray(new URL[0]));
+		if (replaced != null) {
+			// closes the jars, the class loader does not release them itself
+			replaced.dispose();
+		}
 
 	}
 	
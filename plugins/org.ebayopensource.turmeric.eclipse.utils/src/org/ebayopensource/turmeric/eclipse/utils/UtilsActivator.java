@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.utils;
 
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAClassLoaderPool;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
@@ -49,6 +50,7 @@ public class UtilsActivator extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		SOAClassLoaderPool.getInstance().clear();
 		plugin = null;
 		super.stop(context);
 	}
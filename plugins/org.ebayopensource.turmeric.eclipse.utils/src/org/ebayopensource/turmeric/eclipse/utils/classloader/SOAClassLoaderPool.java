@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.classloader;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A pool of warm {@link SOAPluginClassLoader} instances. Loaders are keyed by a
+ * fingerprint of the ordered class path together with the modification time
+ * and size of every jar and of every file in the class folders, so a build
+ * whose class path did not change gets back the loader (and all the classes it
+ * already defined) used by the previous build. A required project compiled
+ * into its output folder gives a new loader, the code generators load the
+ * interface classes through it and must not see the old ones.
+ *
+ * <p>
+ * Each owner (typically a project) remembers the fingerprint it used last. When
+ * the class path of the owner changes, the old loader is dropped from the pool
+ * as soon as no other owner refers to it. Every {@link #acquire} must be
+ * followed by a {@link #release} once the loader is not used any more, a
+ * loader dropped from the pool is only disposed when the last user has
+ * released it. Unused loaders are softly referenced and the pool is bounded,
+ * so the VM may reclaim them when memory gets tight.
+ * </p>
+ */
+public final class SOAClassLoaderPool {
+
+	/** The default maximum number of loaders kept in the pool. */
+	public static final int DEFAULT_MAX_SIZE = 16;
+
+	private static final Logger logger = Logger
+			.getLogger(SOAClassLoaderPool.class.getName());
+
+	private static final SOAClassLoaderPool INSTANCE = new SOAClassLoaderPool();
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Map<String, LoaderReference> loaders = new LinkedHashMap<String, LoaderReference>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, LoaderReference> eldest) {
+			if (size() > maxSize) {
+				evicted(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private final Map<String, String> ownerKeys = new HashMap<String, String>();
+
+	/** The loaders which have been acquired and not released yet. */
+	private final Map<SOAPluginClassLoader, LoaderReference> leases = new IdentityHashMap<SOAPluginClassLoader, LoaderReference>();
+
+	private final ReferenceQueue<SOAPluginClassLoader> queue = new ReferenceQueue<SOAPluginClassLoader>();
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	private long hitCount = 0;
+
+	private long missCount = 0;
+
+	private long evictionCount = 0;
+
+	private SOAClassLoaderPool() {
+		super();
+	}
+
+	/**
+	 * Gets the shared pool.
+	 *
+	 * @return the shared instance
+	 */
+	public static SOAClassLoaderPool getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns a class loader for the given class path. A pooled loader is
+	 * returned if one with an identical fingerprint exists, otherwise a new
+	 * loader is created and pooled. The loader must be given back with
+	 * {@link #release(SOAPluginClassLoader)}.
+	 *
+	 * @param owner the owner of the loader, typically the project name
+	 * @param name the name of the loader
+	 * @param urls the ordered class path
+	 * @return the class loader
+	 */
+	public synchronized SOAPluginClassLoader acquire(String owner,
+			String name, URL[] urls) {
+		expungeStaleEntries();
+		final String key = name + ":" + fingerprint(urls);
+		final String oldKey = ownerKeys.put(owner, key);
+		if (oldKey != null && !oldKey.equals(key)) {
+			releaseIfUnused(oldKey);
+		}
+		final LoaderReference ref = loaders.get(key);
+		SOAPluginClassLoader loader = ref != null ? ref.get() : null;
+		if (loader != null && !loader.isDisposed()) {
+			hitCount++;
+			lease(ref, loader);
+			return loader;
+		}
+		missCount++;
+		loader = new SOAPluginClassLoader(name, urls);
+		final LoaderReference newRef = new LoaderReference(key, loader, queue);
+		loaders.put(key, newRef);
+		lease(newRef, loader);
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine("Created class loader for " + owner + ", " + this);
+		}
+		return loader;
+	}
+
+	/**
+	 * Gives back a loader returned by
+	 * {@link #acquire(String, String, URL[])}. A loader which has been dropped
+	 * from the pool in the meantime is disposed once its last user has
+	 * released it.
+	 *
+	 * @param loader the loader
+	 */
+	public synchronized void release(SOAPluginClassLoader loader) {
+		final LoaderReference ref = leases.get(loader);
+		if (ref == null) {
+			return;
+		}
+		ref.useCount--;
+		if (ref.useCount > 0) {
+			return;
+		}
+		leases.remove(loader);
+		ref.inUse = null;
+		if (ref.retired) {
+			loader.dispose();
+		}
+	}
+
+	/**
+	 * Gets the number of users of the given loader which have not released
+	 * it yet.
+	 *
+	 * @param loader the loader
+	 * @return the use count
+	 */
+	public synchronized int getUseCount(SOAPluginClassLoader loader) {
+		final LoaderReference ref = leases.get(loader);
+		return ref != null ? ref.useCount : 0;
+	}
+
+	/**
+	 * Drops the loader used by the given owner, the loader will be disposed if
+	 * no other owner is still using it.
+	 *
+	 * @param owner the owner
+	 */
+	public synchronized void invalidate(String owner) {
+		final String key = ownerKeys.remove(owner);
+		if (key != null) {
+			releaseIfUnused(key);
+		}
+	}
+
+	/**
+	 * Drops all pooled loaders and resets the owners. The loaders still in
+	 * use are disposed when they are released.
+	 */
+	public synchronized void clear() {
+		for (LoaderReference ref : loaders.values()) {
+			evicted(ref);
+		}
+		loaders.clear();
+		ownerKeys.clear();
+	}
+
+	/**
+	 * Sets the maximum number of loaders to be kept in the pool.
+	 *
+	 * @param maxSize the new max size
+	 */
+	public synchronized void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException(
+					"The pool size must be greater than zero: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		final Iterator<LoaderReference> it = loaders.values().iterator();
+		while (loaders.size() > maxSize && it.hasNext()) {
+			evicted(it.next());
+			it.remove();
+		}
+	}
+
+	/**
+	 * Gets the number of loaders currently in the pool.
+	 *
+	 * @return the size
+	 */
+	public synchronized int size() {
+		expungeStaleEntries();
+		return loaders.size();
+	}
+
+	/**
+	 * Gets the number of requests served with a warm loader.
+	 *
+	 * @return the hit count
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of requests which required a new loader.
+	 *
+	 * @return the miss count
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Gets the number of loaders evicted from the pool, either because the
+	 * pool was full, the class path changed or the VM reclaimed them.
+	 *
+	 * @return the eviction count
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized String toString() {
+		return "SOAClassLoaderPool[size=" + loaders.size() + ", hits="
+				+ hitCount + ", misses=" + missCount + ", evictions="
+				+ evictionCount + "]";
+	}
+
+	/**
+	 * Computes the fingerprint of the given class path. The fingerprint
+	 * changes whenever the order of the entries changes, any jar is modified,
+	 * or any file is added to, removed from or modified in a class folder.
+	 *
+	 * @param urls the ordered class path
+	 * @return the hex encoded fingerprint
+	 */
+	public static String fingerprint(URL[] urls) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final StringBuilder buf = new StringBuilder();
+		for (URL url : urls) {
+			buf.setLength(0);
+			buf.append(url).append('|');
+			final File file = "file".equals(url.getProtocol()) ? FileUtils
+					.toFile(url) : null;
+			if (file != null && file.isFile()) {
+				buf.append(file.lastModified()).append('|').append(
+						file.length());
+			}
+			buf.append('\n');
+			update(digest, buf);
+			if (file != null && file.isDirectory()) {
+				updateDirectory(digest, file, "", buf);
+			}
+		}
+		final byte[] bytes = digest.digest();
+		final char[] result = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			result[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			result[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(result);
+	}
+
+	/**
+	 * Adds the relative path, modification time and size of every file below
+	 * the given class folder, in a stable order. Only the files are stat'ed,
+	 * none of them is read.
+	 */
+	private static void updateDirectory(MessageDigest digest, File dir,
+			String path, StringBuilder buf) {
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files);
+		for (File file : files) {
+			final String name = path + file.getName();
+			if (file.isDirectory()) {
+				updateDirectory(digest, file, name + "/", buf);
+			} else {
+				buf.setLength(0);
+				buf.append(name).append('|').append(file.lastModified())
+						.append('|').append(file.length()).append('\n');
+				update(digest, buf);
+			}
+		}
+	}
+
+	private static void update(MessageDigest digest, CharSequence text) {
+		try {
+			digest.update(text.toString().getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void lease(LoaderReference ref, SOAPluginClassLoader loader) {
+		// a loader in use must not be reclaimed by the VM
+		ref.inUse = loader;
+		ref.useCount++;
+		leases.put(loader, ref);
+	}
+
+	private void releaseIfUnused(String key) {
+		if (ownerKeys.containsValue(key)) {
+			return;
+		}
+		final LoaderReference ref = loaders.remove(key);
+		if (ref != null) {
+			evicted(ref);
+		}
+	}
+
+	private void evicted(LoaderReference ref) {
+		evictionCount++;
+		ref.retired = true;
+		final SOAPluginClassLoader loader = ref.get();
+		if (loader != null && ref.useCount == 0) {
+			loader.dispose();
+		}
+	}
+
+	private void expungeStaleEntries() {
+		Reference<? extends SOAPluginClassLoader> ref;
+		while ((ref = queue.poll()) != null) {
+			final String key = ((LoaderReference) ref).key;
+			if (loaders.get(key) == ref) {
+				loaders.remove(key);
+				evictionCount++;
+			}
+		}
+	}
+
+	private static class LoaderReference extends
+			SoftReference<SOAPluginClassLoader> {
+		private final String key;
+		private SOAPluginClassLoader inUse;
+		private int useCount = 0;
+		private boolean retired = false;
+
+		LoaderReference(String key, SOAPluginClassLoader loader,
+				ReferenceQueue<SOAPluginClassLoader> queue) {
+			super(loader, queue);
+			this.key = key;
+		}
+	}
+}
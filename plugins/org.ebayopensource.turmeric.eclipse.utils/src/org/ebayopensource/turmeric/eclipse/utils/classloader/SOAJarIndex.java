@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.classloader;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * An index of resource names over a list of jar files. Every jar is opened
+ * once and shared with all the other indexes referring to the same version of
+ * the same jar. The jar handles are reference counted and closed as soon as
+ * the last index using them has been released, so every index must be
+ * released explicitly. A read holds the index, it can not be released in the
+ * middle of it, and a stream opened from a resource url holds its jar until
+ * the stream is closed.
+ *
+ * <p>
+ * The resource name to jar map is built on the first lookup. When several
+ * jars contain the same resource, the first jar in the given order wins.
+ * </p>
+ */
+public class SOAJarIndex {
+	private static final Logger logger = Logger.getLogger(SOAJarIndex.class
+			.getName());
+
+	/**
+	 * All open jars, keyed by path, modification time and size so a jar
+	 * rewritten on disk gets a fresh handle.
+	 */
+	private static final Map<String, SharedJar> openJars = new HashMap<String, SharedJar>();
+
+	private final List<File> jarFiles;
+	private final List<SharedJar> jars = new ArrayList<SharedJar>();
+	private Map<String, SharedJar> entries = null;
+	private boolean released = false;
+
+	/**
+	 * Instantiates a new jar index. The jars will be opened and indexed on the
+	 * first lookup.
+	 *
+	 * @param jarFiles the ordered jar files
+	 */
+	public SOAJarIndex(Collection<File> jarFiles) {
+		this.jarFiles = new ArrayList<File>(jarFiles);
+	}
+
+	/**
+	 * Finds the jar entry for the given resource name. A released index does
+	 * not find any resource. The streams of the returned url are read from
+	 * the jar handle shared by the indexes. The url stays valid once the
+	 * index has been released, the jar is then opened again for every stream.
+	 *
+	 * @param resourceName the resource name
+	 * @return the url of the entry or null if none of the jars contains the
+	 * resource
+	 * @throws MalformedURLException the malformed url exception
+	 */
+	public synchronized URL findResource(String resourceName)
+			throws MalformedURLException {
+		final SharedJar jar = lookup(resourceName);
+		if (jar == null) {
+			return null;
+		}
+		final JarEntry entry = jar.jarFile.getJarEntry(resourceName);
+		return entry != null ? new URL("jar", "", -1, jar.file.toURI().toURL()
+				+ "!/" + resourceName, new SharedJarUrlHandler(jar,
+				resourceName)) : null;
+	}
+
+	/**
+	 * Reads the content of the given resource.
+	 *
+	 * @param resourceName the resource name
+	 * @return the bytes or null if none of the jars contains the resource
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public synchronized byte[] readResource(String resourceName)
+			throws IOException {
+		final SharedJar jar = lookup(resourceName);
+		if (jar == null) {
+			return null;
+		}
+		final JarEntry entry = jar.jarFile.getJarEntry(resourceName);
+		if (entry == null) {
+			return null;
+		}
+		final InputStream input = jar.jarFile.getInputStream(entry);
+		try {
+			return IOUtils.toByteArray(input);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	/**
+	 * Checks if this index has been released.
+	 *
+	 * @return true, if released
+	 */
+	public synchronized boolean isReleased() {
+		return released;
+	}
+
+	/**
+	 * Releases this index. Jars not used by any other index will be closed.
+	 */
+	public synchronized void release() {
+		if (released) {
+			return;
+		}
+		released = true;
+		entries = null;
+		for (SharedJar jar : jars) {
+			releaseJar(jar);
+		}
+		jars.clear();
+	}
+
+	/**
+	 * Gets the number of jar handles currently open for all indexes.
+	 *
+	 * @return the open jar count
+	 */
+	public static int getOpenJarCount() {
+		synchronized (openJars) {
+			return openJars.size();
+		}
+	}
+
+	private synchronized SharedJar lookup(String resourceName) {
+		if (released) {
+			return null;
+		}
+		if (entries == null) {
+			entries = new HashMap<String, SharedJar>();
+			for (File file : jarFiles) {
+				try {
+					jars.add(acquire(file));
+				} catch (IOException e) {
+					// same as before, a broken jar is reported and skipped
+					logger.log(Level.WARNING, "Could not open jar file " + file,
+							e);
+				}
+			}
+			for (SharedJar jar : jars) {
+				final Enumeration<JarEntry> en = jar.jarFile.entries();
+				while (en.hasMoreElements()) {
+					final String name = en.nextElement().getName();
+					if (!entries.containsKey(name)) {
+						entries.put(name, jar);
+					}
+				}
+			}
+			if (logger.isLoggable(Level.FINE)) {
+				logger.fine("Indexed " + entries.size() + " entries in "
+						+ jars.size() + " jars");
+			}
+		}
+		return entries.get(resourceName);
+	}
+
+	private static SharedJar acquire(File file) throws IOException {
+		final String key = file.getAbsolutePath() + "|" + file.lastModified()
+				+ "|" + file.length();
+		synchronized (openJars) {
+			SharedJar jar = openJars.get(key);
+			if (jar == null) {
+				jar = new SharedJar(key, file, new JarFile(file));
+				openJars.put(key, jar);
+			}
+			jar.refCount++;
+			return jar;
+		}
+	}
+
+	private static void releaseJar(SharedJar jar) {
+		synchronized (openJars) {
+			jar.refCount--;
+			if (jar.refCount > 0) {
+				return;
+			}
+			openJars.remove(jar.key);
+			jar.closed = true;
+			try {
+				jar.jarFile.close();
+			} catch (IOException e) {
+				logger.log(Level.FINE, "Could not close jar file " + jar.key, e);
+			}
+		}
+	}
+
+	/**
+	 * Opens a stream on the given entry of the shared jar. The stream holds
+	 * the jar until it is closed.
+	 *
+	 * @return the stream or null if the jar has been closed already
+	 */
+	private static InputStream openStream(final SharedJar jar,
+			String entryName) throws IOException {
+		synchronized (openJars) {
+			if (jar.closed) {
+				return null;
+			}
+			jar.refCount++;
+		}
+		boolean opened = false;
+		try {
+			final JarEntry entry = jar.jarFile.getJarEntry(entryName);
+			if (entry == null) {
+				return null;
+			}
+			final InputStream input = new FilterInputStream(jar.jarFile
+					.getInputStream(entry)) {
+				private boolean closed = false;
+
+				@Override
+				public void close() throws IOException {
+					if (closed) {
+						return;
+					}
+					closed = true;
+					try {
+						super.close();
+					} finally {
+						releaseJar(jar);
+					}
+				}
+			};
+			opened = true;
+			return input;
+		} finally {
+			if (!opened) {
+				releaseJar(jar);
+			}
+		}
+	}
+
+	/**
+	 * Reads the entries of an index url from the shared jar as long as it is
+	 * open, and from a jar opened for the stream afterwards.
+	 */
+	private static class SharedJarUrlHandler extends URLStreamHandler {
+		private final SharedJar jar;
+		private final String entryName;
+
+		SharedJarUrlHandler(SharedJar jar, String entryName) {
+			this.jar = jar;
+			this.entryName = entryName;
+		}
+
+		@Override
+		protected URLConnection openConnection(final URL url)
+				throws IOException {
+			return new URLConnection(url) {
+				private InputStream input;
+
+				@Override
+				public void connect() throws IOException {
+					if (connected) {
+						return;
+					}
+					input = openStream(jar, entryName);
+					if (input == null) {
+						// the jar is not cached, it is closed along with the
+						// stream
+						final URLConnection connection = new URL(url
+								.toExternalForm()).openConnection();
+						connection.setUseCaches(false);
+						input = connection.getInputStream();
+					}
+					connected = true;
+				}
+
+				@Override
+				public InputStream getInputStream() throws IOException {
+					connect();
+					return input;
+				}
+			};
+		}
+	}
+
+	private static class SharedJar {
+		private final String key;
+		private final File file;
+		private final JarFile jarFile;
+		private int refCount = 0;
+		private boolean closed = false;
+
+		SharedJar(String key, File file, JarFile jarFile) {
+			this.key = key;
+			this.file = file;
+			this.jarFile = jarFile;
+		}
+	}
+}
@@ -8,10 +8,10 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.utils.classloader;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -19,12 +19,11 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.osgi.framework.Bundle;
 
 /**
@@ -46,6 +45,8 @@ public class SOAPluginClassLoader extends URLClassLoader {
 	private Set<URL> m_dirURLs = new TreeSet<URL>(URL_COMPARATOR);
 	private Set<URL> m_classPathURLs = new TreeSet<URL>(URL_COMPARATOR);
 	private List<Bundle> pluginBundles = new ArrayList<Bundle>();
+	private volatile boolean disposed = false;
+	private final SOAJarIndex jarIndex;
 	private static final Logger logger = Logger
 			.getLogger(SOAPluginClassLoader.class.getName());
 
@@ -71,6 +72,11 @@ public class SOAPluginClassLoader extends URLClassLoader {
 		}
 		m_classPathURLs.addAll(m_jarURLs);
 		m_classPathURLs.addAll(m_dirURLs);
+		final List<File> jarFiles = new ArrayList<File>(m_jarURLs.size());
+		for (URL jarURL : m_jarURLs) {
+			jarFiles.add(FileUtils.toFile(jarURL));
+		}
+		jarIndex = new SOAJarIndex(jarFiles);
 		if (logger.isLoggable(Level.FINE)) {
 			logger.fine("Inside soa plugin loader setM_classPathURLs: "
 					+ m_classPathURLs);
@@ -124,18 +130,18 @@ public class SOAPluginClassLoader extends URLClassLoader {
 		StringBuilder sb = new StringBuilder(name.length() + 6);
 		sb.append(name.replace('.', '/')).append(".class");
 
-		InputStream is = getResourceAsStream(sb.toString());
-
-		if (is == null)
-			throw new ClassNotFoundException("Class not found " + sb);
 		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			byte[] buf = new byte[1024];
-			int len;
-			while ((len = is.read(buf)) >= 0)
-				baos.write(buf, 0, len);
-
-			buf = baos.toByteArray();
+			byte[] buf = jarIndex.readResource(sb.toString());
+			if (buf == null) {
+				InputStream is = getResourceAsStream(sb.toString());
+				if (is == null)
+					throw new ClassNotFoundException("Class not found " + sb);
+				try {
+					buf = IOUtils.toByteArray(is);
+				} finally {
+					IOUtils.closeQuietly(is);
+				}
+			}
 
 			// define package if not defined yet
 			int i = name.lastIndexOf('.');
@@ -146,8 +152,6 @@ public class SOAPluginClassLoader extends URLClassLoader {
 					definePackage(pkgname, null, null, null, null, null, null,
 							null);
 			}
-			baos.close();
-			is.close();
 			return defineClass(name, buf, 0, buf.length);
 		} catch (IOException e) {
 			throw new ClassNotFoundException(name, e);
@@ -175,27 +179,13 @@ public class SOAPluginClassLoader extends URLClassLoader {
 		} catch (Exception exception) {
 		}
 
-		for (URL url : m_jarURLs) {
-
-			try {
-				File file = FileUtils.toFile(url);
-				JarFile jarFile;
-				jarFile = new JarFile(file);
-				JarEntry jarEntry = jarFile.getJarEntry(resourceName);
-				if (jarEntry != null) {
-					SOAToolFileUrlHandler handler = new SOAToolFileUrlHandler(
-							jarFile, jarEntry);
-					URL retUrl = new URL("jar", "", -1, new File(jarFile
-							.getName()).toURI().toURL()
-							+ "!/" + jarEntry.getName(), handler);
-					handler.setExpectedUrl(retUrl);
-					return retUrl;
-
-				}
-			} catch (IOException e) {
-				e.printStackTrace(); // KEEPME
+		try {
+			URL retUrl = jarIndex.findResource(resourceName);
+			if (retUrl != null) {
+				return retUrl;
 			}
-
+		} catch (IOException e) {
+			e.printStackTrace(); // KEEPME
 		}
 
 		return super.findResource(resourceName);
@@ -219,11 +209,58 @@ public class SOAPluginClassLoader extends URLClassLoader {
 		this.pluginBundles = pluginBundles;
 	}
 
+	/**
+	 * Appends the given directory to the class path of this loader unless it
+	 * is already on it. Unlike the constructor, this accepts a directory which
+	 * does not exist yet, its resources will be found once it is created.
+	 *
+	 * @param dir the directory
+	 * @throws MalformedURLException the malformed url exception
+	 */
+	public synchronized void addDirectory(File dir) throws MalformedURLException {
+		String url = dir.getAbsoluteFile().toURI().toString();
+		if (!url.endsWith("/")) {
+			// URLClassLoader treats a url without a trailing slash as a jar
+			url += "/";
+		}
+		final URL dirURL = new URL(url);
+		if (m_dirURLs.add(dirURL)) {
+			m_classPathURLs.add(dirURL);
+			addURL(dirURL);
+			if (logger.isLoggable(Level.FINE)) {
+				logger.fine("Added directory to soa plugin loader: " + dirURL);
+			}
+		}
+	}
+
+	/**
+	 * Releases the resources held by this class loader, the jar files opened
+	 * by this loader are closed unless they are still used by another loader.
+	 * A disposed loader must not be used for loading any further classes.
+	 */
+	public void dispose() {
+		disposed = true;
+		pluginBundles = new ArrayList<Bundle>();
+		jarIndex.release();
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine("Disposed soa plugin loader: " + m_classPathURLs);
+		}
+	}
+
+	/**
+	 * Checks if this class loader has been disposed.
+	 *
+	 * @return true, if disposed
+	 */
+	public boolean isDisposed() {
+		return disposed;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.net.URLClassLoader#getURLs()
 	 */
 	@Override
-	public URL[] getURLs() {
+	public synchronized URL[] getURLs() {
 		return m_classPathURLs.toArray(new URL[0]);
 	}
 
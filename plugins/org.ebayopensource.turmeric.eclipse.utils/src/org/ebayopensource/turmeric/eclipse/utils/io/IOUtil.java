@@ -9,12 +9,15 @@
 package org.ebayopensource.turmeric.eclipse.utils.io;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -265,4 +268,36 @@ public class IOUtil {
 		}
 		return fileList;
 	}
+
+	/**
+	 * Computes the MD5 digest of the content of the given file.
+	 *
+	 * @param file the file
+	 * @return the hex encoded digest
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String digest(File file) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final InputStream input = new FileInputStream(file);
+		try {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+		final StringBuilder result = new StringBuilder();
+		for (byte b : digest.digest()) {
+			result.append(Character.forDigit((b >> 4) & 0xf, 16));
+			result.append(Character.forDigit(b & 0xf, 16));
+		}
+		return result.toString();
+	}
 }
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.utils.collections.SetUtil;
+
+/**
+ * Reads the SOA metadata of the service and type library jars, opening every
+ * jar only once instead of once per entry.
+ *
+ * <p>
+ * The first time a jar is asked for, all its metadata entries are read in
+ * one pass and the jar is closed right away: the service metadata
+ * properties, the WSDLs, <code>TypeInformation.xml</code> and
+ * <code>TypeDependencies.xml</code>, as long as they are below
+ * <code>META-INF</code>. They are kept by the path of the jar, along with its
+ * modification time and size, and read again once the jar has changed. The
+ * properties files are parsed once. Any other entry is read from the jar on
+ * every call.
+ * </p>
+ */
+public final class JarMetadataCache {
+	private static final int MAX_JARS = 256;
+
+	private static final String FOLDER_META_INF = "META-INF/";
+
+	private static final String EXT_WSDL = ".wsdl";
+
+	private static final Set<String> METADATA_FILES = SetUtil.hashSet(
+			"service_metadata.properties", "TypeInformation.xml",
+			"TypeDependencies.xml");
+
+	private static final Map<String, CachedJar> jars = new LinkedHashMap<String, CachedJar>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedJar> eldest) {
+			return size() > MAX_JARS;
+		}
+	};
+
+	private JarMetadataCache() {
+		super();
+	}
+
+	/**
+	 * Gets the contents of an entry of a jar.
+	 *
+	 * @param jarFile the jar file
+	 * @param entryPath the path of the entry in the jar
+	 * @return the contents, or null if the jar or the entry does not exist
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static byte[] getContents(final File jarFile, final String entryPath)
+			throws IOException {
+		if (jarFile.isFile() == false) {
+			return null;
+		}
+		if (isMetadata(entryPath) == false) {
+			return readEntry(jarFile, entryPath);
+		}
+		final byte[] contents = getJar(jarFile).entries.get(entryPath);
+		return contents != null ? contents.clone() : null;
+	}
+
+	/**
+	 * Gets an entry of a jar as a stream, which does not hold the jar open.
+	 *
+	 * @param jarFile the jar file
+	 * @param entryPath the path of the entry in the jar
+	 * @return the stream, or null if the jar or the entry does not exist
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static InputStream getInputStream(final File jarFile,
+			final String entryPath) throws IOException {
+		final byte[] contents = getContents(jarFile, entryPath);
+		return contents != null ? new ByteArrayInputStream(contents) : null;
+	}
+
+	/**
+	 * Gets a properties file of a jar.
+	 *
+	 * @param jarFile the jar file
+	 * @param entryPath the path of the properties file in the jar
+	 * @return a copy of the properties, which the caller may modify, or null
+	 * if the jar or the entry does not exist
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static Properties getProperties(final File jarFile,
+			final String entryPath) throws IOException {
+		if (jarFile.isFile() == false) {
+			return null;
+		}
+		if (isMetadata(entryPath) == false) {
+			return parse(readEntry(jarFile, entryPath));
+		}
+		final CachedJar jar = getJar(jarFile);
+		Properties properties;
+		synchronized (jar.properties) {
+			properties = jar.properties.get(entryPath);
+			if (properties == null) {
+				properties = parse(jar.entries.get(entryPath));
+				if (properties == null) {
+					return null;
+				}
+				jar.properties.put(entryPath, properties);
+			}
+		}
+		final Properties result = new Properties();
+		result.putAll(properties);
+		return result;
+	}
+
+	/**
+	 * Drops what has been read from the given jar.
+	 *
+	 * @param jarFile the jar file
+	 */
+	public static void invalidate(final File jarFile) {
+		synchronized (jars) {
+			jars.remove(jarFile.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Drops everything read from all the jars.
+	 */
+	public static void clear() {
+		synchronized (jars) {
+			jars.clear();
+		}
+	}
+
+	private static boolean isMetadata(final String entryPath) {
+		if (entryPath.startsWith(FOLDER_META_INF) == false) {
+			return false;
+		}
+		final String name = entryPath.substring(entryPath.lastIndexOf('/') + 1);
+		return METADATA_FILES.contains(name) || name.endsWith(EXT_WSDL);
+	}
+
+	private static CachedJar getJar(final File jarFile) throws IOException {
+		final String key = jarFile.getAbsolutePath();
+		final String stamp = stamp(jarFile);
+		synchronized (jars) {
+			final CachedJar cached = jars.get(key);
+			if (cached != null && cached.stamp.equals(stamp)) {
+				return cached;
+			}
+		}
+		final CachedJar jar = new CachedJar(stamp, readMetadata(jarFile));
+		synchronized (jars) {
+			jars.put(key, jar);
+		}
+		return jar;
+	}
+
+	/**
+	 * Reads all the metadata entries of a jar in one pass.
+	 */
+	private static Map<String, byte[]> readMetadata(final File file)
+			throws IOException {
+		final Map<String, byte[]> entries = new HashMap<String, byte[]>();
+		final JarFile jarFile = new JarFile(file);
+		try {
+			final Enumeration<JarEntry> it = jarFile.entries();
+			while (it.hasMoreElements()) {
+				final JarEntry entry = it.nextElement();
+				if (entry.isDirectory() == false
+						&& isMetadata(entry.getName())) {
+					entries.put(entry.getName(), read(jarFile, entry));
+				}
+			}
+		} finally {
+			jarFile.close();
+		}
+		return Collections.unmodifiableMap(entries);
+	}
+
+	private static byte[] readEntry(final File file, final String entryPath)
+			throws IOException {
+		final JarFile jarFile = new JarFile(file);
+		try {
+			final JarEntry entry = jarFile.getJarEntry(entryPath);
+			return entry != null ? read(jarFile, entry) : null;
+		} finally {
+			jarFile.close();
+		}
+	}
+
+	private static byte[] read(final JarFile jarFile, final JarEntry entry)
+			throws IOException {
+		final InputStream input = jarFile.getInputStream(entry);
+		try {
+			return IOUtils.toByteArray(input);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	private static Properties parse(final byte[] contents) throws IOException {
+		if (contents == null) {
+			return null;
+		}
+		final Properties properties = new Properties();
+		properties.load(new ByteArrayInputStream(contents));
+		return properties;
+	}
+
+	private static String stamp(final File file) {
+		return file.lastModified() + ":" + file.length();
+	}
+
+	private static class CachedJar {
+		private final String stamp;
+		private final Map<String, byte[]> entries;
+		private final Map<String, Properties> properties = new HashMap<String, Properties>();
+
+		CachedJar(String stamp, Map<String, byte[]> entries) {
+			this.stamp = stamp;
+			this.entries = entries;
+		}
+	}
+}
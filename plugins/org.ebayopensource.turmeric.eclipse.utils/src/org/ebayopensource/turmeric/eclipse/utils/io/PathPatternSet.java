@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.io;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * A set of files of a project, given as root folders and glob patterns
+ * relative to those roots. The patterns are compiled once, so the set can be
+ * kept in a constant and checked against every path of a resource delta.
+ *
+ * <p>
+ * The paths are relative to the project and separated with <code>/</code>,
+ * an empty root being the whole project. In the patterns, <code>*</code>
+ * matches any characters but <code>/</code>, <code>?</code> matches one of
+ * them and <code>**&#47;</code> matches any number of folders. The patterns
+ * ignore the case, the roots do not.
+ * </p>
+ */
+public final class PathPatternSet {
+	private static final char SEPARATOR = '/';
+
+	private static final String REGEX_META_CHARS = "\\.[]{}()+-^$|";
+
+	private final String[] roots;
+
+	private final String[] globs;
+
+	private final Pattern[] patterns;
+
+	/** Whether some pattern matches files below the folders of the roots. */
+	private final boolean nested;
+
+	/**
+	 * Compiles the given patterns.
+	 *
+	 * @param roots the folders holding the files, relative to the project
+	 * @param globs the patterns of the files, relative to the roots
+	 */
+	public PathPatternSet(String[] roots, String... globs) {
+		super();
+		this.roots = new String[roots.length];
+		for (int i = 0; i < roots.length; i++) {
+			this.roots[i] = normalize(roots[i]);
+		}
+		this.globs = globs.clone();
+		this.patterns = new Pattern[globs.length];
+		boolean nested = false;
+		for (int i = 0; i < globs.length; i++) {
+			final String glob = normalize(globs[i]);
+			patterns[i] = Pattern.compile(toRegex(glob),
+					Pattern.CASE_INSENSITIVE);
+			nested |= glob.indexOf(SEPARATOR) >= 0 || glob.contains("**");
+		}
+		this.nested = nested;
+	}
+
+	/**
+	 * Checks whether the given file belongs to the set.
+	 *
+	 * @param path the path of the file, relative to the project
+	 * @return true if the file is below one of the roots and matches one of
+	 * the patterns
+	 */
+	public boolean matches(String path) {
+		path = normalize(path);
+		for (String root : roots) {
+			final String relativePath = relativize(root, path);
+			if (StringUtils.isEmpty(relativePath)) {
+				continue;
+			}
+			for (Pattern pattern : patterns) {
+				if (pattern.matcher(relativePath).matches()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the given folder may hold files of the set, that is
+	 * whether it is one of the roots, is on the way to one of them or is below
+	 * one of them and some pattern spans several folders. The other folders
+	 * do not need to be visited.
+	 *
+	 * @param path the path of the folder, relative to the project
+	 * @return true if the folder may hold files of the set
+	 */
+	public boolean isTraversable(String path) {
+		path = normalize(path);
+		if (path.length() == 0) {
+			return true;
+		}
+		for (String root : roots) {
+			final String relativePath = relativize(root, path);
+			if (relativePath != null) {
+				if (relativePath.length() == 0 || nested) {
+					return true;
+				}
+			} else if (relativize(path, root) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lists the files of the set below the given project directory. Only the
+	 * folders which may hold files of the set are visited.
+	 *
+	 * @param projectDir the directory of the project
+	 * @return the files sorted by their path relative to the project
+	 */
+	public Map<String, File> listFiles(File projectDir) {
+		final Map<String, File> files = new TreeMap<String, File>();
+		listFiles(projectDir, "", files);
+		return files;
+	}
+
+	private void listFiles(File dir, String path, Map<String, File> files) {
+		final File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			final String childPath = path.length() == 0 ? child.getName()
+					: path + SEPARATOR + child.getName();
+			if (child.isDirectory()) {
+				if (isTraversable(childPath)) {
+					listFiles(child, childPath, files);
+				}
+			} else if (matches(childPath)) {
+				files.put(childPath, child);
+			}
+		}
+	}
+
+	/**
+	 * Gets the root folders.
+	 *
+	 * @return the roots, relative to the project
+	 */
+	public String[] getRoots() {
+		return roots.clone();
+	}
+
+	/**
+	 * Gets the patterns.
+	 *
+	 * @return the patterns, relative to the roots
+	 */
+	public String[] getPatterns() {
+		return globs.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return StringUtils.join(roots, ',') + " : "
+				+ StringUtils.join(globs, ',');
+	}
+
+	/**
+	 * Gets the given path relative to the given folder.
+	 *
+	 * @return the relative path, empty if the path is the folder itself, null
+	 * if the path is not below the folder
+	 */
+	private static String relativize(String folder, String path) {
+		if (folder.length() == 0) {
+			return path;
+		}
+		if (path.startsWith(folder) == false) {
+			return null;
+		}
+		if (path.length() == folder.length()) {
+			return "";
+		}
+		return path.charAt(folder.length()) == SEPARATOR ? path
+				.substring(folder.length() + 1) : null;
+	}
+
+	private static String normalize(String path) {
+		return StringUtils.strip(StringUtils.defaultString(path).replace('\\',
+				SEPARATOR), String.valueOf(SEPARATOR));
+	}
+
+	private static String toRegex(String glob) {
+		final StringBuilder result = new StringBuilder();
+		for (int i = 0; i < glob.length(); i++) {
+			final char c = glob.charAt(i);
+			if (c == '*') {
+				if (glob.startsWith("**/", i)) {
+					result.append("(?:.*/)?");
+					i += 2;
+				} else if (glob.startsWith("**", i)) {
+					result.append(".*");
+					i++;
+				} else {
+					result.append("[^/]*");
+				}
+			} else if (c == '?') {
+				result.append("[^/]");
+			} else {
+				if (REGEX_META_CHARS.indexOf(c) >= 0) {
+					result.append('\\');
+				}
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+}
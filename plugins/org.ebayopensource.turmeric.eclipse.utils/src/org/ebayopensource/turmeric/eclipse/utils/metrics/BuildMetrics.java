@@ -0,0 +1,509 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * The timers and counters of the build pipeline, telling where the build
+ * time goes and helping to find the regressions.
+ *
+ * <p>
+ * A timer records how often an operation ran, its total, minimum and maximum
+ * duration, and a histogram of its durations in power of two milliseconds.
+ * The timers and counters are kept per project, and for the whole workspace
+ * under a null project. Recording costs a few atomic operations, so the
+ * metrics are always on unless the system property {@link #PROP_ENABLED} is
+ * set to false.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * final long start = BuildMetrics.start();
+ * try {
+ * 	...
+ * } finally {
+ * 	BuildMetrics.stop(BuildMetrics.MODEL_TRANSFORM, project.getName(), start);
+ * }
+ * </pre>
+ */
+public final class BuildMetrics {
+
+	/** The system property turning the metrics off when set to false. */
+	public static final String PROP_ENABLED = "turmeric.buildMetrics";
+
+	/** The whole build of a project. */
+	public static final String BUILD = "build";
+
+	/** The refresh of the files written by a build. */
+	public static final String BUILD_REFRESH = "build.refresh";
+
+	/** The cleaning and creation of the problem markers of a build. */
+	public static final String BUILD_MARKERS = "build.markers";
+
+	/** The resolution of the class path of a project for the codegen. */
+	public static final String CLASSPATH_RESOLUTION = "classpath.resolution";
+
+	/** The creation, or the reuse, of the codegen class loader. */
+	public static final String CLASSLOADER_CREATION = "classloader.creation";
+
+	/** The transformation of a project into a codegen model. */
+	public static final String MODEL_TRANSFORM = "model.transform";
+
+	/** The prefix of the time spent in the codegen engine, by gen type. */
+	public static final String CODEGEN_PREFIX = "codegen.";
+
+	/** The time spent waiting for the global type registry. */
+	public static final String REGISTRY_WAIT = "registry.wait";
+
+	/** The number of histogram buckets, the last one is unbounded. */
+	public static final int BUCKETS = 16;
+
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	private static final String EXT_CSV = ".csv";
+
+	private static volatile boolean enabled = Boolean.parseBoolean(System
+			.getProperty(PROP_ENABLED, Boolean.TRUE.toString()));
+
+	private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+	private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+
+	private BuildMetrics() {
+		super();
+	}
+
+	/**
+	 * Checks if the metrics are recorded.
+	 *
+	 * @return true, if enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turns the recording of the metrics on or off.
+	 *
+	 * @param enabled true to record the metrics
+	 */
+	public static void setEnabled(boolean enabled) {
+		BuildMetrics.enabled = enabled;
+	}
+
+	/**
+	 * Starts timing an operation.
+	 *
+	 * @return the start time to pass to {@link #stop(String, String, long)}
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : NOT_STARTED;
+	}
+
+	/**
+	 * Stops timing an operation and records its duration.
+	 *
+	 * @param name the name of the timer
+	 * @param project the project name, null if the operation does not belong
+	 * to a project
+	 * @param start the value returned by {@link #start()}
+	 */
+	public static void stop(String name, String project, long start) {
+		if (start != NOT_STARTED) {
+			record(name, project, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records the duration of an operation.
+	 *
+	 * @param name the name of the timer
+	 * @param project the project name, null if the operation does not belong
+	 * to a project
+	 * @param nanos the duration in nanoseconds
+	 */
+	public static void record(String name, String project, long nanos) {
+		if (enabled == false) {
+			return;
+		}
+		timer(name, null).record(nanos);
+		if (project != null) {
+			timer(name, project).record(nanos);
+		}
+	}
+
+	/**
+	 * Increments a counter.
+	 *
+	 * @param name the name of the counter
+	 * @param project the project name, null if the event does not belong to
+	 * a project
+	 */
+	public static void increment(String name, String project) {
+		add(name, project, 1);
+	}
+
+	/**
+	 * Adds a value to a counter.
+	 *
+	 * @param name the name of the counter
+	 * @param project the project name, null if the event does not belong to
+	 * a project
+	 * @param delta the value to add
+	 */
+	public static void add(String name, String project, long delta) {
+		if (enabled == false) {
+			return;
+		}
+		counter(name, null).value.addAndGet(delta);
+		if (project != null) {
+			counter(name, project).value.addAndGet(delta);
+		}
+	}
+
+	/**
+	 * Gets a timer.
+	 *
+	 * @param name the name of the timer
+	 * @param project the project name, null for the whole workspace
+	 * @return the timer, or null if nothing has been recorded
+	 */
+	public static Timer getTimer(String name, String project) {
+		return timers.get(key(name, project));
+	}
+
+	/**
+	 * Gets the value of a counter.
+	 *
+	 * @param name the name of the counter
+	 * @param project the project name, null for the whole workspace
+	 * @return the value, 0 if nothing has been recorded
+	 */
+	public static long getCounter(String name, String project) {
+		final Counter counter = counters.get(key(name, project));
+		return counter != null ? counter.value.get() : 0;
+	}
+
+	/**
+	 * Gets all the timers, sorted by name and project, the workspace timer
+	 * of a name first.
+	 *
+	 * @return the timers
+	 */
+	public static List<Timer> getTimers() {
+		return new ArrayList<Timer>(new TreeMap<String, Timer>(timers).values());
+	}
+
+	/**
+	 * Forgets all the timers and counters.
+	 */
+	public static void reset() {
+		timers.clear();
+		counters.clear();
+	}
+
+	/**
+	 * Gets a snapshot of the metrics as JSON.
+	 *
+	 * @return the JSON text
+	 */
+	public static String toJSON() {
+		final StringBuilder result = new StringBuilder("{\"timers\":[");
+		boolean first = true;
+		for (Timer timer : getTimers()) {
+			if (first == false) {
+				result.append(',');
+			}
+			first = false;
+			result.append("\n{\"name\":").append(quote(timer.name));
+			result.append(",\"project\":").append(quote(timer.project));
+			result.append(",\"count\":").append(timer.getCount());
+			result.append(",\"totalMs\":").append(timer.getTotalMillis());
+			result.append(",\"minMs\":").append(timer.getMinMillis());
+			result.append(",\"maxMs\":").append(timer.getMaxMillis());
+			result.append(",\"histogram\":[");
+			for (int i = 0; i < BUCKETS; i++) {
+				if (i > 0) {
+					result.append(',');
+				}
+				result.append(timer.buckets.get(i));
+			}
+			result.append("]}");
+		}
+		result.append("],\n\"histogramBucketsMs\":[");
+		for (int i = 0; i < BUCKETS; i++) {
+			if (i > 0) {
+				result.append(',');
+			}
+			result.append(quote(getBucketLabel(i)));
+		}
+		result.append("],\n\"counters\":[");
+		first = true;
+		for (Counter counter : new TreeMap<String, Counter>(counters).values()) {
+			if (first == false) {
+				result.append(',');
+			}
+			first = false;
+			result.append("\n{\"name\":").append(quote(counter.name));
+			result.append(",\"project\":").append(quote(counter.project));
+			result.append(",\"value\":").append(counter.value.get());
+			result.append('}');
+		}
+		return result.append("]}\n").toString();
+	}
+
+	/**
+	 * Gets a snapshot of the metrics as CSV, one line per timer and counter.
+	 * The count column holds the value of the counters.
+	 *
+	 * @return the CSV text
+	 */
+	public static String toCSV() {
+		final StringBuilder result = new StringBuilder(
+				"type,name,project,count,totalMs,minMs,maxMs");
+		for (int i = 0; i < BUCKETS; i++) {
+			result.append(',').append(getBucketLabel(i));
+		}
+		result.append('\n');
+		for (Timer timer : getTimers()) {
+			result.append("timer,").append(escapeCSV(timer.name));
+			result.append(',').append(escapeCSV(timer.project));
+			result.append(',').append(timer.getCount());
+			result.append(',').append(timer.getTotalMillis());
+			result.append(',').append(timer.getMinMillis());
+			result.append(',').append(timer.getMaxMillis());
+			for (int i = 0; i < BUCKETS; i++) {
+				result.append(',').append(timer.buckets.get(i));
+			}
+			result.append('\n');
+		}
+		for (Counter counter : new TreeMap<String, Counter>(counters).values()) {
+			result.append("counter,").append(escapeCSV(counter.name));
+			result.append(',').append(escapeCSV(counter.project));
+			result.append(',').append(counter.value.get());
+			result.append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Writes a snapshot of the metrics, as CSV if the file name ends with
+	 * <code>.csv</code>, as JSON otherwise.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void writeSnapshot(File file) throws IOException {
+		final boolean csv = file.getName().toLowerCase().endsWith(EXT_CSV);
+		FileUtils.writeStringToFile(file, csv ? toCSV() : toJSON(), "UTF-8");
+	}
+
+	/**
+	 * Gets the label of a histogram bucket.
+	 *
+	 * @param bucket the bucket index
+	 * @return the label, like <code>&lt;4ms</code>
+	 */
+	public static String getBucketLabel(int bucket) {
+		return bucket < BUCKETS - 1 ? "<" + (1L << bucket) + "ms" : ">="
+				+ (1L << (BUCKETS - 2)) + "ms";
+	}
+
+	private static int getBucket(long millis) {
+		if (millis <= 0) {
+			return 0;
+		}
+		return Math.min(64 - Long.numberOfLeadingZeros(millis), BUCKETS - 1);
+	}
+
+	private static String key(String name, String project) {
+		// the workspace entry of a name sorts before its projects
+		return project == null ? name + '\n' : name + '\n' + project;
+	}
+
+	private static Timer timer(String name, String project) {
+		final String key = key(name, project);
+		Timer timer = timers.get(key);
+		if (timer == null) {
+			final Timer created = new Timer(name, project);
+			timer = timers.putIfAbsent(key, created);
+			if (timer == null) {
+				timer = created;
+			}
+		}
+		return timer;
+	}
+
+	private static Counter counter(String name, String project) {
+		final String key = key(name, project);
+		Counter counter = counters.get(key);
+		if (counter == null) {
+			final Counter created = new Counter(name, project);
+			counter = counters.putIfAbsent(key, created);
+			if (counter == null) {
+				counter = created;
+			}
+		}
+		return counter;
+	}
+
+	private static String quote(String value) {
+		if (value == null) {
+			return "null";
+		}
+		final StringBuilder result = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < ' ') {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	private static String escapeCSV(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+				&& value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * The durations of an operation, for one project or the whole workspace.
+	 */
+	public static final class Timer {
+		private final String name;
+		private final String project;
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong total = new AtomicLong();
+		private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+		private final AtomicLong max = new AtomicLong();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+		private Timer(String name, String project) {
+			this.name = name;
+			this.project = project;
+		}
+
+		private void record(long nanos) {
+			count.incrementAndGet();
+			total.addAndGet(nanos);
+			long current;
+			while (nanos < (current = min.get())
+					&& min.compareAndSet(current, nanos) == false) {
+				// another thread changed it, try again
+			}
+			while (nanos > (current = max.get())
+					&& max.compareAndSet(current, nanos) == false) {
+				// another thread changed it, try again
+			}
+			buckets.incrementAndGet(getBucket(nanos / NANOS_PER_MILLI));
+		}
+
+		/**
+		 * Gets the name.
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the project.
+		 *
+		 * @return the project name, null for the whole workspace
+		 */
+		public String getProject() {
+			return project;
+		}
+
+		/**
+		 * Gets the number of recorded operations.
+		 *
+		 * @return the count
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * Gets the total duration.
+		 *
+		 * @return the total in milliseconds
+		 */
+		public long getTotalMillis() {
+			return total.get() / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Gets the shortest duration.
+		 *
+		 * @return the minimum in milliseconds, 0 if nothing is recorded
+		 */
+		public long getMinMillis() {
+			final long value = min.get();
+			return value == Long.MAX_VALUE ? 0 : value / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Gets the longest duration.
+		 *
+		 * @return the maximum in milliseconds
+		 */
+		public long getMaxMillis() {
+			return max.get() / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Gets the number of operations of a histogram bucket.
+		 *
+		 * @param bucket the bucket index, see {@link BuildMetrics#getBucketLabel(int)}
+		 * @return the count
+		 */
+		public long getBucketCount(int bucket) {
+			return buckets.get(bucket);
+		}
+	}
+
+	private static final class Counter {
+		private final String name;
+		private final String project;
+		private final AtomicLong value = new AtomicLong();
+
+		private Counter(String name, String project) {
+			this.name = name;
+			this.project = project;
+		}
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * The metrics of the build pipeline.
+ */
+package org.ebayopensource.turmeric.eclipse.utils.metrics;
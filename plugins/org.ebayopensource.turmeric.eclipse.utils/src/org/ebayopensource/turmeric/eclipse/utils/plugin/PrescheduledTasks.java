@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Runs the tasks of a sequential process ahead of time. The process, for
+ * instance a workspace build, goes through its keys one after the other in
+ * one thread, the driving thread. Every key may have a task which depends on
+ * other keys, it is submitted to an executor as soon as the driving thread
+ * has finished all of them.
+ *
+ * <p>
+ * When the driving thread reaches a key, it claims its task. A task which has
+ * not been submitted yet is cancelled and the driving thread does the work
+ * itself, otherwise it waits for the task. All the methods but
+ * {@link #await(Object, IProgressMonitor)} must be called from the driving
+ * thread.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ */
+public final class PrescheduledTasks<K> {
+	private static final long WAIT_INTERVAL = 500;
+
+	/**
+	 * A task run ahead of time.
+	 *
+	 * @param <K> the type of the keys
+	 */
+	public static interface ITask<K> {
+
+		/**
+		 * Prepares the task in the driving thread, right before it is
+		 * submitted. The task is not submitted if the preparation fails, the
+		 * error is reported to the driving thread when it claims the task.
+		 *
+		 * @param key the key
+		 * @param monitor the monitor
+		 * @throws Exception the exception
+		 */
+		public void prepare(K key, IProgressMonitor monitor) throws Exception;
+
+		/**
+		 * Runs the task in a thread of the executor.
+		 *
+		 * @param key the key
+		 * @throws Exception the exception
+		 */
+		public void run(K key) throws Exception;
+	}
+
+	private final Executor executor;
+
+	private final Map<K, ScheduledTask> tasks = new LinkedHashMap<K, ScheduledTask>();
+
+	private final Set<K> finished = new HashSet<K>();
+
+	private boolean cancelled = false;
+
+	/**
+	 * Instantiates the tasks of a process.
+	 *
+	 * @param executor the executor running the tasks
+	 */
+	public PrescheduledTasks(Executor executor) {
+		super();
+		this.executor = executor;
+	}
+
+	/**
+	 * Schedules the task of the given key. It is submitted by the first
+	 * {@link #submitReady(IProgressMonitor)} after all its dependencies have
+	 * been finished.
+	 *
+	 * @param key the key
+	 * @param task the task
+	 * @param dependencies the keys which must be finished before the task
+	 * runs
+	 */
+	public synchronized void schedule(K key, ITask<K> task,
+			Collection<K> dependencies) {
+		if (cancelled == false && tasks.containsKey(key) == false) {
+			tasks.put(key, new ScheduledTask(key, task, dependencies));
+		}
+	}
+
+	/**
+	 * Checks whether the given key has a task which has not been claimed yet.
+	 *
+	 * @param key the key
+	 * @return true if the key has a task
+	 */
+	public synchronized boolean isScheduled(K key) {
+		return tasks.containsKey(key);
+	}
+
+	/**
+	 * Records that the driving thread has finished the given key.
+	 *
+	 * @param key the key
+	 */
+	public synchronized void finished(K key) {
+		finished.add(key);
+	}
+
+	/**
+	 * Checks whether the driving thread has finished the given key.
+	 *
+	 * @param key the key
+	 * @return true if the key is finished
+	 */
+	public synchronized boolean isFinished(K key) {
+		return finished.contains(key);
+	}
+
+	/**
+	 * Prepares and submits the tasks whose dependencies are all finished.
+	 *
+	 * @param monitor the monitor passed to the preparations
+	 */
+	public void submitReady(IProgressMonitor monitor) {
+		final List<ScheduledTask> ready = new ArrayList<ScheduledTask>();
+		synchronized (this) {
+			for (ScheduledTask task : tasks.values()) {
+				if (task.state == ScheduledTask.PENDING
+						&& finished.containsAll(task.dependencies)) {
+					task.state = ScheduledTask.PREPARING;
+					ready.add(task);
+				}
+			}
+		}
+		for (ScheduledTask task : ready) {
+			try {
+				task.task.prepare(task.key, monitor);
+			} catch (Exception e) {
+				task.error = e;
+				task.finish(ScheduledTask.DONE);
+				continue;
+			}
+			synchronized (this) {
+				if (task.state != ScheduledTask.PREPARING) {
+					continue;
+				}
+				task.state = ScheduledTask.QUEUED;
+			}
+			executor.execute(task);
+		}
+	}
+
+	/**
+	 * Claims the task of the given key. A task which has not been submitted
+	 * yet is cancelled.
+	 *
+	 * @param key the key
+	 * @return true if the task has been submitted, the driving thread has to
+	 * call {@link #await(Object, IProgressMonitor)}; false if the driving
+	 * thread has to do the work itself
+	 */
+	public synchronized boolean claim(K key) {
+		final ScheduledTask task = tasks.get(key);
+		if (task == null || task.claimed) {
+			return false;
+		}
+		if (task.state == ScheduledTask.PENDING) {
+			tasks.remove(key);
+			task.finish(ScheduledTask.CANCELLED);
+			return false;
+		}
+		task.claimed = true;
+		return true;
+	}
+
+	/**
+	 * Waits for the claimed task of the given key.
+	 *
+	 * @param key the key
+	 * @param monitor the monitor checked for cancellation while waiting, may
+	 * be null
+	 * @return true if the task has done the work, false if the key had no
+	 * claimed task
+	 * @throws Exception the exception thrown by the task or its preparation
+	 */
+	public boolean await(K key, IProgressMonitor monitor) throws Exception {
+		final ScheduledTask task;
+		synchronized (this) {
+			task = tasks.get(key);
+			if (task == null || task.claimed == false) {
+				return false;
+			}
+			tasks.remove(key);
+		}
+		while (task.done.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS) == false) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+		}
+		if (task.error != null) {
+			throw task.error;
+		}
+		return true;
+	}
+
+	/**
+	 * Cancels the tasks which have not been submitted yet and stops
+	 * scheduling. The submitted tasks run to their end.
+	 */
+	public synchronized void cancel() {
+		cancelled = true;
+		for (ScheduledTask task : tasks.values()) {
+			if (task.state == ScheduledTask.PENDING
+					|| task.state == ScheduledTask.PREPARING) {
+				task.finish(ScheduledTask.CANCELLED);
+			}
+		}
+		tasks.clear();
+	}
+
+	private synchronized boolean start(ScheduledTask task) {
+		if (task.state != ScheduledTask.QUEUED) {
+			return false;
+		}
+		task.state = ScheduledTask.RUNNING;
+		return true;
+	}
+
+	private class ScheduledTask implements Runnable {
+		private static final int PENDING = 0;
+		private static final int PREPARING = 1;
+		private static final int QUEUED = 2;
+		private static final int RUNNING = 3;
+		private static final int DONE = 4;
+		private static final int CANCELLED = 5;
+
+		private final K key;
+		private final ITask<K> task;
+		private final Set<K> dependencies;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private int state = PENDING;
+		private boolean claimed = false;
+		private volatile Exception error = null;
+
+		ScheduledTask(K key, ITask<K> task, Collection<K> dependencies) {
+			this.key = key;
+			this.task = task;
+			this.dependencies = new HashSet<K>(dependencies);
+		}
+
+		public void run() {
+			if (start(this) == false) {
+				return;
+			}
+			try {
+				task.run(key);
+			} catch (Exception e) {
+				error = e;
+			} finally {
+				finish(DONE);
+			}
+		}
+
+		private void finish(int finalState) {
+			synchronized (PrescheduledTasks.this) {
+				state = finalState;
+			}
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+/**
+ * Collects the refreshes of the files written behind the workspace, so a
+ * build or a wizard refreshes them all at once when it ends, in a single
+ * workspace operation, instead of one resource change notification per file.
+ *
+ * <p>
+ * A batch belongs to the thread which began it, and batches of the same
+ * thread nest: only the outermost {@link #end(IProgressMonitor)} refreshes.
+ * Outside of a batch, {@link #refresh(IResource, int)} refreshes right away.
+ * </p>
+ *
+ * <p>
+ * A deferred resource is not in sync with the file system until the batch
+ * ends. Whoever reads it in the meantime has to read it with
+ * {@link org.eclipse.core.resources.IFile#getContents(boolean)} forced, or
+ * from its location.
+ * </p>
+ */
+public final class WorkspaceBatch {
+	private static final ThreadLocal<WorkspaceBatch> current = new ThreadLocal<WorkspaceBatch>();
+
+	/** The resources to refresh with their depth, in the order requested. */
+	private final Map<IResource, Integer> refreshes = new LinkedHashMap<IResource, Integer>();
+
+	private int depth;
+
+	private WorkspaceBatch() {
+		super();
+	}
+
+	/**
+	 * Begins a batch on the current thread. Every call must be followed by a
+	 * call to {@link #end(IProgressMonitor)}, in a finally block.
+	 */
+	public static void begin() {
+		WorkspaceBatch batch = current.get();
+		if (batch == null) {
+			batch = new WorkspaceBatch();
+			current.set(batch);
+		}
+		batch.depth++;
+	}
+
+	/**
+	 * Ends a batch on the current thread. The outermost batch refreshes all
+	 * the collected resources.
+	 *
+	 * @param monitor the monitor
+	 * @throws CoreException if a resource could not be refreshed
+	 */
+	public static void end(IProgressMonitor monitor) throws CoreException {
+		final WorkspaceBatch batch = current.get();
+		if (batch == null) {
+			return;
+		}
+		batch.depth--;
+		if (batch.depth > 0) {
+			return;
+		}
+		current.remove();
+		batch.flush(ProgressUtil.getDefaultMonitor(monitor));
+	}
+
+	/**
+	 * Checks whether a batch is active on the current thread.
+	 *
+	 * @return true, if active
+	 */
+	public static boolean isActive() {
+		return current.get() != null;
+	}
+
+	/**
+	 * Refreshes the given resource, at the end of the batch of the current
+	 * thread if there is one, right away otherwise.
+	 *
+	 * @param resource the resource
+	 * @param depth the depth, one of the <code>IResource.DEPTH_*</code>
+	 * constants
+	 * @throws CoreException if the resource could not be refreshed
+	 */
+	public static void refresh(IResource resource, int depth)
+			throws CoreException {
+		if (resource == null) {
+			return;
+		}
+		final WorkspaceBatch batch = current.get();
+		if (batch == null) {
+			resource.refreshLocal(depth, ProgressUtil.getDefaultMonitor(null));
+			return;
+		}
+		final Integer pending = batch.refreshes.get(resource);
+		if (pending == null || pending.intValue() < depth) {
+			batch.refreshes.put(resource, Integer.valueOf(depth));
+		}
+	}
+
+	private void flush(IProgressMonitor monitor) throws CoreException {
+		final List<IResource> resources = new ArrayList<IResource>();
+		for (Map.Entry<IResource, Integer> entry : refreshes.entrySet()) {
+			if (isCovered(entry.getKey(), entry.getValue().intValue()) == false) {
+				resources.add(entry.getKey());
+			}
+		}
+		if (resources.isEmpty()) {
+			return;
+		}
+		final IWorkspace workspace = WorkspaceUtil.getWorkspace();
+		final IResourceRuleFactory ruleFactory = workspace.getRuleFactory();
+		ISchedulingRule rule = null;
+		for (IResource resource : resources) {
+			rule = MultiRule.combine(rule, ruleFactory.refreshRule(resource));
+		}
+		workspace.run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (IResource resource : resources) {
+					resource.refreshLocal(refreshes.get(resource).intValue(),
+							monitor);
+				}
+			}
+		}, rule, IWorkspace.AVOID_UPDATE, monitor);
+	}
+
+	/**
+	 * Checks whether the refresh of one of the parents of the given resource
+	 * already refreshes it.
+	 */
+	private boolean isCovered(IResource resource, int depth) {
+		final IResource parent = resource.getParent();
+		if (parent == null) {
+			return false;
+		}
+		final Integer pending = refreshes.get(parent);
+		if (pending != null
+				&& (pending.intValue() == IResource.DEPTH_INFINITE || (pending
+						.intValue() == IResource.DEPTH_ONE && depth == IResource.DEPTH_ZERO))) {
+			return true;
+		}
+		for (IResource ancestor = parent.getParent(); ancestor != null; ancestor = ancestor
+				.getParent()) {
+			final Integer ancestorDepth = refreshes.get(ancestor);
+			if (ancestorDepth != null
+					&& ancestorDepth.intValue() == IResource.DEPTH_INFINITE) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -589,8 +589,8 @@ public class WorkspaceUtil {
 			if (!project.getFolder(sfolder).exists()) {
 				project.getFolder(sfolder).create(true, true,
 						new NullProgressMonitor());
-				project.getFolder(sfolder).refreshLocal(
-						IResource.DEPTH_INFINITE, new NullProgressMonitor());
+				WorkspaceBatch.refresh(project.getFolder(sfolder),
+						IResource.DEPTH_INFINITE);
 			}
 		}
 		file.create(IOUtils.toInputStream(" "), true, monitor);
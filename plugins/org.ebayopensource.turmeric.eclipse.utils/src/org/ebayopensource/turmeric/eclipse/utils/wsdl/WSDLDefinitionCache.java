@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.wsdl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.wsdl.Definition;
+import javax.wsdl.Import;
+import javax.wsdl.WSDLException;
+import javax.wsdl.extensions.schema.Schema;
+import javax.wsdl.extensions.schema.SchemaReference;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Caches the WSDL definitions read from the file system, so the builders and
+ * wizards asking for the same interface WSDL do not read it again and again.
+ *
+ * <p>
+ * An entry is keyed by the location of the WSDL, or of the jar containing
+ * it, and remembers the modification time and size of every local document
+ * it has been read from: the WSDL itself and all the WSDLs and schemas it
+ * imports or includes, directly or not. It is only reused while none of them
+ * has changed. WSDLs importing documents which are not local files are never
+ * cached.
+ * </p>
+ *
+ * <p>
+ * The definitions are shared, so they are handed out as read only views.
+ * The <code>set</code>, <code>add</code> and <code>remove</code> methods of
+ * the view throw an {@link UnsupportedOperationException}, and the returned
+ * maps and lists can not be modified. The nested elements, like messages and
+ * schemas, are the shared instances and must not be modified either. A
+ * caller which needs to modify the definition has to read it with
+ * {@link WSDLUtil#readWSDL(String)}.
+ * </p>
+ */
+public final class WSDLDefinitionCache {
+	private static final int MAX_ENTRIES = 64;
+
+	private static final String PROTOCOL_FILE = "file";
+
+	private static final String PROTOCOL_JAR = "jar";
+
+	private static final Map<String, CachedDefinition> definitions = new LinkedHashMap<String, CachedDefinition>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, CachedDefinition> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private WSDLDefinitionCache() {
+		super();
+	}
+
+	/**
+	 * Gets the definition of the WSDL at the given location.
+	 *
+	 * @param wsdlLocation the file path or the url of the WSDL
+	 * @return a read only view of the definition
+	 * @throws WSDLException if the WSDL can not be read
+	 */
+	public static Definition getDefinition(final String wsdlLocation)
+			throws WSDLException {
+		final File wsdlFile = toFile(wsdlLocation);
+		if (wsdlFile == null) {
+			return readOnlyView(WSDLUtil.readWSDL(wsdlLocation));
+		}
+		final String key = wsdlFile.getAbsolutePath();
+		Definition definition = lookup(key);
+		if (definition == null) {
+			definition = store(key, WSDLUtil.readWSDL(wsdlLocation));
+		}
+		return definition;
+	}
+
+	/**
+	 * Gets the definition of a WSDL contained in a jar.
+	 *
+	 * @param jarFile the jar file
+	 * @param jarEntryLocation the location of the WSDL in the jar
+	 * @return a read only view of the definition, or null if there is no such
+	 * WSDL
+	 * @throws WSDLException if the WSDL can not be read
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @see WSDLUtil#readWSDLFromJarFile(File, String)
+	 */
+	public static Definition getDefinition(final File jarFile,
+			final String jarEntryLocation) throws WSDLException, IOException {
+		final String key = jarFile.getAbsolutePath()
+				+ WSDLUtil.JAR_FILE_SEPARATOR + jarEntryLocation;
+		Definition definition = lookup(key);
+		if (definition == null) {
+			final Definition wsdl = WSDLUtil.readWSDLFromJarFile(jarFile,
+					jarEntryLocation);
+			definition = wsdl != null ? store(key, wsdl) : null;
+		}
+		return definition;
+	}
+
+	/**
+	 * Evicts the definitions which have been read from the given file, either
+	 * the WSDL itself or one of its imports.
+	 *
+	 * @param file the changed file
+	 */
+	public static void invalidate(final File file) {
+		final File absoluteFile = file.getAbsoluteFile();
+		synchronized (definitions) {
+			final Iterator<CachedDefinition> it = definitions.values()
+					.iterator();
+			while (it.hasNext()) {
+				if (it.next().stamps.containsKey(absoluteFile)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evicts all the definitions.
+	 */
+	public static void clear() {
+		synchronized (definitions) {
+			definitions.clear();
+		}
+	}
+
+	private static Definition lookup(final String key) {
+		final CachedDefinition cached;
+		synchronized (definitions) {
+			cached = definitions.get(key);
+		}
+		if (cached == null) {
+			return null;
+		}
+		final Definition definition = cached.definition.get();
+		if (definition != null && cached.isUpToDate()) {
+			return definition;
+		}
+		synchronized (definitions) {
+			if (definitions.get(key) == cached) {
+				definitions.remove(key);
+			}
+		}
+		return null;
+	}
+
+	private static Definition store(final String key, final Definition wsdl) {
+		final Definition view = readOnlyView(wsdl);
+		final Map<File, String> stamps = new HashMap<File, String>();
+		final Set<String> visited = new HashSet<String>();
+		if (collectDefinition(wsdl, stamps, visited)) {
+			synchronized (definitions) {
+				definitions.put(key, new CachedDefinition(view, stamps));
+			}
+		}
+		return view;
+	}
+
+	/**
+	 * Records the stamps of the documents the given definition is made of.
+	 *
+	 * @return false if one of them is not a local file
+	 */
+	private static boolean collectDefinition(final Definition wsdl,
+			final Map<File, String> stamps, final Set<String> visited) {
+		if (addDocument(wsdl.getDocumentBaseURI(), stamps, visited) == false) {
+			return false;
+		}
+		for (Object imports : wsdl.getImports().values()) {
+			for (Object obj : (List<?>) imports) {
+				final Import wsdlImport = (Import) obj;
+				if (wsdlImport.getDefinition() != null
+						&& visited.contains(wsdlImport.getDefinition()
+								.getDocumentBaseURI()) == false
+						&& collectDefinition(wsdlImport.getDefinition(),
+								stamps, visited) == false) {
+					return false;
+				}
+			}
+		}
+		if (wsdl.getTypes() != null) {
+			for (Object obj : wsdl.getTypes().getExtensibilityElements()) {
+				if (obj instanceof Schema
+						&& collectSchema((Schema) obj, stamps, visited) == false) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean collectSchema(final Schema schema,
+			final Map<File, String> stamps, final Set<String> visited) {
+		for (Object imports : schema.getImports().values()) {
+			if (collectSchemaReferences((List<?>) imports, stamps, visited) == false) {
+				return false;
+			}
+		}
+		return collectSchemaReferences(schema.getIncludes(), stamps, visited)
+				&& collectSchemaReferences(schema.getRedefines(), stamps,
+						visited);
+	}
+
+	private static boolean collectSchemaReferences(
+			final Collection<?> references, final Map<File, String> stamps,
+			final Set<String> visited) {
+		for (Object obj : references) {
+			final Schema referencedSchema = ((SchemaReference) obj)
+					.getReferencedSchema();
+			if (referencedSchema == null) {
+				continue;
+			}
+			final String location = referencedSchema.getDocumentBaseURI();
+			if (visited.contains(location) == false) {
+				if (addDocument(location, stamps, visited) == false
+						|| collectSchema(referencedSchema, stamps, visited) == false) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean addDocument(final String location,
+			final Map<File, String> stamps, final Set<String> visited) {
+		visited.add(location);
+		final File file = toFile(location);
+		if (file == null) {
+			return false;
+		}
+		stamps.put(file, stamp(file));
+		return true;
+	}
+
+	/**
+	 * Gets the local file a WSDL or schema has been read from, the jar file
+	 * for a document inside a jar.
+	 */
+	private static File toFile(String location) {
+		if (StringUtils.isBlank(location)) {
+			return null;
+		}
+		try {
+			URL url = new URL(location);
+			if (PROTOCOL_JAR.equals(url.getProtocol())) {
+				url = new URL(StringUtils.substringBefore(url.getPath(),
+						WSDLUtil.JAR_FILE_SEPARATOR));
+			}
+			if (PROTOCOL_FILE.equals(url.getProtocol())) {
+				final File file = FileUtils.toFile(url);
+				return file != null ? file.getAbsoluteFile() : null;
+			}
+			return null;
+		} catch (MalformedURLException e) {
+			// a plain file path
+			final File file = new File(location);
+			return file.isFile() ? file.getAbsoluteFile() : null;
+		}
+	}
+
+	private static String stamp(final File file) {
+		return file.lastModified() + ":" + file.length();
+	}
+
+	private static Definition readOnlyView(final Definition wsdl) {
+		if (wsdl == null || Proxy.isProxyClass(wsdl.getClass())) {
+			return wsdl;
+		}
+		return (Definition) Proxy.newProxyInstance(WSDLDefinitionCache.class
+				.getClassLoader(), new Class<?>[] { Definition.class },
+				new ReadOnlyHandler(wsdl));
+	}
+
+	private static class ReadOnlyHandler implements InvocationHandler {
+		private final Definition wsdl;
+
+		ReadOnlyHandler(Definition wsdl) {
+			this.wsdl = wsdl;
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws Throwable {
+			final String name = method.getName();
+			if (name.startsWith("set") || name.startsWith("add")
+					|| name.startsWith("remove")) {
+				throw new UnsupportedOperationException(
+						"The cached WSDL definition is read only: " + name);
+			}
+			final Object result;
+			try {
+				result = method.invoke(wsdl, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (result instanceof Map) {
+				return Collections.unmodifiableMap((Map) result);
+			} else if (result instanceof List) {
+				return Collections.unmodifiableList((List) result);
+			}
+			return result;
+		}
+	}
+
+	private static class CachedDefinition {
+		private final SoftReference<Definition> definition;
+		private final Map<File, String> stamps;
+
+		CachedDefinition(Definition definition, Map<File, String> stamps) {
+			this.definition = new SoftReference<Definition>(definition);
+			this.stamps = stamps;
+		}
+
+		boolean isUpToDate() {
+			for (Map.Entry<File, String> entry : stamps.entrySet()) {
+				if (entry.getValue().equals(stamp(entry.getKey())) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
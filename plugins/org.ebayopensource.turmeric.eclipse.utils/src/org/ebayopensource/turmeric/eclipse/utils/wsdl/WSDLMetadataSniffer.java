@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.wsdl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import javax.wsdl.WSDLException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.utils.io.JarMetadataCache;
+
+/**
+ * Reads the few facts most callers need from a WSDL with a streaming parser,
+ * instead of building the whole {@link javax.wsdl.Definition} and resolving
+ * all its imports.
+ *
+ * <p>
+ * The target namespace is read from the root element and the parsing stops
+ * right there. The service name and location are read from the first
+ * <code>wsdl:service</code> element of the document and the parsing stops at
+ * its end. The location is the one of the first port with a SOAP or HTTP
+ * address, or else of the last port with any kind of address, the same as
+ * {@link WSDLUtil#getServiceLocationFromWSDL(javax.wsdl.Definition)}. A
+ * service defined in an imported WSDL is not found.
+ * </p>
+ */
+public final class WSDLMetadataSniffer {
+	private static final String NS_WSDL = "http://schemas.xmlsoap.org/wsdl/";
+
+	private static final String NS_SOAP = "http://schemas.xmlsoap.org/wsdl/soap/";
+
+	private static final String NS_HTTP = "http://schemas.xmlsoap.org/wsdl/http/";
+
+	private static final String ELEM_DEFINITIONS = "definitions";
+
+	private static final String ELEM_SERVICE = "service";
+
+	private static final String ELEM_PORT = "port";
+
+	private static final String ATTR_NAME = "name";
+
+	private static final String ATTR_LOCATION = "location";
+
+	private static final XMLInputFactory factory = createFactory();
+
+	private WSDLMetadataSniffer() {
+		super();
+	}
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory result = XMLInputFactory.newInstance();
+		result.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		result.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		return result;
+	}
+
+	/**
+	 * The metadata of a WSDL.
+	 */
+	public static final class WSDLMetadata {
+		private final String targetNamespace;
+		private final String serviceName;
+		private final String serviceLocation;
+
+		WSDLMetadata(String targetNamespace, String serviceName,
+				String serviceLocation) {
+			this.targetNamespace = targetNamespace;
+			this.serviceName = serviceName;
+			this.serviceLocation = serviceLocation;
+		}
+
+		/**
+		 * Gets the target namespace.
+		 *
+		 * @return the target namespace
+		 */
+		public String getTargetNamespace() {
+			return targetNamespace;
+		}
+
+		/**
+		 * Gets the name of the first service.
+		 *
+		 * @return the service name, or null if the WSDL has no service
+		 */
+		public String getServiceName() {
+			return serviceName;
+		}
+
+		/**
+		 * Gets the address of the first service.
+		 *
+		 * @return the service location, or null if it has none
+		 */
+		public String getServiceLocation() {
+			return serviceLocation;
+		}
+	}
+
+	/**
+	 * Gets the target namespace of the WSDL at the given location.
+	 *
+	 * @param wsdlLocation the file path or the url of the WSDL
+	 * @return the target namespace
+	 * @throws WSDLException if the WSDL can not be read
+	 */
+	public static String getTargetNamespace(final String wsdlLocation)
+			throws WSDLException {
+		final InputStream input = openStream(wsdlLocation);
+		try {
+			return read(wsdlLocation, input, false).getTargetNamespace();
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	/**
+	 * Gets the target namespace of the given WSDL. The stream is not closed.
+	 *
+	 * @param input the WSDL content
+	 * @return the target namespace
+	 * @throws WSDLException if the WSDL can not be read
+	 */
+	public static String getTargetNamespace(final InputStream input)
+			throws WSDLException {
+		return read(null, input, false).getTargetNamespace();
+	}
+
+	/**
+	 * Reads the metadata of the WSDL at the given location.
+	 *
+	 * @param wsdlLocation the file path or the url of the WSDL
+	 * @return the metadata
+	 * @throws WSDLException if the WSDL can not be read
+	 */
+	public static WSDLMetadata getMetadata(final String wsdlLocation)
+			throws WSDLException {
+		final InputStream input = openStream(wsdlLocation);
+		try {
+			return read(wsdlLocation, input, true);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	/**
+	 * Reads the metadata of the given WSDL. The stream is not closed.
+	 *
+	 * @param input the WSDL content
+	 * @return the metadata
+	 * @throws WSDLException if the WSDL can not be read
+	 */
+	public static WSDLMetadata getMetadata(final InputStream input)
+			throws WSDLException {
+		return read(null, input, true);
+	}
+
+	/**
+	 * Reads the metadata of a WSDL contained in a jar.
+	 *
+	 * @param file the jar file
+	 * @param jarEntryLocation the location of the WSDL in the jar
+	 * @return the metadata, or null if there is no such WSDL
+	 * @throws WSDLException if the WSDL can not be read
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static WSDLMetadata getMetadata(final File file,
+			final String jarEntryLocation) throws WSDLException, IOException {
+		if (file.exists() == false || file.canRead() == false) {
+			return null;
+		}
+		final InputStream input = JarMetadataCache.getInputStream(file,
+				jarEntryLocation);
+		if (input == null) {
+			return null;
+		}
+		try {
+			return read(jarEntryLocation, input, true);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	private static InputStream openStream(String wsdlLocation)
+			throws WSDLException {
+		try {
+			try {
+				return new URL(wsdlLocation).openStream();
+			} catch (MalformedURLException e) {
+				// a plain file path
+				return new FileInputStream(wsdlLocation);
+			}
+		} catch (IOException e) {
+			throw new WSDLException(WSDLException.INVALID_WSDL,
+					"Unable to read WSDL->" + wsdlLocation, e);
+		}
+	}
+
+	private static WSDLMetadata read(String wsdlLocation, InputStream input,
+			boolean readService) throws WSDLException {
+		try {
+			final XMLStreamReader reader = factory
+					.createXMLStreamReader(input);
+			try {
+				return read(reader, readService);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new WSDLException(WSDLException.PARSER_ERROR,
+					"Unable to parse WSDL->" + wsdlLocation, e);
+		}
+	}
+
+	private static WSDLMetadata read(XMLStreamReader reader,
+			boolean readService) throws XMLStreamException, WSDLException {
+		// skip the prolog
+		while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+			if (reader.hasNext() == false) {
+				throw new WSDLException(WSDLException.INVALID_WSDL,
+						"Not a WSDL document, there is no root element");
+			}
+			reader.next();
+		}
+		if (NS_WSDL.equals(reader.getNamespaceURI()) == false
+				|| ELEM_DEFINITIONS.equals(reader.getLocalName()) == false) {
+			throw new WSDLException(WSDLException.INVALID_WSDL,
+					"Not a WSDL document, the root element is "
+							+ reader.getName());
+		}
+		final String targetNamespace = reader.getAttributeValue(null,
+				WSDLUtil.ATTR_ID_TARGETNAMESPACE);
+		if (readService == false) {
+			return new WSDLMetadata(targetNamespace, null, null);
+		}
+		String serviceName = null;
+		String serviceLocation = null;
+		boolean inService = false;
+		boolean portAddress = false;
+		int depth = 1;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+				if (depth == 2 && isWSDLElement(reader, ELEM_SERVICE)) {
+					inService = true;
+					serviceName = reader.getAttributeValue(null, ATTR_NAME);
+				} else if (depth == 3 && inService
+						&& isWSDLElement(reader, ELEM_PORT)) {
+					portAddress = true;
+				} else if (depth == 4 && portAddress
+						&& NS_WSDL.equals(reader.getNamespaceURI()) == false) {
+					// only the first extensibility element of a port counts
+					portAddress = false;
+					final String location = reader.getAttributeValue(null,
+							ATTR_LOCATION);
+					if (location != null) {
+						serviceLocation = location;
+						if (NS_SOAP.equals(reader.getNamespaceURI())
+								|| NS_HTTP.equals(reader.getNamespaceURI())) {
+							break;
+						}
+					}
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				if (depth == 2 && inService) {
+					break;
+				}
+				depth--;
+			}
+		}
+		return new WSDLMetadata(targetNamespace, serviceName, serviceLocation);
+	}
+
+	private static boolean isWSDLElement(XMLStreamReader reader,
+			String localName) {
+		return NS_WSDL.equals(reader.getNamespaceURI())
+				&& localName.equals(reader.getLocalName());
+	}
+}
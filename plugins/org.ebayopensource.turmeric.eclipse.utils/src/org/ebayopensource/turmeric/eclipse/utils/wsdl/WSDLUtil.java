@@ -24,8 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.logging.Logger;
 
 import javax.wsdl.Definition;
@@ -45,6 +43,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
+import org.ebayopensource.turmeric.eclipse.utils.io.JarMetadataCache;
 import org.ebayopensource.turmeric.eclipse.utils.lang.StringUtil;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.runtime.FileLocator;
@@ -170,13 +169,12 @@ public final class WSDLUtil {
 	public static Definition readWSDLFromJarFile(final File file, 
 			final String jarEntryLocation)
 	throws WSDLException, IOException {
-		InputStream wsdlStream = null;
 		if (file.exists() && file.canRead()) {
-			final JarFile jarFile = new JarFile(file);
-			final JarEntry jarEntry = jarFile.getJarEntry(jarEntryLocation);
-			if (jarEntry != null) {
+			// the jar is read once for all its metadata and not held open
+			final InputStream wsdlStream = JarMetadataCache.getInputStream(
+					file, jarEntryLocation);
+			if (wsdlStream != null) {
 				// found the wsdl file
-				wsdlStream = jarFile.getInputStream(jarEntry);
 				return WSDLUtil.readWSDL(StringUtil.toString(
 						URL_PREFIX_JAR_FILE, file.getAbsolutePath(), 
 						JAR_FILE_SEPARATOR, jarEntryLocation), 
@@ -501,7 +499,7 @@ public final class WSDLUtil {
 	 */
 	public static String getTargetNamespace(final String location)
 			throws WSDLException {
-		return readWSDL(location).getTargetNamespace();
+		return WSDLMetadataSniffer.getTargetNamespace(location);
 	}
 	
 	/**
@@ -526,7 +524,11 @@ public final class WSDLUtil {
 	 */
 	public static String getTargetNamespace(final String documentBaseURI, final InputStream inpuStream)
 			throws WSDLException {
-		return readWSDL(documentBaseURI, inpuStream).getTargetNamespace();
+		try {
+			return WSDLMetadataSniffer.getTargetNamespace(inpuStream);
+		} finally {
+			IOUtils.closeQuietly(inpuStream);
+		}
 	}
 	
 	//Moving util methods from WSDLUtilTest class to here
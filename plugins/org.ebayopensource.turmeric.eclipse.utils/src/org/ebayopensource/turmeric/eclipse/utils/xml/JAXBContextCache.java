@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.xml;
+
+import java.beans.Introspector;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * A drop-in replacement for the {@link javax.xml.bind.JAXB} helpers which
+ * keeps one {@link JAXBContext} per bound class instead of creating a new
+ * one on every call.
+ *
+ * <p>
+ * A context is thread safe, marshallers and unmarshallers are not. They are
+ * kept in a small pool per class, every call borrows one for its own use and
+ * hands it back afterwards. The output is the same as the one of
+ * {@link javax.xml.bind.JAXB#marshal(Object, File)}: formatted, and a class
+ * without {@link XmlRootElement} gets an element named after the class.
+ * </p>
+ */
+public final class JAXBContextCache {
+	private static final int MAX_POOL_SIZE = 8;
+
+	private static final ConcurrentMap<Class<?>, BoundType> boundTypes = new ConcurrentHashMap<Class<?>, BoundType>();
+
+	private JAXBContextCache() {
+		super();
+	}
+
+	/**
+	 * Gets the shared context of the given class, creates it on the first
+	 * call.
+	 *
+	 * @param type the bound class
+	 * @return the context
+	 * @throws JAXBException the jAXB exception
+	 */
+	public static JAXBContext getContext(Class<?> type) throws JAXBException {
+		return getBoundType(type).context;
+	}
+
+	/**
+	 * Reads an instance of the given class from the stream. The stream is not
+	 * closed.
+	 *
+	 * @param <T> the bound type
+	 * @param input the input stream
+	 * @param type the bound class
+	 * @return the unmarshalled object
+	 * @throws JAXBException the jAXB exception
+	 */
+	public static <T> T unmarshal(InputStream input, Class<T> type)
+			throws JAXBException {
+		final BoundType boundType = getBoundType(type);
+		final Unmarshaller unmarshaller = boundType.borrowUnmarshaller();
+		try {
+			return unmarshaller.unmarshal(new StreamSource(input), type)
+					.getValue();
+		} finally {
+			boundType.returnUnmarshaller(unmarshaller);
+		}
+	}
+
+	/**
+	 * Writes the given object to the file.
+	 *
+	 * @param object the object to marshal
+	 * @param file the target file
+	 * @throws JAXBException the jAXB exception
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static void marshal(Object object, File file) throws JAXBException {
+		final Class<?> type = object.getClass();
+		final BoundType boundType = getBoundType(type);
+		Object element = object;
+		if (type.getAnnotation(XmlRootElement.class) == null) {
+			// same element name as javax.xml.bind.JAXB would infer
+			element = new JAXBElement(new QName(Introspector
+					.decapitalize(type.getSimpleName())), type, object);
+		}
+		final Marshaller marshaller = boundType.borrowMarshaller();
+		try {
+			marshaller.marshal(element, new StreamResult(file));
+		} finally {
+			boundType.returnMarshaller(marshaller);
+		}
+	}
+
+	/**
+	 * Drops all the cached contexts, the next calls create them again.
+	 */
+	public static void clear() {
+		boundTypes.clear();
+	}
+
+	private static BoundType getBoundType(Class<?> type) throws JAXBException {
+		BoundType boundType = boundTypes.get(type);
+		if (boundType == null) {
+			// two threads might both create a context, only one is kept
+			final BoundType newType = new BoundType(JAXBContext
+					.newInstance(type));
+			boundType = boundTypes.putIfAbsent(type, newType);
+			if (boundType == null) {
+				boundType = newType;
+			}
+		}
+		return boundType;
+	}
+
+	private static class BoundType {
+		private final JAXBContext context;
+		private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<Unmarshaller>();
+		private final AtomicInteger unmarshallerCount = new AtomicInteger();
+		private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<Marshaller>();
+		private final AtomicInteger marshallerCount = new AtomicInteger();
+
+		BoundType(JAXBContext context) {
+			this.context = context;
+		}
+
+		Unmarshaller borrowUnmarshaller() throws JAXBException {
+			final Unmarshaller unmarshaller = unmarshallers.poll();
+			if (unmarshaller != null) {
+				unmarshallerCount.decrementAndGet();
+				return unmarshaller;
+			}
+			return context.createUnmarshaller();
+		}
+
+		void returnUnmarshaller(Unmarshaller unmarshaller) {
+			if (unmarshallerCount.incrementAndGet() <= MAX_POOL_SIZE) {
+				unmarshallers.offer(unmarshaller);
+			} else {
+				unmarshallerCount.decrementAndGet();
+			}
+		}
+
+		Marshaller borrowMarshaller() throws JAXBException {
+			final Marshaller marshaller = marshallers.poll();
+			if (marshaller != null) {
+				marshallerCount.decrementAndGet();
+				return marshaller;
+			}
+			final Marshaller newMarshaller = context.createMarshaller();
+			newMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+					Boolean.TRUE);
+			return newMarshaller;
+		}
+
+		void returnMarshaller(Marshaller marshaller) {
+			if (marshallerCount.incrementAndGet() <= MAX_POOL_SIZE) {
+				marshallers.offer(marshaller);
+			} else {
+				marshallerCount.decrementAndGet();
+			}
+		}
+	}
+}
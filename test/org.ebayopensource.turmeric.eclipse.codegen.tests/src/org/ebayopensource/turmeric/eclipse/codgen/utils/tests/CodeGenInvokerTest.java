@@ -8,12 +8,15 @@
  *******************************************************************************/
 package org.ebayopensource.turmeric.eclipse.codgen.utils.tests;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.apache.commons.lang.NullArgumentException;
 import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenInvoker;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAClassLoaderPool;
 import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
 import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
 import org.eclipse.core.resources.IProject;
@@ -73,6 +76,12 @@ public class CodeGenInvokerTest {
 		CodegenInvoker invoker = CodegenInvoker.init(project);
 		SOAPluginClassLoader classLoader = invoker.getSoaPluginClassLoader();
 		assertNotNull(classLoader);
+		assertSame(classLoader, invoker.getSoaPluginClassLoader());
+		assertEquals(1, SOAClassLoaderPool.getInstance().getUseCount(
+				classLoader));
+		invoker.dispose();
+		assertEquals(0, SOAClassLoaderPool.getInstance().getUseCount(
+				classLoader));
 	}
 
 }
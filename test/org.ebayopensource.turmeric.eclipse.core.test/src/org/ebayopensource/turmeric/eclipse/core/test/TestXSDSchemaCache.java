@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.core.test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ebayopensource.turmeric.eclipse.core.XSDSchemaCache;
+import org.eclipse.xsd.XSDSchema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link XSDSchemaCache}.
+ */
+public class TestXSDSchemaCache {
+	private static final String SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\""
+			+ " targetNamespace=\"http://www.ebayopensource.org/turmeric/test\">"
+			+ "<xs:complexType name=\"%s\"/></xs:schema>";
+
+	private File xsdFile;
+
+	private URL xsdUrl;
+
+	@Before
+	public void setUp() throws Exception {
+		XSDSchemaCache.getInstance().clear();
+		xsdFile = File.createTempFile("TestXSDSchemaCache", ".xsd");
+		xsdUrl = xsdFile.toURI().toURL();
+		write("Calc");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		XSDSchemaCache.getInstance().clear();
+		xsdFile.delete();
+	}
+
+	private void write(String typeName) throws IOException {
+		final FileWriter writer = new FileWriter(xsdFile);
+		try {
+			writer.write(String.format(SCHEMA, typeName));
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link XSDSchemaCache#read(URL, XSDSchemaCache.ISchemaReader)}: the
+	 * parsed schema is reused until the file changes.
+	 */
+	@Test
+	public void testReadCached() throws Exception {
+		final List<XSDSchema> schemas = new ArrayList<XSDSchema>();
+		final XSDSchemaCache.ISchemaReader<String> reader = new XSDSchemaCache.ISchemaReader<String>() {
+			public String read(XSDSchema schema) {
+				schemas.add(schema);
+				return schema.getTypeDefinitions().get(0).getName();
+			}
+		};
+		final XSDSchemaCache cache = XSDSchemaCache.getInstance();
+		Assert.assertEquals("Calc", cache.read(xsdUrl, reader));
+		Assert.assertEquals("Calc", cache.read(xsdUrl, reader));
+		Assert.assertSame(schemas.get(0), schemas.get(1));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+
+		write("Calculator");
+		Assert.assertEquals("Calculator", cache.read(xsdUrl, reader));
+		Assert.assertNotSame(schemas.get(0), schemas.get(2));
+		Assert.assertEquals(2, cache.getMissCount());
+	}
+
+	/**
+	 * Test method for
+	 * {@link XSDSchemaCache#read(URL, XSDSchemaCache.ISchemaReader)}: a
+	 * cached schema is only read by one thread at a time.
+	 */
+	@Test
+	public void testReadExclusive() throws Exception {
+		final AtomicInteger readers = new AtomicInteger();
+		final AtomicInteger maxReaders = new AtomicInteger();
+		final XSDSchemaCache.ISchemaReader<Object> reader = new XSDSchemaCache.ISchemaReader<Object>() {
+			public Object read(XSDSchema schema) throws Exception {
+				final int count = readers.incrementAndGet();
+				if (count > maxReaders.get()) {
+					maxReaders.set(count);
+				}
+				schema.getTypeDefinitions();
+				Thread.sleep(20);
+				readers.decrementAndGet();
+				return null;
+			}
+		};
+		XSDSchemaCache.getInstance().read(xsdUrl, reader);
+		final List<Throwable> errors = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						XSDSchemaCache.getInstance().read(xsdUrl, reader);
+					} catch (Throwable e) {
+						errors.add(e);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertTrue(errors.toString(), errors.isEmpty());
+		Assert.assertEquals(1, maxReaders.get());
+		Assert.assertEquals(4, XSDSchemaCache.getInstance().getHitCount());
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.File;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.buildsystem.eclipse.AbstractSOAProjectBuilder;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the refresh at the end of an {@link AbstractSOAProjectBuilder}
+ * build.
+ */
+public class AbstractSOAProjectBuilderTest {
+	private IProject project;
+	private TestBuilder builder;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				"AbstractSOAProjectBuilderTest");
+		if (project.exists() == false) {
+			project.create(new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		builder = new TestBuilder();
+		// known to the workspace, its new children are not
+		project.getFolder("gen-src").create(true, true,
+				new NullProgressMonitor());
+		write("gen-src/Reported.java");
+		write("gen-src/NotReported.java");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (project.exists()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+	}
+
+	private File write(String path) throws Exception {
+		final File file = new File(project.getLocation().toFile(), path);
+		FileUtils.writeStringToFile(file, path);
+		return file;
+	}
+
+	private CodegenManifest reported() {
+		final CodegenManifest manifest = new CodegenManifest(project);
+		manifest.addFile(new File(project.getLocation().toFile(),
+				"gen-src/Reported.java"));
+		return manifest;
+	}
+
+	private boolean inWorkspace(String path) {
+		return project.getFile(path).exists();
+	}
+
+	/**
+	 * Only the reported files are refreshed.
+	 */
+	@Test
+	public void testRefreshReportedScope() throws Exception {
+		builder.addRefreshScope(reported());
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+
+		Assert.assertTrue(inWorkspace("gen-src/Reported.java"));
+		Assert.assertFalse(inWorkspace("gen-src/NotReported.java"));
+	}
+
+	/**
+	 * A build which reports nothing refreshes the whole project.
+	 */
+	@Test
+	public void testRefreshNothingReported() throws Exception {
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+
+		Assert.assertTrue(inWorkspace("gen-src/Reported.java"));
+		Assert.assertTrue(inWorkspace("gen-src/NotReported.java"));
+	}
+
+	/**
+	 * One unknown output falls back to refreshing the whole project with
+	 * DEPTH_INFINITE, whether it is reported before or after the known ones.
+	 */
+	@Test
+	public void testRefreshUnknownScope() throws Exception {
+		builder.addRefreshScope(reported());
+		builder.addRefreshScope(null);
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+		Assert.assertTrue(inWorkspace("gen-src/NotReported.java"));
+
+		write("gen-src/later/NotReported.java");
+		builder.addRefreshScope(null);
+		builder.addRefreshScope(reported());
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+		Assert.assertTrue(inWorkspace("gen-src/later/NotReported.java"));
+	}
+
+	/**
+	 * The reported scope is forgotten once refreshed, the next build starts
+	 * from scratch.
+	 */
+	@Test
+	public void testRefreshScopeReset() throws Exception {
+		builder.addRefreshScope(null);
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+
+		write("gen-src/Second.java");
+		final CodegenManifest manifest = new CodegenManifest(project);
+		manifest.addFile(new File(project.getLocation().toFile(),
+				"gen-src/Second.java"));
+		write("gen-src/SecondNotReported.java");
+		builder.addRefreshScope(manifest);
+		builder.refreshBuildOutput(project, new NullProgressMonitor());
+
+		Assert.assertTrue(inWorkspace("gen-src/Second.java"));
+		Assert.assertFalse(inWorkspace("gen-src/SecondNotReported.java"));
+	}
+
+	private static class TestBuilder extends AbstractSOAProjectBuilder {
+
+		@Override
+		public void addRefreshScope(CodegenManifest manifest) {
+			super.addRefreshScope(manifest);
+		}
+
+		@Override
+		public void refreshBuildOutput(IProject project,
+				IProgressMonitor monitor) throws CoreException {
+			super.refreshBuildOutput(project, monitor);
+		}
+
+		@Override
+		protected IProject[] doBuild(int kind, Map args, IProject project,
+				IResourceDelta delta, IProgressMonitor monitor)
+				throws Exception {
+			return null;
+		}
+
+		@Override
+		protected void doClean(IProject project, IProgressMonitor monitor)
+				throws Exception {
+			// nothing to clean
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.maven.core.model.MavenProjectInfo;
+import org.ebayopensource.turmeric.eclipse.resources.model.AssetInfo;
+import org.ebayopensource.turmeric.repositorysystem.imp.impl.AssetCatalogFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AssetCatalogFile}.
+ */
+public class AssetCatalogFileTest {
+	private File folder;
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = File.createTempFile("AssetCatalogFileTest", "");
+		folder.delete();
+		file = new File(folder, "state/assetCatalog.dat");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(folder);
+	}
+
+	private static MavenProjectInfo fullService() {
+		final MavenProjectInfo service = new MavenProjectInfo(
+				"org.ebayopensource.test", "BillingService", "1.2.0",
+				"BUSINESS", AssetInfo.TYPE_PROJECT);
+		service.setServiceGroupID("billing");
+		service.setInterfaceProjectName("BillingService");
+		service.setImplementationProjectName("BillingServiceImpl");
+		service.setJarNames(new ArrayList<String>(Arrays.asList(
+				"BillingService.jar", "BillingServiceClient.jar")));
+		service.getRequiredLibraries().add("CommonTypeLibrary");
+		service.getRequiredProjects().add("BillingServiceClient");
+		service.getRequiredServices().add("PaymentService");
+		service.getRequiredServices().add("\u00e9t\u00e9Service");
+		return service;
+	}
+
+	private static MavenProjectInfo sparseService() {
+		final MavenProjectInfo service = new MavenProjectInfo(null,
+				"AnotherService", "1.0.0", null, AssetInfo.TYPE_LIBRARY);
+		service.setJarNames(null);
+		return service;
+	}
+
+	private static void assertService(MavenProjectInfo expected,
+			MavenProjectInfo actual) {
+		Assert.assertEquals(expected.getGroupID(), actual.getGroupID());
+		Assert.assertEquals(expected.getName(), actual.getName());
+		Assert.assertEquals(expected.getVersion(), actual.getVersion());
+		Assert.assertEquals(expected.getServiceLayer(), actual
+				.getServiceLayer());
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertEquals(expected.getServiceGroupID(), actual
+				.getServiceGroupID());
+		Assert.assertEquals(expected.getInterfaceProjectName(), actual
+				.getInterfaceProjectName());
+		Assert.assertEquals(expected.getImplementationProjectName(), actual
+				.getImplementationProjectName());
+		Assert.assertEquals(expected.getJarNames() != null ? expected
+				.getJarNames() : new ArrayList<String>(), actual.getJarNames());
+		Assert.assertEquals(expected.getRequiredLibraries(), actual
+				.getRequiredLibraries());
+		Assert.assertEquals(expected.getRequiredProjects(), actual
+				.getRequiredProjects());
+		Assert.assertEquals(expected.getRequiredServices(), actual
+				.getRequiredServices());
+	}
+
+	/**
+	 * Test method for {@link AssetCatalogFile#read()}: what has been written
+	 * is read back field by field, missing values included.
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		final Set<AssetInfo> services = new TreeSet<AssetInfo>();
+		services.add(fullService());
+		services.add(sparseService());
+		// not a service, left out
+		services.add(new AssetInfo("SomeLibrary", AssetInfo.TYPE_LIBRARY));
+
+		final AssetCatalogFile catalogFile = new AssetCatalogFile(file);
+		Assert.assertNull(catalogFile.read());
+		catalogFile.write(services);
+		Assert.assertTrue(file.isFile());
+		Assert.assertFalse(new File(file.getPath() + ".tmp").exists());
+
+		final Set<AssetInfo> read = new AssetCatalogFile(file).read();
+		Assert.assertEquals(2, read.size());
+		final Iterator<AssetInfo> iterator = read.iterator();
+		final Set<MavenProjectInfo> expected = new TreeSet<MavenProjectInfo>();
+		expected.add(fullService());
+		expected.add(sparseService());
+		for (MavenProjectInfo service : expected) {
+			assertService(service, (MavenProjectInfo) iterator.next());
+		}
+
+		catalogFile.write(new ArrayList<AssetInfo>());
+		Assert.assertTrue(catalogFile.read().isEmpty());
+	}
+
+	/**
+	 * Test method for {@link AssetCatalogFile#read()}: a file of another
+	 * format version or a truncated file is ignored.
+	 */
+	@Test
+	public void testReadInvalid() throws Exception {
+		final AssetCatalogFile catalogFile = new AssetCatalogFile(file);
+		catalogFile.write(Arrays.<AssetInfo> asList(fullService()));
+
+		final RandomAccessFile data = new RandomAccessFile(file, "rw");
+		try {
+			data.setLength(data.length() - 3);
+		} finally {
+			data.close();
+		}
+		Assert.assertNull(catalogFile.read());
+
+		catalogFile.write(Arrays.<AssetInfo> asList(fullService()));
+		final RandomAccessFile version = new RandomAccessFile(file, "rw");
+		try {
+			version.seek(4);
+			final int formatVersion = version.readInt();
+			version.seek(4);
+			version.writeInt(formatVersion + 1);
+		} finally {
+			version.close();
+		}
+		Assert.assertNull(catalogFile.read());
+
+		FileUtils.writeStringToFile(file, "not a catalog");
+		Assert.assertNull(catalogFile.read());
+	}
+}
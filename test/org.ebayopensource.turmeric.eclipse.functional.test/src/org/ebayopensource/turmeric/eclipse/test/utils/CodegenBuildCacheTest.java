@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.buildsystem.utils.CodegenBuildCache;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.model.BaseCodeGenModel;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CodegenBuildCache}.
+ */
+public class CodegenBuildCacheTest {
+	private IProject project;
+	private IProject typeLibrary;
+
+	@Before
+	public void setUp() throws Exception {
+		project = createProject("CodegenBuildCacheTest");
+		typeLibrary = createProject("CodegenBuildCacheTestTypes");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		project.delete(true, true, new NullProgressMonitor());
+		typeLibrary.delete(true, true, new NullProgressMonitor());
+	}
+
+	private static IProject createProject(String name) throws Exception {
+		final IProject result = ResourcesPlugin.getWorkspace().getRoot()
+				.getProject(name);
+		if (result.exists() == false) {
+			result.create(new NullProgressMonitor());
+		}
+		result.open(new NullProgressMonitor());
+		return result;
+	}
+
+	private void write(String path) throws Exception {
+		write(project, path, path);
+	}
+
+	private static void write(IProject project, String path, String content)
+			throws Exception {
+		FileUtils.writeStringToFile(new File(project.getLocation().toFile(),
+				path), content);
+	}
+
+	/**
+	 * Makes the project require the type library project through its Java
+	 * class path.
+	 */
+	private void requireTypeLibrary() throws Exception {
+		for (IProject javaProject : new IProject[] { typeLibrary, project }) {
+			final IProjectDescription description = javaProject
+					.getDescription();
+			description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+			javaProject.setDescription(description, new NullProgressMonitor());
+		}
+		JavaCore.create(typeLibrary).setRawClasspath(new IClasspathEntry[0],
+				typeLibrary.getFullPath().append("bin"),
+				new NullProgressMonitor());
+		JavaCore.create(project).setRawClasspath(
+				new IClasspathEntry[] { JavaCore.newProjectEntry(typeLibrary
+						.getFullPath()) }, project.getFullPath().append("bin"),
+				new NullProgressMonitor());
+	}
+
+	/**
+	 * Test method for {@link CodegenBuildCache#getInputFiles()}: only the
+	 * declared inputs take part in the key, not the build output, the jars
+	 * or the generated files.
+	 */
+	@Test
+	public void testGetInputFiles() throws Exception {
+		write("service_impl_project.properties");
+		write("meta-src/ServiceConfig.xml");
+		write("meta-src/types/Calc/Calc.xsd");
+		write("meta-src/META-INF/soa/services/wsdl/Calc/Calc.wsdl");
+		write("src/Calc.java");
+		write("lib/types.xsd");
+		write("target/classes/meta-src.properties");
+		write("target/meta-src/Calc.xsd");
+		write("gen-meta-src/META-INF/soa/Calc.xml");
+		write("conf/other.properties");
+
+		final CodegenBuildCache cache = CodegenBuildCache.getCache(project,
+				"test");
+		Assert.assertEquals(Arrays.asList(
+				"meta-src/META-INF/soa/services/wsdl/Calc/Calc.wsdl",
+				"meta-src/ServiceConfig.xml", "meta-src/types/Calc/Calc.xsd",
+				"service_impl_project.properties"), new ArrayList<String>(
+				cache.getInputFiles().keySet()));
+	}
+
+	/**
+	 * Test method for {@link CodegenBuildCache#computeKey(URL[], BaseCodeGenModel)}:
+	 * a rebuild with unchanged inputs hits the cache, a change of the XSDs or
+	 * the TypeDependencies.xml of a required type library misses it.
+	 */
+	@Test
+	public void testComputeKeyRequiredProject() throws Exception {
+		write(typeLibrary, "meta-src/types/Calc/Calc.xsd", "v1");
+		write(typeLibrary, "meta-src/META-INF/Calc/TypeDependencies.xml",
+				"v1");
+		write(typeLibrary, "gen-meta-src/Calc.xsd", "v1");
+		write("service_impl_project.properties");
+		requireTypeLibrary();
+
+		final CodegenBuildCache cache = CodegenBuildCache.getCache(project,
+				"test");
+		Assert.assertEquals(Arrays.asList(
+				"CodegenBuildCacheTestTypes/meta-src/META-INF/Calc/TypeDependencies.xml",
+				"CodegenBuildCacheTestTypes/meta-src/types/Calc/Calc.xsd"),
+				new ArrayList<String>(cache.getRequiredInputFiles().keySet()));
+
+		final BaseCodeGenModel model = new BaseCodeGenModel();
+		model.setGenType("ServiceFromWSDLImpl");
+		model.setServiceName("Calc");
+		final URL[] classpath = new URL[0];
+		final String key = cache.computeKey(classpath, model);
+		Assert.assertEquals("An unchanged rebuild must hit the cache", key,
+				cache.computeKey(classpath, model));
+
+		// generated files of the type library do not take part in the key
+		write(typeLibrary, "gen-meta-src/Calc.xsd", "v2");
+		Assert.assertEquals(key, cache.computeKey(classpath, model));
+
+		write(typeLibrary, "meta-src/types/Calc/Calc.xsd", "v2");
+		final String xsdKey = cache.computeKey(classpath, model);
+		Assert.assertFalse("A changed XSD must miss the cache", key
+				.equals(xsdKey));
+
+		write(typeLibrary, "meta-src/META-INF/Calc/TypeDependencies.xml",
+				"v2");
+		Assert.assertFalse("A changed TypeDependencies.xml must miss the cache",
+				xsdKey.equals(cache.computeKey(classpath, model)));
+
+		write(typeLibrary, "meta-src/types/Calc/Calc.xsd", "v1");
+		write(typeLibrary, "meta-src/META-INF/Calc/TypeDependencies.xml",
+				"v1");
+		Assert.assertEquals("The key depends on the content only", key,
+				cache.computeKey(classpath, model));
+	}
+}
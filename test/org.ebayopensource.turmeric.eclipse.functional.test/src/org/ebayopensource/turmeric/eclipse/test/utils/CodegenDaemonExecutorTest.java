@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import junit.framework.Assert;
+
+import org.ebayopensource.turmeric.repositorysystem.imp.impl.CodegenDaemonExecutor;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CodegenDaemonExecutor}.
+ */
+public class CodegenDaemonExecutorTest {
+	private CodegenDaemonExecutor executor;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = new CodegenDaemonExecutor();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.dispose();
+	}
+
+	/**
+	 * Test method for
+	 * {@link CodegenDaemonExecutor#execute(String[], IProgressMonitor)}: the
+	 * worker is started on the first request and answers it, whatever the
+	 * engine makes of the arguments, and it is started again after
+	 * {@link CodegenDaemonExecutor#dispose()}.
+	 */
+	@Test
+	public void testStartWorker() throws Exception {
+		Assert.assertFalse(executor.isRunning());
+		executor.execute(new String[0], new NullProgressMonitor());
+		Assert.assertTrue(executor.isRunning());
+
+		executor.dispose();
+		Assert.assertFalse(executor.isRunning());
+		executor.execute(new String[0], new NullProgressMonitor());
+		Assert.assertTrue(executor.isRunning());
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.codegen.utils.CodegenManifest;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CodegenManifest}.
+ */
+public class CodegenManifestTest {
+	/** well before the codegen, beyond the time stamp precision */
+	private static final long OLD = 60000;
+
+	private IProject project;
+	private long codegenStart;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				"CodegenManifestTest");
+		if (project.exists() == false) {
+			project.create(new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		codegenStart = System.currentTimeMillis();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (project.exists()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+	}
+
+	private File file(String path) {
+		return new File(project.getLocation().toFile(), path);
+	}
+
+	/**
+	 * Writes a file behind the workspace, with a time stamp from before the
+	 * codegen unless it is written by the codegen.
+	 */
+	private File write(String path, boolean byCodegen) throws Exception {
+		final File file = file(path);
+		FileUtils.writeStringToFile(file, path);
+		if (byCodegen == false) {
+			file.setLastModified(codegenStart - OLD);
+		}
+		return file;
+	}
+
+	/**
+	 * Writes the files and makes them and their folders known to the
+	 * workspace, as they were before the codegen.
+	 */
+	private void existing(String... paths) throws Exception {
+		for (String path : paths) {
+			write(path, false);
+		}
+		project.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+		for (String path : paths) {
+			for (File folder = file(path).getParentFile(); folder
+					.equals(project.getLocation().toFile()) == false; folder = folder
+					.getParentFile()) {
+				folder.setLastModified(codegenStart - OLD);
+			}
+		}
+	}
+
+	private boolean inWorkspace(String path) {
+		return project.getFile(path).exists();
+	}
+
+	/**
+	 * Test method for {@link CodegenManifest#addModifiedSince(File, long)}:
+	 * the files written by the codegen are refreshed, in new folders too, the
+	 * files written before it are not.
+	 */
+	@Test
+	public void testAddModifiedSinceNewFiles() throws Exception {
+		existing("gen-src/a/Old.java");
+		write("gen-src/a/New.java", true);
+		write("gen-src/b/c/Nested.java", true);
+		write("gen-src/a/Untouched.java", false);
+		file("gen-src/a").setLastModified(codegenStart - OLD);
+
+		final CodegenManifest manifest = new CodegenManifest(project);
+		manifest.addModifiedSince(file("gen-src"), codegenStart);
+		manifest.refresh(new NullProgressMonitor());
+
+		Assert.assertTrue(inWorkspace("gen-src/a/New.java"));
+		Assert.assertTrue(inWorkspace("gen-src/b/c/Nested.java"));
+		Assert.assertTrue(inWorkspace("gen-src/a/Old.java"));
+		Assert.assertFalse(inWorkspace("gen-src/a/Untouched.java"));
+	}
+
+	/**
+	 * Test method for {@link CodegenManifest#addModifiedSince(File, long)}:
+	 * a deleted file is found through the time stamp of its folder, whose
+	 * other children are left alone.
+	 */
+	@Test
+	public void testAddModifiedSinceDeletedChild() throws Exception {
+		existing("gen-src/a/Gone.java", "gen-src/a/Kept.java",
+				"gen-src/b/Other.java");
+		Assert.assertTrue(inWorkspace("gen-src/a/Gone.java"));
+		// deleting a child updates the time stamp of the folder
+		Assert.assertTrue(file("gen-src/a/Gone.java").delete());
+		file("gen-src/a").setLastModified(codegenStart);
+		// a deletion which is not reported by the folder time stamp
+		Assert.assertTrue(file("gen-src/b/Other.java").delete());
+		file("gen-src/b").setLastModified(codegenStart - OLD);
+
+		final CodegenManifest manifest = new CodegenManifest(project);
+		manifest.addModifiedSince(file("gen-src"), codegenStart);
+		manifest.refresh(new NullProgressMonitor());
+
+		Assert.assertFalse(inWorkspace("gen-src/a/Gone.java"));
+		Assert.assertTrue(inWorkspace("gen-src/a/Kept.java"));
+		// the folder of this one has not been touched, so it is still known
+		Assert.assertTrue(inWorkspace("gen-src/b/Other.java"));
+	}
+
+	/**
+	 * Test method for {@link CodegenManifest#addModifiedSince(File, long)}:
+	 * only locations inside the project are recorded.
+	 */
+	@Test
+	public void testAddModifiedSinceOutsideProject() throws Exception {
+		final File outside = File.createTempFile("CodegenManifestTest", ".java");
+		try {
+			final CodegenManifest manifest = new CodegenManifest(project);
+			manifest.addModifiedSince(outside, codegenStart);
+			Assert.assertTrue(manifest.isEmpty());
+			manifest.addModifiedSince(outside.getParentFile(), codegenStart);
+			Assert.assertTrue(manifest.isEmpty());
+		} finally {
+			outside.delete();
+		}
+	}
+}
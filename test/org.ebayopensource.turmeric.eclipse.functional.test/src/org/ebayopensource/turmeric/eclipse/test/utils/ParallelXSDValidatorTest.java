@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.ebayopensource.turmeric.eclipse.typelibrary.builders.ParallelXSDValidator;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelXSDValidator}.
+ */
+public class ParallelXSDValidatorTest {
+	private static final String SCHEMA_START = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\""
+			+ " xmlns:tns=\"http://www.ebayopensource.org/turmeric/test\""
+			+ " targetNamespace=\"http://www.ebayopensource.org/turmeric/test\">";
+
+	private static final String SCHEMA_END = "</xs:schema>";
+
+	private IProject project;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				"ParallelXSDValidatorTest");
+		if (project.exists() == false) {
+			project.create(new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		ParallelXSDValidator.invalidate(project);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (project.exists()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+	}
+
+	private IFile write(String name, String content) throws Exception {
+		final IFile file = project.getFile(name);
+		final ByteArrayInputStream input = new ByteArrayInputStream(
+				(SCHEMA_START + content + SCHEMA_END).getBytes("UTF-8"));
+		if (file.exists()) {
+			file.setContents(input, true, false, new NullProgressMonitor());
+		} else {
+			file.create(input, true, new NullProgressMonitor());
+		}
+		return file;
+	}
+
+	private List<Integer> validate(IFile... files) throws Exception {
+		final List<Integer> problems = new ArrayList<Integer>();
+		for (IStatus status : ParallelXSDValidator.validate(project, Arrays
+				.asList(files))) {
+			problems.add(status.getChildren().length);
+		}
+		return problems;
+	}
+
+	/**
+	 * Test method for {@link ParallelXSDValidator#validate(IProject, List)}:
+	 * the XSDs are validated by several threads, an XSD is validated again
+	 * when a schema it includes changes.
+	 */
+	@Test
+	public void testValidate() throws Exception {
+		final IFile base = write("Base.xsd",
+				"<xs:complexType name=\"Base\"/>");
+		final IFile calc = write("Calc.xsd",
+				"<xs:include schemaLocation=\"Base.xsd\"/>"
+						+ "<xs:complexType name=\"Calc\"><xs:sequence>"
+						+ "<xs:element name=\"base\" type=\"tns:Base\"/>"
+						+ "</xs:sequence></xs:complexType>");
+		final IFile other = write("Other.xsd",
+				"<xs:complexType name=\"Other\"/>");
+		Assert.assertEquals(Arrays.asList(0, 0, 0), validate(base, calc,
+				other));
+		Assert.assertTrue(ParallelXSDValidator.isValidated(project));
+
+		// Calc refers to a type which is gone
+		write("Base.xsd", "<xs:complexType name=\"Renamed\"/>");
+		final List<Integer> problems = validate(base, calc, other);
+		Assert.assertEquals(0, problems.get(0).intValue());
+		Assert.assertTrue(problems.get(1) > 0);
+		Assert.assertEquals(0, problems.get(2).intValue());
+	}
+
+	/**
+	 * Test method for {@link ParallelXSDValidator#getProjectListener()}, as
+	 * registered by the type library plugin: the results of a closed or
+	 * deleted project are forgotten.
+	 */
+	@Test
+	public void testProjectListener() throws Exception {
+		final IFile base = write("Base.xsd", "<xs:complexType name=\"Base\"/>");
+		validate(base);
+		Assert.assertTrue(ParallelXSDValidator.isValidated(project));
+		project.close(new NullProgressMonitor());
+		Assert.assertFalse(ParallelXSDValidator.isValidated(project));
+
+		project.open(new NullProgressMonitor());
+		validate(base);
+		Assert.assertTrue(ParallelXSDValidator.isValidated(project));
+		project.delete(true, true, new NullProgressMonitor());
+		Assert.assertFalse(ParallelXSDValidator.isValidated(project));
+	}
+}
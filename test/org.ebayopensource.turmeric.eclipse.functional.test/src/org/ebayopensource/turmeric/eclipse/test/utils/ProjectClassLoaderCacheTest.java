@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.soatools.codegen.ProjectClassLoaderCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ProjectClassLoaderCache}.
+ */
+public class ProjectClassLoaderCacheTest {
+	/** well before the test, beyond the time stamp precision */
+	private static final long OLD = 60000;
+
+	private File folder;
+	private File jar;
+	private File classes;
+	private long start;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = File.createTempFile("ProjectClassLoaderCacheTest", "");
+		folder.delete();
+		jar = new File(folder, "lib/project.jar");
+		classes = new File(folder, "bin");
+		start = System.currentTimeMillis();
+		write(jar, "jar");
+		write(new File(classes, "a/A.class"), "A");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(folder);
+	}
+
+	/**
+	 * Writes a file with a time stamp from before the test, its folders too.
+	 */
+	private void write(File file, String content) throws Exception {
+		FileUtils.writeStringToFile(file, content);
+		for (File touched = file; touched.equals(folder) == false; touched = touched
+				.getParentFile()) {
+			touched.setLastModified(start - OLD);
+		}
+	}
+
+	private List<URL> classpath() throws Exception {
+		return Arrays.asList(jar.toURI().toURL(), classes.toURI().toURL());
+	}
+
+	private List<Long> stamps() throws Exception {
+		final List<Long> result = new ArrayList<Long>();
+		for (URL url : classpath()) {
+			result.add(ProjectClassLoaderCache.getStamp(url));
+		}
+		return result;
+	}
+
+	/**
+	 * Test method for {@link ProjectClassLoaderCache#getLoader(List, List)}:
+	 * the loader is kept while the class path and the stamps are the same,
+	 * and created again once either of them changes.
+	 */
+	@Test
+	public void testGetLoader() throws Exception {
+		final ProjectClassLoaderCache cache = new ProjectClassLoaderCache(
+				getClass().getClassLoader());
+		final ClassLoader loader = cache.getLoader(classpath(), stamps());
+		Assert.assertSame(loader, cache.getLoader(classpath(), stamps()));
+
+		final List<Long> stamps = new ArrayList<Long>(stamps());
+		stamps.set(0, stamps.get(0) + 1);
+		final ClassLoader rebuilt = cache.getLoader(classpath(), stamps);
+		Assert.assertNotSame(loader, rebuilt);
+		Assert.assertSame(rebuilt, cache.getLoader(classpath(), stamps));
+
+		final ClassLoader shorter = cache.getLoader(classpath().subList(0, 1),
+				stamps.subList(0, 1));
+		Assert.assertNotSame(rebuilt, shorter);
+		Assert.assertSame(getClass().getClassLoader(), shorter.getParent());
+	}
+
+	/**
+	 * Test method for {@link ProjectClassLoaderCache#getStamp(URL)}: a
+	 * rebuilt jar changes its stamp, even with the same time stamp.
+	 */
+	@Test
+	public void testGetStampJar() throws Exception {
+		final URL url = jar.toURI().toURL();
+		final long stamp = ProjectClassLoaderCache.getStamp(url);
+		Assert.assertEquals(stamp, ProjectClassLoaderCache.getStamp(url));
+
+		write(jar, "rebuilt jar");
+		Assert.assertTrue(stamp != ProjectClassLoaderCache.getStamp(url));
+
+		Assert.assertTrue(jar.delete());
+		Assert.assertEquals(0, ProjectClassLoaderCache.getStamp(url));
+		Assert.assertEquals(0, ProjectClassLoaderCache.getStamp(new URL(
+				"http://localhost/project.jar")));
+	}
+
+	/**
+	 * Test method for {@link ProjectClassLoaderCache#getStamp(URL)}: a class
+	 * compiled again or deleted anywhere below a class folder changes its
+	 * stamp.
+	 */
+	@Test
+	public void testGetStampClassFolder() throws Exception {
+		final URL url = classes.toURI().toURL();
+		final long stamp = ProjectClassLoaderCache.getStamp(url);
+		final File compiled = new File(classes, "a/A.class");
+		compiled.setLastModified(start);
+		Assert.assertTrue(stamp != ProjectClassLoaderCache.getStamp(url));
+
+		write(compiled, "A");
+		Assert.assertEquals(stamp, ProjectClassLoaderCache.getStamp(url));
+
+		Assert.assertTrue(compiled.delete());
+		// deleting a child updates the time stamp of the folder
+		new File(classes, "a").setLastModified(start);
+		Assert.assertTrue(stamp != ProjectClassLoaderCache.getStamp(url));
+	}
+}
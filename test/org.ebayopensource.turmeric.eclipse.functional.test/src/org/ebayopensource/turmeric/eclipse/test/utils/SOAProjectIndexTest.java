@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.Assert;
+
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.SOAProjectIndex;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SOAProjectIndex}.
+ */
+public class SOAProjectIndexTest {
+	private static final String NATURE_ID = JavaCore.NATURE_ID;
+
+	private final SOAProjectIndex index = SOAProjectIndex.getInstance();
+	private IProject project;
+	private IProject required;
+
+	@Before
+	public void setUp() throws Exception {
+		project = createProject("SOAProjectIndexTest");
+		required = createProject("SOAProjectIndexTestRequired");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (IProject created : new IProject[] { project, required }) {
+			if (created.exists()) {
+				created.delete(true, true, new NullProgressMonitor());
+			}
+		}
+	}
+
+	private static IProject createProject(String name) throws Exception {
+		final IProject result = ResourcesPlugin.getWorkspace().getRoot()
+				.getProject(name);
+		if (result.exists() == false) {
+			result.create(new NullProgressMonitor());
+		}
+		result.open(new NullProgressMonitor());
+		return result;
+	}
+
+	private static void setNatures(IProject project, String... natureIds)
+			throws CoreException {
+		final IProjectDescription description = project.getDescription();
+		description.setNatureIds(natureIds);
+		project.setDescription(description, new NullProgressMonitor());
+	}
+
+	private static void setClasspath(IProject project, IProject... requiredProjects)
+			throws Exception {
+		final StringBuilder classpath = new StringBuilder(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?><classpath>");
+		for (IProject requiredProject : requiredProjects) {
+			classpath.append("<classpathentry kind=\"src\" path=\"/")
+					.append(requiredProject.getName()).append("\"/>");
+		}
+		classpath.append("<classpathentry kind=\"output\" path=\"bin\"/></classpath>");
+		final IFile file = project.getFile(".classpath");
+		final ByteArrayInputStream input = new ByteArrayInputStream(classpath
+				.toString().getBytes("UTF-8"));
+		if (file.exists()) {
+			file.setContents(input, true, false, new NullProgressMonitor());
+		} else {
+			file.create(input, true, new NullProgressMonitor());
+		}
+	}
+
+	/**
+	 * Test method for {@link SOAProjectIndex#hasNature(IProject, String...)}:
+	 * a null project has no nature.
+	 */
+	@Test
+	public void testHasNatureNullProject() throws Exception {
+		Assert.assertFalse(index.hasNature(null, NATURE_ID));
+		Assert.assertTrue(index.getNatureIds(null).isEmpty());
+		Assert.assertTrue(index.getClasspathProjects(null).isEmpty());
+	}
+
+	/**
+	 * Test method for {@link SOAProjectIndex#hasNature(IProject, String...)}:
+	 * a nature added inside a workspace operation is seen through the stamp
+	 * of the .project file, before any resource change event is sent.
+	 */
+	@Test
+	public void testHasNatureDescriptionStamp() throws Exception {
+		Assert.assertFalse(index.hasNature(project, NATURE_ID));
+		Assert.assertFalse(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+		final boolean[] seen = new boolean[1];
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				setNatures(project, NATURE_ID);
+				seen[0] = index.hasNature(project, NATURE_ID);
+			}
+		}, new NullProgressMonitor());
+		Assert.assertTrue(seen[0]);
+		Assert.assertTrue(index.getNatureIds(project).contains(NATURE_ID));
+		Assert.assertTrue(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+
+		setNatures(project);
+		Assert.assertFalse(index.hasNature(project, NATURE_ID));
+		Assert.assertFalse(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+	}
+
+	/**
+	 * Test method for {@link SOAProjectIndex#getClasspathProjects(IProject)}:
+	 * the classpath edges are resolved again once the .classpath file has
+	 * changed.
+	 */
+	@Test
+	public void testGetClasspathProjectsClasspathChange() throws Exception {
+		setNatures(required, NATURE_ID);
+		setNatures(project, NATURE_ID);
+		setClasspath(required);
+		setClasspath(project);
+		Assert.assertEquals(Collections.emptyList(), index
+				.getClasspathProjects(project));
+
+		setClasspath(project, required);
+		Assert.assertEquals(Arrays.asList(required), index
+				.getClasspathProjects(project));
+
+		JavaCore.create(project).setRawClasspath(new IClasspathEntry[0],
+				new NullProgressMonitor());
+		Assert.assertEquals(Collections.emptyList(), index
+				.getClasspathProjects(project));
+	}
+
+	/**
+	 * Test method for {@link SOAProjectIndex#getProjectsByNature(String...)}:
+	 * closed and deleted projects are dropped from the index, a project
+	 * created again with the same name is indexed from scratch.
+	 */
+	@Test
+	public void testCloseAndDelete() throws Exception {
+		setNatures(project, NATURE_ID);
+		Assert.assertTrue(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+
+		project.close(new NullProgressMonitor());
+		Assert.assertFalse(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+		Assert.assertTrue(index.getNatureIds(project).isEmpty());
+		try {
+			index.hasNature(project, NATURE_ID);
+			Assert.fail("a closed project can not be asked for its natures");
+		} catch (CoreException e) {
+			// expected, same as IProject#hasNature(String)
+		}
+
+		project.open(new NullProgressMonitor());
+		Assert.assertTrue(index.hasNature(project, NATURE_ID));
+
+		project.delete(true, true, new NullProgressMonitor());
+		Assert.assertFalse(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+		project = createProject(project.getName());
+		Assert.assertFalse(index.hasNature(project, NATURE_ID));
+		Assert.assertFalse(index.getProjectsByNature(NATURE_ID).contains(
+				project));
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.ebayopensource.turmeric.eclipse.buildsystem.XSDDigestStore;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceUtil;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link XSDDigestStore}.
+ */
+public class XSDDigestStoreTest {
+	private IProject project;
+	private IFile typeDepFile;
+	private IFile xsdFile;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				"XSDDigestStoreTest");
+		if (project.exists() == false) {
+			project.create(new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		typeDepFile = write("meta-src/META-INF/XSDDigestStoreTest/TypeDependencies.xml",
+				"<typeLibraryDependencyType libraryName=\"XSDDigestStoreTest\"/>");
+		xsdFile = write("meta-src/types/Address.xsd", "<xs:schema/>");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (project.exists()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+	}
+
+	private IFile write(String path, String content) throws Exception {
+		final IFile file = project.getFile(path);
+		final ByteArrayInputStream input = new ByteArrayInputStream(content
+				.getBytes("UTF-8"));
+		if (file.exists()) {
+			file.setContents(input, true, false, new NullProgressMonitor());
+		} else {
+			WorkspaceUtil.createFolders(project, Arrays.asList(file
+					.getParent().getProjectRelativePath().toString()),
+					new NullProgressMonitor());
+			file.create(input, true, new NullProgressMonitor());
+		}
+		return file;
+	}
+
+	/**
+	 * Records the current content of the xsd as synchronized, like a sync of
+	 * the TypeDependencies.xml file does.
+	 */
+	private void synchronize(IFile file) {
+		final XSDDigestStore store = XSDDigestStore.load(project, typeDepFile);
+		store.setDigest(file, XSDDigestStore.digest(file));
+		store.save(typeDepFile);
+	}
+
+	private boolean isSynchronized(IFile file) {
+		return XSDDigestStore.load(project, typeDepFile).isSynchronized(file,
+				XSDDigestStore.digest(file));
+	}
+
+	/**
+	 * Test method for {@link XSDDigestStore#isSynchronized(IFile, String)}:
+	 * an xsd which has been written again with the same content is skipped,
+	 * one with a new content is not.
+	 */
+	@Test
+	public void testUnchangedXsdIsSkipped() throws Exception {
+		Assert.assertFalse(isSynchronized(xsdFile));
+		synchronize(xsdFile);
+		Assert.assertTrue(isSynchronized(xsdFile));
+
+		write(xsdFile.getProjectRelativePath().toString(), "<xs:schema/>");
+		Assert.assertTrue(isSynchronized(xsdFile));
+
+		write(xsdFile.getProjectRelativePath().toString(),
+				"<xs:schema><xs:element name=\"street\"/></xs:schema>");
+		Assert.assertFalse(isSynchronized(xsdFile));
+	}
+
+	/**
+	 * Test method for {@link XSDDigestStore#load(IProject, IFile)}: the
+	 * recorded digests are dropped once the TypeDependencies.xml file has been
+	 * edited by somebody else, so every xsd is synchronized again.
+	 */
+	@Test
+	public void testExternalTypeDependenciesEditForcesResync() throws Exception {
+		final IFile otherXsd = write("meta-src/types/Phone.xsd", "<xs:schema/>");
+		synchronize(xsdFile);
+		synchronize(otherXsd);
+		Assert.assertTrue(isSynchronized(xsdFile));
+		Assert.assertTrue(isSynchronized(otherXsd));
+
+		write(typeDepFile.getProjectRelativePath().toString(),
+				"<typeLibraryDependencyType libraryName=\"Edited\"/>");
+		Assert.assertFalse(isSynchronized(xsdFile));
+		Assert.assertFalse(isSynchronized(otherXsd));
+
+		typeDepFile.delete(true, new NullProgressMonitor());
+		Assert.assertFalse(isSynchronized(xsdFile));
+	}
+
+	/**
+	 * Test method for {@link XSDDigestStore#setDigest(IFile, String)}: the
+	 * entry of a deleted xsd is removed, so an xsd created again with the
+	 * same content is synchronized again.
+	 */
+	@Test
+	public void testDeletedXsdLosesEntry() throws Exception {
+		final IFile otherXsd = write("meta-src/types/Phone.xsd", "<xs:schema/>");
+		synchronize(xsdFile);
+		synchronize(otherXsd);
+
+		xsdFile.delete(true, new NullProgressMonitor());
+		Assert.assertNull(XSDDigestStore.digest(xsdFile));
+		final XSDDigestStore store = XSDDigestStore.load(project, typeDepFile);
+		store.setDigest(xsdFile, null);
+		store.save(typeDepFile);
+
+		write(xsdFile.getProjectRelativePath().toString(), "<xs:schema/>");
+		Assert.assertFalse(isSynchronized(xsdFile));
+		Assert.assertTrue(isSynchronized(otherXsd));
+	}
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.ebayopensource.turmeric.eclipse.repositorysystem.utils.InitializationFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link InitializationFuture}.
+ */
+public class InitializationFutureTest {
+	private List<String> events;
+
+	@Before
+	public void setUp() {
+		events = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	/**
+	 * Test method for {@link InitializationFuture#getResult(long, TimeUnit)}:
+	 * waiting for an initialization which does not finish is bounded.
+	 */
+	@Test
+	public void testGetResultTimeout() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final InitializationFuture<String> future = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						release.await();
+						return "registry";
+					}
+				});
+		final Thread initializer = new Thread(future);
+		initializer.start();
+		try {
+			future.getResult(100, TimeUnit.MILLISECONDS);
+			fail("the wait must time out");
+		} catch (TimeoutException e) {
+			// expected
+		} finally {
+			release.countDown();
+		}
+		initializer.join();
+		assertEquals("registry", future.getResult(100, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * Test method for {@link InitializationFuture#getResult(long, TimeUnit)}:
+	 * nothing is handed out while the initialization is still running, even
+	 * once a part of the value is ready.
+	 */
+	@Test
+	public void testNoResultBeforeInitialized() throws Exception {
+		final CountDownLatch partlyLoaded = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final InitializationFuture<String> future = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						partlyLoaded.countDown();
+						release.await();
+						return "registry";
+					}
+				});
+		future.addCallback(new RecordingCallback("early"));
+		final Thread initializer = new Thread(future);
+		initializer.start();
+		try {
+			partlyLoaded.await();
+			assertFalse(future.isDone());
+			try {
+				future.getResult(100, TimeUnit.MILLISECONDS);
+				fail("the registry must not be available yet");
+			} catch (TimeoutException e) {
+				// expected
+			}
+			assertTrue(events.isEmpty());
+		} finally {
+			release.countDown();
+		}
+		initializer.join();
+		assertEquals(Arrays.asList("early initialized registry"), events);
+	}
+
+	/**
+	 * Test method for {@link InitializationFuture#getResult(long, TimeUnit)}:
+	 * the failure of the initialization is thrown as is.
+	 */
+	@Test
+	public void testGetResultFailure() throws Exception {
+		final IOException error = new IOException("failed");
+		final InitializationFuture<String> future = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						throw error;
+					}
+				});
+		future.run();
+		try {
+			future.getResult(100, TimeUnit.MILLISECONDS);
+			fail("the failure must be thrown");
+		} catch (IOException e) {
+			assertSame(error, e);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link InitializationFuture#addCallback(InitializationFuture.ICallback)}:
+	 * the callbacks registered before the end of the initialization are
+	 * notified by the initializing thread, the later ones immediately.
+	 */
+	@Test
+	public void testAddCallback() throws Exception {
+		final InitializationFuture<String> future = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						return "registry";
+					}
+				});
+		future.addCallback(new RecordingCallback("early"));
+		assertTrue(events.isEmpty());
+		future.run();
+		assertEquals(Arrays.asList("early initialized registry"), events);
+		future.addCallback(new RecordingCallback("late"));
+		assertEquals(Arrays.asList("early initialized registry",
+				"late initialized registry"), events);
+	}
+
+	/**
+	 * Test method for
+	 * {@link InitializationFuture#addCallback(InitializationFuture.ICallback)}:
+	 * the callbacks get the failure or the cancellation of the
+	 * initialization.
+	 */
+	@Test
+	public void testAddCallbackFailure() throws Exception {
+		final InitializationFuture<String> failing = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						throw new IOException("failed");
+					}
+				});
+		failing.addCallback(new RecordingCallback("failing"));
+		failing.run();
+
+		final InitializationFuture<String> cancelled = new InitializationFuture<String>(
+				new Callable<String>() {
+					public String call() throws Exception {
+						return "registry";
+					}
+				});
+		cancelled.addCallback(new RecordingCallback("cancelled"));
+		cancelled.cancel(false);
+		cancelled.run();
+		assertTrue(cancelled.isCancelled());
+		assertEquals(Arrays.asList("failing failed IOException",
+				"cancelled failed CancellationException"), events);
+	}
+
+	private class RecordingCallback implements
+			InitializationFuture.ICallback<String> {
+		private final String name;
+
+		RecordingCallback(String name) {
+			this.name = name;
+		}
+
+		public void initialized(String value) {
+			events.add(name + " initialized " + value);
+		}
+
+		public void failed(Throwable cause) {
+			events.add(name + " failed " + cause.getClass().getSimpleName());
+		}
+	}
+}
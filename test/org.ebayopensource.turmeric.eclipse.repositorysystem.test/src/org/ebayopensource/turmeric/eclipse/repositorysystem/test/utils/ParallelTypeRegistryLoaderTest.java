@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.repositorysystem.test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.common.config.TypeLibraryDependencyType;
+import org.ebayopensource.turmeric.common.config.TypeLibraryType;
+import org.ebayopensource.turmeric.eclipse.repositorysystem.core.ParallelTypeRegistryLoader;
+import org.ebayopensource.turmeric.tools.library.RegistryUpdateDetails;
+import org.ebayopensource.turmeric.tools.library.SOAGlobalRegistryImpl;
+import org.ebayopensource.turmeric.tools.library.SOATypeRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelTypeRegistryLoader}.
+ */
+public class ParallelTypeRegistryLoaderTest {
+	private static final String CONFIG_NS = "http://www.ebayopensource.org/turmeric/common/config";
+
+	private File root;
+	private List<String> events;
+
+	@Before
+	public void setUp() throws Exception {
+		root = File.createTempFile("typelibs", "");
+		root.delete();
+		root.mkdirs();
+		events = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(root);
+	}
+
+	/**
+	 * Test method for
+	 * {@link ParallelTypeRegistryLoader#load(java.util.Collection, java.util.Collection, org.eclipse.core.runtime.IProgressMonitor)}:
+	 * the workspace libraries are added first and the type dependencies only
+	 * once all the type libraries are known.
+	 */
+	@Test
+	public void testLoadOrder() throws Exception {
+		writeLibrary("WorkspaceLibA", "http://test/a", "TypeA");
+		writeDependencies("WorkspaceLibA");
+		writeLibrary("WorkspaceLibB", "http://test/b", "TypeB");
+		writeLibrary("JarLib", "http://test/jar", "TypeJar");
+		writeDependencies("JarLib");
+
+		final List<RegistryUpdateDetails> failures = new RecordingLoader(1)
+				.load(Arrays.asList("WorkspaceLibA", "WorkspaceLibB"),
+						Arrays.asList("JarLib"), null);
+
+		assertTrue(failures.isEmpty());
+		assertEquals(Arrays.asList("types WorkspaceLibA", "types WorkspaceLibB",
+				"types JarLib", "dependencies WorkspaceLibA",
+				"dependencies JarLib"), events);
+	}
+
+	/**
+	 * Test method for
+	 * {@link ParallelTypeRegistryLoader#load(java.util.Collection, java.util.Collection, org.eclipse.core.runtime.IProgressMonitor)}:
+	 * every type library is added before the first type dependencies even
+	 * when they are parsed by several threads.
+	 */
+	@Test
+	public void testLoadOrderParallel() throws Exception {
+		final List<String> libraries = new ArrayList<String>();
+		for (int i = 0; i < 20; i++) {
+			final String library = "Lib" + i;
+			writeLibrary(library, "http://test/" + i, "Type" + i);
+			writeDependencies(library);
+			libraries.add(library);
+		}
+
+		final List<RegistryUpdateDetails> failures = new RecordingLoader(4)
+				.load(libraries.subList(0, 10),
+						libraries.subList(10, libraries.size()), null);
+
+		assertTrue(failures.isEmpty());
+		assertEquals(40, events.size());
+		for (int i = 0; i < events.size(); i++) {
+			assertEquals(events.get(i), i < 20, events.get(i).startsWith(
+					"types "));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link ParallelTypeRegistryLoader#load(java.util.Collection, java.util.Collection, org.eclipse.core.runtime.IProgressMonitor)}:
+	 * a library which cannot be read or added is reported and the other
+	 * libraries are still loaded.
+	 */
+	@Test
+	public void testLoadFailures() throws Exception {
+		writeLibrary("GoodLib", "http://test/good", "GoodType");
+		writeDependencies("GoodLib");
+		writeLibrary("BadDependenciesLib", "http://test/bad", "BadType");
+		writeDependencies("BadDependenciesLib");
+		writeLibrary("RejectedLib", "http://test/rejected", "RejectedType");
+		FileUtils.writeStringToFile(new File(root,
+				"META-INF/BrokenLib/TypeInformation.xml"), "<broken");
+
+		final List<RegistryUpdateDetails> failures = new RecordingLoader(2)
+				.load(Arrays.asList("GoodLib", "MissingLib"), Arrays.asList(
+						"BadDependenciesLib", "RejectedLib", "BrokenLib"),
+						null);
+
+		assertEquals(4, failures.size());
+		final List<String> failed = new ArrayList<String>();
+		for (RegistryUpdateDetails details : failures) {
+			assertFalse(details.isUpdateSucess());
+			failed.add(details.getLibraryName());
+			if ("BadDependenciesLib".equals(details.getLibraryName())) {
+				assertTrue(details.getMessage(), details.getMessage()
+						.startsWith("TypeDependencies.xml"));
+			} else {
+				assertTrue(details.getMessage(), details.getMessage()
+						.startsWith("TypeInformation.xml"));
+			}
+		}
+		Collections.sort(failed);
+		assertEquals(Arrays.asList("BadDependenciesLib", "BrokenLib",
+				"MissingLib", "RejectedLib"), failed);
+		assertTrue(events.contains("types GoodLib"));
+		assertTrue(events.contains("dependencies GoodLib"));
+		assertTrue(events.contains("types BadDependenciesLib"));
+		assertFalse(events.contains("dependencies RejectedLib"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link ParallelTypeRegistryLoader#load(java.util.Collection, java.util.Collection, org.eclipse.core.runtime.IProgressMonitor)}:
+	 * the types deleted from a library since it was last loaded are removed
+	 * from the registry.
+	 */
+	@Test
+	public void testLoadRemovesDeletedTypes() throws Exception {
+		final String namespace = "http://test/reconcile/" + root.getName();
+		final String library = "ReconciledLib" + root.getName().replaceAll(
+				"\\W", "");
+		final SOATypeRegistry registry = SOAGlobalRegistryImpl.getInstance();
+
+		writeLibrary(library, namespace, "KeptType", "DeletedType");
+		assertTrue(new ParallelTypeRegistryLoader(registry, newClassLoader(), 2)
+				.load(Arrays.asList(library), Collections.<String> emptyList(),
+						null).isEmpty());
+		assertNotNull(registry.getType(new QName(namespace, "DeletedType")));
+
+		writeLibrary(library, namespace, "KeptType", "AddedType");
+		assertTrue(new ParallelTypeRegistryLoader(registry, newClassLoader(), 2)
+				.load(Arrays.asList(library), Collections.<String> emptyList(),
+						null).isEmpty());
+		assertNotNull(registry.getType(new QName(namespace, "KeptType")));
+		assertNotNull(registry.getType(new QName(namespace, "AddedType")));
+		assertNull(registry.getType(new QName(namespace, "DeletedType")));
+	}
+
+	private void writeLibrary(String library, String namespace,
+			String... types) throws IOException {
+		final StringBuilder xml = new StringBuilder();
+		xml.append("<ns2:typeLibraryType xmlns:ns2=\"").append(CONFIG_NS)
+				.append("\" libraryName=\"").append(library)
+				.append("\" version=\"1.0.0\" libraryNamespace=\"")
+				.append(namespace).append("\">");
+		for (String type : types) {
+			xml.append("<ns2:type xml-type-name=\"").append(type)
+					.append("\" java-type-name=\"test.").append(type)
+					.append("\" version=\"1.0.0\"/>");
+		}
+		xml.append("</ns2:typeLibraryType>");
+		FileUtils.writeStringToFile(new File(root, "META-INF/" + library
+				+ "/TypeInformation.xml"), xml.toString());
+	}
+
+	private void writeDependencies(String library) throws IOException {
+		FileUtils.writeStringToFile(new File(root, "META-INF/" + library
+				+ "/TypeDependencies.xml"), "<typeLibraryDependencyType xmlns:ns2=\""
+				+ CONFIG_NS + "\" version=\"1.0.0\" libraryName=\"" + library
+				+ "\"/>");
+	}
+
+	private ClassLoader newClassLoader() throws IOException {
+		return new URLClassLoader(new URL[] { root.toURI().toURL() },
+				getClass().getClassLoader());
+	}
+
+	private class RecordingLoader extends ParallelTypeRegistryLoader {
+
+		RecordingLoader(int threadCount) throws IOException {
+			super(null, newClassLoader(), threadCount);
+		}
+
+		@Override
+		protected void addTypeLibrary(String name, TypeLibraryType typeLibrary)
+				throws Exception {
+			if (name.equals("RejectedLib")) {
+				throw new IllegalArgumentException("rejected");
+			}
+			events.add("types " + name);
+		}
+
+		@Override
+		protected void addTypeDependencies(String name,
+				TypeLibraryDependencyType dependencies) throws Exception {
+			if (name.equals("BadDependenciesLib")) {
+				throw new IllegalArgumentException("bad dependencies");
+			}
+			events.add("dependencies " + name);
+		}
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * 
+ */
+package org.ebayopensource.turmeric.eclipse.repositorysystem.test.utils;
\ No newline at end of file
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.classloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAClassLoaderPool;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SOAClassLoaderPool}.
+ */
+public class TestSOAClassLoaderPool {
+	private File root;
+	private File jar;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestSOAClassLoaderPool");
+		FileUtils.deleteDirectory(root);
+		new File(root, "classes").mkdirs();
+		jar = new File(root, "test.jar");
+		FileUtils.writeStringToFile(jar, "jar");
+		SOAClassLoaderPool.getInstance().clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		SOAClassLoaderPool.getInstance().clear();
+		FileUtils.deleteDirectory(root);
+	}
+
+	private URL[] classpath() throws Exception {
+		return new URL[] { new File(root, "classes").toURI().toURL(),
+				jar.toURI().toURL() };
+	}
+
+	/**
+	 * Test method for {@link SOAClassLoaderPool#acquire(String, String, URL[])}.
+	 */
+	@Test
+	public void testAcquireUnchangedClasspath() throws Exception {
+		SOAClassLoaderPool pool = SOAClassLoaderPool.getInstance();
+		long hits = pool.getHitCount();
+		long misses = pool.getMissCount();
+		SOAPluginClassLoader first = pool.acquire("project", "Codegen",
+				classpath());
+		SOAPluginClassLoader second = pool.acquire("project", "Codegen",
+				classpath());
+		assertSame(first, second);
+		assertEquals(hits + 1, pool.getHitCount());
+		assertEquals(misses + 1, pool.getMissCount());
+		assertEquals(2, pool.getUseCount(first));
+		pool.release(first);
+		pool.release(second);
+		assertEquals(0, pool.getUseCount(first));
+		assertFalse("Pooled loader should be kept", first.isDisposed());
+	}
+
+	/**
+	 * Test method for {@link SOAClassLoaderPool#acquire(String, String, URL[])}.
+	 */
+	@Test
+	public void testAcquireModifiedJar() throws Exception {
+		SOAClassLoaderPool pool = SOAClassLoaderPool.getInstance();
+		SOAPluginClassLoader first = pool.acquire("project", "Codegen",
+				classpath());
+		pool.release(first);
+		FileUtils.writeStringToFile(jar, "modified jar");
+		SOAPluginClassLoader second = pool.acquire("project", "Codegen",
+				classpath());
+		assertNotSame(first, second);
+		assertTrue("Stale loader should be disposed", first.isDisposed());
+		assertFalse(second.isDisposed());
+		assertEquals(1, pool.size());
+		pool.release(second);
+	}
+
+	/**
+	 * A loader dropped from the pool while in use is disposed by its last
+	 * release.
+	 */
+	@Test
+	public void testReleaseAfterEviction() throws Exception {
+		SOAClassLoaderPool pool = SOAClassLoaderPool.getInstance();
+		SOAPluginClassLoader first = pool.acquire("project", "Codegen",
+				classpath());
+		SOAPluginClassLoader shared = pool.acquire("other", "Codegen",
+				classpath());
+		assertSame(first, shared);
+		FileUtils.writeStringToFile(jar, "modified jar");
+		SOAPluginClassLoader second = pool.acquire("project", "Codegen",
+				classpath());
+		pool.invalidate("other");
+		assertNotSame(first, second);
+		assertFalse("Loader in use must not be disposed", first.isDisposed());
+		pool.release(first);
+		assertFalse("Loader in use must not be disposed", first.isDisposed());
+		pool.release(shared);
+		assertTrue("Released loader should be disposed", first.isDisposed());
+		pool.release(second);
+		assertFalse(second.isDisposed());
+	}
+
+	/**
+	 * Test method for {@link SOAClassLoaderPool#fingerprint(URL[])}.
+	 */
+	@Test
+	public void testFingerprint() throws Exception {
+		URL[] urls = classpath();
+		String fingerprint = SOAClassLoaderPool.fingerprint(urls);
+		assertEquals(fingerprint, SOAClassLoaderPool.fingerprint(urls));
+		URL[] reversed = new URL[] { urls[1], urls[0] };
+		assertFalse(fingerprint.equals(SOAClassLoaderPool
+				.fingerprint(reversed)));
+		FileUtils.writeStringToFile(jar, "modified jar");
+		assertFalse(fingerprint.equals(SOAClassLoaderPool.fingerprint(urls)));
+	}
+
+	/**
+	 * Test method for {@link SOAClassLoaderPool#fingerprint(URL[])} with a
+	 * class folder.
+	 */
+	@Test
+	public void testFingerprintClassFolder() throws Exception {
+		URL[] urls = classpath();
+		File classFile = new File(root, "classes/org/A.class");
+		FileUtils.writeStringToFile(classFile, "A");
+		String fingerprint = SOAClassLoaderPool.fingerprint(urls);
+		assertEquals(fingerprint, SOAClassLoaderPool.fingerprint(urls));
+		FileUtils.writeStringToFile(classFile, "B");
+		classFile.setLastModified(classFile.lastModified() + 2000);
+		String modified = SOAClassLoaderPool.fingerprint(urls);
+		assertFalse(fingerprint.equals(modified));
+		FileUtils.writeStringToFile(new File(root, "classes/org/B.class"), "B");
+		String added = SOAClassLoaderPool.fingerprint(urls);
+		assertFalse(modified.equals(added));
+		new File(root, "classes/org/B.class").delete();
+		assertEquals(modified, SOAClassLoaderPool.fingerprint(urls));
+	}
+
+	/**
+	 * A class recompiled into a class folder gives a new loader.
+	 */
+	@Test
+	public void testAcquireModifiedClassFolder() throws Exception {
+		SOAClassLoaderPool pool = SOAClassLoaderPool.getInstance();
+		File classFile = new File(root, "classes/org/A.class");
+		FileUtils.writeStringToFile(classFile, "old A");
+		SOAPluginClassLoader first = pool.acquire("project", "Codegen",
+				classpath());
+		pool.release(first);
+		SOAPluginClassLoader same = pool.acquire("project", "Codegen",
+				classpath());
+		assertSame(first, same);
+		pool.release(same);
+		FileUtils.writeStringToFile(classFile, "new A");
+		classFile.setLastModified(classFile.lastModified() + 2000);
+		SOAPluginClassLoader second = pool.acquire("project", "Codegen",
+				classpath());
+		assertNotSame(first, second);
+		assertTrue("Stale loader should be disposed", first.isDisposed());
+		assertEquals(1, pool.size());
+		pool.release(second);
+	}
+
+	/**
+	 * Test method for {@link SOAClassLoaderPool#invalidate(String)}.
+	 */
+	@Test
+	public void testInvalidate() throws Exception {
+		SOAClassLoaderPool pool = SOAClassLoaderPool.getInstance();
+		SOAPluginClassLoader loader = pool.acquire("project", "Codegen",
+				classpath());
+		pool.release(loader);
+		pool.invalidate("project");
+		assertTrue(loader.isDisposed());
+		assertEquals(0, pool.size());
+	}
+}
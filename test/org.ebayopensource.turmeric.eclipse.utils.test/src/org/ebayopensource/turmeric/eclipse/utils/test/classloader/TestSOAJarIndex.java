@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.classloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAJarIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SOAJarIndex}.
+ */
+public class TestSOAJarIndex {
+	private File root;
+	private File first;
+	private File second;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestSOAJarIndex");
+		FileUtils.deleteDirectory(root);
+		root.mkdirs();
+		first = createJar("first.jar", "shared.txt", "first");
+		second = createJar("second.jar", "shared.txt", "second");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(root);
+	}
+
+	private File createJar(String name, String entry, String content)
+			throws Exception {
+		File file = new File(root, name);
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+		try {
+			out.putNextEntry(new ZipEntry(entry));
+			out.write(content.getBytes("UTF-8"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry(name + ".txt"));
+			out.write(name.getBytes("UTF-8"));
+			out.closeEntry();
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+		return file;
+	}
+
+	/**
+	 * Test method for {@link SOAJarIndex#readResource(String)}.
+	 */
+	@Test
+	public void testReadResource() throws Exception {
+		SOAJarIndex index = new SOAJarIndex(Arrays.asList(first, second));
+		try {
+			assertEquals("first", new String(index.readResource("shared.txt"),
+					"UTF-8"));
+			assertEquals("second.jar", new String(index
+					.readResource("second.jar.txt"), "UTF-8"));
+			assertNull(index.readResource("missing.txt"));
+			assertNotNull(index.findResource("first.jar.txt"));
+		} finally {
+			index.release();
+		}
+	}
+
+	/**
+	 * Test method for {@link SOAJarIndex#release()}.
+	 */
+	@Test
+	public void testRelease() throws Exception {
+		int openJars = SOAJarIndex.getOpenJarCount();
+		SOAJarIndex index = new SOAJarIndex(Arrays.asList(first, second));
+		SOAJarIndex other = new SOAJarIndex(Arrays.asList(first));
+		index.readResource("shared.txt");
+		other.readResource("shared.txt");
+		assertEquals(openJars + 2, SOAJarIndex.getOpenJarCount());
+		index.release();
+		assertEquals(openJars + 1, SOAJarIndex.getOpenJarCount());
+		assertNull(index.readResource("shared.txt"));
+		assertNotNull(other.readResource("shared.txt"));
+		other.release();
+		assertEquals(openJars, SOAJarIndex.getOpenJarCount());
+	}
+
+	/**
+	 * Test method for {@link SOAJarIndex#findResource(String)}: the streams
+	 * are read from the shared jar, which stays open until they are closed.
+	 */
+	@Test
+	public void testFindResourceStream() throws Exception {
+		int openJars = SOAJarIndex.getOpenJarCount();
+		SOAJarIndex index = new SOAJarIndex(Arrays.asList(first, second));
+		URL url = index.findResource("second.jar.txt");
+		assertEquals(openJars + 2, SOAJarIndex.getOpenJarCount());
+		InputStream in = url.openStream();
+		InputStream other = url.openStream();
+		assertEquals(openJars + 2, SOAJarIndex.getOpenJarCount());
+		index.release();
+		// the open streams still hold the second jar
+		assertEquals(openJars + 1, SOAJarIndex.getOpenJarCount());
+		try {
+			assertEquals("second.jar", IOUtils.toString(in, "UTF-8"));
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		assertEquals(openJars + 1, SOAJarIndex.getOpenJarCount());
+		try {
+			assertEquals("second.jar", IOUtils.toString(other, "UTF-8"));
+		} finally {
+			IOUtils.closeQuietly(other);
+			IOUtils.closeQuietly(other);
+		}
+		assertEquals(openJars, SOAJarIndex.getOpenJarCount());
+	}
+
+	/**
+	 * Test method for {@link SOAJarIndex#findResource(String)}: the url stays
+	 * readable once the index and its jars have been released.
+	 */
+	@Test
+	public void testFindResourceAfterRelease() throws Exception {
+		int openJars = SOAJarIndex.getOpenJarCount();
+		SOAJarIndex index = new SOAJarIndex(Arrays.asList(first, second));
+		URL url = index.findResource("second.jar.txt");
+		index.release();
+		assertEquals(openJars, SOAJarIndex.getOpenJarCount());
+		InputStream in = url.openStream();
+		try {
+			assertEquals("second.jar", IOUtils.toString(in, "UTF-8"));
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.classloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.net.URL;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.utils.classloader.SOAPluginClassLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SOAPluginClassLoader}.
+ */
+public class TestSOAPluginClassLoader {
+	private File root;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestSOAPluginClassLoader");
+		FileUtils.deleteDirectory(root);
+		root.mkdirs();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(root);
+	}
+
+	/**
+	 * Test method for {@link SOAPluginClassLoader#addDirectory(File)}.
+	 */
+	@Test
+	public void testAddDirectory() throws Exception {
+		File existing = new File(root, "meta-src");
+		existing.mkdirs();
+		FileUtils.writeStringToFile(new File(existing, "existing.txt"),
+				"existing");
+		File missing = new File(root, "gen-meta-src");
+
+		SOAPluginClassLoader loader = new SOAPluginClassLoader("test",
+				new URL[] { existing.toURI().toURL() });
+		try {
+			assertEquals(1, loader.getURLs().length);
+			loader.addDirectory(existing);
+			assertEquals(1, loader.getURLs().length);
+
+			loader.addDirectory(missing);
+			assertEquals(2, loader.getURLs().length);
+			assertNull(loader.getResource("missing.txt"));
+
+			FileUtils.writeStringToFile(new File(missing, "missing.txt"),
+					"missing");
+			assertNotNull(loader.getResource("missing.txt"));
+			assertNotNull(loader.getResource("existing.txt"));
+		} finally {
+			loader.dispose();
+		}
+	}
+}
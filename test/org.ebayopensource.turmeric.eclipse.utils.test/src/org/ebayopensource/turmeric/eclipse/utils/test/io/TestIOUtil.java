@@ -20,6 +20,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
 
+import org.apache.commons.io.FileUtils;
 import org.ebayopensource.turmeric.eclipse.utils.io.IOUtil;
 import org.junit.Test;
 
@@ -113,4 +114,23 @@ public class TestIOUtil {
 		}
 	}
 
+	/**
+	 * Test method for {@link org.ebayopensource.turmeric.eclipse.utils.io.IOUtil#digest(java.io.File)}.
+	 * @throws IOException 
+	 */
+	@Test
+	public void testDigest() throws IOException {
+		File file = File.createTempFile("TestIOUtil", ".txt");
+		try {
+			FileUtils.writeStringToFile(file, "hello", "UTF-8");
+			// md5 of "hello"
+			assertEquals("5d41402abc4b2a76b9719d911017c592", IOUtil.digest(file));
+			FileUtils.writeStringToFile(file, "world", "UTF-8");
+			assertFalse("5d41402abc4b2a76b9719d911017c592".equals(IOUtil
+					.digest(file)));
+		} finally {
+			file.delete();
+		}
+	}
+
 }
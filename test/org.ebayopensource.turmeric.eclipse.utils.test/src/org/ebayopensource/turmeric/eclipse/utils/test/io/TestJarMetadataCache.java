@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Properties;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.utils.io.JarMetadataCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JarMetadataCache}.
+ */
+public class TestJarMetadataCache {
+	private static final String METADATA = "META-INF/soa/common/config/Calc/service_metadata.properties";
+	private static final String WSDL = "META-INF/soa/services/wsdl/Calc/Calc.wsdl";
+
+	private File root;
+	private File jar;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestJarMetadataCache");
+		FileUtils.deleteDirectory(root);
+		root.mkdirs();
+		jar = new File(root, "Calc.jar");
+		createJar("1.0.0");
+		JarMetadataCache.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JarMetadataCache.clear();
+		FileUtils.deleteDirectory(root);
+	}
+
+	private void createJar(String version) throws Exception {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry(METADATA));
+			out.write(("service_version=" + version).getBytes("UTF-8"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry(WSDL));
+			out.write("<definitions/>".getBytes("UTF-8"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("other.txt"));
+			out.write("other".getBytes("UTF-8"));
+			out.closeEntry();
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Test method for {@link JarMetadataCache#getProperties(File, String)}.
+	 */
+	@Test
+	public void testGetProperties() throws Exception {
+		Properties props = JarMetadataCache.getProperties(jar, METADATA);
+		assertEquals("1.0.0", props.getProperty("service_version"));
+		props.setProperty("service_version", "modified");
+		assertEquals("1.0.0", JarMetadataCache.getProperties(jar, METADATA)
+				.getProperty("service_version"));
+		assertNull(JarMetadataCache.getProperties(jar,
+				"META-INF/soa/common/config/Other/service_metadata.properties"));
+		assertNull(JarMetadataCache.getProperties(new File(root,
+				"missing.jar"), METADATA));
+	}
+
+	/**
+	 * Test method for {@link JarMetadataCache#getContents(File, String)}.
+	 */
+	@Test
+	public void testGetContents() throws Exception {
+		assertEquals("<definitions/>", new String(JarMetadataCache
+				.getContents(jar, WSDL), "UTF-8"));
+		assertEquals("other", new String(JarMetadataCache.getContents(jar,
+				"other.txt"), "UTF-8"));
+		assertNull(JarMetadataCache.getContents(jar, "missing.txt"));
+	}
+
+	/**
+	 * A changed jar is read again.
+	 */
+	@Test
+	public void testChangedJar() throws Exception {
+		assertEquals("1.0.0", JarMetadataCache.getProperties(jar, METADATA)
+				.getProperty("service_version"));
+		createJar("1.10.0");
+		jar.setLastModified(jar.lastModified() + 2000);
+		assertEquals("1.10.0", JarMetadataCache.getProperties(jar, METADATA)
+				.getProperty("service_version"));
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.utils.io.PathPatternSet;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PathPatternSet}.
+ */
+public class TestPathPatternSet {
+
+	/**
+	 * Test method for {@link PathPatternSet#matches(String)}.
+	 */
+	@Test
+	public void testMatches() {
+		PathPatternSet wsdls = new PathPatternSet(new String[] { "" },
+				"**/*.wsdl");
+		assertTrue(wsdls.matches("Calc.wsdl"));
+		assertTrue(wsdls.matches("meta-src/META-INF/soa/services/wsdl/Calc/Calc.WSDL"));
+		assertFalse(wsdls.matches("meta-src/Calc.wsdl.bak"));
+		assertFalse(wsdls.matches("meta-src/wsdl"));
+
+		PathPatternSet errorDomains = new PathPatternSet(
+				new String[] { "meta-src/META-INF/errorlibrary/" },
+				"*/ErrorData.xml");
+		assertTrue(errorDomains.matches("meta-src/META-INF/errorlibrary/Calc/ErrorData.xml"));
+		assertFalse(errorDomains.matches("meta-src/META-INF/errorlibrary/ErrorData.xml"));
+		assertFalse(errorDomains.matches("meta-src/META-INF/errorlibrary/Calc/x/ErrorData.xml"));
+		assertFalse(errorDomains.matches("meta-src/META-INF/errorlibraryCalc/ErrorData.xml"));
+		assertFalse(errorDomains.matches("gen-meta-src/META-INF/errorlibrary/Calc/ErrorData.xml"));
+		assertFalse(errorDomains.matches("meta-src/META-INF/errorlibrary/Calc/Errors.xml"));
+	}
+
+	/**
+	 * Test method for {@link PathPatternSet#isTraversable(String)}.
+	 */
+	@Test
+	public void testIsTraversable() {
+		PathPatternSet types = new PathPatternSet(
+				new String[] { "meta-src/types" }, "**/*.xsd");
+		assertTrue(types.isTraversable(""));
+		assertTrue(types.isTraversable("meta-src"));
+		assertTrue(types.isTraversable("meta-src/types"));
+		assertTrue(types.isTraversable("meta-src/types/Calc"));
+		assertFalse(types.isTraversable("meta-src/typesOld"));
+		assertFalse(types.isTraversable("meta-src/META-INF"));
+		assertFalse(types.isTraversable("gen-src"));
+
+		PathPatternSet rootFiles = new PathPatternSet(new String[] { "" },
+				"*.properties");
+		assertTrue(rootFiles.isTraversable(""));
+		assertFalse(rootFiles.isTraversable("target"));
+	}
+
+	/**
+	 * Test method for {@link PathPatternSet#listFiles(File)}.
+	 */
+	@Test
+	public void testListFiles() throws Exception {
+		File root = new File(System.getProperty("java.io.tmpdir"),
+				"TestPathPatternSet");
+		FileUtils.deleteDirectory(root);
+		try {
+			for (String path : new String[] { "service.properties",
+					"target/classes/service.properties", "meta-src/Calc.xsd",
+					"meta-src/types/Calc/Calc.XSD", "lib/types.xsd",
+					"meta-src/types/Calc/Calc.java" }) {
+				FileUtils.writeStringToFile(new File(root, path), path);
+			}
+			assertEquals(Arrays.asList("service.properties"),
+					new ArrayList<String>(new PathPatternSet(
+							new String[] { "" }, "*.properties").listFiles(
+							root).keySet()));
+			assertEquals(Arrays.asList("meta-src/Calc.xsd",
+					"meta-src/types/Calc/Calc.XSD"), new ArrayList<String>(
+					new PathPatternSet(new String[] { "meta-src" },
+							"**/*.xsd").listFiles(root).keySet()));
+		} finally {
+			FileUtils.deleteDirectory(root);
+		}
+	}
+}
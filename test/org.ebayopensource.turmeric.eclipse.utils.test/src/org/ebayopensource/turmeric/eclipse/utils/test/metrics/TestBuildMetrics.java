@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics;
+import org.ebayopensource.turmeric.eclipse.utils.metrics.BuildMetrics.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BuildMetrics}.
+ */
+public class TestBuildMetrics {
+	private static final long MILLI = 1000000L;
+
+	@Before
+	public void setUp() throws Exception {
+		BuildMetrics.reset();
+		BuildMetrics.setEnabled(true);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		BuildMetrics.reset();
+		BuildMetrics.setEnabled(true);
+	}
+
+	/**
+	 * Test method for {@link BuildMetrics#record(String, String, long)}.
+	 */
+	@Test
+	public void testRecord() throws Exception {
+		BuildMetrics.record(BuildMetrics.BUILD, "CalcV1", 3 * MILLI);
+		BuildMetrics.record(BuildMetrics.BUILD, "CalcV1", 40 * MILLI);
+		BuildMetrics.record(BuildMetrics.BUILD, "CalcV1Impl", 500000L);
+
+		Timer timer = BuildMetrics.getTimer(BuildMetrics.BUILD, "CalcV1");
+		assertEquals(2, timer.getCount());
+		assertEquals(43, timer.getTotalMillis());
+		assertEquals(3, timer.getMinMillis());
+		assertEquals(40, timer.getMaxMillis());
+		assertEquals(1, timer.getBucketCount(2));
+		assertEquals(1, timer.getBucketCount(6));
+
+		Timer workspace = BuildMetrics.getTimer(BuildMetrics.BUILD, null);
+		assertEquals(3, workspace.getCount());
+		assertEquals(0, workspace.getMinMillis());
+		assertEquals(1, workspace.getBucketCount(0));
+		assertNull(BuildMetrics.getTimer(BuildMetrics.BUILD_REFRESH, null));
+	}
+
+	/**
+	 * Test method for {@link BuildMetrics#increment(String, String)}.
+	 */
+	@Test
+	public void testCounters() throws Exception {
+		BuildMetrics.increment("cache.hit", "CalcV1");
+		BuildMetrics.add("cache.hit", "CalcV1Impl", 2);
+		assertEquals(1, BuildMetrics.getCounter("cache.hit", "CalcV1"));
+		assertEquals(3, BuildMetrics.getCounter("cache.hit", null));
+		assertEquals(0, BuildMetrics.getCounter("cache.miss", null));
+	}
+
+	/**
+	 * Nothing is recorded while the metrics are disabled.
+	 */
+	@Test
+	public void testDisabled() throws Exception {
+		BuildMetrics.setEnabled(false);
+		BuildMetrics.stop(BuildMetrics.BUILD, "CalcV1", BuildMetrics.start());
+		BuildMetrics.increment("cache.hit", "CalcV1");
+		assertNull(BuildMetrics.getTimer(BuildMetrics.BUILD, null));
+		assertEquals(0, BuildMetrics.getCounter("cache.hit", null));
+	}
+
+	/**
+	 * Test method for {@link BuildMetrics#toCSV()} and
+	 * {@link BuildMetrics#toJSON()}.
+	 */
+	@Test
+	public void testSnapshots() throws Exception {
+		BuildMetrics.record(BuildMetrics.MODEL_TRANSFORM, "Calc,\"V1\"",
+				2 * MILLI);
+		BuildMetrics.increment("cache.hit", null);
+
+		String[] lines = BuildMetrics.toCSV().split("\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[0].startsWith("type,name,project,count,totalMs"));
+		assertTrue(lines[1].startsWith("timer,model.transform,,1,2,2,2,0,0,1,"));
+		assertTrue(lines[2].startsWith(
+				"timer,model.transform,\"Calc,\"\"V1\"\"\",1,"));
+		assertEquals("counter,cache.hit,,1", lines[3]);
+
+		String json = BuildMetrics.toJSON();
+		assertTrue(json, json.contains("{\"name\":\"model.transform\","
+				+ "\"project\":\"Calc,\\\"V1\\\"\",\"count\":1,\"totalMs\":2"));
+		assertTrue(json, json.contains(
+				"{\"name\":\"cache.hit\",\"project\":null,\"value\":1}"));
+	}
+}
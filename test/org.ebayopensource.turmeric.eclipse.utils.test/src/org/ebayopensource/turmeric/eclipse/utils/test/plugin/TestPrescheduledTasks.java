@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.ebayopensource.turmeric.eclipse.utils.plugin.PrescheduledTasks;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PrescheduledTasks}.
+ */
+public class TestPrescheduledTasks {
+	private List<Runnable> submitted;
+	private List<String> events;
+	private PrescheduledTasks<String> tasks;
+
+	@Before
+	public void setUp() {
+		submitted = new ArrayList<Runnable>();
+		events = Collections.synchronizedList(new ArrayList<String>());
+		tasks = new PrescheduledTasks<String>(new Executor() {
+			public void execute(Runnable command) {
+				submitted.add(command);
+			}
+		});
+	}
+
+	private void runSubmitted() {
+		for (Runnable runnable : submitted) {
+			runnable.run();
+		}
+		submitted.clear();
+	}
+
+	/**
+	 * Test method for {@link PrescheduledTasks#submitReady(IProgressMonitor)}:
+	 * a task is only prepared and submitted once its dependencies are
+	 * finished.
+	 */
+	@Test
+	public void testSubmitReadyOrdering() throws Exception {
+		tasks.schedule("intf", new RecordingTask(null, null), Arrays
+				.asList("typelib"));
+		tasks.schedule("other", new RecordingTask(null, null), Collections
+				.<String> emptyList());
+		tasks.submitReady(new NullProgressMonitor());
+		assertEquals(Arrays.asList("prepare other"), events);
+		assertEquals(1, submitted.size());
+
+		tasks.finished("typelib");
+		tasks.submitReady(new NullProgressMonitor());
+		assertEquals(Arrays.asList("prepare other", "prepare intf"), events);
+		runSubmitted();
+		assertEquals(Arrays.asList("prepare other", "prepare intf",
+				"run other", "run intf"), events);
+	}
+
+	/**
+	 * Test method for {@link PrescheduledTasks#claim(Object)}: a task which
+	 * has not been submitted is cancelled.
+	 */
+	@Test
+	public void testClaimPending() throws Exception {
+		tasks.schedule("intf", new RecordingTask(null, null), Arrays
+				.asList("typelib"));
+		assertFalse(tasks.claim("intf"));
+		assertFalse(tasks.isScheduled("intf"));
+		assertFalse(tasks.await("intf", null));
+
+		tasks.finished("typelib");
+		tasks.submitReady(new NullProgressMonitor());
+		assertTrue(submitted.isEmpty());
+		assertTrue(events.isEmpty());
+	}
+
+	/**
+	 * Test method for {@link PrescheduledTasks#await(Object, IProgressMonitor)}.
+	 */
+	@Test
+	public void testAwait() throws Exception {
+		tasks.schedule("intf", new RecordingTask(null, null), Collections
+				.<String> emptyList());
+		tasks.submitReady(new NullProgressMonitor());
+		assertTrue(tasks.claim("intf"));
+		final Thread worker = new Thread() {
+			@Override
+			public void run() {
+				runSubmitted();
+			}
+		};
+		worker.start();
+		assertTrue(tasks.await("intf", new NullProgressMonitor()));
+		worker.join();
+		assertEquals(Arrays.asList("prepare intf", "run intf"), events);
+		assertFalse(tasks.isScheduled("intf"));
+	}
+
+	/**
+	 * Test method for {@link PrescheduledTasks#await(Object, IProgressMonitor)}:
+	 * the failure of the task or of its preparation is thrown to the driving
+	 * thread.
+	 */
+	@Test
+	public void testAwaitFailure() throws Exception {
+		final Exception prepareError = new Exception("prepare");
+		final Exception runError = new Exception("run");
+		tasks.schedule("prepare", new RecordingTask(prepareError, null),
+				Collections.<String> emptyList());
+		tasks.schedule("run", new RecordingTask(null, runError), Collections
+				.<String> emptyList());
+		tasks.submitReady(new NullProgressMonitor());
+		assertEquals(1, submitted.size());
+		runSubmitted();
+		assertTrue(tasks.claim("prepare"));
+		assertTrue(tasks.claim("run"));
+		try {
+			tasks.await("prepare", null);
+			fail("the preparation failure must be thrown");
+		} catch (Exception e) {
+			assertSame(prepareError, e);
+		}
+		try {
+			tasks.await("run", null);
+			fail("the task failure must be thrown");
+		} catch (Exception e) {
+			assertSame(runError, e);
+		}
+		assertEquals(Arrays.asList("prepare prepare", "prepare run",
+				"run run"), events);
+	}
+
+	/**
+	 * Test method for {@link PrescheduledTasks#cancel()}: the submitted tasks
+	 * still run, the others are cancelled and nothing is scheduled anymore.
+	 */
+	@Test
+	public void testCancel() throws Exception {
+		tasks.schedule("intf", new RecordingTask(null, null), Collections
+				.<String> emptyList());
+		tasks.submitReady(new NullProgressMonitor());
+		tasks.schedule("pending", new RecordingTask(null, null), Arrays
+				.asList("typelib"));
+		tasks.cancel();
+		tasks.schedule("late", new RecordingTask(null, null), Collections
+				.<String> emptyList());
+		tasks.finished("typelib");
+		tasks.submitReady(new NullProgressMonitor());
+		runSubmitted();
+		assertEquals(Arrays.asList("prepare intf", "run intf"), events);
+		assertFalse(tasks.claim("pending"));
+		assertFalse(tasks.claim("late"));
+	}
+
+	private class RecordingTask implements PrescheduledTasks.ITask<String> {
+		private final Exception prepareError;
+		private final Exception runError;
+
+		RecordingTask(Exception prepareError, Exception runError) {
+			this.prepareError = prepareError;
+			this.runError = runError;
+		}
+
+		public void prepare(String key, IProgressMonitor monitor)
+				throws Exception {
+			events.add("prepare " + key);
+			if (prepareError != null) {
+				throw prepareError;
+			}
+		}
+
+		public void run(String key) throws Exception {
+			events.add("run " + key);
+			if (runError != null) {
+				throw runError;
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.plugin;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.utils.plugin.WorkspaceBatch;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorkspaceBatch}.
+ */
+public class TestWorkspaceBatch {
+	private IProject project;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(
+				TestWorkspaceBatch.class.getSimpleName() + "Project");
+		if (project.exists() == false) {
+			project.create(new NullProgressMonitor());
+		}
+		project.open(new NullProgressMonitor());
+		// known to the workspace
+		project.getFolder("parent").create(true, true, new NullProgressMonitor());
+		project.getFolder("parent/child").create(true, true,
+				new NullProgressMonitor());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		while (WorkspaceBatch.isActive()) {
+			WorkspaceBatch.end(new NullProgressMonitor());
+		}
+		project.delete(true, true, new NullProgressMonitor());
+	}
+
+	/**
+	 * Writes a file behind the workspace.
+	 */
+	private IFile write(String path) throws Exception {
+		final IFile file = project.getFile(path);
+		FileUtils.writeStringToFile(new File(project.getLocation().toFile(),
+				path), path);
+		return file;
+	}
+
+	/**
+	 * Test method for {@link WorkspaceBatch#refresh(IResource, int)}: outside
+	 * of a batch the resource is refreshed right away.
+	 */
+	@Test
+	public void testRefreshWithoutBatch() throws Exception {
+		Assert.assertFalse(WorkspaceBatch.isActive());
+		final IFile file = write("parent/a.txt");
+		WorkspaceBatch.refresh(file, IResource.DEPTH_ZERO);
+		Assert.assertTrue(file.exists());
+	}
+
+	/**
+	 * Test method for {@link WorkspaceBatch#end(org.eclipse.core.runtime.IProgressMonitor)}:
+	 * only the outermost of nested batches refreshes, the refreshes of the
+	 * inner batches included.
+	 */
+	@Test
+	public void testNestedBatches() throws Exception {
+		final IFile outer = write("parent/outer.txt");
+		final IFile inner = write("parent/inner.txt");
+		WorkspaceBatch.begin();
+		try {
+			WorkspaceBatch.refresh(outer, IResource.DEPTH_ZERO);
+			WorkspaceBatch.begin();
+			try {
+				WorkspaceBatch.refresh(inner, IResource.DEPTH_ZERO);
+			} finally {
+				WorkspaceBatch.end(new NullProgressMonitor());
+			}
+			Assert.assertTrue(WorkspaceBatch.isActive());
+			Assert.assertFalse(outer.exists());
+			Assert.assertFalse(inner.exists());
+		} finally {
+			WorkspaceBatch.end(new NullProgressMonitor());
+		}
+		Assert.assertFalse(WorkspaceBatch.isActive());
+		Assert.assertTrue(outer.exists());
+		Assert.assertTrue(inner.exists());
+
+		// an unbalanced end does nothing
+		WorkspaceBatch.end(new NullProgressMonitor());
+		Assert.assertFalse(WorkspaceBatch.isActive());
+	}
+
+	/**
+	 * Test method for {@link WorkspaceBatch#refresh(IResource, int)}: a
+	 * DEPTH_ONE refresh of a folder covers the DEPTH_ZERO refresh of a
+	 * child, but not the DEPTH_ONE refresh of a child folder, whose own
+	 * children it does not reach.
+	 */
+	@Test
+	public void testDepthOneParent() throws Exception {
+		final IFile file = write("parent/a.txt");
+		final IFile grandChild = write("parent/child/b.txt");
+		WorkspaceBatch.begin();
+		try {
+			WorkspaceBatch.refresh(project.getFolder("parent"),
+					IResource.DEPTH_ONE);
+			WorkspaceBatch.refresh(file, IResource.DEPTH_ZERO);
+			WorkspaceBatch.refresh(project.getFolder("parent/child"),
+					IResource.DEPTH_ONE);
+		} finally {
+			WorkspaceBatch.end(new NullProgressMonitor());
+		}
+		Assert.assertTrue(file.exists());
+		Assert.assertTrue(grandChild.exists());
+	}
+
+	/**
+	 * Test method for {@link WorkspaceBatch#refresh(IResource, int)}: a
+	 * DEPTH_ZERO refresh of a folder does not cover its children, the
+	 * deepest depth requested for a resource wins.
+	 */
+	@Test
+	public void testDepthZeroParent() throws Exception {
+		final IFile file = write("parent/a.txt");
+		final IFile other = write("parent/child/other.txt");
+		WorkspaceBatch.begin();
+		try {
+			WorkspaceBatch.refresh(project.getFolder("parent"),
+					IResource.DEPTH_ZERO);
+			WorkspaceBatch.refresh(file, IResource.DEPTH_ZERO);
+			WorkspaceBatch.refresh(project.getFolder("parent/child"),
+					IResource.DEPTH_ONE);
+			WorkspaceBatch.refresh(project.getFolder("parent/child"),
+					IResource.DEPTH_ZERO);
+		} finally {
+			WorkspaceBatch.end(new NullProgressMonitor());
+		}
+		Assert.assertTrue(file.exists());
+		Assert.assertTrue(other.exists());
+	}
+
+	/**
+	 * Test method for {@link WorkspaceBatch#refresh(IResource, int)}: a
+	 * DEPTH_INFINITE refresh of an ancestor covers everything below it,
+	 * whatever the depth and the order of the other refreshes.
+	 */
+	@Test
+	public void testDepthInfiniteAncestor() throws Exception {
+		final IFile deep = write("parent/child/deep/c.txt");
+		final IFile unrequested = write("parent/child/d.txt");
+		WorkspaceBatch.begin();
+		try {
+			WorkspaceBatch.refresh(deep, IResource.DEPTH_ZERO);
+			WorkspaceBatch.refresh(project.getFolder("parent/child"),
+					IResource.DEPTH_ZERO);
+			WorkspaceBatch.refresh(project, IResource.DEPTH_INFINITE);
+			Assert.assertFalse(deep.exists());
+		} finally {
+			WorkspaceBatch.end(new NullProgressMonitor());
+		}
+		Assert.assertTrue(deep.exists());
+		Assert.assertTrue(unrequested.exists());
+	}
+}
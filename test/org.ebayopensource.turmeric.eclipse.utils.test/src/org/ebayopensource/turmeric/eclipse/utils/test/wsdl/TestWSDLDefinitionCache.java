@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.wsdl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import javax.wsdl.Definition;
+
+import org.apache.commons.io.FileUtils;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLDefinitionCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WSDLDefinitionCache}.
+ */
+public class TestWSDLDefinitionCache {
+	private static final String NAMESPACE = "http://www.ebayopensource.org/turmeric/v1/services";
+
+	private File root;
+	private File wsdlFile;
+	private File xsdFile;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestWSDLDefinitionCache");
+		FileUtils.deleteDirectory(root);
+		root.mkdirs();
+		wsdlFile = new File(root, "Sample.wsdl");
+		FileUtils.writeStringToFile(wsdlFile,
+				"<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\""
+						+ " xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\""
+						+ " targetNamespace=\"" + NAMESPACE + "\">"
+						+ "<wsdl:types><xsd:schema targetNamespace=\""
+						+ NAMESPACE + "\"><xsd:include schemaLocation=\"Sample.xsd\"/>"
+						+ "</xsd:schema></wsdl:types></wsdl:definitions>", "UTF-8");
+		xsdFile = new File(root, "Sample.xsd");
+		writeSchema("<xsd:element name=\"sample\" type=\"xsd:string\"/>");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		WSDLDefinitionCache.clear();
+		FileUtils.deleteDirectory(root);
+	}
+
+	private void writeSchema(String content) throws Exception {
+		FileUtils.writeStringToFile(xsdFile,
+				"<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\""
+						+ " targetNamespace=\"" + NAMESPACE + "\">" + content
+						+ "</xsd:schema>", "UTF-8");
+	}
+
+	/**
+	 * Test method for {@link WSDLDefinitionCache#getDefinition(String)}.
+	 */
+	@Test
+	public void testGetDefinition() throws Exception {
+		Definition wsdl = WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath());
+		assertEquals(NAMESPACE, wsdl.getTargetNamespace());
+		assertSame(wsdl, WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath()));
+
+		// a changed include is a changed wsdl
+		writeSchema("<xsd:element name=\"other\" type=\"xsd:string\"/>");
+		Definition changed = WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath());
+		assertNotSame(wsdl, changed);
+		assertSame(changed, WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath()));
+
+		WSDLDefinitionCache.invalidate(xsdFile);
+		assertNotSame(changed, WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath()));
+	}
+
+	/**
+	 * The cached definitions can not be modified.
+	 */
+	@Test
+	public void testReadOnly() throws Exception {
+		Definition wsdl = WSDLDefinitionCache.getDefinition(wsdlFile
+				.getAbsolutePath());
+		try {
+			wsdl.setTargetNamespace("urn:changed");
+			fail("the definition should be read only");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			wsdl.getNamespaces().clear();
+			fail("the namespaces should be read only");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(NAMESPACE, wsdl.getTargetNamespace());
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.wsdl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+
+import javax.wsdl.Definition;
+import javax.wsdl.WSDLException;
+
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLMetadataSniffer;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLMetadataSniffer.WSDLMetadata;
+import org.ebayopensource.turmeric.eclipse.utils.wsdl.WSDLUtil;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WSDLMetadataSniffer}.
+ */
+public class TestWSDLMetadataSniffer {
+
+	/**
+	 * Test method for {@link WSDLMetadataSniffer#getTargetNamespace(String)}.
+	 */
+	@Test
+	public void testGetTargetNamespace() throws Exception {
+		URL url = TestWSDLMetadataSniffer.class.getResource("Calc.wsdl");
+		assertNotNull("could not find the wsdl file", url);
+		assertEquals("http://www.ebayopensource.org/turmeric/v1/services",
+				WSDLMetadataSniffer.getTargetNamespace(url.toExternalForm()));
+	}
+
+	/**
+	 * The sniffed metadata is the same as the one of the parsed definition.
+	 */
+	@Test
+	public void testGetMetadata() throws Exception {
+		URL url = TestWSDLMetadataSniffer.class.getResource("Calc.wsdl");
+		assertNotNull("could not find the wsdl file", url);
+		Definition wsdl = WSDLUtil.readWSDL(url.toExternalForm());
+		WSDLMetadata metadata = WSDLMetadataSniffer.getMetadata(url
+				.toExternalForm());
+		assertEquals(wsdl.getTargetNamespace(), metadata.getTargetNamespace());
+		assertEquals(WSDLUtil.getServiceNameFromWSDL(wsdl), metadata
+				.getServiceName());
+		assertEquals(WSDLUtil.getServiceLocationFromWSDL(wsdl), metadata
+				.getServiceLocation());
+	}
+
+	/**
+	 * Test method for {@link WSDLMetadataSniffer#getMetadata(InputStream)}:
+	 * a document without root element is rejected.
+	 */
+	@Test
+	public void testGetMetadataNoRootElement() throws Exception {
+		for (String content : new String[] { "",
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?><!-- no wsdl -->" }) {
+			try {
+				WSDLMetadataSniffer.getMetadata(new ByteArrayInputStream(
+						content.getBytes("UTF-8")));
+				fail("a WSDLException must be thrown for: " + content);
+			} catch (WSDLException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2010 eBay Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *******************************************************************************/
+package org.ebayopensource.turmeric.eclipse.utils.test.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import javax.xml.bind.JAXB;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.ebayopensource.turmeric.eclipse.utils.xml.JAXBContextCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JAXBContextCache}.
+ */
+public class TestJAXBContextCache {
+	private File root;
+
+	/**
+	 * A bound type without a root element, like the generated config types.
+	 */
+	@XmlAccessorType(XmlAccessType.FIELD)
+	@XmlType(name = "SampleType")
+	public static class SampleType {
+		@XmlAttribute
+		private String name;
+		@XmlElement
+		private String value;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"),
+				"TestJAXBContextCache");
+		FileUtils.deleteDirectory(root);
+		root.mkdirs();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		JAXBContextCache.clear();
+		FileUtils.deleteDirectory(root);
+	}
+
+	/**
+	 * Test method for {@link JAXBContextCache#marshal(Object, File)}.
+	 */
+	@Test
+	public void testMarshal() throws Exception {
+		SampleType sample = new SampleType();
+		sample.name = "sample";
+		sample.value = "value";
+		File expected = new File(root, "expected.xml");
+		File actual = new File(root, "actual.xml");
+		JAXB.marshal(sample, expected);
+		JAXBContextCache.marshal(sample, actual);
+		assertEquals(FileUtils.readFileToString(expected, "UTF-8"), FileUtils
+				.readFileToString(actual, "UTF-8"));
+		// a pooled marshaller gives the same result
+		JAXBContextCache.marshal(sample, actual);
+		assertEquals(FileUtils.readFileToString(expected, "UTF-8"), FileUtils
+				.readFileToString(actual, "UTF-8"));
+	}
+
+	/**
+	 * Test method for {@link JAXBContextCache#unmarshal(InputStream, Class)}.
+	 */
+	@Test
+	public void testUnmarshal() throws Exception {
+		SampleType sample = new SampleType();
+		sample.name = "sample";
+		sample.value = "value";
+		File file = new File(root, "sample.xml");
+		JAXBContextCache.marshal(sample, file);
+		for (int i = 0; i < 2; i++) {
+			InputStream input = new FileInputStream(file);
+			try {
+				SampleType result = JAXBContextCache.unmarshal(input,
+						SampleType.class);
+				assertEquals("sample", result.name);
+				assertEquals("value", result.value);
+			} finally {
+				IOUtils.closeQuietly(input);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link JAXBContextCache#getContext(Class)}.
+	 */
+	@Test
+	public void testGetContext() throws Exception {
+		assertSame(JAXBContextCache.getContext(SampleType.class),
+				JAXBContextCache.getContext(SampleType.class));
+	}
+}